@@ -25,6 +25,10 @@ import java.util.List;
 import java.util.Set;
 
 import org.onap.sdc.common.onaplog.enums.LogLevel;
+import org.onap.sdc.dcae.checker.CheckerException;
+import org.onap.sdc.dcae.checker.CheckerRuntime;
+import org.onap.sdc.dcae.client.CachingSdcClient;
+import org.onap.sdc.dcae.client.SdcRestClient;
 import org.onap.sdc.dcae.composition.CompositionConfig;
 import org.onap.sdc.dcae.errormng.ActionStatus;
 import org.onap.sdc.dcae.errormng.ErrConfMgr;
@@ -48,6 +52,12 @@ public class ConfigurationController extends BaseController {
     @Autowired
     private CompositionConfig compositionConfig;
 
+    @Autowired
+    private CachingSdcClient cachingSdcClient;
+
+    @Autowired
+    private SdcRestClient sdcRestClient;
+
     @ApiOperation(value = "Get a list of available flow types", response = CompositionConfig.class)
     @ApiResponses(value = {
                 @ApiResponse(code = 200, message = "Successfully retrieved available flow types list"),
@@ -76,6 +86,12 @@ public class ConfigurationController extends BaseController {
         }
     }
 
+	@ApiOperation(value = "Get the file, size and load time of each loaded ves schema version")
+	@RequestMapping(value = "/ves/schemas", method = RequestMethod.GET)
+	public ResponseEntity getVesSchemaStatistics() {
+		return new ResponseEntity<>(VesStructureLoader.getStatistics(), HttpStatus.OK);
+	}
+
 	@RequestMapping(value = "/getPhases/{flowType}", method = RequestMethod.GET)
 	public ResponseEntity getPhasesByFlowType(@PathVariable String flowType) {
 		try {
@@ -92,5 +108,26 @@ public class ConfigurationController extends BaseController {
 		}
 	}
 
+	@ApiOperation(value = "Get hit/miss statistics of the SDC resource and artifact caches")
+	@RequestMapping(value = "/sdc/cache", method = RequestMethod.GET)
+	public ResponseEntity getSdcCacheStatistics() {
+		return new ResponseEntity<>(cachingSdcClient.getStatistics(), HttpStatus.OK);
+	}
 
+	@ApiOperation(value = "Get usage and lease wait statistics of the SDC connection pool")
+	@RequestMapping(value = "/sdc/pool", method = RequestMethod.GET)
+	public ResponseEntity getSdcPoolStatistics() {
+		return new ResponseEntity<>(sdcRestClient.getPoolStatistics(), HttpStatus.OK);
+	}
+
+	@ApiOperation(value = "Get how many times each checker hook was invoked since startup")
+	@RequestMapping(value = "/checker/hooks", method = RequestMethod.GET)
+	public ResponseEntity getCheckerHookStatistics() {
+		try {
+			return new ResponseEntity<>(CheckerRuntime.getDefault().hookInvocations(), HttpStatus.OK);
+		} catch (CheckerException e) {
+			debugLogger.log(LogLevel.DEBUG, this.getClass().getName(),"Exception:{}",e);
+			return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.GENERAL_ERROR);
+		}
+	}
 }
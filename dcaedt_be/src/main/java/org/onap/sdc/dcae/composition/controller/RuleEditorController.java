@@ -30,9 +30,18 @@ import org.onap.sdc.dcae.errormng.ErrConfMgr;
 import org.onap.sdc.dcae.rule.editor.utils.RulesPayloadUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 
 
 @RestController
@@ -44,6 +53,8 @@ public class RuleEditorController extends BaseController {
     @Autowired
     private RuleEditorBusinessLogic ruleEditorBusinessLogic;
 
+    private static final String NDJSON = "application/x-ndjson";
+
     @RequestMapping(value = "/list-events-by-versions", method = RequestMethod.GET)
     public ResponseEntity getEventsByVersion() {
 
@@ -53,10 +64,11 @@ public class RuleEditorController extends BaseController {
 
     @RequestMapping(value = {"/definition/{version:.*}/{eventType}"}, method = {RequestMethod.GET}, produces = {"application/json"})
     public ResponseEntity getDefinition(@PathVariable("version") String version,
-                                        @PathVariable("eventType") String eventType) {
+                                        @PathVariable("eventType") String eventType,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Starting getDefinition", version);
-        return ruleEditorBusinessLogic.getDefinition(version, eventType);
+        return ruleEditorBusinessLogic.getDefinition(version, eventType, ifNoneMatch);
     }
 
     /**
@@ -86,6 +98,19 @@ public class RuleEditorController extends BaseController {
     }
 
 
+	/**
+	 * This endpoint functions as a batch 'create/update/delete' service for rules of a single rules artifact
+	 *
+	 * @param json - json holding the vfcmtUuid, dcaeCompLabel, nid and configParam of the rules artifact and the list of
+	 *             operations to apply in order, each one either {"operation":"save","rule":{...}} or {"operation":"delete","ruleUid":"..."}
+	 * @return the result of each operation. The rules artifact is saved and the VFCMT checked in once, only if all operations succeed
+	 */
+	@RequestMapping(value = "/rule/batch", method = {RequestMethod.POST}, produces = "application/json")
+	public ResponseEntity editRules(@RequestBody String json, @ModelAttribute("requestId") String requestId, @RequestHeader("USER_ID") String userId) {
+		debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Starting editRules", json);
+		return ruleEditorBusinessLogic.editRules(json, requestId, userId);
+	}
+
 	@RequestMapping(value = "/applyFilter", method = {RequestMethod.POST}, produces = "application/json")
 	public ResponseEntity applyFilter(@RequestBody String json, @ModelAttribute("requestId") String requestId, @RequestHeader("USER_ID") String userId) {
 		debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Starting applyFilter", json);
@@ -114,10 +139,11 @@ public class RuleEditorController extends BaseController {
             @PathVariable("dcaeCompLabel") String dcaeCompLabel,
             @PathVariable("nid") String nid,
             @PathVariable("configParam") String configParam,
-            @ModelAttribute("requestId") String requestId) {
+            @ModelAttribute("requestId") String requestId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Starting getRulesAndSchema", vfcmtUuid);
-        return ruleEditorBusinessLogic.getRulesAndSchema(vfcmtUuid, dcaeCompLabel, nid, configParam, requestId);
+        return ruleEditorBusinessLogic.getRulesAndSchema(vfcmtUuid, dcaeCompLabel, nid, configParam, requestId, ifNoneMatch);
     }
 
 	// 1810 US436244 MC table
@@ -128,10 +154,11 @@ public class RuleEditorController extends BaseController {
 			@PathVariable String dcaeCompLabel,
 			@PathVariable String nid,
 			@PathVariable String configParam,
-			@ModelAttribute("requestId") String requestId) {
+			@ModelAttribute("requestId") String requestId,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
 		debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Starting getRulesAndSchema", vfcmtUuid);
-		return ruleEditorBusinessLogic.getRulesAndSchema(vfcmtUuid, dcaeCompLabel, nid, configParam, requestId);
+		return ruleEditorBusinessLogic.getRulesAndSchema(vfcmtUuid, dcaeCompLabel, nid, configParam, requestId, ifNoneMatch);
 	}
 
 	@RequestMapping(value = "/export/{vfcmtUuid}/{dcaeCompLabel}/{nid}/{configParam:.*}", method = {RequestMethod.GET}, produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
@@ -265,6 +292,63 @@ public class RuleEditorController extends BaseController {
 	}
 
 
+	/**
+	 * This endpoint runs a corpus of sample events through the rules of a rules artifact, the way the mapper would once
+	 * they are translated and deployed
+	 *
+	 * @param events      - the events, either a json array of events or one event per line (ndjson). The events are streamed
+	 * @param entryPhase  - the translation entry phase
+	 * @param publishPhase - the translation publish phase
+	 * @param maxResults  - the number of events whose changes are returned
+	 * @return hits per rule, the changes made to the first events and the processing time distribution
+	 */
+	@RequestMapping(value = "/dryrun/{vfcmtUuid}/{dcaeCompLabel}/{nid}/{configParam:.*}", method = {RequestMethod.POST}, consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON, MediaType.TEXT_PLAIN_VALUE}, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity dryRun(InputStream events, @ModelAttribute("requestId") String requestId,
+								 @PathVariable String vfcmtUuid,
+								 @PathVariable String dcaeCompLabel,
+								 @PathVariable String nid,
+								 @PathVariable String configParam,
+								 @RequestParam String entryPhase,
+								 @RequestParam String publishPhase,
+								 @RequestParam(required = false) String notifyId,
+								 @RequestParam(defaultValue = "100") int maxResults) {
+
+		debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Starting dryRun", vfcmtUuid);
+		TranslateRequest request = buildTranslateRequest(vfcmtUuid, dcaeCompLabel, nid, configParam, entryPhase, publishPhase, notifyId);
+		return ruleEditorBusinessLogic.dryRun(request, new InputStreamReader(events, StandardCharsets.UTF_8), maxResults, requestId);
+	}
+
+	// the same dry run with the events uploaded as an ndjson file
+	@RequestMapping(value = "/dryrun/{vfcmtUuid}/{dcaeCompLabel}/{nid}/{configParam:.*}", method = {RequestMethod.POST}, consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity dryRun(@RequestParam("file") MultipartFile file, @ModelAttribute("requestId") String requestId,
+								 @PathVariable String vfcmtUuid,
+								 @PathVariable String dcaeCompLabel,
+								 @PathVariable String nid,
+								 @PathVariable String configParam,
+								 @RequestParam String entryPhase,
+								 @RequestParam String publishPhase,
+								 @RequestParam(required = false) String notifyId,
+								 @RequestParam(defaultValue = "100") int maxResults) throws IOException {
+
+		debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Starting dryRun of {}", file.getOriginalFilename());
+		TranslateRequest request = buildTranslateRequest(vfcmtUuid, dcaeCompLabel, nid, configParam, entryPhase, publishPhase, notifyId);
+		try (InputStream events = file.getInputStream()) {
+			return ruleEditorBusinessLogic.dryRun(request, new InputStreamReader(events, StandardCharsets.UTF_8), maxResults, requestId);
+		}
+	}
+
+	private TranslateRequest buildTranslateRequest(String vfcmtUuid, String dcaeCompLabel, String nid, String configParam, String entryPhase, String publishPhase, String notifyId) {
+		Map<String, String> fields = new HashMap<>();
+		fields.put("vfcmtUuid", vfcmtUuid);
+		fields.put("dcaeCompLabel", dcaeCompLabel);
+		fields.put("nid", nid);
+		fields.put("configParam", configParam);
+		fields.put("entryPhase", entryPhase);
+		fields.put("publishPhase", publishPhase);
+		fields.put("notifyId", notifyId);
+		return gson.fromJson(gson.toJsonTree(fields), TranslateRequest.class);
+	}
+
     @RequestMapping(value = "/getExistingRuleTargets/{vfcmtUuid}/{dcaeCompLabel}/{nid:.*}", method = {RequestMethod.GET}, produces = "application/json")
     public ResponseEntity getExistingRuleTargets(@PathVariable("vfcmtUuid") String vfcmtUuid, @ModelAttribute("requestId") String requestId,
                                                  @PathVariable("dcaeCompLabel") String dcaeCompLabel,
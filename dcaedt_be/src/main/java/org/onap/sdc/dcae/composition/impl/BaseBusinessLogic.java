@@ -26,6 +26,7 @@ import org.apache.commons.lang.StringUtils;
 import org.onap.sdc.common.onaplog.enums.LogLevel;
 import org.onap.sdc.common.onaplog.OnapLoggerDebug;
 import org.onap.sdc.common.onaplog.OnapLoggerError;
+import org.onap.sdc.dcae.client.ISdcAsyncClient;
 import org.onap.sdc.dcae.client.ISdcClient;
 import org.onap.sdc.dcae.composition.restmodels.CreateMcResponse;
 import org.onap.sdc.dcae.composition.restmodels.ReferenceUUID;
@@ -42,6 +43,7 @@ import org.onap.sdc.dcae.errormng.ResponseFormat;
 import org.onap.sdc.dcae.utils.Normalizers;
 import org.onap.sdc.dcae.utils.SdcRestClientUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Base64Utils;
@@ -65,6 +67,14 @@ public class BaseBusinessLogic {
     @Autowired
     protected ISdcClient sdcRestClient;
 
+    // reads that must see the current state of SDC, bypassing the cache in front of sdcRestClient
+    @Autowired
+    @Qualifier("sdcrestclient")
+    protected ISdcClient uncachedSdcRestClient;
+
+    @Autowired
+    protected ISdcAsyncClient sdcAsyncClient;
+
     protected static OnapLoggerError errLogger = OnapLoggerError.getInstance();
     protected static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
 
@@ -78,8 +88,26 @@ public class BaseBusinessLogic {
     	return systemProperties;
 	}
 
+    public ISdcClient getUncachedSdcRestClient() {
+        return uncachedSdcRestClient;
+    }
+
+    // without a cache in front of it, the client serves both kinds of reads
     void setSdcRestClient(ISdcClient sdcRestClient) {
         this.sdcRestClient = sdcRestClient;
+        this.uncachedSdcRestClient = sdcRestClient;
+    }
+
+    void setUncachedSdcRestClient(ISdcClient uncachedSdcRestClient) {
+        this.uncachedSdcRestClient = uncachedSdcRestClient;
+    }
+
+    public ISdcAsyncClient getSdcAsyncClient() {
+        return sdcAsyncClient;
+    }
+
+    void setSdcAsyncClient(ISdcAsyncClient sdcAsyncClient) {
+        this.sdcAsyncClient = sdcAsyncClient;
     }
 
     Artifact cloneArtifactToTarget(String userId, String targetId, String payload, Artifact artifactToClone, String requestId) throws JsonProcessingException {
@@ -28,8 +28,10 @@ import org.onap.sdc.dcae.composition.restmodels.MessageResponse;
 import org.onap.sdc.dcae.composition.restmodels.VfcmtData;
 import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
 import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
+import org.onap.sdc.dcae.enums.ArtifactType;
 import org.onap.sdc.dcae.errormng.ActionStatus;
 import org.onap.sdc.dcae.errormng.ErrConfMgr;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpStatus;
@@ -39,24 +41,69 @@ import org.springframework.util.Base64Utils;
 import org.springframework.web.client.RestTemplate;
 import org.yaml.snakeyaml.Yaml;
 
-import java.io.ByteArrayInputStream;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 @Component
 @ConfigurationProperties(prefix="blueprinter")
 public class BlueprintBusinessLogic extends CompositionBusinessLogic {
 
+	private static final int DEFAULT_FETCH_THREADS = 8;
+	private static final long DEFAULT_FETCH_TIMEOUT = 60000;
+
 	private String uri;
+	private int fetchThreads = DEFAULT_FETCH_THREADS;
+	private long fetchTimeout = DEFAULT_FETCH_TIMEOUT;
+	private ThreadPoolExecutor fetchExecutor;
+
+	@Autowired
+	private CompositionCatalogBusinessLogic compositionCatalogBusinessLogic;
 
 	public void setUri(String uri) {
 		this.uri = uri;
 	}
 
+	// threads unzipping and encoding the fetched component models. The SDC requests themselves hold no thread
+	public synchronized void setFetchThreads(int fetchThreads) {
+		this.fetchThreads = fetchThreads;
+		if (null != fetchExecutor) {
+			fetchExecutor.setCorePoolSize(fetchThreads);
+			fetchExecutor.setMaximumPoolSize(fetchThreads);
+		}
+	}
+
+	// time (ms) allowed for fetching all the component models of a composition
+	public void setFetchTimeout(long fetchTimeout) {
+		this.fetchTimeout = fetchTimeout;
+	}
+
+	@PreDestroy
+	public synchronized void shutdown() {
+		if (null != fetchExecutor) {
+			fetchExecutor.shutdownNow();
+		}
+	}
+
+	// model extraction gets its own threads rather than the http client's or the common fork join pool
+	private synchronized ExecutorService fetchExecutor() {
+		if (null == fetchExecutor) {
+			AtomicInteger threads = new AtomicInteger();
+			fetchExecutor = new ThreadPoolExecutor(fetchThreads, fetchThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+				Thread thread = new Thread(r, "blueprint-fetch-" + threads.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			fetchExecutor.allowCoreThreadTimeOut(true);
+		}
+		return fetchExecutor;
+	}
+
     public ResponseEntity generateAndSaveBlueprint(String userId, String context, String vfcmtUuid, String serviceUuid, String vfiName, String flowType, String requestId) {
         try {
             // prepare - fetch vfcmt and cdump
@@ -110,13 +157,11 @@ public class BlueprintBusinessLogic extends CompositionBusinessLogic {
 		debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "fetched cdump payload: {}", cdump);
 		Map	cdumpToTosca = new Recycler().recycle(new StringReader(cdump));
 		Set<String> dcaeComponentsUuids = extractComponentUuids(cdumpToTosca);
-		List<Map> extractedModels = Collections.synchronizedSet(dcaeComponentsUuids).parallelStream().map(id -> fetchAndExtractModel(id, requestId)).filter(Objects::nonNull).collect(Collectors.toList());
-		// aggregation of parallel stream fetch results - exceptions are swallowed and we check the final size to verify no errors occurred
-		if(dcaeComponentsUuids.size() != extractedModels.size()) {
-			errLogger.log(LogLevel.ERROR, this.getClass().getName(), "error: {} distinct DCAE components were mapped to {} tosca lab input models.", dcaeComponentsUuids.size(), extractedModels.size());
+		List<Map> extractedModels = fetchModels(dcaeComponentsUuids, requestId);
+		if(null == extractedModels) {
 			return null;
 		}
-		return new Gson().toJson(new ToscaLabInput(Base64Utils.encodeToString(new Yaml().dump(cdumpToTosca).getBytes()), extractedModels));
+		return new Gson().toJson(new ToscaLabInput(Base64Utils.encodeToString(new Yaml().dump(cdumpToTosca).getBytes(StandardCharsets.UTF_8)), extractedModels));
 	}
 
 	private Set<String> extractComponentUuids(Map cdump) {
@@ -142,28 +187,49 @@ public class BlueprintBusinessLogic extends CompositionBusinessLogic {
 		}
 	}
 
-	private Map<String, String> fetchAndExtractModel(String uuid, String requestId) {
-    	try {
-			return extractModelFromCsar(sdcRestClient.getResourceToscaModel(uuid, requestId));
-		} catch (Exception e) {
-			errLogger.log(LogLevel.ERROR, this.getClass().getName(), "model extraction error: {}", e);
+	// all component models are requested at once. As soon as one fetch fails, or the time is up, the rest are abandoned
+	// and their SDC requests aborted
+	List<Map> fetchModels(Set<String> uuids, String requestId) {
+		List<CompletableFuture<ResourceDetailed>> requests = uuids.stream()
+				.map(id -> compositionCatalogBusinessLogic.fetchModelArtifactsAsync(id, requestId, fetchExecutor()))
+				.collect(Collectors.toList());
+		List<CompletableFuture<Map<String, String>>> fetches = requests.stream()
+				.map(request -> request.thenApplyAsync(this::extractModel, fetchExecutor()))
+				.collect(Collectors.toList());
+		CompletableFuture<Void> all = CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0]));
+		fetches.forEach(fetch -> fetch.whenComplete((model, e) -> {
+			if (null != e) {
+				all.completeExceptionally(e);
+			}
+		}));
+		try {
+			all.get(fetchTimeout, TimeUnit.MILLISECONDS);
+			return fetches.stream().map(CompletableFuture::join).collect(Collectors.toList());
+		} catch (TimeoutException e) {
+			errLogger.log(LogLevel.ERROR, this.getClass().getName(), "error: timed out after {} ms fetching the models of {} distinct DCAE components", fetchTimeout, uuids.size());
+			return null;
+		} catch (ExecutionException e) {
+			errLogger.log(LogLevel.ERROR, this.getClass().getName(), "model extraction error: {}", e.getCause());
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 			return null;
+		} finally {
+			// cancelling a dependent stage leaves its source running, so the fetches are cancelled at the source
+			requests.forEach(request -> request.cancel(true));
+			fetches.forEach(fetch -> fetch.cancel(true));
 		}
 	}
 
-	private Map<String, String> extractModelFromCsar(byte[] csar) throws IOException {
-		//we are only interested in unzipping the 3 files under Artifacts/Deployment/DCAE_TOSCA/
-		String dcaeToscaDir = "Artifacts/Deployment/DCAE_TOSCA/";
+	// the artifacts come from the catalog when it holds the model of the component, so they are only fetched and unzipped once.
+	// Only the DCAE_TOSCA files are sent, as they were read from the csar (utf-8)
+	private Map<String, String> extractModel(ResourceDetailed modelArtifacts) {
 		Map<String, String> extracted = new HashMap<>();
-		try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(csar))) {
-			ZipEntry ze = zis.getNextEntry();
-			while (ze != null && 3 != extracted.size()) {
-				if(ze.getName().startsWith(dcaeToscaDir)) {
-					extracted.put(ze.getName().replace(dcaeToscaDir,"").split("\\.")[0], Base64Utils.encodeToString(extractFile(zis)));
-				}
-				ze = zis.getNextEntry();
+		for (Artifact artifact : modelArtifacts.getArtifacts()) {
+			if (ArtifactType.DCAE_TOSCA.name().equals(artifact.getArtifactType())) {
+				extracted.put(artifact.getArtifactName().split("\\.")[0], Base64Utils.encodeToString(artifact.getPayloadData().getBytes(StandardCharsets.UTF_8)));
 			}
-			return extracted;
 		}
+		return extracted;
 	}
 }
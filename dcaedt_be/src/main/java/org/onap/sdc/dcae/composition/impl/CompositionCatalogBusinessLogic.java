@@ -23,8 +23,10 @@ package org.onap.sdc.dcae.composition.impl;
 import org.onap.sdc.common.onaplog.enums.LogLevel;
 import org.onap.sdc.common.onaplog.OnapLoggerError;
 import org.onap.sdc.dcae.catalog.Catalog;
+import org.onap.sdc.dcae.catalog.asdc.ASDCCatalog;
 import org.onap.sdc.dcae.catalog.commons.Future;
 import org.onap.sdc.dcae.catalog.engine.CatalogController;
+import org.onap.sdc.dcae.catalog.engine.CatalogModelResponse;
 import org.onap.sdc.dcae.catalog.engine.CatalogResponse;
 import org.onap.sdc.dcae.catalog.engine.ElementRequest;
 import org.onap.sdc.dcae.composition.restmodels.canvas.DcaeComponentCatalog;
@@ -42,8 +44,13 @@ import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -51,6 +58,9 @@ import java.util.zip.ZipInputStream;
 @Component
 public class CompositionCatalogBusinessLogic extends BaseBusinessLogic {
 
+	// marks an async fetch as cancelled, in place of the SDC request it waits on
+	private static final CompletableFuture<?> CANCELLED = new CompletableFuture<>();
+
 	@Autowired
 	private CatalogController catalogController;
 
@@ -59,13 +69,12 @@ public class CompositionCatalogBusinessLogic extends BaseBusinessLogic {
 	public ResponseEntity getModelById(String requestId, String theItemId) {
 
 		try {
-			ResourceDetailed resourceDetailed = catalogController.getCatalog().hasCachedItem(theItemId) ? fetchCachedArtifactsMetadata(theItemId, requestId) : fetchAndExtractTemplateAndSchema(theItemId, requestId);
-			Future<Catalog.Template> modelFuture = catalogController.getCatalog().template(resourceDetailed).withInputs().withOutputs().withNodes().withNodeProperties().withNodePropertiesAssignments().withNodeRequirements().withNodeCapabilities().withNodeCapabilityProperties()
-					.withNodeCapabilityPropertyAssignments().withPolicies().withPolicyProperties().withPolicyPropertiesAssignments().execute();
+			ResourceDetailed resourceDetailed = fetchModelArtifacts(theItemId, requestId);
+			Future<Map<String, Object>> modelFuture = catalogController.getCatalog().template(resourceDetailed).withInputs().withOutputs().withNodes().withNodeProperties().withNodePropertiesAssignments().withNodeRequirements().withNodeCapabilities().withNodeCapabilityProperties()
+					.withNodeCapabilityPropertyAssignments().withPolicies().withPolicyProperties().withPolicyPropertiesAssignments().executeModel();
 			if(modelFuture.succeeded()) {
-				CatalogResponse response = new CatalogResponse(ElementRequest.EMPTY_REQUEST);
-				response.data().put("model", modelFuture.result().data());
-				return ResponseEntity.ok().body(response);
+				// the model is written out by the response serializer as it goes
+				return ResponseEntity.ok().body(new CatalogModelResponse(ElementRequest.EMPTY_REQUEST, modelFuture.result()));
 			}
 			return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.GENERAL_ERROR, modelFuture.cause().getMessage());
 
@@ -82,7 +91,7 @@ public class CompositionCatalogBusinessLogic extends BaseBusinessLogic {
 			// temporary patch - precede with caching verification //
 			if(!catalogController.getCatalog().hasCachedItem(theItemId)) {
 				ResourceDetailed resourceDetailed = fetchAndExtractTemplateAndSchema(theItemId, requestId);
-				catalogController.getCatalog().template(resourceDetailed).execute();
+				catalogController.getCatalog().template(resourceDetailed).executeModel();
 			}
 			//         //         //         //         //         //
 			Future<Catalog.Type> theTypeInfoFuture = catalogController.getCatalog().type(theItemId, theTypeName).withHierarchy().withCapabilities().withRequirements().execute();
@@ -110,22 +119,78 @@ public class CompositionCatalogBusinessLogic extends BaseBusinessLogic {
 	}
 
 
+	// the tosca artifacts of the resource, payloads included. Those a cached (or stored) model was built from are reused as long as they did not change
+	ResourceDetailed fetchModelArtifacts(String uuid, String requestId) throws IOException {
+		if (hasModel(uuid)) {
+			ResourceDetailed cachedVf = reuseModelArtifacts(uuid, sdcRestClient.getResource(uuid, requestId));
+			if (null != cachedVf) {
+				return cachedVf;
+			}
+		}
+		return fetchAndExtractTemplateAndSchema(uuid, requestId);
+	}
+
+	// same as fetchModelArtifacts, without blocking on SDC. The csar is unzipped by the given executor rather than on the http client's threads.
+	// Cancelling the returned future aborts the SDC request in flight
+	CompletableFuture<ResourceDetailed> fetchModelArtifactsAsync(String uuid, String requestId, Executor executor) {
+		AtomicReference<CompletableFuture<?>> request = new AtomicReference<>();
+		CompletableFuture<ResourceDetailed> reused = hasModel(uuid) ?
+				send(request, sdcAsyncClient.getResource(uuid, requestId)).thenApply(vf -> reuseModelArtifacts(uuid, vf)) : CompletableFuture.completedFuture(null);
+		CompletableFuture<ResourceDetailed> fetch = reused.thenCompose(cachedVf -> null != cachedVf ? CompletableFuture.completedFuture(cachedVf) :
+				send(request, sdcAsyncClient.getResourceToscaModel(uuid, requestId)).thenApplyAsync(csar -> {
+					try {
+						return toModelArtifacts(uuid, csar);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}, executor));
+		fetch.whenComplete((vf, e) -> {
+			if (fetch.isCancelled()) {
+				CompletableFuture<?> pending = request.getAndSet(CANCELLED);
+				if (null != pending) {
+					pending.cancel(true);
+				}
+			}
+		});
+		return fetch;
+	}
+
+	// keeps track of the SDC request a fetch waits on. A request sent once the fetch was cancelled is cancelled right away
+	private static <T> CompletableFuture<T> send(AtomicReference<CompletableFuture<?>> request, CompletableFuture<T> sent) {
+		if (CANCELLED == request.getAndSet(sent)) {
+			sent.cancel(true);
+		}
+		return sent;
+	}
+
+	private boolean hasModel(String uuid) {
+		ASDCCatalog catalog = catalogController.getCatalog();
+		return catalog.hasCachedItem(uuid) || catalog.hasStoredItem(uuid);
+	}
+
+	private ResourceDetailed reuseModelArtifacts(String uuid, ResourceDetailed vf) {
+		String toscaModelPath = toscaModelPath(uuid);
+		vf.getArtifacts().forEach(a -> a.setArtifactURL(toscaModelPath.concat(a.getArtifactName())));
+		ASDCCatalog catalog = catalogController.getCatalog();
+		ResourceDetailed cachedVf = catalog.getCachedItem(uuid, vf.getArtifacts());
+		ResourceDetailed reused = null != cachedVf ? cachedVf : catalog.getStoredItem(uuid, vf.getArtifacts());
+		// models stored before the artifact types were recorded are fetched again
+		return null != reused && reused.getArtifacts().stream().allMatch(a -> null != a.getArtifactType()) ? reused : null;
+	}
+
 	private ResourceDetailed fetchAndExtractTemplateAndSchema(String uuid, String requestId) throws IOException {
+		return toModelArtifacts(uuid, sdcRestClient.getResourceToscaModel(uuid, requestId));
+	}
+
+	private ResourceDetailed toModelArtifacts(String uuid, byte[] csar) throws IOException {
 		String toscaModelPath = toscaModelPath(uuid);
 		ResourceDetailed resourceDetailed = new ResourceDetailed();
 		resourceDetailed.setUuid(uuid);
 		resourceDetailed.setToscaModelURL(toscaModelPath);
-		resourceDetailed.setArtifacts(extractToscaArtifactsFromCsar(sdcRestClient.getResourceToscaModel(uuid, requestId), toscaModelPath));
+		resourceDetailed.setArtifacts(extractToscaArtifactsFromCsar(csar, toscaModelPath));
 		return resourceDetailed;
 	}
 
-	private ResourceDetailed fetchCachedArtifactsMetadata(String uuid, String requestId) throws IOException {
-		String toscaModelPath = toscaModelPath(uuid);
-		ResourceDetailed cachedVf = sdcRestClient.getResource(uuid, requestId);
-		cachedVf.getArtifacts().forEach(a -> a.setArtifactURL(toscaModelPath.concat(a.getArtifactName())));
-		return cachedVf;
-	}
-
 	private List<Artifact> extractToscaArtifactsFromCsar(byte[] csar, String toscaModelPath) throws IOException {
 		//we are only interested in unzipping files under Artifacts/Deployment/DCAE_TOSCA/
 		String dcaeToscaDir = "Artifacts/Deployment/DCAE_TOSCA/";
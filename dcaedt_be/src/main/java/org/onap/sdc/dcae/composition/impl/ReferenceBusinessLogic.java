@@ -32,12 +32,17 @@ import org.onap.sdc.dcae.composition.util.DcaeBeConstants;
 import org.onap.sdc.dcae.errormng.ActionStatus;
 import org.onap.sdc.dcae.errormng.ErrConfMgr;
 import org.onap.sdc.dcae.utils.Normalizers;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -46,6 +51,14 @@ import static org.springframework.util.CollectionUtils.isEmpty;
 @Component
 public class ReferenceBusinessLogic extends BaseBusinessLogic {
 
+    private long fetchTimeout = 60000;
+
+    // time (ms) allowed for fetching the metadata of all the monitoring components of a listing
+    @Value("${monitoring.fetchTimeout:60000}")
+    public void setFetchTimeout(long fetchTimeout) {
+        this.fetchTimeout = fetchTimeout;
+    }
+
     public ResponseEntity deleteVfcmtReferenceBlueprint(String userId, String context, String monitoringComponentName, String serviceUuid, String vfiName, String vfcmtUuid, String requestId) {
         debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Going to delete blueprint, monitoringComponentName = {}, vfiName = {}", monitoringComponentName, vfiName);
         try {
@@ -88,16 +101,22 @@ public class ReferenceBusinessLogic extends BaseBusinessLogic {
         Map<String, Collection<MonitoringComponent>> result = new LinkedHashMap<>();
         List<MonitoringComponent> monitoringComponents = Collections.synchronizedList(new ArrayList<>());
         List<MonitoringComponent> unavailable = Collections.synchronizedList(new ArrayList<>());
-        mcRefs.entrySet().parallelStream().forEach(entry ->
-                entry.getValue().parallelStream().forEach(id -> {
-                    try{
-                        monitoringComponents.add(new MonitoringComponent(getSdcRestClient().getResource(id.replace(REVERTED_REF, ""), requestId), entry.getKey()));
-                    } catch (Exception e) {
-                        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(),"Failed to fetch monitoring component with uuid {}. message: {} ", id, e);
-                        unavailable.add(new MonitoringComponent(id, entry.getKey(), "unavailable"));
-                    }
-                })
-        );
+        // all the requests are issued at once and complete on the http client's own threads
+        List<CompletableFuture<ResourceDetailed>> requests = new ArrayList<>();
+        CompletableFuture<?>[] fetches = mcRefs.entrySet().stream().flatMap(entry ->
+                entry.getValue().stream().map(id -> send(requests, getSdcAsyncClient().getResource(id.replace(REVERTED_REF, ""), requestId))
+                        .thenApply(resource -> new MonitoringComponent(resource, entry.getKey()))
+                        .handle((mc, e) -> {
+                            if (null == e) {
+                                monitoringComponents.add(mc);
+                            } else {
+                                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(),"Failed to fetch monitoring component with uuid {}. message: {} ", id, e);
+                                unavailable.add(new MonitoringComponent(id, entry.getKey(), "unavailable"));
+                            }
+                            return null;
+                        })))
+                .toArray(CompletableFuture[]::new);
+        awaitFetches(fetches, requests);
         result.put("monitoringComponents", groupMonitoringComponentsForRepresentation(mcRefs.values().stream().flatMap(List::stream).collect(Collectors.toList()), monitoringComponents));
         if(!isEmpty(unavailable)) {
             result.put("unavailable", unavailable);
@@ -107,6 +126,30 @@ public class ReferenceBusinessLogic extends BaseBusinessLogic {
     }
 
 
+    private static <T> CompletableFuture<T> send(List<CompletableFuture<T>> requests, CompletableFuture<T> request) {
+        requests.add(request);
+        return request;
+    }
+
+    // the requests still pending once the time is up are cancelled, which lists their components as unavailable
+    private void awaitFetches(CompletableFuture<?>[] fetches, List<CompletableFuture<ResourceDetailed>> requests) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(fetches);
+        try {
+            all.get(fetchTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            errLogger.log(LogLevel.ERROR, this.getClass().getName(), "timed out after {} ms fetching {} monitoring components", fetchTimeout, requests.size());
+            requests.forEach(request -> request.cancel(true));
+            all.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            requests.forEach(request -> request.cancel(true));
+            all.join();
+        } catch (ExecutionException e) {
+            // not thrown, every fetch handles its own failure
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "monitoring components fetch error: {}", e.getCause());
+        }
+    }
+
     // defect fix/workaround - rule editor may perform lazy checkout on a certified MC without binding it to the service. This is a preemptive measure
 	public ResponseEntity checkoutAndBindToServiceIfCertified(String userId, String contextType, String serviceUuid, String vfiName, String vfcmtUuid, String requestId) {
 		try {
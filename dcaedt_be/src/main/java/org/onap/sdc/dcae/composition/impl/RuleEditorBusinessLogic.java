@@ -22,7 +22,6 @@ package org.onap.sdc.dcae.composition.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.gson.JsonParseException;
-import org.apache.commons.collections.ListUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.onap.sdc.common.onaplog.enums.LogLevel;
 import org.onap.sdc.dcae.composition.restmodels.ruleeditor.*;
@@ -31,28 +30,35 @@ import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
 import org.onap.sdc.dcae.composition.util.DcaeBeConstants;
 import org.onap.sdc.dcae.enums.ArtifactType;
 import org.onap.sdc.dcae.errormng.ActionStatus;
+import org.onap.sdc.dcae.errormng.DcaeException;
 import org.onap.sdc.dcae.errormng.ErrConfMgr;
+import org.onap.sdc.dcae.errormng.ResponseFormat;
 import org.onap.sdc.dcae.errormng.ServiceException;
+import org.onap.sdc.dcae.rule.editor.engine.DryRun;
+import org.onap.sdc.dcae.rule.editor.engine.DryRunReport;
+import org.onap.sdc.dcae.rule.editor.engine.MappingRulesEngine;
 import org.onap.sdc.dcae.rule.editor.impl.RulesBusinessLogic;
+import org.onap.sdc.dcae.rule.editor.translators.MappingRulesTranslator;
 import org.onap.sdc.dcae.rule.editor.utils.RulesPayloadUtils;
 import org.onap.sdc.dcae.rule.editor.utils.ValidationUtils;
 import org.onap.sdc.dcae.rule.editor.validators.MappingRulesValidator;
 import org.onap.sdc.dcae.utils.Normalizers;
 import org.onap.sdc.dcae.utils.SdcRestClientUtils;
-import org.onap.sdc.dcae.ves.VesDataItemsDefinition;
-import org.onap.sdc.dcae.ves.VesDataTypeDefinition;
-import org.onap.sdc.dcae.ves.VesSimpleTypesEnum;
+import org.onap.sdc.dcae.ves.EventTypeDefinitionTree;
 import org.onap.sdc.dcae.ves.VesStructureLoader;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import org.springframework.util.Base64Utils;
 import org.springframework.util.CollectionUtils;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -64,8 +70,15 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
 
 	private MappingRulesValidator mappingRulesValidator = MappingRulesValidator.getInstance();
 
+	private final RulesArtifactStore rulesArtifactStore = new RulesArtifactStore(this::getSdcRestClient, this::getUncachedSdcRestClient);
+
     private static final String EXCEPTION = "Exception {}";
 
+	@Value("${rules.store.maxArtifacts:128}")
+	public void setRulesStoreMaxArtifacts(int maxArtifacts) {
+		rulesArtifactStore.setMaxArtifacts(maxArtifacts);
+	}
+
     public ResponseEntity saveRule(String json, String requestId, String userId, String vfcmtUuid, String dcaeCompLabel, String nid, String configParam) {
 
         try {
@@ -166,18 +179,88 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
 		}
 	}
 
-    public ResponseEntity getRulesAndSchema(String vfcmtUuid, String dcaeCompLabel, String nid, String configParam, String requestId) {
+	// 1902 batch of save/delete rule operations on a single rules artifact - either all of them are saved at once or none
+	public ResponseEntity editRules(String json, String requestId, String userId) {
+
+		try {
+			BatchRulesRequest request = RulesPayloadUtils.convertFromPayload(json, BatchRulesRequest.class);
+			if (null == request) {
+				return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.INVALID_CONTENT);
+			}
+			if(!validateMandatoryRequestFields(request) || CollectionUtils.isEmpty(request.getOperations())) {
+				errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Invalid rule operations request. request: {}", request);
+				return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.RULE_OPERATION_FAILED_MISSING_PARAMS);
+			}
+			List<RuleOperation> operations = request.getOperations();
+			List<RuleOperationResult> results = validateRuleOperations(operations);
+			if (!allSucceeded(results)) {
+				return failedOperationsResponse(results);
+			}
+
+			ResourceDetailed vfcmt = getSdcRestClient().getResource(request.getVfcmtUuid(), requestId);
+			checkVfcmtType(vfcmt);
+
+			if (CollectionUtils.isEmpty(vfcmt.getArtifacts())) {
+				return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.SAVE_RULE_FAILED);
+			}
+
+			String artifactLabel = Normalizers.normalizeArtifactLabel(request.getDcaeCompLabel() + request.getNid() + request.getConfigParam());
+
+			// check for MappingRules artifact in existing artifacts
+			Artifact artifactFound = vfcmt.getArtifacts().stream()
+					.filter(a -> artifactLabel.equals(Normalizers.normalizeArtifactLabel(a.getArtifactLabel())))
+					.findAny().orElse(null);
+
+			// new mappingRules artifact, validate nid exists in composition before creating new artifact
+			if (null == artifactFound) {
+				return editRulesInNewArtifact(request, vfcmt, artifactLabel, userId, requestId);
+			}
+
+			//update artifact flow - all operations are applied to the same rules and uploaded once
+			AtomicReference<List<RuleOperationResult>> applied = new AtomicReference<>();
+			rulesArtifactStore.edit(userId, vfcmt.getUuid(), artifactFound, requestId, rules -> {
+				// the edit may be re-applied on newer rules, new rules must then be added again under no uid
+				results.forEach(r -> {
+					if (RuleOperation.Type.SAVE == r.getOperation()) {
+						operations.get(r.getIndex()).getRule().setUid(r.getRuleUid());
+					}
+				});
+				applied.set(applyRuleOperations(rules, operations, 0));
+				return allSucceeded(applied.get()) ? applied.get() : null;
+			});
+			if (!allSucceeded(applied.get())) {
+				return failedOperationsResponse(applied.get());
+			}
+			return checkInAndReturnSaveArtifactResult(applied.get(), vfcmt.getUuid(), userId, requestId);
+
+		} catch (JsonParseException je) {
+			errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Error: request format is invalid: {}", je);
+			return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.INVALID_RULE_FORMAT, "", je.getMessage());
+		} catch (Exception e) {
+			return ErrConfMgr.INSTANCE.handleException(e, ErrConfMgr.ApiType.SAVE_RULE_ARTIFACT);
+		}
+	}
+
+    public ResponseEntity getRulesAndSchema(String vfcmtUuid, String dcaeCompLabel, String nid, String configParam, String requestId, String ifNoneMatch) {
 
         try {
-			ResourceDetailed vfcmt = getSdcRestClient().getResource(vfcmtUuid, requestId);
-        	Artifact rulesArtifact = fetchRulesArtifact(vfcmt, dcaeCompLabel, nid, configParam, requestId);
+			// the entity tag is built from the artifact checksum, which must not lag behind SDC as the cached metadata may
+			ResourceDetailed vfcmt = getUncachedSdcRestClient().getResource(vfcmtUuid, requestId);
+        	Artifact rulesArtifact = findRulesArtifact(vfcmt, dcaeCompLabel, nid, configParam);
         	if(null == rulesArtifact) {
 				return new ResponseEntity<>("{}", HttpStatus.OK);
 			}
             // To avoid opening the file for reading we search for the eventType and SchemaVer from the artifact metadata's description
             SchemaInfo schemainfo = RulesPayloadUtils.extractInfoFromDescription(rulesArtifact);
-            List<EventTypeDefinitionUI> schema = null == schemainfo ? new ArrayList<>() : getEventTypeDefinitionUIs(schemainfo.getVersion(), schemainfo.getEventType());
-            return new ResponseEntity<>(RulesPayloadUtils.buildSchemaAndRulesResponse(rulesArtifact.getPayloadData(), schema), HttpStatus.OK);
+            EventTypeDefinitionTree schema = null == schemainfo ? null : getEventTypeDefinitionTree(schemainfo.getVersion(), schemainfo.getEventType());
+            // the response only changes with the rules artifact or the schema, both known before the artifact is downloaded
+            String eTag = null == rulesArtifact.getArtifactChecksum() ? null : "\"" + rulesArtifact.getArtifactChecksum() + (null == schema ? "" : "-" + schema.getETag().replace("\"", "")) + "\"";
+            if (EventTypeDefinitionTree.matches(eTag, ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            rulesArtifact.setPayloadData(getUncachedSdcRestClient().getResourceArtifact(vfcmt.getUuid(), rulesArtifact.getArtifactUUID(), requestId));
+            String body = RulesPayloadUtils.buildSchemaAndRulesResponse(rulesArtifact.getPayloadData(), null == schema ? "[]" : schema.getSchemaJson());
+            return null == eTag ? new ResponseEntity<>(body, HttpStatus.OK) : ResponseEntity.ok().eTag(eTag).body(body);
         } catch (Exception e) {
             return ErrConfMgr.INSTANCE.handleException(e, ErrConfMgr.ApiType.GET_RULE_ARTIFACT);
         }
@@ -203,18 +286,23 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
 
 	private Artifact fetchRulesArtifact(ResourceDetailed vfcmt, String dcaeCompLabel, String nid, String configParam, String requestId) {
 
+		Artifact artifactListed = findRulesArtifact(vfcmt, dcaeCompLabel, nid, configParam);
+		if (null == artifactListed) {
+			return null;
+		}
+		artifactListed.setPayloadData(getSdcRestClient().getResourceArtifact(vfcmt.getUuid(), artifactListed.getArtifactUUID(), requestId));
+		return artifactListed;
+	}
+
+	private Artifact findRulesArtifact(ResourceDetailed vfcmt, String dcaeCompLabel, String nid, String configParam) {
+
 		if (CollectionUtils.isEmpty(vfcmt.getArtifacts())) {
 			return null;
 		}
 		String artifactLabel = Normalizers.normalizeArtifactLabel(dcaeCompLabel + nid + configParam);
 
 		// check for MappingRules artifact in existing artifacts
-		Artifact artifactListed = vfcmt.getArtifacts().stream().filter(a -> artifactLabel.equals(Normalizers.normalizeArtifactLabel(a.getArtifactLabel()))).findAny().orElse(null);
-		if (null == artifactListed) {
-			return null;
-		}
-		artifactListed.setPayloadData(getSdcRestClient().getResourceArtifact(vfcmt.getUuid(), artifactListed.getArtifactUUID(), requestId));
-		return artifactListed;
+		return vfcmt.getArtifacts().stream().filter(a -> artifactLabel.equals(Normalizers.normalizeArtifactLabel(a.getArtifactLabel()))).findAny().orElse(null);
 	}
 
     public ResponseEntity deleteRule(String userId, String vfcmtUuid, String dcaeCompLabel, String nid, String configParam, String ruleUid, String requestId) {
@@ -237,18 +325,15 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
                 return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.DELETE_RULE_FAILED);
             }
 
-            String payload = getSdcRestClient().getResourceArtifact(vfcmtUuid, mappingRuleFile.getArtifactUUID(), requestId);
-            MappingRules rules = RulesPayloadUtils.parseMappingRulesArtifactPayload(payload);
-            Rule removedRule = rulesBusinessLogic.deleteRule(rules, ruleUid);
-            if (null == removedRule) {
-                errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Rule {} not found.", ruleUid);
-                return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.DELETE_RULE_FAILED);
-            }
-            if (rules.isEmpty()) { // if file doesn't contain any rules after last deletion -> let's delete the file
-                getSdcRestClient().deleteResourceArtifact(userId, vfcmtUuid, mappingRuleFile.getArtifactUUID(), requestId);
-            } else {
-                updateRulesArtifact(vfcmtUuid, userId, mappingRuleFile, rules, requestId);
-            }
+            // the artifact is deleted by the store if it doesn't contain any rules after the deletion
+            Rule removedRule = rulesArtifactStore.edit(userId, vfcmtUuid, mappingRuleFile, requestId, rules -> {
+                Rule removed = rulesBusinessLogic.deleteRule(rules, ruleUid);
+                if (null == removed) {
+                    errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Rule {} not found.", ruleUid);
+                    throw rejectedEdit(ActionStatus.DELETE_RULE_FAILED);
+                }
+                return removed;
+            });
             return checkInAndReturnSaveArtifactResult(removedRule.toJson(), vfcmtUuid, userId, requestId);
         } catch (Exception e) {
             return ErrConfMgr.INSTANCE.handleException(e, ErrConfMgr.ApiType.SAVE_RULE_ARTIFACT);
@@ -283,19 +368,16 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
 				return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.FILTER_NOT_FOUND);
 			}
 
-			String payload = getSdcRestClient().getResourceArtifact(vfcmt.getUuid(), mappingRuleFile.getArtifactUUID(), requestId);
-			MappingRules rules = RulesPayloadUtils.parseMappingRulesArtifactPayload(payload);
-			BaseCondition deletedFilter = rules.getFilter();
-			if (null == deletedFilter) {
-				errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Filter not found.");
-				return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.FILTER_NOT_FOUND);
-			}
-			if (rules.isEmpty()) { // if the file doesn't contain any rules -> let's delete the file
-				getSdcRestClient().deleteResourceArtifact(userId, vfcmt.getUuid(), mappingRuleFile.getArtifactUUID(), requestId);
-			} else {
+			// the artifact is deleted by the store if it doesn't contain any rules
+			BaseCondition deletedFilter = rulesArtifactStore.edit(userId, vfcmt.getUuid(), mappingRuleFile, requestId, rules -> {
+				BaseCondition filter = rules.getFilter();
+				if (null == filter) {
+					errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Filter not found.");
+					throw rejectedEdit(ActionStatus.FILTER_NOT_FOUND);
+				}
 				rules.setFilter(null);
-				updateRulesArtifact(vfcmt.getUuid(), userId, mappingRuleFile, rules, requestId);
-			}
+				return filter;
+			});
 			return checkInAndReturnSaveArtifactResult(deletedFilter, vfcmt.getUuid(), userId, requestId);
 		} catch (Exception e) {
 			return ErrConfMgr.INSTANCE.handleException(e, ErrConfMgr.ApiType.SAVE_RULE_ARTIFACT);
@@ -322,18 +404,15 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
 				return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.DELETE_RULE_FAILED);
 			}
 
-			String payload = getSdcRestClient().getResourceArtifact(vfcmtUuid, mappingRuleFile.getArtifactUUID(), requestId);
-			MappingRules rules = RulesPayloadUtils.parseMappingRulesArtifactPayload(payload);
-			List<Rule> removedRules = rulesBusinessLogic.deleteGroupOfRules(rules, groupId);
-			if (removedRules.isEmpty()) {
-				errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Group {} not found.", groupId);
-				return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.DELETE_RULE_FAILED);
-			}
-			if (rules.isEmpty()) { // if file doesn't contain any rules after last deletion -> let's delete the file
-				getSdcRestClient().deleteResourceArtifact(userId, vfcmtUuid, mappingRuleFile.getArtifactUUID(), requestId);
-			} else {
-				updateRulesArtifact(vfcmtUuid, userId, mappingRuleFile, rules, requestId);
-			}
+			// the artifact is deleted by the store if it doesn't contain any rules after the deletion
+			List<Rule> removedRules = rulesArtifactStore.edit(userId, vfcmtUuid, mappingRuleFile, requestId, rules -> {
+				List<Rule> removed = rulesBusinessLogic.deleteGroupOfRules(rules, groupId);
+				if (removed.isEmpty()) {
+					errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Group {} not found.", groupId);
+					throw rejectedEdit(ActionStatus.DELETE_RULE_FAILED);
+				}
+				return removed;
+			});
 			return checkInAndReturnSaveArtifactResult(removedRules, vfcmtUuid, userId, requestId);
 		} catch (Exception e) {
 			return ErrConfMgr.INSTANCE.handleException(e, ErrConfMgr.ApiType.SAVE_RULE_ARTIFACT);
@@ -342,6 +421,44 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
 	}
 
     public ResponseEntity translateRules(TranslateRequest request, String requestId) {
+        return withRulesToTranslate(request, requestId, rules -> {
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Validation completed successfully, calling translator...");
+            String translateJson = rulesBusinessLogic.translateRules(rules);
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Translation completed successfully");
+            return new ResponseEntity<>(translateJson, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Runs a corpus of events through the translated rules, the events are streamed from the reader.
+     * @param maxResults the number of events whose changes are reported
+     */
+    public ResponseEntity dryRun(TranslateRequest request, Reader events, int maxResults, String requestId) {
+        return withRulesToTranslate(request, requestId, rules -> {
+            MappingRulesEngine engine;
+            try {
+                engine = rulesBusinessLogic.compileRules(rules);
+            } catch (IllegalArgumentException e) {
+                errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Failed to compile the translated rules: {}", e);
+                return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.TRANSLATE_FAILED, "", e.getMessage());
+            }
+            List<String> ruleUids = new ArrayList<>();
+            // the entry phase
+            ruleUids.add(null);
+            MappingRulesTranslator.getInstance().getRulesInTranslationOrder(rules).forEach(r -> ruleUids.add(r.getUid()));
+            DryRunReport report = new DryRun(engine, ruleUids, maxResults).run(events);
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Dry run of {} events completed in {} ms", report.getEvents(), report.getTotalMillis());
+            return new ResponseEntity<>(report, HttpStatus.OK);
+        });
+    }
+
+    @FunctionalInterface
+    private interface TranslatedRulesHandler {
+        ResponseEntity apply(MappingRules rules) throws IOException;
+    }
+
+    // fetches, parses and validates the rules artifact of the request before handing the rules over
+    private ResponseEntity withRulesToTranslate(TranslateRequest request, String requestId, TranslatedRulesHandler handler) {
 
 		// 1810 US436244 MC table
     	String vfcmtUuid = request.getVfcmtUuid().split("/")[0];
@@ -374,11 +491,7 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
             if (!errors.isEmpty()) {
                 return ErrConfMgr.INSTANCE.buildErrorArrayResponse(errors);
             }
-
-            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Validation completed successfully, calling translator...");
-            String translateJson = rulesBusinessLogic.translateRules(rules);
-            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Translation completed successfully");
-            return new ResponseEntity<>(translateJson, HttpStatus.OK);
+            return handler.apply(rules);
         } catch (Exception e) {
             return ErrConfMgr.INSTANCE.handleException(e, ErrConfMgr.ApiType.SAVE_RULE_ARTIFACT);
         }
@@ -417,7 +530,11 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
 				}
 				saveNewRulesArtifact(mappingRules, vfcmtUuid, generateMappingRulesFileName(dcaeCompLabel, nid, configParam), artifactLabel, userId, requestId);
 			} else {
-				updateRulesArtifact(vfcmtUuid, userId, artifactFound, mappingRules, requestId);
+				// the imported rules replace whatever the artifact holds by the time they are written
+				rulesArtifactStore.edit(userId, vfcmtUuid, artifactFound, requestId, rules -> {
+					copyRules(mappingRules, rules);
+					return rules;
+				});
 			}
 			mappingRules.setSchema(getEventTypeDefinitionUIs(mappingRules.getVersion(), mappingRules.getEventType()));
 			return checkInAndReturnSaveArtifactResult(mappingRules, vfcmtUuid, userId, requestId);
@@ -485,9 +602,12 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
 				saveNewRulesArtifact(inputRules, vfcmt.getUuid(), generateMappingRulesFileName(request.getDcaeCompLabel(), request.getNid(), request.getConfigParam()), artifactLabel, userId, requestId);
 				allRules = inputRules;
 			} else {
-				allRules = RulesPayloadUtils.parsePayloadToMappingRules(getSdcRestClient().getResourceArtifact(vfcmt.getUuid(), artifactFound.getArtifactUUID(), requestId));
-				allRules.getRules().putAll(inputRules.getRules());
-				updateRulesArtifact(vfcmt.getUuid(), userId, artifactFound, allRules, requestId);
+				MappingRules merged = rulesArtifactStore.edit(userId, vfcmt.getUuid(), artifactFound, requestId, rules -> {
+					rules.getRules().putAll(inputRules.getRules());
+					return rules;
+				});
+				allRules = new MappingRulesResponse();
+				copyRules(merged, allRules);
 			}
 			allRules.setSchema(getEventTypeDefinitionUIs(allRules.getVersion(), allRules.getEventType()));
 			return checkInAndReturnSaveArtifactResult(allRules, vfcmt.getUuid(), userId, requestId);
@@ -526,12 +646,17 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
         }
     }
 
-    public ResponseEntity getDefinition(String version, String eventType) {
+    public ResponseEntity getDefinition(String version, String eventType, String ifNoneMatch) {
 
         try {
-            List<EventTypeDefinitionUI> result = getEventTypeDefinitionUIs(version, eventType);
-
-            return new ResponseEntity<>(result, HttpStatus.OK);
+            EventTypeDefinitionTree result = VesStructureLoader.getEventTypeDefinitionTree(version, eventType);
+            if (null == result) {
+                return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.VES_SCHEMA_NOT_FOUND);
+            }
+            if (EventTypeDefinitionTree.matches(result.getETag(), ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(result.getETag()).build();
+            }
+            return ResponseEntity.ok().eTag(result.getETag()).contentType(MediaType.APPLICATION_JSON_UTF8).body(result.getJson());
 
         } catch (Exception e) {
             errLogger.log(LogLevel.ERROR, this.getClass().getName(), EXCEPTION, e);
@@ -589,32 +714,133 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
 	}
 
     private ResponseEntity addOrEditRuleInArtifact(Rule rule, String vfcmtUuid, String userId, Artifact rulesArtifact, String requestId) throws JsonProcessingException {
-        String payload = getSdcRestClient().getResourceArtifact(vfcmtUuid, rulesArtifact.getArtifactUUID(), requestId);
-        MappingRules rules = RulesPayloadUtils.parseMappingRulesArtifactPayload(payload);
-
 		// 1810 US427299 support user defined phase names
 		boolean supportGroups = ValidationUtils.validateNotEmpty(rule.getGroupId());
-		if(!rulesBusinessLogic.validateGroupDefinitions(rules, supportGroups)) {
-			return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.INVALID_RULE_FORMAT, "", "invalid group definitions");
-		}
-        // in case the rule id is passed but the rule doesn't exist on the mapping rule file or if there's a mismatch in group definitions:
-        if (!rulesBusinessLogic.addOrEditRule(rules, rule, supportGroups)) {
-            return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.SAVE_RULE_FAILED);
-        }
-        updateRulesArtifact(vfcmtUuid, userId, rulesArtifact, rules, requestId);
+		String ruleUid = rule.getUid();
+		rulesArtifactStore.edit(userId, vfcmtUuid, rulesArtifact, requestId, rules -> {
+			// the edit may be re-applied on newer rules, a new rule must then be added again under no uid
+			rule.setUid(ruleUid);
+			if (!rulesBusinessLogic.validateGroupDefinitions(rules, supportGroups)) {
+				throw rejectedEdit(ActionStatus.INVALID_RULE_FORMAT, "invalid group definitions");
+			}
+			// in case the rule id is passed but the rule doesn't exist on the mapping rule file or if there's a mismatch in group definitions:
+			if (!rulesBusinessLogic.addOrEditRule(rules, rule, supportGroups)) {
+				throw rejectedEdit(ActionStatus.SAVE_RULE_FAILED);
+			}
+			return rule;
+		});
         return checkInAndReturnSaveArtifactResult(rule.toJson(), vfcmtUuid, userId, requestId);
     }
 
 	private ResponseEntity applyFilterToExistingArtifact(ApplyFilterRequest request, String userId, Artifact rulesArtifact, String requestId) throws JsonProcessingException {
-		String payload = getSdcRestClient().getResourceArtifact(request.getVfcmtUuid(), rulesArtifact.getArtifactUUID(), requestId);
-		MappingRules rules = RulesPayloadUtils.parseMappingRulesArtifactPayload(payload);
-		rules.setEntryPhase(request.getEntryPhase());
-		rules.setPublishPhase(request.getPublishPhase());
-		rules.setFilter(request.getFilter());
-		updateRulesArtifact(request.getVfcmtUuid(), userId, rulesArtifact, rules, requestId);
+		rulesArtifactStore.edit(userId, request.getVfcmtUuid(), rulesArtifact, requestId, rules -> {
+			rules.setEntryPhase(request.getEntryPhase());
+			rules.setPublishPhase(request.getPublishPhase());
+			rules.setFilter(request.getFilter());
+			return rules;
+		});
 		return checkInAndReturnSaveArtifactResult(request.getFilter(), request.getVfcmtUuid(), userId, requestId);
 	}
 
+	private ResponseEntity editRulesInNewArtifact(BatchRulesRequest request, ResourceDetailed vfcmt, String artifactLabel, String userId, String requestId) throws JsonProcessingException {
+		RuleOperation first = request.getOperations().get(0);
+		if (RuleOperation.Type.SAVE != first.getOperation()) {
+			errLogger.log(LogLevel.ERROR, this.getClass().getName(), "{} doesn't exist for VFCMT {}", artifactLabel, vfcmt.getUuid());
+			return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.DELETE_RULE_FAILED);
+		}
+		if (!cdumpContainsNid(vfcmt, request.getNid(), requestId)) {
+			return ErrConfMgr.INSTANCE.buildErrorResponse(ActionStatus.NODE_NOT_FOUND, "", request.getDcaeCompLabel());
+		}
+		MappingRules rules = new MappingRules(first.getRule());
+		List<RuleOperationResult> results = new ArrayList<>();
+		results.add(new RuleOperationResult(0, first.getOperation(), first.getRule().getUid()));
+		results.addAll(applyRuleOperations(rules, request.getOperations(), 1));
+		if (!allSucceeded(results)) {
+			return failedOperationsResponse(results);
+		}
+		saveNewRulesArtifact(rules, vfcmt.getUuid(), generateMappingRulesFileName(request.getDcaeCompLabel(), request.getNid(), request.getConfigParam()), artifactLabel, userId, requestId);
+		return checkInAndReturnSaveArtifactResult(results, vfcmt.getUuid(), userId, requestId);
+	}
+
+	private List<RuleOperationResult> validateRuleOperations(List<RuleOperation> operations) {
+		List<RuleOperationResult> results = new ArrayList<>();
+		for (int i = 0; i < operations.size(); i++) {
+			RuleOperation operation = operations.get(i);
+			RuleOperationResult result = new RuleOperationResult(i, null == operation ? null : operation.getOperation(), null);
+			if (null == operation || null == operation.getOperation()) {
+				result.addError(formattedErrorMessage(ActionStatus.RULE_OPERATION_FAILED_MISSING_PARAMS));
+			} else if (RuleOperation.Type.SAVE == operation.getOperation()) {
+				if (null == operation.getRule()) {
+					result.addError(formattedErrorMessage(ActionStatus.RULE_OPERATION_FAILED_MISSING_PARAMS));
+				} else {
+					result.setRuleUid(operation.getRule().getUid());
+					rulesBusinessLogic.validateRule(operation.getRule()).forEach(e -> result.addError(e.getFormattedErrorMessage()));
+				}
+			} else {
+				result.setRuleUid(operation.getRuleUid());
+				if (!ValidationUtils.validateNotEmpty(operation.getRuleUid())) {
+					result.addError(formattedErrorMessage(ActionStatus.RULE_OPERATION_FAILED_MISSING_PARAMS));
+				}
+			}
+			results.add(result);
+		}
+		return results;
+	}
+
+	// operations are applied in order, later operations see the changes made by earlier ones
+	private List<RuleOperationResult> applyRuleOperations(MappingRules rules, List<RuleOperation> operations, int fromIndex) {
+		List<RuleOperationResult> results = new ArrayList<>();
+		for (int i = fromIndex; i < operations.size(); i++) {
+			RuleOperation operation = operations.get(i);
+			RuleOperationResult result;
+			if (RuleOperation.Type.SAVE == operation.getOperation()) {
+				Rule rule = operation.getRule();
+				result = new RuleOperationResult(i, operation.getOperation(), rule.getUid());
+				// 1810 US427299 support user defined phase names
+				boolean supportGroups = ValidationUtils.validateNotEmpty(rule.getGroupId());
+				if (!rulesBusinessLogic.validateGroupDefinitions(rules, supportGroups)) {
+					result.addError(formattedErrorMessage(ActionStatus.INVALID_RULE_FORMAT, "invalid group definitions"));
+				} else if (!rulesBusinessLogic.addOrEditRule(rules, rule, supportGroups)) {
+					result.addError(formattedErrorMessage(ActionStatus.SAVE_RULE_FAILED));
+				} else {
+					result.setRuleUid(rule.getUid());
+				}
+			} else {
+				result = new RuleOperationResult(i, operation.getOperation(), operation.getRuleUid());
+				if (null == rulesBusinessLogic.deleteRule(rules, operation.getRuleUid())) {
+					errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Rule {} not found.", operation.getRuleUid());
+					result.addError(formattedErrorMessage(ActionStatus.DELETE_RULE_FAILED));
+				}
+			}
+			results.add(result);
+		}
+		return results;
+	}
+
+	private boolean allSucceeded(List<RuleOperationResult> results) {
+		return results.stream().allMatch(RuleOperationResult::isSuccess);
+	}
+
+	// one service exception per error, in the error response shape of the other rule editor apis
+	private ResponseEntity failedOperationsResponse(List<RuleOperationResult> results) {
+		List<ServiceException> errors = results.stream()
+				.filter(r -> !r.isSuccess())
+				.flatMap(r -> r.getErrors().stream().map(e -> ErrConfMgr.INSTANCE.getResponseFormat(ActionStatus.RULE_OPERATION_FAILED, null,
+						String.valueOf(r.getIndex()), String.valueOf(r.getOperation()).toLowerCase(), e).getRequestError().getServiceException()))
+				.collect(Collectors.toList());
+		return ErrConfMgr.INSTANCE.buildErrorArrayResponse(errors);
+	}
+
+	private String formattedErrorMessage(ActionStatus status, String... variables) {
+		return ErrConfMgr.INSTANCE.getResponseFormat(status, null, variables).getRequestError().getServiceException().getFormattedErrorMessage();
+	}
+
+	// thrown from within a rules edit, the error response is built by ErrConfMgr.handleException
+	private DcaeException rejectedEdit(ActionStatus status, String... variables) {
+		ResponseFormat responseFormat = ErrConfMgr.INSTANCE.getResponseFormat(status, null, variables);
+		return new DcaeException(HttpStatus.valueOf(responseFormat.getStatus()), responseFormat.getRequestError());
+	}
+
     // regardless of check in result, return save artifact success
     private ResponseEntity checkInAndReturnSaveArtifactResult(Object response, String vfcmtUuid, String userId, String requestId) {
         try {
@@ -626,12 +852,15 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
-    private void updateRulesArtifact(String vfcmtUuid, String userId, Artifact artifactInfo, MappingRules rules, String requestId) throws JsonProcessingException {
-        artifactInfo.setPayloadData(Base64Utils.encodeToString(rules.convertToPayload()));
-        // POST must contain 'description' while GET returns 'artifactDescription'
-        artifactInfo.setDescription(rules.describe());
-        getSdcRestClient().updateResourceArtifact(userId, vfcmtUuid, artifactInfo, requestId);
-    }
+	private static void copyRules(MappingRules source, MappingRules target) {
+		target.setVersion(source.getVersion());
+		target.setEventType(source.getEventType());
+		target.setNotifyId(source.getNotifyId());
+		target.setEntryPhase(source.getEntryPhase());
+		target.setPublishPhase(source.getPublishPhase());
+		target.setFilter(source.getFilter());
+		target.setRules(new LinkedHashMap<>(source.getRules()));
+	}
 
 	private boolean validateTranslateRequestFields(TranslateRequest request) {
 		return validateMandatoryRequestFields(request) && Stream.of(request.getPublishPhase(), request.getEntryPhase()).allMatch(ValidationUtils::validateNotEmpty)
@@ -651,47 +880,6 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
 	}
 
 
-    /**
-     * @param eventMapStream
-     * @param parent
-     * @param path
-     * @return
-     */
-    private List<EventTypeDefinitionUI> convertToEventTypeDefinition(Stream<Map.Entry<String, VesDataTypeDefinition>> eventMapStream, VesDataTypeDefinition parent, String path) {
-
-        return eventMapStream.map(entry -> {
-            Map<String, VesDataTypeDefinition> properties = entry.getValue().getProperties();
-            VesDataItemsDefinition items = entry.getValue().getItems();
-            String newPath = path + "." + entry.getKey();
-            List<EventTypeDefinitionUI> children = (properties == null) ? null : convertToEventTypeDefinition(properties.entrySet().stream(), entry.getValue(), newPath);
-            if (VesSimpleTypesEnum.ARRAY.getType().equals(entry.getValue().getType())) {
-                newPath += "[]";
-                if (innerTypeIsComplex(items)) {
-                    children = convertComplexArrayType(items, newPath);
-                } else if (innerTypeIsArray(items)) {
-                    newPath += "[]";
-                }
-            }
-
-            boolean isRequired = (parent != null) ? parent.getRequired().contains(entry.getKey()) : false;
-            return new EventTypeDefinitionUI(entry.getKey(), children, isRequired, newPath);
-        }).collect(Collectors.toList());
-    }
-
-    private boolean innerTypeIsComplex(VesDataItemsDefinition items) {
-        return items != null && items.stream().anyMatch(p -> p.getProperties() != null);
-    }
-
-    private boolean innerTypeIsArray(VesDataItemsDefinition items) {
-        return items != null && items.stream().anyMatch(p -> p.getItems() != null);
-    }
-
-    private List<EventTypeDefinitionUI> convertComplexArrayType(VesDataItemsDefinition items, String path) {
-        return items.stream().map(item -> item.getProperties() != null ? convertToEventTypeDefinition(item.getProperties().entrySet().stream(), item, path) : new ArrayList<EventTypeDefinitionUI>())
-                .flatMap(List::stream).collect(Collectors.toList());
-    }
-
-
     private String generateMappingRulesFileName(String dcaeCompLabel, String nid, String configParam) {
         return dcaeCompLabel + "_" + nid + "_" + configParam + DcaeBeConstants.Composition.fileNames.MAPPING_RULE_POSTFIX;
     }
@@ -708,11 +896,16 @@ public class RuleEditorBusinessLogic extends BaseBusinessLogic {
 	}
 
     private List<EventTypeDefinitionUI> getEventTypeDefinitionUIs(String version, String eventType) {
-        List<String> eventNamesToReturn = ListUtils.union(EventTypesByVersionUI.DEFAULT_EVENTS, Arrays.asList(eventType));
-        Map<String, VesDataTypeDefinition> eventDefs = VesStructureLoader.getEventListenerDefinitionByVersion(version);
-        Stream<Map.Entry<String, VesDataTypeDefinition>> filteredEvents = eventDefs.entrySet().stream().filter(entry -> eventNamesToReturn.contains(entry.getKey()));
+        return getEventTypeDefinitionTree(version, eventType).getDefinitions();
+    }
 
-        return convertToEventTypeDefinition(filteredEvents, null, "event");
+    private EventTypeDefinitionTree getEventTypeDefinitionTree(String version, String eventType) {
+        EventTypeDefinitionTree tree = VesStructureLoader.getEventTypeDefinitionTree(version, eventType);
+        if (null == tree) {
+            ResponseFormat responseFormat = ErrConfMgr.INSTANCE.getResponseFormat(ActionStatus.VES_SCHEMA_NOT_FOUND, null);
+            throw new DcaeException(HttpStatus.valueOf(responseFormat.getStatus()), responseFormat.getRequestError());
+        }
+        return tree;
     }
 
 
@@ -0,0 +1,180 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.composition.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.onap.sdc.common.onaplog.OnapLoggerDebug;
+import org.onap.sdc.common.onaplog.enums.LogLevel;
+import org.onap.sdc.dcae.client.ISdcClient;
+import org.onap.sdc.dcae.composition.restmodels.ruleeditor.MappingRules;
+import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
+import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
+import org.onap.sdc.dcae.errormng.ActionStatus;
+import org.onap.sdc.dcae.errormng.DcaeException;
+import org.onap.sdc.dcae.errormng.ErrConfMgr;
+import org.onap.sdc.dcae.errormng.ResponseFormat;
+import org.onap.sdc.dcae.rule.editor.utils.RulesPayloadUtils;
+import org.onap.sdc.dcae.utils.SdcRestClientUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Base64Utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the parsed mapping rules of recently edited rules artifacts, keyed by vfcmt and artifact uuid and tagged
+ * with the artifact checksum they were parsed from, so a rule edit only downloads and parses the artifact when it
+ * changed since the last edit made through this store.
+ * Edits of the same artifact are serialized. Before uploading, the checksum listed in the current vfcmt metadata is
+ * compared with the one the edit started from; when another editor got there first the edit is re-applied on top of
+ * the latest rules instead of overwriting them, and given up with a conflict after a few attempts.
+ * The payload and the checksum are read from SDC directly, as the cache in front of it may be a ttl behind; the
+ * writes go through the caching client so they drop what it holds for the vfcmt.
+ * The check and the upload are not atomic: SDC offers no conditional artifact update, and the lock only serializes
+ * the edits made through this store, so a write by another editor landing in between is overwritten.
+ */
+class RulesArtifactStore {
+
+	private static final int MAX_ATTEMPTS = 3;
+	private static final int LOCK_STRIPES = 64;
+	private static final String KEY_SEPARATOR = "/";
+
+	private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
+
+	private final Supplier<ISdcClient> sdcClient;
+	private final Supplier<ISdcClient> sdcReader;
+	private final Object[] locks = new Object[LOCK_STRIPES];
+	private final Map<String, CachedRules> entries;
+	private volatile int maxArtifacts = 128;
+
+	RulesArtifactStore(Supplier<ISdcClient> theSdcClient, Supplier<ISdcClient> theSdcReader) {
+		this.sdcClient = theSdcClient;
+		this.sdcReader = theSdcReader;
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			locks[i] = new Object();
+		}
+		this.entries = Collections.synchronizedMap(new LinkedHashMap<String, CachedRules>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedRules> theEldest) {
+				return size() > maxArtifacts;
+			}
+		});
+	}
+
+	void setMaxArtifacts(int theMaxArtifacts) {
+		this.maxArtifacts = theMaxArtifacts;
+	}
+
+	/**
+	 * Applies the edit to the rules held by the given artifact and uploads the result once. Any number of changes
+	 * made by the edit go out in that single upload; an artifact left without rules is deleted instead.
+	 * The edit rejects a change by throwing or by returning null, in which case nothing is written. It may be applied
+	 * more than once when the artifact is modified concurrently, so it should only depend on the rules it is handed.
+	 */
+	<T> T edit(String userId, String vfcmtUuid, Artifact rulesArtifact, String requestId, Function<MappingRules, T> theEdit) throws JsonProcessingException {
+		String key = vfcmtUuid + KEY_SEPARATOR + rulesArtifact.getArtifactUUID();
+		synchronized (lockFor(key)) {
+			Artifact artifact = rulesArtifact;
+			for (int attempt = 1; ; attempt++) {
+				MappingRules rules = load(key, vfcmtUuid, artifact, requestId);
+				// the cached rules are edited in place, whatever goes wrong from here on must not leave them behind
+				entries.remove(key);
+				T result = theEdit.apply(rules);
+				if (null == result) {
+					return null;
+				}
+				Artifact current = currentMetadata(vfcmtUuid, artifact.getArtifactUUID(), requestId);
+				if (null != current && Objects.equals(artifact.getArtifactChecksum(), current.getArtifactChecksum())) {
+					write(key, userId, vfcmtUuid, artifact, rules, requestId);
+					return result;
+				}
+				if (null == current || attempt == MAX_ATTEMPTS) {
+					throw conflict(artifact);
+				}
+				debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Rules artifact {} was modified concurrently (checksum {} -> {}), re-applying edit", key, artifact.getArtifactChecksum(), current.getArtifactChecksum());
+				artifact = current;
+			}
+		}
+	}
+
+	void invalidate(String vfcmtUuid, String artifactUuid) {
+		entries.remove(vfcmtUuid + KEY_SEPARATOR + artifactUuid);
+	}
+
+	void clear() {
+		entries.clear();
+	}
+
+	private MappingRules load(String key, String vfcmtUuid, Artifact artifact, String requestId) {
+		CachedRules cached = entries.get(key);
+		if (null != cached && null != artifact.getArtifactChecksum() && artifact.getArtifactChecksum().equals(cached.checksum)) {
+			return cached.rules;
+		}
+		String payload = sdcReader.get().getResourceArtifact(vfcmtUuid, artifact.getArtifactUUID(), requestId);
+		return RulesPayloadUtils.parseMappingRulesArtifactPayload(payload);
+	}
+
+	private Artifact currentMetadata(String vfcmtUuid, String artifactUuid, String requestId) {
+		ResourceDetailed vfcmt = sdcReader.get().getResource(vfcmtUuid, requestId);
+		if (null == vfcmt.getArtifacts()) {
+			return null;
+		}
+		return vfcmt.getArtifacts().stream().filter(a -> artifactUuid.equals(a.getArtifactUUID())).findAny().orElse(null);
+	}
+
+	private void write(String key, String userId, String vfcmtUuid, Artifact artifact, MappingRules rules, String requestId) throws JsonProcessingException {
+		if (rules.isEmpty()) { // if the file doesn't contain any rules after the edit -> let's delete the file
+			sdcClient.get().deleteResourceArtifact(userId, vfcmtUuid, artifact.getArtifactUUID(), requestId);
+			return;
+		}
+		byte[] payload = rules.convertToPayload();
+		artifact.setPayloadData(Base64Utils.encodeToString(payload));
+		// POST must contain 'description' while GET returns 'artifactDescription'
+		artifact.setDescription(rules.describe());
+		Artifact saved = sdcClient.get().updateResourceArtifact(userId, vfcmtUuid, artifact, requestId);
+		String checksum = null != saved && null != saved.getArtifactChecksum() ? saved.getArtifactChecksum() : SdcRestClientUtils.artifactChecksum(payload);
+		entries.put(key, new CachedRules(checksum, rules));
+	}
+
+	private DcaeException conflict(Artifact artifact) {
+		ResponseFormat responseFormat = ErrConfMgr.INSTANCE.getResponseFormat(ActionStatus.RULES_ARTIFACT_CONFLICT, null, artifact.getArtifactName());
+		return new DcaeException(HttpStatus.CONFLICT, responseFormat.getRequestError());
+	}
+
+	private Object lockFor(String key) {
+		return locks[(key.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+	}
+
+	private static class CachedRules {
+
+		private final String checksum;
+		private final MappingRules rules;
+
+		private CachedRules(String checksum, MappingRules rules) {
+			this.checksum = checksum;
+			this.rules = rules;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.composition.restmodels.ruleeditor;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.gson.annotations.SerializedName;
+
+public class RuleOperation {
+
+	// requests are read with gson, results are written with jackson
+	public enum Type {
+		@SerializedName("save") @JsonProperty("save")
+		SAVE,
+		@SerializedName("delete") @JsonProperty("delete")
+		DELETE
+	}
+
+	private Type operation;
+	// the rule to add or edit
+	private Rule rule;
+	// the uid of the rule to delete
+	private String ruleUid;
+
+	public Type getOperation() {
+		return operation;
+	}
+
+	public void setOperation(Type operation) {
+		this.operation = operation;
+	}
+
+	public Rule getRule() {
+		return rule;
+	}
+
+	public void setRule(Rule rule) {
+		this.rule = rule;
+	}
+
+	public String getRuleUid() {
+		return ruleUid;
+	}
+
+	public void setRuleUid(String ruleUid) {
+		this.ruleUid = ruleUid;
+	}
+}
@@ -0,0 +1,68 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.composition.restmodels.ruleeditor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RuleOperationResult {
+
+	private int index;
+	private RuleOperation.Type operation;
+	private String ruleUid;
+	private boolean success = true;
+	private List<String> errors = new ArrayList<>();
+
+	public RuleOperationResult(int index, RuleOperation.Type operation, String ruleUid) {
+		this.index = index;
+		this.operation = operation;
+		this.ruleUid = ruleUid;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public RuleOperation.Type getOperation() {
+		return operation;
+	}
+
+	public String getRuleUid() {
+		return ruleUid;
+	}
+
+	public void setRuleUid(String ruleUid) {
+		this.ruleUid = ruleUid;
+	}
+
+	public boolean isSuccess() {
+		return success;
+	}
+
+	public List<String> getErrors() {
+		return errors;
+	}
+
+	public void addError(String error) {
+		this.success = false;
+		this.errors.add(error);
+	}
+}
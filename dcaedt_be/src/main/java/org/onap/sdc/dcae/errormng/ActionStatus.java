@@ -66,5 +66,7 @@ public enum ActionStatus {
 	CATALOG_NOT_AVAILABLE,
 	AUTH_ERROR,
 	DELETE_BLUEPRINT_FAILED,
+	RULES_ARTIFACT_CONFLICT,
+	RULE_OPERATION_FAILED,
 	AS_IS
 }
@@ -0,0 +1,201 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.rule.editor.engine;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Replays a corpus of events through compiled rules without deploying them.
+ * Events are read and processed one at a time, so the size of the corpus is not limited by memory - only the totals,
+ * the processing time distribution and the results of the first events are kept.
+ */
+public class DryRun {
+
+	private final MappingRulesEngine engine;
+	private final List<String> ruleUids;
+	private final int maxResults;
+	private final JsonParser parser = new JsonParser();
+
+	private final long[] hits;
+	private final LatencyHistogram latencies = new LatencyHistogram();
+	private final DryRunReport report = new DryRunReport();
+	private long events;
+	private long changed;
+	private long published;
+	private long failed;
+
+	/**
+	 * @param engine     the compiled rules
+	 * @param ruleUids   the uids of the compiled rules by position - null for the entry phase, followed by the rules in the order they were translated
+	 * @param maxResults the number of events whose changes are reported
+	 */
+	public DryRun(MappingRulesEngine engine, List<String> ruleUids, int maxResults) {
+		this.engine = engine;
+		this.ruleUids = ruleUids;
+		this.maxResults = maxResults;
+		this.hits = new long[engine.getRuleCount()];
+	}
+
+	/**
+	 * @param input either a json array of events or one event per line (ndjson)
+	 */
+	public DryRunReport run(Reader input) throws IOException {
+		long start = System.currentTimeMillis();
+		PushbackReader reader = new PushbackReader(new BufferedReader(input));
+		int first = reader.read();
+		while (-1 != first && Character.isWhitespace(first)) {
+			first = reader.read();
+		}
+		if (-1 != first) {
+			reader.unread(first);
+			if ('[' == first) {
+				runArray(new JsonReader(reader));
+			} else {
+				runLines(new BufferedReader(reader));
+			}
+		}
+		return buildReport(System.currentTimeMillis() - start);
+	}
+
+	private void runArray(JsonReader reader) throws IOException {
+		try {
+			reader.beginArray();
+			while (reader.hasNext()) {
+				process(parser.parse(reader));
+			}
+			reader.endArray();
+		} catch (JsonParseException | IllegalStateException | EOFException e) {
+			// invalid or truncated, the position in the array is lost. the events read so far are reported
+			report.setError("Stopped reading events after event " + events + ": " + e.getMessage());
+		}
+	}
+
+	// a line that is not valid json fails that event only
+	private void runLines(BufferedReader reader) throws IOException {
+		String line;
+		while (null != (line = reader.readLine())) {
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			JsonElement event;
+			try {
+				event = parser.parse(line);
+			} catch (JsonParseException e) {
+				fail("Invalid event: " + e.getMessage());
+				continue;
+			}
+			process(event);
+		}
+	}
+
+	private void process(JsonElement element) {
+		if (!element.isJsonObject()) {
+			fail("Invalid event: not a json object");
+			return;
+		}
+		JsonObject event = element.getAsJsonObject();
+		JsonObject original = event.deepCopy();
+		Execution execution;
+		long start = System.nanoTime();
+		try {
+			execution = engine.process(event);
+		} catch (RuntimeException e) {
+			fail(e.getMessage());
+			return;
+		}
+		latencies.record(System.nanoTime() - start);
+		execution.getMatchedRules().forEach(r -> hits[r]++);
+		if (!execution.getOutputPhases().isEmpty()) {
+			published++;
+		}
+		List<DryRunReport.FieldChange> changes = new ArrayList<>();
+		diff("", original, event, changes);
+		if (!changes.isEmpty()) {
+			changed++;
+		}
+		if (report.getResults().size() < maxResults) {
+			report.getResults().add(new DryRunReport.EventResult(events, changes, execution));
+		}
+		events++;
+	}
+
+	private void fail(String error) {
+		if (report.getResults().size() < maxResults) {
+			report.getResults().add(new DryRunReport.EventResult(events, error));
+		}
+		failed++;
+		events++;
+	}
+
+	// objects are compared field by field, any other value as a whole
+	private static void diff(String field, JsonElement before, JsonElement after, List<DryRunReport.FieldChange> changes) {
+		if (Objects.equals(before, after)) {
+			return;
+		}
+		if (null != before && null != after && before.isJsonObject() && after.isJsonObject()) {
+			Set<String> fields = new TreeSet<>(before.getAsJsonObject().keySet());
+			fields.addAll(after.getAsJsonObject().keySet());
+			for (String child : fields) {
+				diff(field.isEmpty() ? child : field + "." + child, before.getAsJsonObject().get(child), after.getAsJsonObject().get(child), changes);
+			}
+			return;
+		}
+		DryRunReport.FieldChange.Type type = null == before ? DryRunReport.FieldChange.Type.ADDED : null == after ? DryRunReport.FieldChange.Type.REMOVED : DryRunReport.FieldChange.Type.CHANGED;
+		changes.add(new DryRunReport.FieldChange(field, type, ValueTemplate.asString(before), ValueTemplate.asString(after)));
+	}
+
+	private DryRunReport buildReport(long totalMillis) {
+		report.setEvents(events);
+		report.setChangedEvents(changed);
+		report.setPublishedEvents(published);
+		report.setFailedEvents(failed);
+		report.setTotalMillis(totalMillis);
+		double processingNanos = latencies.getTotal();
+		report.setProcessingMillis(processingNanos / 1e6);
+		report.setEventsPerSecond(0 == processingNanos ? 0 : latencies.getCount() / (processingNanos / 1e9));
+		report.getLatencyMicros().put("min", latencies.getMin() / 1e3);
+		report.getLatencyMicros().put("mean", latencies.getMean() / 1e3);
+		report.getLatencyMicros().put("p50", latencies.getPercentile(50) / 1e3);
+		report.getLatencyMicros().put("p90", latencies.getPercentile(90) / 1e3);
+		report.getLatencyMicros().put("p99", latencies.getPercentile(99) / 1e3);
+		report.getLatencyMicros().put("max", latencies.getMax() / 1e3);
+		for (int i = 0; i < hits.length; i++) {
+			report.getRules().add(new DryRunReport.RuleHits(i < ruleUids.size() ? ruleUids.get(i) : null, engine.getRulePhase(i), hits[i]));
+		}
+		return report;
+	}
+}
@@ -0,0 +1,238 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.rule.editor.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of running a corpus of events through the rules - totals, hits per rule, the processing time
+ * distribution and the changes made to the first events.
+ */
+public class DryRunReport {
+
+	private long events;
+	private long changedEvents;
+	private long publishedEvents;
+	private long failedEvents;
+	private long totalMillis;
+	private double processingMillis;
+	private double eventsPerSecond;
+	private Map<String, Double> latencyMicros = new LinkedHashMap<>();
+	private List<RuleHits> rules = new ArrayList<>();
+	private List<EventResult> results = new ArrayList<>();
+	private String error;
+
+	public long getEvents() {
+		return events;
+	}
+
+	void setEvents(long events) {
+		this.events = events;
+	}
+
+	public long getChangedEvents() {
+		return changedEvents;
+	}
+
+	void setChangedEvents(long changedEvents) {
+		this.changedEvents = changedEvents;
+	}
+
+	// events handed to a phase without rules, normally the publish phase
+	public long getPublishedEvents() {
+		return publishedEvents;
+	}
+
+	void setPublishedEvents(long publishedEvents) {
+		this.publishedEvents = publishedEvents;
+	}
+
+	public long getFailedEvents() {
+		return failedEvents;
+	}
+
+	void setFailedEvents(long failedEvents) {
+		this.failedEvents = failedEvents;
+	}
+
+	// including reading and parsing the events
+	public long getTotalMillis() {
+		return totalMillis;
+	}
+
+	void setTotalMillis(long totalMillis) {
+		this.totalMillis = totalMillis;
+	}
+
+	public double getProcessingMillis() {
+		return processingMillis;
+	}
+
+	void setProcessingMillis(double processingMillis) {
+		this.processingMillis = processingMillis;
+	}
+
+	// events processed per second of processing time
+	public double getEventsPerSecond() {
+		return eventsPerSecond;
+	}
+
+	void setEventsPerSecond(double eventsPerSecond) {
+		this.eventsPerSecond = eventsPerSecond;
+	}
+
+	// min, mean, p50, p90, p99 and max
+	public Map<String, Double> getLatencyMicros() {
+		return latencyMicros;
+	}
+
+	public List<RuleHits> getRules() {
+		return rules;
+	}
+
+	public List<EventResult> getResults() {
+		return results;
+	}
+
+	// set if reading the events stopped before the end of the input
+	public String getError() {
+		return error;
+	}
+
+	void setError(String error) {
+		this.error = error;
+	}
+
+	public static class RuleHits {
+
+		private final String ruleUid;
+		private final String phase;
+		private final long hits;
+
+		RuleHits(String ruleUid, String phase, long hits) {
+			this.ruleUid = ruleUid;
+			this.phase = phase;
+			this.hits = hits;
+		}
+
+		// null for the entry phase
+		public String getRuleUid() {
+			return ruleUid;
+		}
+
+		public String getPhase() {
+			return phase;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+	}
+
+	public static class EventResult {
+
+		private final long index;
+		private final List<FieldChange> changes;
+		private final List<String> outputPhases;
+		private final List<String> logs;
+		private final List<String> skippedProcessors;
+		private final String error;
+
+		EventResult(long index, List<FieldChange> changes, Execution execution) {
+			this.index = index;
+			this.changes = changes;
+			this.outputPhases = execution.getOutputPhases();
+			this.logs = execution.getLogs();
+			this.skippedProcessors = execution.getSkippedProcessors();
+			this.error = null;
+		}
+
+		EventResult(long index, String error) {
+			this.index = index;
+			this.changes = null;
+			this.outputPhases = null;
+			this.logs = null;
+			this.skippedProcessors = null;
+			this.error = error;
+		}
+
+		// position of the event in the input, starting at 0
+		public long getIndex() {
+			return index;
+		}
+
+		public List<FieldChange> getChanges() {
+			return changes;
+		}
+
+		public List<String> getOutputPhases() {
+			return outputPhases;
+		}
+
+		public List<String> getLogs() {
+			return logs;
+		}
+
+		public List<String> getSkippedProcessors() {
+			return skippedProcessors;
+		}
+
+		public String getError() {
+			return error;
+		}
+	}
+
+	public static class FieldChange {
+
+		public enum Type {ADDED, REMOVED, CHANGED}
+
+		private final String field;
+		private final Type type;
+		private final String before;
+		private final String after;
+
+		FieldChange(String field, Type type, String before, String after) {
+			this.field = field;
+			this.type = type;
+			this.before = before;
+			this.after = after;
+		}
+
+		public String getField() {
+			return field;
+		}
+
+		public Type getType() {
+			return type;
+		}
+
+		public String getBefore() {
+			return before;
+		}
+
+		public String getAfter() {
+			return after;
+		}
+	}
+}
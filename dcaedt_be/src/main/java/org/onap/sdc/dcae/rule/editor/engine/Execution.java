@@ -0,0 +1,92 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.rule.editor.engine;
+
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The run of a single event through the rules - the event as modified by the processors, the rules whose filters matched,
+ * the phases the event was handed to and the log processor output.
+ */
+public class Execution {
+
+	private final JsonObject event;
+	private final List<Integer> matchedRules = new ArrayList<>();
+	private final List<String> outputPhases = new ArrayList<>();
+	private final List<String> logs = new ArrayList<>();
+	private final List<String> skippedProcessors = new ArrayList<>();
+	private int phaseDepth;
+
+	Execution(JsonObject event) {
+		this.event = event;
+	}
+
+	public JsonObject getEvent() {
+		return event;
+	}
+
+	// positions of the matched rules in the processing list, the entry phase is 0
+	public List<Integer> getMatchedRules() {
+		return Collections.unmodifiableList(matchedRules);
+	}
+
+	// phases without rules, such as the publish phase, the event was passed on to
+	public List<String> getOutputPhases() {
+		return Collections.unmodifiableList(outputPhases);
+	}
+
+	public List<String> getLogs() {
+		return Collections.unmodifiableList(logs);
+	}
+
+	// processors that depend on services outside the engine and were not run
+	public List<String> getSkippedProcessors() {
+		return Collections.unmodifiableList(skippedProcessors);
+	}
+
+	void ruleMatched(int rule) {
+		matchedRules.add(rule);
+	}
+
+	void output(String phase) {
+		outputPhases.add(phase);
+	}
+
+	void log(String text) {
+		logs.add(text);
+	}
+
+	void skip(String processor) {
+		skippedProcessors.add(processor);
+	}
+
+	int enterPhase() {
+		return ++phaseDepth;
+	}
+
+	void exitPhase() {
+		phaseDepth--;
+	}
+}
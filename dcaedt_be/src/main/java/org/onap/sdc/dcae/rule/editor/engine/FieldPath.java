@@ -0,0 +1,113 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.rule.editor.engine;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * A dot separated path to a field of an event, split once when the rules are compiled.
+ * Numeric segments address array elements when reading.
+ */
+final class FieldPath {
+
+	private final String path;
+	private final String[] segments;
+
+	private FieldPath(String path) {
+		this.path = path;
+		this.segments = path.split("\\.");
+	}
+
+	// fields are given either as a path or as a reference to one - 'event.x' or '${event.x}'
+	static FieldPath of(String field) {
+		String path = null == field ? "" : field.trim();
+		if (path.startsWith("${") && path.endsWith("}")) {
+			path = path.substring(2, path.length() - 1);
+		}
+		return new FieldPath(path);
+	}
+
+	// null if the field is not set
+	JsonElement get(JsonObject root) {
+		JsonElement current = root;
+		for (String segment : segments) {
+			if (current.isJsonObject()) {
+				current = current.getAsJsonObject().get(segment);
+			} else if (current.isJsonArray()) {
+				current = getElement(current.getAsJsonArray(), segment);
+			} else {
+				return null;
+			}
+			if (null == current || current.isJsonNull()) {
+				return null;
+			}
+		}
+		return current;
+	}
+
+	// missing parents are created, a parent that is not an object is not overwritten and the field is not set
+	boolean set(JsonObject root, JsonElement value) {
+		JsonObject parent = root;
+		for (int i = 0; i < segments.length - 1; i++) {
+			JsonElement next = parent.get(segments[i]);
+			if (null == next || next.isJsonNull()) {
+				next = new JsonObject();
+				parent.add(segments[i], next);
+			} else if (!next.isJsonObject()) {
+				return false;
+			}
+			parent = next.getAsJsonObject();
+		}
+		parent.add(segments[segments.length - 1], value);
+		return true;
+	}
+
+	void remove(JsonObject root) {
+		JsonObject parent = root;
+		for (int i = 0; i < segments.length - 1; i++) {
+			JsonElement next = parent.get(segments[i]);
+			if (null == next || !next.isJsonObject()) {
+				return;
+			}
+			parent = next.getAsJsonObject();
+		}
+		parent.remove(segments[segments.length - 1]);
+	}
+
+	String getRoot() {
+		return segments[0];
+	}
+
+	private static JsonElement getElement(JsonArray array, String segment) {
+		if (segment.isEmpty() || !segment.chars().allMatch(Character::isDigit) || segment.length() > 9) {
+			return null;
+		}
+		int index = Integer.parseInt(segment);
+		return index < array.size() ? array.get(index) : null;
+	}
+
+	@Override
+	public String toString() {
+		return path;
+	}
+}
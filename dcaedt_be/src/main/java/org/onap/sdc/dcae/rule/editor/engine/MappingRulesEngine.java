@@ -0,0 +1,147 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.rule.editor.engine;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Runs events through translated mapping rules - the processing phases produced by MappingRulesTranslator - the way
+ * the mapper does once they are deployed.
+ * The translation is compiled once into rules holding their filter and processors in executable form. A compiled
+ * engine is immutable and can process events from several threads, each event is modified in place.
+ */
+public class MappingRulesEngine {
+
+	// a phase running itself through its rules would never end
+	private static final int MAX_PHASE_DEPTH = 64;
+
+	private final List<CompiledRule> rules;
+	private final String entryPhase;
+	private final List<CompiledRule> entryRules;
+
+	private MappingRulesEngine(List<CompiledRule> rules, Map<String, List<CompiledRule>> phases) {
+		this.rules = Collections.unmodifiableList(rules);
+		this.entryPhase = rules.get(0).phase;
+		this.entryRules = phases.get(entryPhase);
+	}
+
+	/**
+	 * @param translation the translated mapping rules json
+	 * @return the compiled rules
+	 * @throws IllegalArgumentException if the translation is not valid or uses a processor or filter the engine does not support
+	 */
+	public static MappingRulesEngine compile(String translation) {
+		JsonElement root = new JsonParser().parse(translation);
+		JsonArray processing = root.isJsonObject() ? root.getAsJsonObject().getAsJsonArray("processing") : null;
+		if (null == processing || 0 == processing.size()) {
+			throw new IllegalArgumentException("The translated rules contain no processing phases");
+		}
+		Map<String, List<CompiledRule>> phases = new HashMap<>();
+		List<CompiledRule> rules = new ArrayList<>(processing.size());
+		for (JsonElement element : processing) {
+			JsonObject rule = element.getAsJsonObject();
+			String phase = Processors.getString(rule, "phase");
+			JsonObject filter = rule.getAsJsonObject("filter");
+			List<Processors.Processor> processors = new ArrayList<>();
+			JsonArray ruleProcessors = rule.getAsJsonArray("processors");
+			if (null != ruleProcessors) {
+				ruleProcessors.forEach(p -> processors.add(Processors.compileProcessor(p.getAsJsonObject(), phases)));
+			}
+			CompiledRule compiled = new CompiledRule(rules.size(), phase, null == filter ? null : Processors.compileFilter(filter), processors.toArray(new Processors.Processor[0]));
+			rules.add(compiled);
+			phases.computeIfAbsent(phase, k -> new ArrayList<>()).add(compiled);
+		}
+		return new MappingRulesEngine(rules, phases);
+	}
+
+	public Execution process(String event) {
+		return process(new JsonParser().parse(event).getAsJsonObject());
+	}
+
+	// the event is modified in place
+	public Execution process(JsonObject event) {
+		Execution execution = new Execution(event);
+		runPhase(entryPhase, entryRules, execution);
+		return execution;
+	}
+
+	public String getEntryPhase() {
+		return entryPhase;
+	}
+
+	// the number of rules in the processing list, including the entry phase
+	public int getRuleCount() {
+		return rules.size();
+	}
+
+	public String getRulePhase(int rule) {
+		return rules.get(rule).phase;
+	}
+
+	static void runPhase(String phase, List<CompiledRule> phaseRules, Execution execution) {
+		if (phaseRules.isEmpty()) {
+			execution.output(phase);
+			return;
+		}
+		if (MAX_PHASE_DEPTH < execution.enterPhase()) {
+			throw new IllegalStateException("Phase " + phase + " was run recursively more than " + MAX_PHASE_DEPTH + " times");
+		}
+		for (CompiledRule rule : phaseRules) {
+			rule.run(execution);
+		}
+		execution.exitPhase();
+	}
+
+	static final class CompiledRule {
+
+		private final int index;
+		private final String phase;
+		private final Predicate<JsonObject> filter;
+		private final Processors.Processor[] processors;
+
+		private CompiledRule(int index, String phase, Predicate<JsonObject> filter, Processors.Processor[] processors) {
+			this.index = index;
+			this.phase = phase;
+			this.filter = filter;
+			this.processors = processors;
+		}
+
+		private void run(Execution execution) {
+			if (null != filter && !filter.test(execution.getEvent())) {
+				return;
+			}
+			execution.ruleMatched(index);
+			for (Processors.Processor processor : processors) {
+				processor.process(execution);
+			}
+		}
+	}
+}
@@ -0,0 +1,343 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.rule.editor.engine;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Compiles the processors and filters of the translated rules, by their class, into their executable form.
+ * Everything that does not depend on the event - field paths, value templates, regular expressions, date formats and
+ * time zones - is resolved here, once per rule set.
+ */
+final class Processors {
+
+	interface Processor {
+		void process(Execution execution);
+	}
+
+	private Processors() {
+	}
+
+	static Processor compileProcessor(JsonObject processor, Map<String, List<MappingRulesEngine.CompiledRule>> phases) {
+		String clazz = getClass(processor, "processor");
+		switch (clazz) {
+			case "RunPhase":
+				return runPhase(getString(processor, "phase"), phases);
+			case "Set":
+				return set(processor.getAsJsonObject("updates"));
+			case "ExtractText":
+				return extractText(processor);
+			case "MapAlarmValues":
+				return mapValues(processor);
+			case "ReplaceText":
+				return replaceText(processor);
+			case "DateFormatter":
+				return dateFormatter(processor);
+			case "StringTransform":
+				return stringTransform(processor);
+			case "Clear":
+				return clear(getStrings(processor, "fields"));
+			case "ClearNoneStandardFields":
+				return clearNoneStandardFields(getStrings(processor, "reservedFields"));
+			case "LogText":
+				return logText(processor);
+			case "LogEvent":
+				return logEvent(processor);
+			case "SnmpConvertor":
+				return snmpConvertor(processor);
+			case "TopoSearch":
+				// the topology is searched by the mapper, the filter is compiled to validate it
+				Optional.ofNullable(processor.getAsJsonObject("searchFilter")).ifPresent(Processors::compileFilter);
+				return e -> e.skip(clazz);
+			default:
+				throw new IllegalArgumentException("Unsupported processor class " + clazz);
+		}
+	}
+
+	static Predicate<JsonObject> compileFilter(JsonObject filter) {
+		String clazz = getClass(filter, "filter");
+		switch (clazz) {
+			case "And":
+				return getFilters(filter).stream().reduce(Predicate::and).orElse(e -> true);
+			case "Or":
+				return getFilters(filter).stream().reduce(Predicate::or).orElse(e -> false);
+			case "Equals":
+				return compare(filter, String::equals);
+			case "NotEqual":
+				return compare(filter, (value, other) -> !value.equals(other));
+			case "Contains":
+				return compare(filter, String::contains);
+			case "StartsWith":
+				return compare(filter, String::startsWith);
+			case "EndsWith":
+				return compare(filter, String::endsWith);
+			case "OneOf":
+				return oneOf(filter);
+			case "NotOneOf":
+				return oneOf(filter).negate();
+			case "Assigned":
+				return assigned(filter);
+			case "Unassigned":
+				return assigned(filter).negate();
+			default:
+				throw new IllegalArgumentException("Unsupported filter class " + clazz);
+		}
+	}
+
+	private static Processor runPhase(String phase, Map<String, List<MappingRulesEngine.CompiledRule>> phases) {
+		// resolved to the rules of the phase, which are added as they are compiled
+		List<MappingRulesEngine.CompiledRule> rules = phases.computeIfAbsent(phase, k -> new ArrayList<>());
+		return e -> MappingRulesEngine.runPhase(phase, rules, e);
+	}
+
+	private static Processor set(JsonObject updates) {
+		FieldPath[] targets = updates.keySet().stream().map(FieldPath::of).toArray(FieldPath[]::new);
+		ValueTemplate[] values = updates.entrySet().stream().map(u -> ValueTemplate.of(asString(u.getValue()))).toArray(ValueTemplate[]::new);
+		return e -> {
+			for (int i = 0; i < targets.length; i++) {
+				JsonElement value = values[i].evaluateElement(e.getEvent());
+				if (null != value) {
+					targets[i].set(e.getEvent(), value.deepCopy());
+				}
+			}
+		};
+	}
+
+	// the first group of the regex is extracted, the whole match if it has none
+	private static Processor extractText(JsonObject processor) {
+		Pattern regex = Pattern.compile(getString(processor, "regex"));
+		FieldPath target = FieldPath.of(getString(processor, "field"));
+		ValueTemplate value = ValueTemplate.of(getString(processor, "value"));
+		return e -> {
+			String text = value.evaluate(e.getEvent());
+			if (null == text) {
+				return;
+			}
+			Matcher matcher = regex.matcher(text);
+			if (matcher.find()) {
+				target.set(e.getEvent(), new JsonPrimitive(0 < matcher.groupCount() ? Objects.toString(matcher.group(1), "") : matcher.group()));
+			}
+		};
+	}
+
+	private static Processor mapValues(JsonObject processor) {
+		Map<String, String> map = new HashMap<>();
+		Optional.ofNullable(processor.getAsJsonObject("map")).ifPresent(m -> m.entrySet().forEach(entry -> map.put(entry.getKey(), asString(entry.getValue()))));
+		ValueTemplate value = ValueTemplate.of(getString(processor, "field"));
+		FieldPath target = FieldPath.of(getString(processor, "toField"));
+		String defaultValue = getString(processor, "default");
+		return e -> {
+			String mapped = map.getOrDefault(value.evaluate(e.getEvent()), defaultValue);
+			if (null != mapped) {
+				target.set(e.getEvent(), new JsonPrimitive(mapped));
+			}
+		};
+	}
+
+	private static Processor replaceText(JsonObject processor) {
+		FieldPath field = FieldPath.of(getString(processor, "field"));
+		String find = getString(processor, "find");
+		String replace = Objects.toString(getString(processor, "replace"), "");
+		return e -> {
+			String text = ValueTemplate.asString(field.get(e.getEvent()));
+			if (null != text && null != find && !find.isEmpty()) {
+				field.set(e.getEvent(), new JsonPrimitive(text.replace(find, replace)));
+			}
+		};
+	}
+
+	// the formats are SimpleDateFormat patterns, as in the mapper. a value that does not match the source format is left as is
+	private static Processor dateFormatter(JsonObject processor) {
+		ThreadLocal<DateFormat> fromFormat = dateFormat(processor, "fromFormat", "fromTz");
+		ThreadLocal<DateFormat> toFormat = dateFormat(processor, "toFormat", "toTz");
+		ValueTemplate value = ValueTemplate.of(getString(processor, "value"));
+		FieldPath target = FieldPath.of(getString(processor, "toField"));
+		return e -> {
+			String date = value.evaluate(e.getEvent());
+			if (null == date) {
+				return;
+			}
+			try {
+				target.set(e.getEvent(), new JsonPrimitive(toFormat.get().format(fromFormat.get().parse(date))));
+			} catch (ParseException ex) {
+				e.log("DateFormatter: failed to format '" + date + "' - " + ex.getMessage());
+			}
+		};
+	}
+
+	// the pattern and the zone are validated once. each thread formats with its own copy, the format is not thread safe
+	private static ThreadLocal<DateFormat> dateFormat(JsonObject processor, String formatMember, String zoneMember) {
+		String pattern = getString(processor, formatMember);
+		if (null == pattern) {
+			throw new IllegalArgumentException("DateFormatter " + formatMember + " is missing");
+		}
+		SimpleDateFormat format = new SimpleDateFormat(pattern);
+		format.setTimeZone(getTimeZone(getString(processor, zoneMember), zoneMember));
+		return ThreadLocal.withInitial(() -> (DateFormat) format.clone());
+	}
+
+	// an unknown id is not resolved to GMT as TimeZone.getTimeZone would
+	private static TimeZone getTimeZone(String id, String member) {
+		TimeZone zone = null == id ? null : TimeZone.getTimeZone(id);
+		if (null == zone || ("GMT".equals(zone.getID()) && !"GMT".equals(id))) {
+			throw new IllegalArgumentException("DateFormatter " + member + " is not a valid time zone: " + id);
+		}
+		return zone;
+	}
+
+	private static Processor stringTransform(JsonObject processor) {
+		String targetCase = Objects.toString(getString(processor, "targetCase"), "").toLowerCase(Locale.ENGLISH);
+		boolean trim = Boolean.parseBoolean(getString(processor, "trim"));
+		ValueTemplate value = ValueTemplate.of(getString(processor, "value"));
+		FieldPath target = FieldPath.of(getString(processor, "toField"));
+		return e -> {
+			String text = value.evaluate(e.getEvent());
+			if (null == text) {
+				return;
+			}
+			if (trim) {
+				text = text.trim();
+			}
+			if (targetCase.contains("upper")) {
+				text = text.toUpperCase(Locale.ENGLISH);
+			} else if (targetCase.contains("lower")) {
+				text = text.toLowerCase(Locale.ENGLISH);
+			}
+			target.set(e.getEvent(), new JsonPrimitive(text));
+		};
+	}
+
+	private static Processor clear(List<String> fields) {
+		FieldPath[] paths = fields.stream().map(FieldPath::of).toArray(FieldPath[]::new);
+		return e -> {
+			for (FieldPath path : paths) {
+				path.remove(e.getEvent());
+			}
+		};
+	}
+
+	// everything but the event itself and the reserved fields
+	private static Processor clearNoneStandardFields(List<String> reservedFields) {
+		Set<String> reserved = reservedFields.stream().map(f -> FieldPath.of(f).getRoot()).collect(Collectors.toSet());
+		reserved.add("event");
+		return e -> e.getEvent().keySet().removeIf(field -> !reserved.contains(field));
+	}
+
+	private static Processor logText(JsonObject processor) {
+		String prefix = String.format("[%s] %s: ", Objects.toString(getString(processor, "logLevel"), ""), Objects.toString(getString(processor, "logName"), ""));
+		ValueTemplate text = ValueTemplate.of(getString(processor, "logText"));
+		return e -> e.log(prefix + text.evaluate(e.getEvent()));
+	}
+
+	private static Processor logEvent(JsonObject processor) {
+		String title = Objects.toString(getString(processor, "title"), "");
+		return e -> e.log(title);
+	}
+
+	// each element of the array becomes a field named by its key column holding its data column
+	private static Processor snmpConvertor(JsonObject processor) {
+		FieldPath array = FieldPath.of(getString(processor, "array"));
+		String keyColumn = getString(processor, "keycolumn");
+		String dataColumn = getString(processor, "datacolumn");
+		return e -> {
+			JsonElement elements = array.get(e.getEvent());
+			if (null == elements || !elements.isJsonArray()) {
+				return;
+			}
+			for (JsonElement element : elements.getAsJsonArray()) {
+				if (element.isJsonObject() && element.getAsJsonObject().has(keyColumn)) {
+					JsonElement data = element.getAsJsonObject().get(dataColumn);
+					e.getEvent().add(asString(element.getAsJsonObject().get(keyColumn)), null == data ? null : data.deepCopy());
+				}
+			}
+		};
+	}
+
+	private static List<Predicate<JsonObject>> getFilters(JsonObject filter) {
+		JsonArray filters = filter.getAsJsonArray("filters");
+		return null == filters ? Collections.emptyList() : StreamSupport.stream(filters.spliterator(), false)
+				.map(f -> compileFilter(f.getAsJsonObject()))
+				.collect(Collectors.toList());
+	}
+
+	// string conditions compare a 'string', field conditions a 'field'. a field that is not set matches no value
+	private static Predicate<JsonObject> compare(JsonObject filter, BiPredicate<String, String> comparison) {
+		ValueTemplate left = ValueTemplate.of(getString(filter, filter.has("string") ? "string" : "field"));
+		ValueTemplate right = ValueTemplate.of(getString(filter, "value"));
+		return event -> {
+			String value = left.evaluate(event);
+			return null != value && comparison.test(value, right.evaluate(event));
+		};
+	}
+
+	private static Predicate<JsonObject> oneOf(JsonObject filter) {
+		ValueTemplate field = ValueTemplate.of(getString(filter, "field"));
+		Set<String> values = new HashSet<>(getStrings(filter, "values"));
+		return event -> values.contains(field.evaluate(event));
+	}
+
+	private static Predicate<JsonObject> assigned(JsonObject filter) {
+		ValueTemplate field = ValueTemplate.of(getString(filter, "field"));
+		boolean emptyIsAssigned = filter.has("emptyIsAssigned") && filter.get("emptyIsAssigned").getAsBoolean();
+		return event -> {
+			String value = field.evaluate(event);
+			return null != value && (emptyIsAssigned || !value.isEmpty());
+		};
+	}
+
+	private static String getClass(JsonObject object, String kind) {
+		String clazz = getString(object, "class");
+		if (null == clazz) {
+			throw new IllegalArgumentException("Missing " + kind + " class");
+		}
+		return clazz;
+	}
+
+	static String getString(JsonObject object, String member) {
+		return asString(object.get(member));
+	}
+
+	private static List<String> getStrings(JsonObject object, String member) {
+		JsonElement values = object.get(member);
+		if (null == values || !values.isJsonArray()) {
+			return Collections.emptyList();
+		}
+		return StreamSupport.stream(values.getAsJsonArray().spliterator(), false).map(Processors::asString).collect(Collectors.toList());
+	}
+
+	private static String asString(JsonElement element) {
+		return null == element || element.isJsonNull() ? null : ValueTemplate.asString(element);
+	}
+}
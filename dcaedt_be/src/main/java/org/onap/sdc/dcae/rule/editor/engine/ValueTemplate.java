@@ -0,0 +1,101 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.rule.editor.engine;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A value of a processor or a filter - text with ${field} references to event fields.
+ * The text is split into its literals and the references are resolved to field paths once, when the rules are compiled.
+ */
+final class ValueTemplate {
+
+	private static final Pattern REFERENCE = Pattern.compile("\\$\\{([^}]+)}");
+	// the rule editor's explicit empty value
+	private static final String EXPLICIT_EMPTY = "\"\"";
+
+	// literals.length == references.length + 1
+	private final String[] literals;
+	private final FieldPath[] references;
+
+	private ValueTemplate(String[] literals, FieldPath[] references) {
+		this.literals = literals;
+		this.references = references;
+	}
+
+	static ValueTemplate of(String template) {
+		if (null == template || EXPLICIT_EMPTY.equals(template)) {
+			return new ValueTemplate(new String[]{""}, new FieldPath[0]);
+		}
+		List<String> literals = new ArrayList<>();
+		List<FieldPath> references = new ArrayList<>();
+		Matcher matcher = REFERENCE.matcher(template);
+		int start = 0;
+		while (matcher.find()) {
+			literals.add(template.substring(start, matcher.start()));
+			references.add(FieldPath.of(matcher.group(1)));
+			start = matcher.end();
+		}
+		literals.add(template.substring(start));
+		return new ValueTemplate(literals.toArray(new String[0]), references.toArray(new FieldPath[0]));
+	}
+
+	// a single reference evaluates to the referenced field as is, null if it is not set. unset references in text are left empty
+	JsonElement evaluateElement(JsonObject event) {
+		return isReference() ? references[0].get(event) : new JsonPrimitive(evaluate(event));
+	}
+
+	String evaluate(JsonObject event) {
+		if (isReference()) {
+			return asString(references[0].get(event));
+		}
+		if (0 == references.length) {
+			return literals[0];
+		}
+		StringBuilder value = new StringBuilder(literals[0]);
+		for (int i = 0; i < references.length; i++) {
+			JsonElement field = references[i].get(event);
+			if (null != field) {
+				value.append(asString(field));
+			}
+			value.append(literals[i + 1]);
+		}
+		return value.toString();
+	}
+
+	private boolean isReference() {
+		return 1 == references.length && literals[0].isEmpty() && literals[1].isEmpty();
+	}
+
+	static String asString(JsonElement element) {
+		if (null == element) {
+			return null;
+		}
+		return element.isJsonPrimitive() ? element.getAsString() : element.toString();
+	}
+}
@@ -0,0 +1,129 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.rule.editor.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Dependencies between rule elements - the actions of a rule or the rules of a mapping rules file.
+ * The dependency definition is evaluated once per pair of items when the graph is built, after which finding the
+ * circular dependencies and ordering the items are linear in the number of items and dependencies.
+ * Items are reported in their original order so the results do not depend on how the graph was traversed.
+ */
+class DependencyGraph<T> {
+
+	private final List<T> items;
+	// dependencies.get(i) - indices of the items item i depends on, dependents.get(i) - indices of the items depending on item i
+	private final List<List<Integer>> dependencies;
+	private final List<List<Integer>> dependents;
+
+	DependencyGraph(Collection<T> allItems, BiPredicate<T, T> dependsOn) {
+		this.items = new ArrayList<>(allItems);
+		int size = items.size();
+		this.dependencies = new ArrayList<>(size);
+		this.dependents = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			dependencies.add(new ArrayList<>());
+			dependents.add(new ArrayList<>());
+		}
+		for (int i = 0; i < size; i++) {
+			T item = items.get(i);
+			for (int j = 0; j < size; j++) {
+				if (dependsOn.test(item, items.get(j))) {
+					dependencies.get(i).add(j);
+					dependents.get(j).add(i);
+				}
+			}
+		}
+	}
+
+	boolean hasDependencies() {
+		return dependencies.stream().anyMatch(d -> !d.isEmpty());
+	}
+
+	//	 if all dependencies are resolvable returns empty list
+	//	 else returns the non resolvable items - items that are part of a circular dependency or depend on one
+	//	 resolvable items are peeled off starting from the items without dependencies (Kahn's algorithm on the reversed graph)
+
+	List<T> circularDependentItems() {
+		int[] unresolved = new int[items.size()];
+		Deque<Integer> resolvable = new ArrayDeque<>();
+		for (int i = 0; i < items.size(); i++) {
+			unresolved[i] = dependencies.get(i).size();
+			if (0 == unresolved[i]) {
+				resolvable.add(i);
+			}
+		}
+		while (!resolvable.isEmpty()) {
+			for (int dependent : dependents.get(resolvable.poll())) {
+				if (0 == --unresolved[dependent]) {
+					resolvable.add(dependent);
+				}
+			}
+		}
+		return IntStream.range(0, items.size()).filter(i -> 0 != unresolved[i]).mapToObj(items::get).collect(Collectors.toList());
+	}
+
+	// every item is placed after the items it depends on: items are visited in their original order and the
+	// dependencies of an item that were not placed yet are placed right before it (depth first, iteratively).
+	// an item depending on itself does not need to move
+	// ties are broken by the original order, which is part of the contract (it decides the order of the emitted rules):
+	// - items that do not depend on each other keep their original relative order, unless one of them is pulled
+	//   ahead as the dependency of an earlier item
+	// - the dependencies of an item are placed in their original order, each right after its own dependencies
+	// for a given input this differs from the order the former move-before reordering gave in some cases, that one
+	// could leave an item ahead of one of its dependencies
+	List<T> orderedItems() {
+		List<T> ordered = new ArrayList<>(items.size());
+		boolean[] visited = new boolean[items.size()];
+		// pairs of item index and the position of the next dependency to visit
+		Deque<int[]> path = new ArrayDeque<>();
+		for (int i = 0; i < items.size(); i++) {
+			if (visited[i]) {
+				continue;
+			}
+			visited[i] = true;
+			path.push(new int[]{i, 0});
+			while (!path.isEmpty()) {
+				int[] current = path.peek();
+				List<Integer> itemDependencies = dependencies.get(current[0]);
+				if (current[1] == itemDependencies.size()) {
+					path.pop();
+					ordered.add(items.get(current[0]));
+					continue;
+				}
+				int dependency = itemDependencies.get(current[1]++);
+				if (!visited[dependency]) {
+					visited[dependency] = true;
+					path.push(new int[]{dependency, 0});
+				}
+			}
+		}
+		return ordered;
+	}
+}
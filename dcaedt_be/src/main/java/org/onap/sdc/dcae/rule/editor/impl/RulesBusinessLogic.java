@@ -31,6 +31,7 @@ import org.onap.sdc.dcae.errormng.ErrConfMgr;
 import org.onap.sdc.dcae.errormng.ResponseFormat;
 import org.onap.sdc.dcae.errormng.ServiceException;
 import org.onap.sdc.dcae.rule.editor.enums.RuleEditorElementType;
+import org.onap.sdc.dcae.rule.editor.engine.MappingRulesEngine;
 import org.onap.sdc.dcae.rule.editor.translators.MappingRulesTranslator;
 import org.onap.sdc.dcae.rule.editor.utils.EmptyStringTranslationSerializer;
 import org.onap.sdc.dcae.rule.editor.utils.ValidationUtils;
@@ -40,7 +41,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import java.util.*;
-import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -93,6 +93,11 @@ public class RulesBusinessLogic {
 		return gsonTranslator.toJson(mappingRulesTranslator.translateToHpJson(rules));
 	}
 
+	// the translation compiled for running events through it locally
+	public MappingRulesEngine compileRules(MappingRules rules) {
+		return MappingRulesEngine.compile(translateRules(rules));
+	}
+
 	public boolean addOrEditRule(MappingRules rules, Rule rule, boolean supportGroups) {
 		// in case the rule id is passed but the rule doesn't exist on the mapping rule file:
 		if(StringUtils.isNotBlank(rule.getUid()) && !rules.ruleExists(rule)) {
@@ -121,51 +126,24 @@ public class RulesBusinessLogic {
 		return rulesByGroupId.stream().map(rule -> rules.removeRule(rule.getUid())).collect(Collectors.toList());
 	}
 
-	private <T> List<T> detectDependentItemsByDependencyDefinition(Collection<T> allItems, BiFunction<T, Collection<T>, Boolean> dependencyDefinition) {
-		return allItems.stream().filter(i -> dependencyDefinition.apply(i, allItems)).collect(Collectors.toList());
+	// an item depends on another when its dependency definition holds against that item alone
+	private static DependencyGraph<BaseAction> actionDependencyGraph(Collection<BaseAction> actions) {
+		return new DependencyGraph<>(actions, (a, o) -> a.hasDependencies(Collections.singletonList(o)));
 	}
 
-	//	 if all dependencies are resolvable returns empty list
-	//	 else returns list of non resolvable items (circular dependent items)
-	//	 iterate through all dependentItems removing resolvable items each iteration.
-
-	private <T> List<T> detectCircularDependenciesByDependencyDefinition(List<T> dependentItems, BiFunction<T, Collection<T>, Boolean> dependencyDetector) {
-		while(!CollectionUtils.isEmpty(dependentItems)) {
-			List<T> resolvable = dependentItems.stream()
-					.filter(i -> !dependencyDetector.apply(i, dependentItems))
-					.collect(Collectors.toList());
-			if(CollectionUtils.isEmpty(resolvable)) {
-				break;
-			}
-			dependentItems.removeAll(resolvable);
-		}
-		return dependentItems;
-	}
-
-	private <T> List<T> reorderItemsByDependencyDefinition(Collection<T> allItems, BiFunction<T, T, Boolean> dependencyDetector) {
-		List<T> ordered = new ArrayList<>(allItems);
-		allItems.forEach(i -> {
-			List<T> dependencies = allItems.stream().filter(o -> dependencyDetector.apply(i, o)).collect(Collectors.toList());
-			dependencies.forEach(d -> {
-				if(ordered.indexOf(d) > ordered.indexOf(i)) {
-					ordered.remove(d);
-					ordered.add(ordered.indexOf(i), d);
-				}
-			});
-		});
-		return ordered;
+	private static DependencyGraph<Rule> ruleDependencyGraph(Collection<Rule> rules) {
+		return new DependencyGraph<>(rules, (r, o) -> r.referencesOtherRules(Collections.singletonList(o)));
 	}
 
 	private void detectAndResolveActionDependencies(Rule rule, List<ResponseFormat> errors) {
-		List<BaseAction> dependentActions = detectDependentItemsByDependencyDefinition(rule.getActions(), BaseAction::hasDependencies);
-		if(!CollectionUtils.isEmpty(dependentActions)) {
-			List<BaseAction> nonResolvable = detectCircularDependenciesByDependencyDefinition(dependentActions, BaseAction::hasDependencies);
+		DependencyGraph<BaseAction> dependencies = actionDependencyGraph(rule.getActions());
+		if(dependencies.hasDependencies()) {
+			List<BaseAction> nonResolvable = dependencies.circularDependentItems();
 			if (!CollectionUtils.isEmpty(nonResolvable)) {
 				errors.add(ErrConfMgr.INSTANCE.getResponseFormat(ActionStatus.ACTION_DEPENDENCY, null, nonResolvable.stream().map(BaseAction::strippedTarget).collect(Collectors.joining(", "))));
 				return;
 			}
-			List<BaseAction> actions = reorderItemsByDependencyDefinition(rule.getActions(), BaseAction::referencesTarget);
-			rule.setActions(actions);
+			rule.setActions(dependencies.orderedItems());
 		}
 	}
 
@@ -175,15 +153,15 @@ public class RulesBusinessLogic {
 	// else reorder and return true
 
 	private void detectAndResolveRuleDependencies(MappingRules rules, List<ResponseFormat> errors) {
-		List<Rule> dependentRules = detectDependentItemsByDependencyDefinition(rules.getRules().values(), Rule::referencesOtherRules);
-		if(!CollectionUtils.isEmpty(dependentRules)) {
-			List<Rule> nonResolvable = detectCircularDependenciesByDependencyDefinition(dependentRules, Rule::referencesOtherRules);
+		DependencyGraph<Rule> dependencies = ruleDependencyGraph(rules.getRules().values());
+		if(dependencies.hasDependencies()) {
+			List<Rule> nonResolvable = dependencies.circularDependentItems();
 			if (!CollectionUtils.isEmpty(nonResolvable)) {
 				String nonResolvableRuleIds = nonResolvable.stream().map(Rule::getUid).collect(Collectors.joining(", "));
 				errors.add(ErrConfMgr.INSTANCE.getResponseFormat(ActionStatus.RULE_DEPENDENCY, null, nonResolvableRuleIds, extractDependentActionTargetsFromRules(nonResolvable)));
 				return;
 			}
-			reorderRulesByDependency(rules);
+			reorderRulesByDependency(rules, dependencies);
 		}
 	}
 
@@ -191,7 +169,7 @@ public class RulesBusinessLogic {
 	private String extractDependentActionTargetsFromRules(List<Rule> dependentRules) {
 		List<BaseAction> allActions = dependentRules.stream().map(Rule::getActions).flatMap(List::stream).collect(Collectors.toList());
 		// option 1: circular dependency between actions
-		List<BaseAction> nonResolvable = detectCircularDependenciesByDependencyDefinition(allActions, BaseAction::hasDependencies);
+		List<BaseAction> nonResolvable = actionDependencyGraph(allActions).circularDependentItems();
 		if(CollectionUtils.isEmpty(nonResolvable)) {
 			// option 2: circular dependency between rules - collect dependent actions and condition dependencies
 			nonResolvable = dependentRules.stream()
@@ -204,9 +182,8 @@ public class RulesBusinessLogic {
 				.collect(Collectors.joining(", "));
 	}
 
-	private void reorderRulesByDependency(MappingRules rules) {
-		List<Rule> ordered = reorderItemsByDependencyDefinition(rules.getRules().values(), Rule::referencesOtherRule);
-		Map<String, Rule> rulesMap = ordered.stream().collect(Collectors.toMap(Rule::getUid, Function.identity(), (u, v) -> {
+	private void reorderRulesByDependency(MappingRules rules, DependencyGraph<Rule> dependencies) {
+		Map<String, Rule> rulesMap = dependencies.orderedItems().stream().collect(Collectors.toMap(Rule::getUid, Function.identity(), (u, v) -> {
 			throw new IllegalStateException(String.format("Duplicate key %s", u));
 		}, LinkedHashMap::new));
 		rules.setRules(rulesMap);
@@ -44,6 +44,22 @@ public class MappingRulesTranslator implements IRuleElementTranslator<MappingRul
 		return new MappingRulesTranslation(mappingRules);
 	}
 
+	// the rules in the order of their translations in the processing list, which starts with the entry phase
+	public List<Rule> getRulesInTranslationOrder(MappingRules mappingRules) {
+		if (isSinglePhase(mappingRules)) {
+			return new ArrayList<>(mappingRules.getRules().values());
+		}
+		return groupByGroupId(mappingRules).values().stream().flatMap(List::stream).collect(Collectors.toList());
+	}
+
+	private boolean isSinglePhase(MappingRules mappingRules) {
+		return mappingRules.getRules().values().stream().noneMatch(r -> ValidationUtils.validateNotEmpty(r.getGroupId()));
+	}
+
+	private Map<String, List<Rule>> groupByGroupId(MappingRules mappingRules) {
+		return mappingRules.getRules().values().stream().collect(Collectors.groupingBy(Rule::getGroupId, LinkedHashMap::new, Collectors.toList()));
+	}
+
 	private List<Object> getPhaseTranslation(Collection<Rule> currentPhase) {
 		return currentPhase.stream().map(ruleTranslator::translateToHpJson).collect(Collectors.toList());
 	}
@@ -55,12 +71,12 @@ public class MappingRulesTranslator implements IRuleElementTranslator<MappingRul
 		private MappingRulesTranslation(MappingRules mappingRules) {
 			String firstRunPhase;
 			// single phase
-			if(mappingRules.getRules().values().stream().noneMatch(r -> ValidationUtils.validateNotEmpty(r.getGroupId()))) {
+			if(isSinglePhase(mappingRules)) {
 				processing = getPhaseTranslation(mappingRules.getRules().values());
 				firstRunPhase = mappingRules.getRules().values().iterator().next().getPhase();
 			} else {
 				// 1810 US427299 phase grouping - support user defined phase names
-				Map<String, List<Rule>> reorderByGroupId = mappingRules.getRules().values().stream().collect(Collectors.groupingBy(Rule::getGroupId, LinkedHashMap::new, Collectors.toList()));
+				Map<String, List<Rule>> reorderByGroupId = groupByGroupId(mappingRules);
 				List<String> phaseNames = new ArrayList<>();
 				processing = new ArrayList<>();
 				reorderByGroupId.forEach((k,v) -> {
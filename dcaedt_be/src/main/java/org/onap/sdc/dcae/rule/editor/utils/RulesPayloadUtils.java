@@ -20,8 +20,6 @@
 
 package org.onap.sdc.dcae.rule.editor.utils;
 
-import java.util.List;
-
 import org.onap.sdc.common.onaplog.enums.LogLevel;
 import org.onap.sdc.common.onaplog.OnapLoggerError;
 import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
@@ -66,8 +64,8 @@ public class RulesPayloadUtils {
         }
     }
 
-    public static String buildSchemaAndRulesResponse(String payload, List<EventTypeDefinitionUI> schema) {
-        return  "{\"schema\":"+gson.toJson(schema)+","+payload.replaceFirst("\\{", "");
+    public static String buildSchemaAndRulesResponse(String payload, String schemaJson) {
+        return  "{\"schema\":"+schemaJson+","+payload.replaceFirst("\\{", "");
     }
 
 
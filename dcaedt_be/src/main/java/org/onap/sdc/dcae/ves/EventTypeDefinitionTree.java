@@ -0,0 +1,140 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.ves;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.onap.sdc.dcae.composition.restmodels.ruleeditor.EventTypeDefinitionUI;
+import org.onap.sdc.dcae.composition.restmodels.ruleeditor.EventTypesByVersionUI;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The rule editor schema tree of a VES event type - the default events followed by the event type itself.
+ * Trees are built once per schema version when it is loaded and kept serialized, identified by an entity tag,
+ * so serving one is a copy of the prepared bytes.
+ */
+public class EventTypeDefinitionTree {
+
+	// same settings the rules payload is serialized with when the schema is embedded in it
+	private static final Gson gson = new GsonBuilder().serializeNulls().create();
+
+	private final List<EventTypeDefinitionUI> definitions;
+	private final byte[] json;
+	private final String schemaJson;
+	private final String eTag;
+
+	private EventTypeDefinitionTree(List<EventTypeDefinitionUI> definitions, ObjectMapper mapper) throws JsonProcessingException {
+		this.definitions = Collections.unmodifiableList(definitions);
+		this.json = mapper.writeValueAsBytes(definitions);
+		this.schemaJson = gson.toJson(definitions);
+		this.eTag = "\"" + DigestUtils.md5Hex(json) + "\"";
+	}
+
+	public List<EventTypeDefinitionUI> getDefinitions() {
+		return definitions;
+	}
+
+	// the definitions as returned by the definition api. shared between requests, must not be modified
+	public byte[] getJson() {
+		return json;
+	}
+
+	// the definitions as embedded in the rules and schema response
+	public String getSchemaJson() {
+		return schemaJson;
+	}
+
+	public String getETag() {
+		return eTag;
+	}
+
+	// If-None-Match may list several tags, weak tags are compared by value
+	public static boolean matches(String eTag, String ifNoneMatch) {
+		if (null == eTag || null == ifNoneMatch) {
+			return false;
+		}
+		return Arrays.stream(ifNoneMatch.split(",")).map(String::trim).map(t -> t.startsWith("W/") ? t.substring(2) : t).anyMatch(t -> "*".equals(t) || eTag.equals(t));
+	}
+
+	// one tree per event type of the version and per default event. the top level events are converted once and shared between the trees.
+	// the trees are serialized with the mapper the definition api would otherwise serialize them with
+	static Map<String, EventTypeDefinitionTree> buildAll(Map<String, VesDataTypeDefinition> eventDefs, ObjectMapper mapper) throws JsonProcessingException {
+		Map<String, EventTypeDefinitionUI> events = new LinkedHashMap<>();
+		eventDefs.forEach((k, v) -> events.put(k, convertToEventTypeDefinition(Stream.of(new AbstractMap.SimpleEntry<>(k, v)), null, EventListenerDefinition.EVENT_ROOT).get(0)));
+		Set<String> eventTypes = new LinkedHashSet<>(eventDefs.keySet());
+		eventTypes.addAll(EventTypesByVersionUI.DEFAULT_EVENTS);
+		Map<String, EventTypeDefinitionTree> trees = new HashMap<>();
+		for (String eventType : eventTypes) {
+			List<EventTypeDefinitionUI> definitions = events.entrySet().stream()
+					.filter(e -> EventTypesByVersionUI.DEFAULT_EVENTS.contains(e.getKey()) || eventType.equals(e.getKey()))
+					.map(Map.Entry::getValue)
+					.collect(Collectors.toList());
+			trees.put(eventType, new EventTypeDefinitionTree(definitions, mapper));
+		}
+		return trees;
+	}
+
+	/**
+	 * @param eventMapStream
+	 * @param parent
+	 * @param path
+	 * @return
+	 */
+	private static List<EventTypeDefinitionUI> convertToEventTypeDefinition(Stream<Map.Entry<String, VesDataTypeDefinition>> eventMapStream, VesDataTypeDefinition parent, String path) {
+
+		return eventMapStream.map(entry -> {
+			Map<String, VesDataTypeDefinition> properties = entry.getValue().getProperties();
+			VesDataItemsDefinition items = entry.getValue().getItems();
+			String newPath = path + "." + entry.getKey();
+			List<EventTypeDefinitionUI> children = (properties == null) ? null : convertToEventTypeDefinition(properties.entrySet().stream(), entry.getValue(), newPath);
+			if (VesSimpleTypesEnum.ARRAY.getType().equals(entry.getValue().getType())) {
+				newPath += "[]";
+				if (innerTypeIsComplex(items)) {
+					children = convertComplexArrayType(items, newPath);
+				} else if (innerTypeIsArray(items)) {
+					newPath += "[]";
+				}
+			}
+
+			boolean isRequired = (parent != null) ? parent.getRequired().contains(entry.getKey()) : false;
+			return new EventTypeDefinitionUI(entry.getKey(), children, isRequired, newPath);
+		}).collect(Collectors.toList());
+	}
+
+	private static boolean innerTypeIsComplex(VesDataItemsDefinition items) {
+		return items != null && items.stream().anyMatch(p -> p.getProperties() != null);
+	}
+
+	private static boolean innerTypeIsArray(VesDataItemsDefinition items) {
+		return items != null && items.stream().anyMatch(p -> p.getItems() != null);
+	}
+
+	private static List<EventTypeDefinitionUI> convertComplexArrayType(VesDataItemsDefinition items, String path) {
+		return items.stream().map(item -> item.getProperties() != null ? convertToEventTypeDefinition(item.getProperties().entrySet().stream(), item, path) : new ArrayList<EventTypeDefinitionUI>())
+				.flatMap(List::stream).collect(Collectors.toList());
+	}
+}
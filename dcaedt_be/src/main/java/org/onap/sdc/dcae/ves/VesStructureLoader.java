@@ -20,42 +20,70 @@
 
 package org.onap.sdc.dcae.ves;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
-import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.onap.sdc.common.onaplog.OnapLoggerDebug;
 import org.onap.sdc.common.onaplog.OnapLoggerError;
 import org.onap.sdc.common.onaplog.enums.LogLevel;
+import org.onap.sdc.dcae.composition.restmodels.ruleeditor.EventTypesByVersionUI;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.io.*;
 import java.lang.reflect.Type;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Registry of the VES schema versions found in config/dcae-be/ves-schema.
+ * Schema files are parsed in parallel on startup; the directory is then watched so a schema file that is added or
+ * replaced is loaded without a restart. Versions are swapped in as a whole - readers see either the previous or the
+ * new version of a schema, never a partially loaded one. A file that fails to load does not replace a loaded version.
+ */
 @Service("vesstructureloader")
 public class VesStructureLoader {
 
-
-
     private static OnapLoggerError errLogger = OnapLoggerError.getInstance();
     private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
 
-    private static Map<String, EventListenerDefinition> eventListeners = new HashMap<>();
+    // copy on write - replaced, never modified, when a version is loaded
+    private static volatile Map<String, LoadedSchema> schemas = Collections.emptyMap();
     private static final Type type = new TypeToken<VesDataItemsDefinition>(){}.getType();
     private static final Gson gson = new GsonBuilder().registerTypeAdapter(type, new VesJsonDeserializer()).create();
     private static final String SCHEMA_NAME_PREFIX = "CommonEventFormat_v";
     private static final String SCHEMA_NAME_SUFFIX = ".json";
 
-    private VesStructureLoader() {
+    private boolean watchEnabled = true;
+    private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private WatchService watchService;
+    private Thread watcher;
+
+    VesStructureLoader() {
+    }
+
+    @Value("${ves.schema.watch:true}")
+    public void setWatchEnabled(boolean watchEnabled) {
+        this.watchEnabled = watchEnabled;
+    }
+
+    // the application mapper, so the prepared trees are serialized as the definition api would serialize them
+    @Autowired(required = false)
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
     }
 
     @PostConstruct
@@ -69,54 +97,165 @@ public class VesStructureLoader {
             throw new IllegalArgumentException(msg + ". Failed to load VES schema files... aborting");
         }
         debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "jetty.base={}", jettyBase);
+        load(Paths.get(jettyBase, "config", "dcae-be", "ves-schema"));
+    }
 
-        File dir = new File(jettyBase + "/config/dcae-be/ves-schema");
-        File[] files = dir.listFiles((dir1, name) -> name.startsWith(SCHEMA_NAME_PREFIX) && name.endsWith(SCHEMA_NAME_SUFFIX));
-
-        if (ArrayUtils.isEmpty(files)) {
+    void load(Path dir) {
+        long start = System.currentTimeMillis();
+        List<LoadedSchema> loaded = loadAll(dir);
+        if (loaded.isEmpty()) {
             errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Error – Failed to find VES Schema definitions.");
         } else {
+            publish(loaded);
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Loaded {} VES schema versions ({} bytes) in {} ms", loaded.size(), loaded.stream().mapToLong(LoadedSchema::getBytes).sum(), System.currentTimeMillis() - start);
+        }
+        if (watchEnabled && Files.isDirectory(dir)) {
+            watch(dir);
+        }
+    }
 
-            for (File f : files) {
-                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Loading VES schema file: {}", f.getName());
-                parseJsonFileAndSaveToMap(f);
-            }
+    private List<LoadedSchema> loadAll(Path dir) {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(this::isSchemaFile).collect(Collectors.toList());
+        } catch (IOException e) {
+            errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Error: Failed to list VES schema directory {}. [{}]", dir, e);
+            return Collections.emptyList();
         }
+        return files.parallelStream().map(this::loadSchema).filter(Objects::nonNull).collect(Collectors.toList());
+    }
 
+    private boolean isSchemaFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SCHEMA_NAME_PREFIX) && name.endsWith(SCHEMA_NAME_SUFFIX) && Files.isRegularFile(path);
     }
 
-    private void parseJsonFileAndSaveToMap(File file) {
+    // returns null if the file could not be loaded
+    private LoadedSchema loadSchema(Path file) {
+        String fileName = file.getFileName().toString();
+        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Loading VES schema file: {}", fileName);
+        long start = System.currentTimeMillis();
+        try {
+            long bytes = Files.size(file);
+            FileTime lastModified = Files.getLastModifiedTime(file);
+            EventListenerDefinition eventListener;
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                eventListener = gson.fromJson(reader, EventListenerDefinition.class);
+            }
+            String validationError = null == eventListener ? "empty schema file" : getValidatorMessage(eventListener);
+            if (StringUtils.isNotEmpty(validationError)) {
+                errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Error: Failed to parse VES schema file {}. [{}]", fileName, validationError);
+                return null;
+            }
+            Map<String, EventTypeDefinitionTree> trees = EventTypeDefinitionTree.buildAll(eventListener.getProperties().get(EventListenerDefinition.EVENT_ROOT).getProperties(), objectMapper);
+            LoadedSchema schema = new LoadedSchema(getVersionFromFileName(fileName), fileName, eventListener, trees, bytes, lastModified, System.currentTimeMillis() - start);
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Loaded VES schema {} ({} bytes, {} event types) in {} ms", fileName, bytes, schema.getEventTypes().size(), schema.getLoadMillis());
+            return schema;
+        } catch (IOException | JsonIOException | JsonSyntaxException e) {
+            errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Error: Failed to parse VES schema file {}. [{}]", fileName, e);
+            return null;
+        }
+    }
 
+    private static synchronized void publish(Collection<LoadedSchema> loaded) {
+        Map<String, LoadedSchema> updated = new HashMap<>(schemas);
+        loaded.forEach(s -> updated.put(s.getVersion(), s));
+        schemas = Collections.unmodifiableMap(updated);
+    }
+
+    private void watch(Path dir) {
         try {
-            EventListenerDefinition eventListener = gson.fromJson(new FileReader(file), EventListenerDefinition.class);
-            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), gson.toJson(eventListener));
-            String validationError = getValidatorMessage(eventListener);
-            if (StringUtils.isEmpty(validationError)) {
-                eventListeners.put(getVersionFromFileName(file.getName()), eventListener);
-            } else {
-                errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Error: Failed to parse VES schema file {}. [{}]", file.getName(), validationError);
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Error: Failed to watch VES schema directory {}, new schema versions require a restart. [{}]", dir, e);
+            return;
+        }
+        watcher = new Thread(() -> pollChanges(dir), "ves-schema-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Watching VES schema directory {}", dir);
+    }
+
+    // deleted files are ignored, a version stays available until it is replaced or the application restarts
+    private void pollChanges(Path dir) {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+            List<WatchEvent<?>> events = key.pollEvents();
+            boolean overflow = events.stream().anyMatch(e -> StandardWatchEventKinds.OVERFLOW == e.kind());
+            Set<Path> changed = overflow ? listSchemaFiles(dir) : events.stream()
+                    .map(e -> dir.resolve((Path) e.context()))
+                    .filter(this::isSchemaFile)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            List<LoadedSchema> loaded = changed.stream().filter(this::isModified).map(this::loadSchema).filter(Objects::nonNull).collect(Collectors.toList());
+            if (!loaded.isEmpty()) {
+                publish(loaded);
+                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Reloaded VES schema versions {}", loaded.stream().map(LoadedSchema::getVersion).collect(Collectors.toList()));
+            }
+            if (!key.reset()) {
+                errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Error: VES schema directory {} is no longer accessible, stopped watching it", dir);
+                return;
             }
-        } catch (FileNotFoundException | JsonIOException | JsonSyntaxException e) {
-            errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Error: Failed to parse VES schema file {}. [{}]", file.getName(), e);
+        }
+    }
+
+    private Set<Path> listSchemaFiles(Path dir) {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.filter(this::isSchemaFile).collect(Collectors.toCollection(LinkedHashSet::new));
+        } catch (IOException e) {
+            errLogger.log(LogLevel.ERROR, this.getClass().getName(), "Error: Failed to list VES schema directory {}. [{}]", dir, e);
+            return Collections.emptySet();
+        }
+    }
+
+    // a single write of a file may be reported more than once
+    private boolean isModified(Path file) {
+        LoadedSchema current = schemas.get(getVersionFromFileName(file.getFileName().toString()));
+        try {
+            return null == current || current.getBytes() != Files.size(file) || !current.lastModified.equals(Files.getLastModifiedTime(file));
+        } catch (IOException e) {
+            return false;
         }
     }
 
     public static Map<String, VesDataTypeDefinition> getEventListenerDefinitionByVersion(String version) {
-        return eventListeners.get(version).getProperties().get(EventListenerDefinition.EVENT_ROOT).getProperties();
+        return schemas.get(version).eventListener.getProperties().get(EventListenerDefinition.EVENT_ROOT).getProperties();
+    }
+
+    // unknown event types get the default events only
+    public static EventTypeDefinitionTree getEventTypeDefinitionTree(String version, String eventType) {
+        LoadedSchema schema = schemas.get(version);
+        if (null == schema) {
+            return null;
+        }
+        return schema.trees.getOrDefault(eventType, schema.trees.get(EventTypesByVersionUI.DEFAULT_EVENTS.get(0)));
     }
 
     public static Set<String> getAvailableVersionsList() {
-        return eventListeners.keySet();
+        return schemas.keySet();
     }
 
     public static Map<String, Set<String>> getAvailableVersionsAndEventTypes() {
-        return eventListeners.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> getEventListenerDefinitionByVersion(e.getKey()).keySet()));
+        return schemas.values().stream().collect(Collectors.toMap(LoadedSchema::getVersion, LoadedSchema::getEventTypes));
     }
 
     public static Set<String> getEventTypeListByVersion(String version) {
         return getEventListenerDefinitionByVersion(version).keySet();
     }
 
+    // file, size and load time of each loaded version
+    public static Collection<LoadedSchema> getStatistics() {
+        return schemas.values().stream().sorted(Comparator.comparing(LoadedSchema::getVersion)).collect(Collectors.toList());
+    }
+
     private String getValidatorMessage(EventListenerDefinition eventListenerDefinition) {
         String validationError = eventListenerDefinition.validate();
         if (StringUtils.isBlank(validationError)) {
@@ -131,6 +270,68 @@ public class VesStructureLoader {
 
     @PreDestroy
     public void preDestroy() {
-        // why is this method empty?
+        if (null != watchService) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Failed to close VES schema watch service: {}", e);
+            }
+        }
+        if (null != watcher) {
+            watcher.interrupt();
+        }
+    }
+
+    public static class LoadedSchema {
+
+        private final String version;
+        private final String fileName;
+        private final EventListenerDefinition eventListener;
+        private final Map<String, EventTypeDefinitionTree> trees;
+        private final FileTime lastModified;
+        private final Set<String> eventTypes;
+        private final long bytes;
+        private final long loadMillis;
+        private final Date loadedAt = new Date();
+
+        private LoadedSchema(String version, String fileName, EventListenerDefinition eventListener, Map<String, EventTypeDefinitionTree> trees, long bytes, FileTime lastModified, long loadMillis) {
+            this.version = version;
+            this.fileName = fileName;
+            this.eventListener = eventListener;
+            this.trees = trees;
+            this.eventTypes = Collections.unmodifiableSet(eventListener.getProperties().get(EventListenerDefinition.EVENT_ROOT).getProperties().keySet());
+            this.bytes = bytes;
+            this.lastModified = lastModified;
+            this.loadMillis = loadMillis;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        @JsonIgnore
+        public Set<String> getEventTypes() {
+            return eventTypes;
+        }
+
+        public int getEventTypeCount() {
+            return eventTypes.size();
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getLoadMillis() {
+            return loadMillis;
+        }
+
+        public Date getLoadedAt() {
+            return loadedAt;
+        }
     }
 }
@@ -20,6 +20,7 @@
 
 package org.onap.sdc.dcae.composition.impl;
 
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -29,10 +30,20 @@ import org.onap.sdc.dcae.client.ISdcClient;
 import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
 import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
 import org.onap.sdc.dcae.errormng.ErrorConfigurationLoader;
+import org.onap.sdc.dcae.utils.SdcRestClientUtils;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.Base64Utils;
 import org.mockito.MockitoAnnotations;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.when;
 import static org.onap.sdc.dcae.composition.util.DcaeBeConstants.Composition.fileNames.COMPOSITION_YML;
@@ -51,6 +62,8 @@ public class BlueprintBusinessLogicTest {
     BlueprintBusinessLogic classUnderTest;
     @Mock
     private ISdcClient sdcClientMock;
+    @Mock
+    private CompositionCatalogBusinessLogic compositionCatalogBusinessLogicMock;
     private ResourceDetailed resourceDetailed;
 
     @Before
@@ -64,6 +77,11 @@ public class BlueprintBusinessLogicTest {
         when(sdcClientMock.getResource(eq(VFCMT_UUID), eq(REQUEST_ID))).thenReturn(resourceDetailed);
     }
 
+    @After
+    public void tearDown() {
+        classUnderTest.shutdown();
+    }
+
     @Test
     public void generateAndSaveBlueprint_compositionNotFound() {
         ResponseEntity responseEntity = classUnderTest.generateAndSaveBlueprint(USER_ID, CONTEXT, VFCMT_UUID, SERVICE_UUID, VFI_NAME, FLOW_TYPE, REQUEST_ID);
@@ -82,4 +100,53 @@ public class BlueprintBusinessLogicTest {
         Assert.assertEquals( 500, responseEntity.getStatusCodeValue());
     }
 
+    @Test
+    public void fetchModels_success() {
+        Artifact artifact = SdcRestClientUtils.generateCatalogDcaeToscaArtifact("template.yml", "/template.yml", "template".getBytes(StandardCharsets.UTF_8));
+        ResourceDetailed model = new ResourceDetailed();
+        model.setArtifacts(Collections.singletonList(artifact));
+        when(compositionCatalogBusinessLogicMock.fetchModelArtifactsAsync(eq("model"), eq(REQUEST_ID), any())).thenReturn(CompletableFuture.completedFuture(model));
+        List<Map> models = classUnderTest.fetchModels(Collections.singleton("model"), REQUEST_ID);
+        Assert.assertEquals(1, models.size());
+        Assert.assertEquals("dGVtcGxhdGU=", models.get(0).get("template"));
+    }
+
+    @Test
+    public void fetchModels_sendsDcaeToscaFilesAsUtf8() {
+        byte[] payload = "description: caf\u00e9 \u2713\n".getBytes(StandardCharsets.UTF_8);
+        Artifact other = new Artifact();
+        other.setArtifactName("blueprint.yml");
+        other.setArtifactType("DCAE_INVENTORY_BLUEPRINT");
+        other.setPayloadData("blueprint");
+        ResourceDetailed model = new ResourceDetailed();
+        model.setArtifacts(Arrays.asList(SdcRestClientUtils.generateCatalogDcaeToscaArtifact("template.yml", "/template.yml", payload), other));
+        when(compositionCatalogBusinessLogicMock.fetchModelArtifactsAsync(eq("model"), eq(REQUEST_ID), any())).thenReturn(CompletableFuture.completedFuture(model));
+        List<Map> models = classUnderTest.fetchModels(Collections.singleton("model"), REQUEST_ID);
+        Assert.assertEquals(Collections.singleton("template"), models.get(0).keySet());
+        Assert.assertArrayEquals(payload, Base64Utils.decodeFromString((String) models.get(0).get("template")));
+    }
+
+    @Test
+    public void fetchModels_timeoutCancelsRequests() {
+        CompletableFuture<ResourceDetailed> pending = new CompletableFuture<>();
+        when(compositionCatalogBusinessLogicMock.fetchModelArtifactsAsync(eq("pending"), eq(REQUEST_ID), any())).thenReturn(pending);
+        classUnderTest.setFetchTimeout(100);
+        Assert.assertNull(classUnderTest.fetchModels(Collections.singleton("pending"), REQUEST_ID));
+        Assert.assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void fetchModels_failureCancelsRequests() {
+        CompletableFuture<ResourceDetailed> pending = new CompletableFuture<>();
+        CompletableFuture<ResourceDetailed> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("csar not found"));
+        when(compositionCatalogBusinessLogicMock.fetchModelArtifactsAsync(eq("pending"), eq(REQUEST_ID), any())).thenReturn(pending);
+        when(compositionCatalogBusinessLogicMock.fetchModelArtifactsAsync(eq("failed"), eq(REQUEST_ID), any())).thenReturn(failed);
+        // does not wait for the pending fetch to time out
+        long start = System.currentTimeMillis();
+        Assert.assertNull(classUnderTest.fetchModels(new HashSet<>(Arrays.asList("pending", "failed")), REQUEST_ID));
+        Assert.assertTrue(System.currentTimeMillis() - start < 30000);
+        Assert.assertTrue(pending.isCancelled());
+    }
+
 }
@@ -20,39 +20,108 @@
 
 package org.onap.sdc.dcae.composition.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.json.JSONException;
+import org.json.JSONObject;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.onap.sdc.dcae.catalog.asdc.ASDCCatalog;
+import org.onap.sdc.dcae.catalog.Catalog;
 import org.onap.sdc.dcae.catalog.engine.CatalogController;
+import org.onap.sdc.dcae.catalog.engine.CatalogModelResponse;
+import org.onap.sdc.dcae.catalog.engine.CatalogResponse;
+import org.onap.sdc.dcae.catalog.engine.ElementRequest;
+import org.onap.sdc.dcae.client.ISdcAsyncClient;
 import org.onap.sdc.dcae.client.ISdcClient;
 import org.onap.sdc.dcae.composition.restmodels.canvas.DcaeComponentCatalog;
+import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
 import org.onap.sdc.dcae.composition.restmodels.sdc.Resource;
+import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
 import org.onap.sdc.dcae.composition.util.DcaeBeConstants;
 import org.onap.sdc.dcae.errormng.ErrorConfigurationLoader;
 import org.onap.sdc.dcae.errormng.ResponseFormat;
+import org.onap.sdc.dcae.utils.SdcRestClientUtils;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class CompositionCatalogBusinessLogicTest {
 
 	private final String REQUEST_ID = "123456";
+	private static final String TEMPLATE = "tosca_definitions_version: tosca_simple_yaml_1_0_0\n" +
+			"imports:\n" +
+			"  - schema: schema.yaml\n" +
+			"topology_template:\n" +
+			"  node_templates:\n" +
+			"    comp1:\n" +
+			"      type: dcae.nodes.Comp\n" +
+			"      properties:\n" +
+			"        port: 8080\n" +
+			"      capabilities:\n" +
+			"        stream_subscribe:\n" +
+			"          properties:\n" +
+			"            format: json\n";
+	private static final String SCHEMA = "tosca_definitions_version: tosca_simple_yaml_1_0_0\n" +
+			"capability_types:\n" +
+			"  dcae.capabilities.stream.subscribe:\n" +
+			"    derived_from: tosca.capabilities.Root\n" +
+			"    properties:\n" +
+			"      format:\n" +
+			"        type: string\n" +
+			"node_types:\n" +
+			"  dcae.nodes.Comp:\n" +
+			"    derived_from: tosca.nodes.Root\n" +
+			"    properties:\n" +
+			"      port:\n" +
+			"        type: integer\n" +
+			"    capabilities:\n" +
+			"      stream_subscribe:\n" +
+			"        type: dcae.capabilities.stream.subscribe\n";
+
 	private ASDCCatalog asdcCatalog = new ASDCCatalog();
 
+	@Rule
+	public TemporaryFolder storeDir = new TemporaryFolder();
+
+	@Rule
+	public TemporaryFolder dumpDir = new TemporaryFolder();
+
 	@Mock
 	private CatalogController catalogController;
 
 	@Mock
 	private ISdcClient sdcRestClient;
 
+	@Mock
+	private ISdcAsyncClient sdcAsyncClient;
+
 	@InjectMocks
 	private CompositionCatalogBusinessLogic compositionCatalogBusinessLogic;
 
@@ -60,6 +129,7 @@ public class CompositionCatalogBusinessLogicTest {
 	public void init() throws JSONException {
 		MockitoAnnotations.initMocks(this);
 		when(catalogController.getCatalog()).thenReturn(asdcCatalog);
+		asdcCatalog.setDumpDir(dumpDir.getRoot().getPath());
 		new ErrorConfigurationLoader(System.getProperty("user.dir")+"/src/main/webapp/WEB-INF");
 		mockCatalog();
 	}
@@ -78,6 +148,288 @@ public class CompositionCatalogBusinessLogicTest {
 		assertEquals("Invalid UUID string: invalidId", ((ResponseFormat)result.getBody()).getNotes());
 	}
 
+	@Test
+	public void getModelByIdStreamsRenderedModelTest() throws Exception {
+		String uuid = UUID.randomUUID().toString();
+		when(sdcRestClient.getResourceToscaModel(uuid, REQUEST_ID)).thenReturn(buildCsar());
+		ResponseEntity result = compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid);
+		assertEquals(200, result.getStatusCodeValue());
+		assertTrue(result.getBody() instanceof CatalogModelResponse);
+
+		// the streamed response must read the same as the one built through the org.json model
+		ResourceDetailed resource = new ResourceDetailed();
+		resource.setUuid(uuid);
+		resource.setToscaModelURL("/sdc/v1/catalog/resources/" + uuid + "/toscaModel/");
+		Catalog.Template template = asdcCatalog.template(resource).withNodes().withNodeProperties().withNodePropertiesAssignments().withNodeRequirements().withNodeCapabilities().withNodeCapabilityProperties()
+				.withNodeCapabilityPropertyAssignments().execute().result();
+		CatalogResponse expected = new CatalogResponse(ElementRequest.EMPTY_REQUEST);
+		expected.data().put("model", template.data());
+
+		ObjectMapper mapper = new ObjectMapper();
+		JSONObject streamed = new JSONObject(mapper.writeValueAsString(result.getBody()));
+		assertTrue(new JSONObject(mapper.writeValueAsString(expected)).similar(streamed));
+		assertEquals("8080", streamed.getJSONObject("data").getJSONObject("model").getJSONArray("nodes").getJSONObject(0)
+				.getJSONArray("properties").getJSONObject(0).getJSONObject("assignment").get("value").toString());
+	}
+
+	@Test
+	public void getModelByIdRebuildsFromStoreTest() throws Exception {
+		asdcCatalog.setStoreDir(storeDir.getRoot().getPath());
+		String uuid = UUID.randomUUID().toString();
+		when(sdcRestClient.getResourceToscaModel(uuid, REQUEST_ID)).thenReturn(buildCsar());
+		assertEquals(200, compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid).getStatusCodeValue());
+		assertTrue(asdcCatalog.hasStoredItem(uuid));
+
+		// as after a restart: the models cached in memory are gone but the stored artifacts are not
+		asdcCatalog.getModelCache().clear();
+		when(sdcRestClient.getResource(uuid, REQUEST_ID)).thenReturn(buildVfMetadata(uuid, TEMPLATE));
+		assertEquals(200, compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid).getStatusCodeValue());
+		verify(sdcRestClient, times(1)).getResourceToscaModel(uuid, REQUEST_ID);
+
+		// the template changed in SDC since it was stored
+		asdcCatalog.getModelCache().clear();
+		when(sdcRestClient.getResource(uuid, REQUEST_ID)).thenReturn(buildVfMetadata(uuid, TEMPLATE + "# changed\n"));
+		assertEquals(200, compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid).getStatusCodeValue());
+		verify(sdcRestClient, times(2)).getResourceToscaModel(uuid, REQUEST_ID);
+	}
+
+	@Test
+	public void fetchModelArtifactsReusesCachedPayloadsTest() throws Exception {
+		String uuid = UUID.randomUUID().toString();
+		when(sdcRestClient.getResourceToscaModel(uuid, REQUEST_ID)).thenReturn(buildCsar());
+		assertEquals(200, compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid).getStatusCodeValue());
+
+		when(sdcRestClient.getResource(uuid, REQUEST_ID)).thenReturn(buildVfMetadata(uuid, TEMPLATE));
+		ResourceDetailed vf = compositionCatalogBusinessLogic.fetchModelArtifacts(uuid, REQUEST_ID);
+		assertEquals(TEMPLATE, vf.getArtifacts().stream().filter(a -> "template.yaml".equals(a.getArtifactName())).findAny().get().getPayloadData());
+		verify(sdcRestClient, times(1)).getResourceToscaModel(uuid, REQUEST_ID);
+	}
+
+	@Test
+	public void modelResponseWritesNonFiniteNumbersAsStringsTest() throws Exception {
+		Map<String, Object> model = new HashMap<>();
+		model.put("nan", Double.NaN);
+		model.put("inf", Float.NEGATIVE_INFINITY);
+		model.put("values", Arrays.asList(1.5, Double.POSITIVE_INFINITY, 2));
+		JSONObject streamed = new JSONObject(new ObjectMapper().writeValueAsString(new CatalogModelResponse(ElementRequest.EMPTY_REQUEST, model)))
+				.getJSONObject("data").getJSONObject("model");
+		assertEquals("NaN", streamed.get("nan"));
+		assertEquals("-Infinity", streamed.get("inf"));
+		assertEquals("Infinity", streamed.getJSONArray("values").get(1));
+		assertEquals(1.5, streamed.getJSONArray("values").getDouble(0), 0);
+	}
+
+	@Test
+	public void renderersProduceSameModelTest() throws Exception {
+		String template = "tosca_definitions_version: tosca_simple_yaml_1_0_0\n" +
+				"imports:\n" +
+				"  - schema: schema.yaml\n" +
+				"topology_template:\n" +
+				"  inputs:\n" +
+				"    topic:\n" +
+				"      type: string\n" +
+				"      default: events\n" +
+				"  node_templates:\n" +
+				"    comp1:\n" +
+				"      type: dcae.nodes.Comp\n" +
+				"      description: first component\n" +
+				"      properties:\n" +
+				"        port: 8080\n" +
+				"        label: { get_input: topic }\n" +
+				"      capabilities:\n" +
+				"        stream_subscribe:\n" +
+				"          properties:\n" +
+				"            format: json\n" +
+				"    comp2:\n" +
+				"      type: dcae.nodes.Comp\n" +
+				"      properties:\n" +
+				"        port: 9090\n" +
+				"      requirements:\n" +
+				"        - stream_publish: comp1\n" +
+				"        - host:\n" +
+				"            node: comp1\n" +
+				"            capability: stream_subscribe\n";
+		String schema = "tosca_definitions_version: tosca_simple_yaml_1_0_0\n" +
+				"capability_types:\n" +
+				"  dcae.capabilities.stream.subscribe:\n" +
+				"    derived_from: tosca.capabilities.Root\n" +
+				"    properties:\n" +
+				"      format:\n" +
+				"        type: string\n" +
+				"node_types:\n" +
+				"  dcae.nodes.Comp:\n" +
+				"    derived_from: tosca.nodes.Root\n" +
+				"    properties:\n" +
+				"      port:\n" +
+				"        type: integer\n" +
+				"      label:\n" +
+				"        type: string\n" +
+				"        required: false\n" +
+				"    capabilities:\n" +
+				"      stream_subscribe:\n" +
+				"        type: dcae.capabilities.stream.subscribe\n" +
+				"    requirements:\n" +
+				"      - stream_publish:\n" +
+				"          capability: dcae.capabilities.stream.subscribe\n" +
+				"          occurrences: [0, UNBOUNDED]\n" +
+				"      - host: dcae.capabilities.stream.subscribe\n";
+		String uuid = UUID.randomUUID().toString();
+		when(sdcRestClient.getResourceToscaModel(uuid, REQUEST_ID)).thenReturn(buildCsar(template, schema));
+		assertEquals(200, compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid).getStatusCodeValue());
+
+		ResourceDetailed resource = new ResourceDetailed();
+		resource.setUuid(uuid);
+		resource.setToscaModelURL("/sdc/v1/catalog/resources/" + uuid + "/toscaModel/");
+		JSONObject jxpath = renderModel(resource, ASDCCatalog.Renderer.JXPATH);
+		JSONObject map = renderModel(resource, ASDCCatalog.Renderer.MAP);
+		assertEquals(2, map.getJSONArray("nodes").length());
+		assertTrue(jxpath.toString(), jxpath.similar(map));
+		// rendering extends the cataloged definitions, which must not change what the other renderer produces
+		assertTrue(jxpath.similar(renderModel(resource, ASDCCatalog.Renderer.JXPATH)));
+	}
+
+	private JSONObject renderModel(ResourceDetailed resource, ASDCCatalog.Renderer renderer) throws Exception {
+		return asdcCatalog.template(resource).withRenderer(renderer).withInputs().withOutputs().withNodes().withNodeProperties().withNodePropertiesAssignments().withNodeRequirements()
+				.withNodeCapabilities().withNodeCapabilityProperties().withNodeCapabilityPropertyAssignments().execute().result().data();
+	}
+
+	@Test
+	public void fetchModelArtifactsAsyncExtractsCsarTest() throws Exception {
+		String uuid = UUID.randomUUID().toString();
+		when(sdcAsyncClient.getResourceToscaModel(uuid, REQUEST_ID)).thenReturn(CompletableFuture.completedFuture(buildCsar()));
+		ResourceDetailed vf = compositionCatalogBusinessLogic.fetchModelArtifactsAsync(uuid, REQUEST_ID, Runnable::run).get();
+		assertEquals(TEMPLATE, vf.getArtifacts().stream().filter(a -> "template.yaml".equals(a.getArtifactName())).findAny().get().getPayloadData());
+		verify(sdcRestClient, never()).getResourceToscaModel(uuid, REQUEST_ID);
+	}
+
+	@Test
+	public void cancelledFetchModelArtifactsAsyncAbortsRequestTest() {
+		String uuid = UUID.randomUUID().toString();
+		CompletableFuture<byte[]> csar = new CompletableFuture<>();
+		when(sdcAsyncClient.getResourceToscaModel(uuid, REQUEST_ID)).thenReturn(csar);
+		CompletableFuture<ResourceDetailed> fetch = compositionCatalogBusinessLogic.fetchModelArtifactsAsync(uuid, REQUEST_ID, Runnable::run);
+		fetch.cancel(true);
+		assertTrue(csar.isCancelled());
+	}
+
+	@Test
+	public void getModelByIdChecksConcurrentlyTest() throws Exception {
+		// valid templates along with ones failing validation, checking and import resolution
+		List<String> uuids = new ArrayList<>();
+		for (int i = 0; i < 48; i++) {
+			String uuid = UUID.randomUUID().toString();
+			String template = TEMPLATE.replace("port: 8080", "port: " + (i % 4 == 1 ? "\"x" + i + "\"" : 8000 + i));
+			if (i % 4 == 2) {
+				template = template.replace("dcae.nodes.Comp", "dcae.nodes.Unknown" + i);
+			} else if (i % 4 == 3) {
+				template = template.replace("schema.yaml", "missing" + i + ".yaml");
+			}
+			when(sdcRestClient.getResourceToscaModel(uuid, REQUEST_ID)).thenReturn(buildCsar(template));
+			uuids.add(uuid);
+		}
+
+		ObjectMapper mapper = new ObjectMapper();
+		Map<String, String> serial = new HashMap<>();
+		for (String uuid : uuids) {
+			serial.put(uuid, mapper.writeValueAsString(compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid).getBody()));
+		}
+
+		asdcCatalog.getModelCache().clear();
+		asdcCatalog.setCheckThreads(2);
+		ExecutorService requests = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			Map<String, Future<String>> concurrent = new HashMap<>();
+			for (String uuid : uuids) {
+				concurrent.put(uuid, requests.submit(() -> {
+					start.await();
+					return mapper.writeValueAsString(compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid).getBody());
+				}));
+			}
+			start.countDown();
+			for (String uuid : uuids) {
+				assertEquals(serial.get(uuid), concurrent.get(uuid).get(60, TimeUnit.SECONDS));
+			}
+		} finally {
+			requests.shutdownNow();
+			asdcCatalog.shutdown();
+		}
+		assertEquals(12, serial.values().stream().filter(r -> r.contains("\"nodes\"")).count());
+	}
+
+	@Test
+	public void getModelByIdSharesImportsByContentTest() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		String uuid = UUID.randomUUID().toString(), same = UUID.randomUUID().toString(), changed = UUID.randomUUID().toString();
+		when(sdcRestClient.getResourceToscaModel(uuid, REQUEST_ID)).thenReturn(buildCsar());
+		when(sdcRestClient.getResourceToscaModel(same, REQUEST_ID)).thenReturn(buildCsar());
+		// same artifact name, the node type the template refers to is gone
+		when(sdcRestClient.getResourceToscaModel(changed, REQUEST_ID)).thenReturn(buildCsar(TEMPLATE, SCHEMA.replace("dcae.nodes.Comp", "dcae.nodes.Other")));
+
+		String model = mapper.writeValueAsString(compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid).getBody());
+		assertTrue(model.contains("\"nodes\""));
+		assertEquals(model, mapper.writeValueAsString(compositionCatalogBusinessLogic.getModelById(REQUEST_ID, same).getBody()).replace(same, uuid));
+		assertFalse(mapper.writeValueAsString(compositionCatalogBusinessLogic.getModelById(REQUEST_ID, changed).getBody()).contains("\"nodes\""));
+		// the artifacts failing the check are dumped for inspection
+		assertTrue(new File(dumpDir.getRoot(), changed + "/template.yaml").exists());
+		assertFalse(new File(dumpDir.getRoot(), uuid).exists());
+	}
+
+	@Test
+	public void getModelByIdRechecksChangedArtifactsTest() throws Exception {
+		asdcCatalog.setCheckCacheMaxBytes(0);
+		ObjectMapper mapper = new ObjectMapper();
+		String uuid = UUID.randomUUID().toString(), fresh = UUID.randomUUID().toString();
+		String template = TEMPLATE.replace("port: 8080", "port: 9090"), schema = SCHEMA.replace("type: integer", "type: boolean");
+		when(sdcRestClient.getResourceToscaModel(uuid, REQUEST_ID)).thenReturn(buildCsar(), buildCsar(template), buildCsar(template, schema));
+		when(sdcRestClient.getResourceToscaModel(fresh, REQUEST_ID)).thenReturn(buildCsar(template));
+		when(sdcRestClient.getResource(uuid, REQUEST_ID)).thenReturn(buildVfMetadata(uuid, template), buildVfMetadata(uuid, template, schema));
+		assertTrue(mapper.writeValueAsString(compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid).getBody()).contains("8080"));
+
+		// only the template changed, the model is re-checked on top of the schema checked before
+		String model = mapper.writeValueAsString(compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid).getBody());
+		assertTrue(model.contains("9090"));
+		assertEquals(mapper.writeValueAsString(compositionCatalogBusinessLogic.getModelById(REQUEST_ID, fresh).getBody()).replace(fresh, uuid), model);
+
+		// the schema changed under the template, which no longer checks
+		assertFalse(mapper.writeValueAsString(compositionCatalogBusinessLogic.getModelById(REQUEST_ID, uuid).getBody()).contains("\"nodes\""));
+	}
+
+	private ResourceDetailed buildVfMetadata(String uuid, String template) {
+		return buildVfMetadata(uuid, template, SCHEMA);
+	}
+
+	private ResourceDetailed buildVfMetadata(String uuid, String template, String schema) {
+		ResourceDetailed vf = new ResourceDetailed();
+		vf.setUuid(uuid);
+		List<Artifact> artifacts = Arrays.asList(SdcRestClientUtils.generateCatalogDcaeToscaArtifact("template.yaml", "", template.getBytes(StandardCharsets.UTF_8)),
+				SdcRestClientUtils.generateCatalogDcaeToscaArtifact("schema.yaml", "", schema.getBytes(StandardCharsets.UTF_8)));
+		artifacts.forEach(a -> a.setPayloadData(null));
+		vf.setArtifacts(new ArrayList<>(artifacts));
+		return vf;
+	}
+
+	private byte[] buildCsar() throws IOException {
+		return buildCsar(TEMPLATE);
+	}
+
+	private byte[] buildCsar(String template) throws IOException {
+		return buildCsar(template, SCHEMA);
+	}
+
+	private byte[] buildCsar(String template, String schema) throws IOException {
+		ByteArrayOutputStream csar = new ByteArrayOutputStream();
+		try (ZipOutputStream zos = new ZipOutputStream(csar)) {
+			zos.putNextEntry(new ZipEntry("Artifacts/Deployment/DCAE_TOSCA/template.yaml"));
+			zos.write(template.getBytes(StandardCharsets.UTF_8));
+			zos.closeEntry();
+			zos.putNextEntry(new ZipEntry("Artifacts/Deployment/DCAE_TOSCA/schema.yaml"));
+			zos.write(schema.getBytes(StandardCharsets.UTF_8));
+			zos.closeEntry();
+		}
+		return csar.toByteArray();
+	}
+
 	private void mockCatalog() {
 		String subcategory1 = "subcategory1";
 		String subcategory2 = "subcategory2";
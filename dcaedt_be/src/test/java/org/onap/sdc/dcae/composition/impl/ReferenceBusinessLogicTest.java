@@ -26,6 +26,7 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.onap.sdc.dcae.client.ISdcAsyncClient;
 import org.onap.sdc.dcae.client.ISdcClient;
 import org.onap.sdc.dcae.composition.restmodels.MonitoringComponent;
 import org.onap.sdc.dcae.composition.restmodels.sdc.*;
@@ -40,6 +41,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.*;
 
@@ -53,6 +55,9 @@ public class ReferenceBusinessLogicTest {
     @Mock
     private ISdcClient sdcClientMock;
 
+    @Mock
+    private ISdcAsyncClient sdcAsyncClientMock;
+
     @InjectMocks
     private ReferenceBusinessLogic classUnderTest;
 
@@ -60,6 +65,7 @@ public class ReferenceBusinessLogicTest {
     public void setup(){
         MockitoAnnotations.initMocks(this);
         classUnderTest.setSdcRestClient(sdcClientMock);
+        classUnderTest.setSdcAsyncClient(sdcAsyncClientMock);
         new ErrorConfigurationLoader(System.getProperty("user.dir")+"/src/main/webapp/WEB-INF");
     }
 
@@ -74,16 +80,16 @@ public class ReferenceBusinessLogicTest {
 		MonitoringComponent expected_u = new MonitoringComponent(mock_u, "vfi2");
 		expected_u.setUuid("u/v");
 		MonitoringComponent expected_w = new MonitoringComponent(mock_w, "vfi2");
-        when(sdcClientMock.getResource(eq("a"),anyString())).thenReturn(mockMcDetails("a", "a", "CERTIFIED"));
-		when(sdcClientMock.getResource(eq("b"),anyString())).thenReturn(mock_b);
-		when(sdcClientMock.getResource(eq("u"),anyString())).thenReturn(mock_u);
-		when(sdcClientMock.getResource(eq("v"),anyString())).thenReturn(mockMcDetails("u", "v", "NOT_CERTIFIED_CHECKIN"));
-		when(sdcClientMock.getResource(eq("w"),anyString())).thenReturn(mock_w);
+        when(sdcAsyncClientMock.getResource(eq("a"),anyString())).thenReturn(CompletableFuture.completedFuture(mockMcDetails("a", "a", "CERTIFIED")));
+		when(sdcAsyncClientMock.getResource(eq("b"),anyString())).thenReturn(CompletableFuture.completedFuture(mock_b));
+		when(sdcAsyncClientMock.getResource(eq("u"),anyString())).thenReturn(CompletableFuture.completedFuture(mock_u));
+		when(sdcAsyncClientMock.getResource(eq("v"),anyString())).thenReturn(CompletableFuture.completedFuture(mockMcDetails("u", "v", "NOT_CERTIFIED_CHECKIN")));
+		when(sdcAsyncClientMock.getResource(eq("w"),anyString())).thenReturn(CompletableFuture.completedFuture(mock_w));
         ExternalReferencesMap refs = new ExternalReferencesMap();
         refs.put("vfi1", Arrays.asList("a","b"));
 		refs.put("vfi2", Arrays.asList("u","v_reverted","w"));
         Map<String, Collection<MonitoringComponent>> result = classUnderTest.fetchMonitoringComponents(refs, requestId);
-        verify(sdcClientMock,times(5)).getResource(anyString(),anyString());
+        verify(sdcAsyncClientMock,times(5)).getResource(anyString(),anyString());
         Assert.assertEquals(1, result.size());
         Assert.assertEquals(3, result.get("monitoringComponents").size());
         Assert.assertTrue(result.get("monitoringComponents").contains(expected_b));
@@ -93,20 +99,35 @@ public class ReferenceBusinessLogicTest {
 
     @Test
     public void partialSuccessfulFetchMonitoringComponents() throws Exception {
-        when(sdcClientMock.getResource(eq("abc"),anyString())).thenReturn(mockMcDetails("abc", "abc", "CERTIFIED"));
-		when(sdcClientMock.getResource(eq("xyz"),anyString())).thenReturn(mockMcDetails("xyz", "xyz", "CERTIFIED"));
-        when(sdcClientMock.getResource(eq("no_such_uuid"),anyString())).thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        when(sdcAsyncClientMock.getResource(eq("abc"),anyString())).thenReturn(CompletableFuture.completedFuture(mockMcDetails("abc", "abc", "CERTIFIED")));
+		when(sdcAsyncClientMock.getResource(eq("xyz"),anyString())).thenReturn(CompletableFuture.completedFuture(mockMcDetails("xyz", "xyz", "CERTIFIED")));
+        when(sdcAsyncClientMock.getResource(eq("no_such_uuid"),anyString())).thenReturn(failedFuture(new HttpClientErrorException(HttpStatus.NOT_FOUND)));
         ExternalReferencesMap refs = new ExternalReferencesMap();
         refs.put("vfi1", Collections.singletonList("abc"));
         refs.put("vfi2", Collections.singletonList("xyz"));
         refs.put("vfi3", Collections.singletonList("no_such_uuid"));
         Map<String, Collection<MonitoringComponent>> result = classUnderTest.fetchMonitoringComponents(refs, requestId);
-        verify(sdcClientMock,times(3)).getResource(anyString(),anyString());
+        verify(sdcAsyncClientMock,times(3)).getResource(anyString(),anyString());
         Assert.assertEquals(2, result.size());
         Assert.assertEquals(2, result.get("monitoringComponents").size());
         Assert.assertEquals(1, result.get("unavailable").size());
     }
 
+    @Test
+    public void timedOutFetchMonitoringComponents() throws Exception {
+        CompletableFuture<ResourceDetailed> pending = new CompletableFuture<>();
+        when(sdcAsyncClientMock.getResource(eq("abc"),anyString())).thenReturn(CompletableFuture.completedFuture(mockMcDetails("abc", "abc", "CERTIFIED")));
+        when(sdcAsyncClientMock.getResource(eq("pending"),anyString())).thenReturn(pending);
+        ExternalReferencesMap refs = new ExternalReferencesMap();
+        refs.put("vfi1", Collections.singletonList("abc"));
+        refs.put("vfi2", Collections.singletonList("pending"));
+        classUnderTest.setFetchTimeout(100);
+        Map<String, Collection<MonitoringComponent>> result = classUnderTest.fetchMonitoringComponents(refs, requestId);
+        Assert.assertTrue(pending.isCancelled());
+        Assert.assertEquals(1, result.get("monitoringComponents").size());
+        Assert.assertEquals(1, result.get("unavailable").size());
+    }
+
     @Test(expected=RuntimeException.class)
     public void deleteVfcmtReference_deleteFailed() {
         doThrow(RuntimeException.class).when(sdcClientMock).deleteExternalMonitoringReference(anyString(), anyString(), anyString(), anyString(), anyString(), anyString());
@@ -164,4 +185,10 @@ public class ReferenceBusinessLogicTest {
     	res.setLifecycleState(lifecycleState);
     	return res;
 	}
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable error) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
 }
@@ -43,6 +43,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -66,6 +67,7 @@ public class RuleEditorBusinessLogicTest {
     private String resourceType = "VFCMT";
     private String saveRulesJsonRequest = "{\n\"version\":\"4.1\",\n\"eventType\":\"syslogFields\",\n\"uid\":\"\",\n\"description\":\"sfasfsaf\",\n\"actions\":[\n{\n\"id\":\"6e0175a0-581f-11e8-82eb-53bb060b790a\",\n\"actionType\":\"copy\",\n\"from\":{\n\"value\":\"asfsf\",\n\"regex\":\"\",\n\"state\":\"closed\",\n\"values\":[\n{\n" + "\"value\":\"\"\n" + "},\n" + "{\n\"value\":\"\"\n}\n]\n},\n\"target\":\"event.commonEventHeader.eventType\",\n\"map\":{\n\"values\":[\n{\n\"key\":\"\",\n\"value\":\"\"\n}\n],\n\"haveDefault\":false,\n\"default\":\"\"\n},\n\"dateFormatter\":{\n\"fromFormat\":\"\",\n\"toFormat\":\"\",\n\"fromTimezone\":\"\",\n\"toTimezone\":\"\"\n},\n\"replaceText\":{\n\"find\":\"\",\n\"replace\":\"\"\n},\n\"logText\":{\n\"name\":\"\",\n\"level\":\"\",\n\"text\":\"\"\n},\n\"logEvent\":{\n\"title\":\"\"\n}\n}\n],\n\"condition\":null\n}";
     private String defaultPayload = "{eventType:syslogFields,version:4.1,rules:{'test':{'version':'4.1'}}}";
+    private String filterPayload = "{eventType:syslogFields,version:4.1,filter:{name:'condition',left:'a',right:['b'],operator:'contains',level:1},rules:{'test':{'version':'4.1'}}}";
 
 
     // MOCKS
@@ -166,12 +168,52 @@ public class RuleEditorBusinessLogicTest {
 
         emulateMockListOfArtifacts(dcaeCompLabel, nId, configParam, true);
 
-        ResponseEntity result = ruleEditorBusinessLogic.getRulesAndSchema(vfcmtUuid, dcaeCompLabel, nId, configParam, requestId);
+        ResponseEntity result = ruleEditorBusinessLogic.getRulesAndSchema(vfcmtUuid, dcaeCompLabel, nId, configParam, requestId, null);
         assertEquals(200,result.getStatusCodeValue());
         assertTrue(result.getBody().toString().contains("eventType:syslogFields,version:4.1,rules:{'test':{'version':'4.1'"));
 
     }
 
+    @Test
+    public void test_getRules_notModified() throws Exception {
+
+        emulateMockListOfArtifacts(dcaeCompLabel, nId, configParam, true);
+        when(vfcmt.getArtifacts().get(0).getArtifactChecksum()).thenReturn("checksum");
+
+        ResponseEntity result = ruleEditorBusinessLogic.getRulesAndSchema(vfcmtUuid, dcaeCompLabel, nId, configParam, requestId, null);
+        assertEquals(200,result.getStatusCodeValue());
+        String eTag = result.getHeaders().getETag();
+        result = ruleEditorBusinessLogic.getRulesAndSchema(vfcmtUuid, dcaeCompLabel, nId, configParam, requestId, eTag);
+        assertEquals(304,result.getStatusCodeValue());
+        verify(sdcClientMock,times(1)).getResourceArtifact(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void test_getRules_eTagFromUncachedChecksum() throws Exception {
+
+        emulateMockListOfArtifacts(dcaeCompLabel, nId, configParam, true);
+        when(vfcmt.getArtifacts().get(0).getArtifactChecksum()).thenReturn("checksum");
+        ResourceDetailed modifiedVfcmt = Mockito.mock(ResourceDetailed.class);
+        Artifact modifiedArtifact = Mockito.mock(Artifact.class);
+        when(modifiedArtifact.getArtifactLabel()).thenReturn(dcaeCompLabel + nId + configParam);
+        when(modifiedArtifact.getArtifactUUID()).thenReturn(artifactUuid);
+        when(modifiedArtifact.getArtifactChecksum()).thenReturn("modifiedChecksum");
+        when(modifiedArtifact.getPayloadData()).thenReturn(defaultPayload);
+        when(modifiedVfcmt.getUuid()).thenReturn(resourceUuid);
+        when(modifiedVfcmt.getArtifacts()).thenReturn(Collections.singletonList(modifiedArtifact));
+        // the cached metadata still lists the checksum the client holds, SDC already has the modified artifact
+        ISdcClient uncachedSdcClientMock = Mockito.mock(ISdcClient.class);
+        ruleEditorBusinessLogic.setUncachedSdcRestClient(uncachedSdcClientMock);
+        when(uncachedSdcClientMock.getResource(anyString(), anyString())).thenReturn(modifiedVfcmt);
+        when(uncachedSdcClientMock.getResourceArtifact(resourceUuid, artifactUuid, requestId)).thenReturn(defaultPayload);
+
+        ResponseEntity result = ruleEditorBusinessLogic.getRulesAndSchema(vfcmtUuid, dcaeCompLabel, nId, configParam, requestId, "\"checksum\"");
+        assertEquals(200,result.getStatusCodeValue());
+        assertEquals("\"modifiedChecksum\"", result.getHeaders().getETag());
+        verify(sdcClientMock,times(0)).getResource(anyString(), anyString());
+        verify(sdcClientMock,times(0)).getResourceArtifact(anyString(), anyString(), anyString());
+    }
+
     @Test
     public void test_getExistingRuleTargets() throws Exception {
 
@@ -209,6 +251,152 @@ public class RuleEditorBusinessLogicTest {
 		assertEquals(200,result.getStatusCodeValue());
 	}
 
+	@Test
+	public void test_deleteRule_reappliedOnConcurrentModification() throws Exception {
+
+		emulateMockListOfArtifacts(dcaeCompLabel, nId, configParam, true);
+		when(vfcmt.getArtifacts().get(0).getArtifactChecksum()).thenReturn("checksum");
+		ResourceDetailed modifiedVfcmt = Mockito.mock(ResourceDetailed.class);
+		Artifact modifiedArtifact = Mockito.mock(Artifact.class);
+		when(modifiedArtifact.getArtifactUUID()).thenReturn(artifactUuid);
+		when(modifiedArtifact.getArtifactChecksum()).thenReturn("modifiedChecksum");
+		when(modifiedVfcmt.getArtifacts()).thenReturn(Collections.singletonList(modifiedArtifact));
+		// the rules artifact changes after the edit started, the next metadata read shows the new checksum
+		when(sdcClientMock.getResource(anyString(), anyString())).thenReturn(vfcmt, modifiedVfcmt);
+		when(sdcClientMock.getResourceArtifact(resourceUuid, artifactUuid, requestId)).thenReturn(defaultPayload);
+		when(rulesBusinessLogic.deleteRule(any(MappingRules.class), anyString())).thenReturn(new Rule());
+
+		ResponseEntity result = ruleEditorBusinessLogic.deleteRule(userId, vfcmtUuid, dcaeCompLabel, nId, configParam, ruleUuid, requestId);
+		assertEquals(200,result.getStatusCodeValue());
+		verify(rulesBusinessLogic,times(2)).deleteRule(any(MappingRules.class), anyString());
+		verify(sdcClientMock,times(2)).getResourceArtifact(resourceUuid, artifactUuid, requestId);
+		verify(sdcClientMock,times(1)).updateResourceArtifact(anyString(), anyString(), any(Artifact.class), anyString());
+	}
+
+	@Test
+	public void test_deleteRule_checksumAndPayloadReadUncached() throws Exception {
+
+		emulateMockListOfArtifacts(dcaeCompLabel, nId, configParam, true);
+		when(vfcmt.getArtifacts().get(0).getArtifactChecksum()).thenReturn("checksum");
+		ResourceDetailed modifiedVfcmt = Mockito.mock(ResourceDetailed.class);
+		Artifact modifiedArtifact = Mockito.mock(Artifact.class);
+		when(modifiedArtifact.getArtifactUUID()).thenReturn(artifactUuid);
+		when(modifiedArtifact.getArtifactChecksum()).thenReturn("modifiedChecksum");
+		when(modifiedVfcmt.getArtifacts()).thenReturn(Collections.singletonList(modifiedArtifact));
+		// the cached metadata still lists the checksum the edit started from, SDC already has the modified artifact
+		ISdcClient uncachedSdcClientMock = Mockito.mock(ISdcClient.class);
+		ruleEditorBusinessLogic.setUncachedSdcRestClient(uncachedSdcClientMock);
+		when(uncachedSdcClientMock.getResource(anyString(), anyString())).thenReturn(modifiedVfcmt);
+		when(uncachedSdcClientMock.getResourceArtifact(resourceUuid, artifactUuid, requestId)).thenReturn(defaultPayload);
+		when(rulesBusinessLogic.deleteRule(any(MappingRules.class), anyString())).thenReturn(new Rule());
+
+		ResponseEntity result = ruleEditorBusinessLogic.deleteRule(userId, vfcmtUuid, dcaeCompLabel, nId, configParam, ruleUuid, requestId);
+		assertEquals(200,result.getStatusCodeValue());
+		verify(rulesBusinessLogic,times(2)).deleteRule(any(MappingRules.class), anyString());
+		verify(sdcClientMock,times(0)).getResourceArtifact(anyString(), anyString(), anyString());
+		verify(uncachedSdcClientMock,times(2)).getResourceArtifact(resourceUuid, artifactUuid, requestId);
+		verify(sdcClientMock,times(1)).updateResourceArtifact(anyString(), anyString(), any(Artifact.class), anyString());
+	}
+
+	@Test
+	public void test_deleteRule_artifactRemovedConcurrently() throws Exception {
+
+		emulateMockListOfArtifacts(dcaeCompLabel, nId, configParam, true);
+		ResourceDetailed modifiedVfcmt = Mockito.mock(ResourceDetailed.class);
+		when(modifiedVfcmt.getArtifacts()).thenReturn(Collections.emptyList());
+		when(sdcClientMock.getResource(anyString(), anyString())).thenReturn(vfcmt, modifiedVfcmt);
+		when(sdcClientMock.getResourceArtifact(resourceUuid, artifactUuid, requestId)).thenReturn(defaultPayload);
+		when(rulesBusinessLogic.deleteRule(any(MappingRules.class), anyString())).thenReturn(new Rule());
+
+		ResponseEntity<ResponseFormat> result = ruleEditorBusinessLogic.deleteRule(userId, vfcmtUuid, dcaeCompLabel, nId, configParam, ruleUuid, requestId);
+		assertEquals(409,result.getStatusCodeValue());
+		assertEquals("SVC6121",result.getBody().getRequestError().getServiceException().getMessageId());
+		verify(sdcClientMock,times(0)).updateResourceArtifact(anyString(), anyString(), any(Artifact.class), anyString());
+	}
+
+	@Test
+	public void test_editRules_savedWithSingleUpload() throws Exception {
+
+		emulateMockListOfArtifacts(dcaeCompLabel, nId, configParam, true);
+		when(sdcClientMock.getResourceArtifact(resourceUuid, artifactUuid, requestId)).thenReturn(defaultPayload);
+		when(rulesBusinessLogic.validateGroupDefinitions(any(MappingRules.class), anyBoolean())).thenReturn(true);
+		when(rulesBusinessLogic.addOrEditRule(any(MappingRules.class), any(Rule.class), anyBoolean())).thenReturn(true);
+		when(rulesBusinessLogic.deleteRule(any(MappingRules.class), anyString())).thenReturn(new Rule());
+
+		ResponseEntity result = ruleEditorBusinessLogic.editRules(buildBatchRequest(saveRulesJsonRequest), requestId, userId);
+		assertEquals(200,result.getStatusCodeValue());
+		verify(rulesBusinessLogic,times(1)).addOrEditRule(any(MappingRules.class), any(Rule.class), anyBoolean());
+		verify(rulesBusinessLogic,times(1)).deleteRule(any(MappingRules.class), eq(ruleUuid));
+		verify(sdcClientMock,times(1)).updateResourceArtifact(anyString(), anyString(), any(Artifact.class), anyString());
+	}
+
+	@Test
+	public void test_editRules_nothingSavedWhenAnOperationFails() throws Exception {
+
+		emulateMockListOfArtifacts(dcaeCompLabel, nId, configParam, true);
+		when(sdcClientMock.getResourceArtifact(resourceUuid, artifactUuid, requestId)).thenReturn(defaultPayload);
+		when(rulesBusinessLogic.validateGroupDefinitions(any(MappingRules.class), anyBoolean())).thenReturn(true);
+		when(rulesBusinessLogic.addOrEditRule(any(MappingRules.class), any(Rule.class), anyBoolean())).thenReturn(true);
+		// the rule to delete is not in the artifact
+		when(rulesBusinessLogic.deleteRule(any(MappingRules.class), anyString())).thenReturn(null);
+
+		ResponseEntity<ResponseFormat> result = ruleEditorBusinessLogic.editRules(buildBatchRequest(saveRulesJsonRequest), requestId, userId);
+		assertEquals(400,result.getStatusCodeValue());
+		// only the failed delete operation is reported
+		List<ServiceException> errors = result.getBody().getRequestError().getServiceExceptions();
+		assertEquals(1,errors.size());
+		assertEquals("SVC6122",errors.get(0).getMessageId());
+		assertEquals(Arrays.asList("1", "delete"),Arrays.asList(errors.get(0).getVariables()).subList(0, 2));
+		verify(sdcClientMock,times(0)).updateResourceArtifact(anyString(), anyString(), any(Artifact.class), anyString());
+	}
+
+	@Test
+	public void test_deleteFilter_savedThroughStore() throws Exception {
+
+		emulateMockListOfArtifacts(dcaeCompLabel, nId, configParam, true);
+		when(sdcClientMock.getResourceArtifact(resourceUuid, artifactUuid, requestId)).thenReturn(filterPayload);
+
+		ResponseEntity result = ruleEditorBusinessLogic.deleteFilter(buildRuleEditorRequest(), requestId, userId);
+		assertEquals(200,result.getStatusCodeValue());
+		assertNotNull(result.getBody());
+		verify(sdcClientMock,times(1)).updateResourceArtifact(anyString(), anyString(), any(Artifact.class), anyString());
+	}
+
+	@Test
+	public void test_deleteFilter_filterNotFound() throws Exception {
+
+		emulateMockListOfArtifacts(dcaeCompLabel, nId, configParam, true);
+		when(sdcClientMock.getResourceArtifact(resourceUuid, artifactUuid, requestId)).thenReturn(defaultPayload);
+
+		ResponseEntity result = ruleEditorBusinessLogic.deleteFilter(buildRuleEditorRequest(), requestId, userId);
+		assertEquals(404,result.getStatusCodeValue());
+		verify(sdcClientMock,times(0)).updateResourceArtifact(anyString(), anyString(), any(Artifact.class), anyString());
+	}
+
+	@Test
+	public void test_deleteFilter_artifactRemovedConcurrently() throws Exception {
+
+		emulateMockListOfArtifacts(dcaeCompLabel, nId, configParam, true);
+		ResourceDetailed modifiedVfcmt = Mockito.mock(ResourceDetailed.class);
+		when(modifiedVfcmt.getArtifacts()).thenReturn(Collections.emptyList());
+		when(sdcClientMock.getResource(anyString(), anyString())).thenReturn(vfcmt, modifiedVfcmt);
+		when(sdcClientMock.getResourceArtifact(resourceUuid, artifactUuid, requestId)).thenReturn(filterPayload);
+
+		ResponseEntity<ResponseFormat> result = ruleEditorBusinessLogic.deleteFilter(buildRuleEditorRequest(), requestId, userId);
+		assertEquals(409,result.getStatusCodeValue());
+		assertEquals("SVC6121",result.getBody().getRequestError().getServiceException().getMessageId());
+		verify(sdcClientMock,times(0)).updateResourceArtifact(anyString(), anyString(), any(Artifact.class), anyString());
+	}
+
+	private String buildRuleEditorRequest() {
+		return "{\"vfcmtUuid\":\"" + vfcmtUuid + "\",\"dcaeCompLabel\":\"" + dcaeCompLabel + "\",\"nid\":\"" + nId + "\",\"configParam\":\"" + configParam + "\"}";
+	}
+
+	private String buildBatchRequest(String ruleJson) {
+		return "{\"vfcmtUuid\":\"" + vfcmtUuid + "\",\"dcaeCompLabel\":\"" + dcaeCompLabel + "\",\"nid\":\"" + nId + "\",\"configParam\":\"" + configParam + "\"," +
+				"\"operations\":[{\"operation\":\"save\",\"rule\":" + ruleJson + "},{\"operation\":\"delete\",\"ruleUid\":\"" + ruleUuid + "\"}]}";
+	}
+
 	private static final String BODY_JSON = "{\n" +
             "  \"version\": \"4.1\",\n" +
             "  \"eventType\": \"syslogFields\",\n" +
@@ -0,0 +1,82 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.rule.editor.engine;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class DryRunTest {
+
+	private static final String RULES = "{\"processing\":[{\"phase\":\"syslog_map\",\"processors\":[{\"phase\":\"phase_1\",\"class\":\"RunPhase\"}]},"
+			+ "{\"phase\":\"phase_1\",\"filter\":{\"field\":\"${severity}\",\"value\":\"MAJOR\",\"class\":\"Equals\"},\"processors\":[{\"updates\":{\"event.priority\":\"high\"},\"class\":\"Set\"}]},"
+			+ "{\"phase\":\"phase_1\",\"processors\":[{\"fields\":[\"severity\"],\"class\":\"Clear\"},{\"phase\":\"map_publish\",\"class\":\"RunPhase\"}]}]}";
+
+	private final MappingRulesEngine engine = MappingRulesEngine.compile(RULES);
+
+	@Test
+	public void ndjsonEvents() throws Exception {
+		String events = "{\"severity\":\"MAJOR\",\"event\":{\"priority\":\"low\"}}\n\n{\"severity\":\"MINOR\"}\nnot json\n{\"other\":1}\n";
+		DryRunReport report = new DryRun(engine, Arrays.asList(null, "rule1", "rule2"), 2).run(new StringReader(events));
+		assertEquals(4, report.getEvents());
+		assertEquals(1, report.getFailedEvents());
+		assertEquals(3, report.getPublishedEvents());
+		assertEquals(2, report.getChangedEvents());
+		assertEquals(Arrays.asList(3L, 1L, 3L), report.getRules().stream().map(DryRunReport.RuleHits::getHits).collect(Collectors.toList()));
+		assertEquals(Arrays.asList(null, "rule1", "rule2"), report.getRules().stream().map(DryRunReport.RuleHits::getRuleUid).collect(Collectors.toList()));
+		// results of the first events only
+		assertEquals(2, report.getResults().size());
+		DryRunReport.EventResult first = report.getResults().get(0);
+		assertEquals(Arrays.asList("event.priority", "severity"), first.getChanges().stream().map(DryRunReport.FieldChange::getField).collect(Collectors.toList()));
+		assertEquals(DryRunReport.FieldChange.Type.CHANGED, first.getChanges().get(0).getType());
+		assertEquals("high", first.getChanges().get(0).getAfter());
+		assertEquals(DryRunReport.FieldChange.Type.REMOVED, first.getChanges().get(1).getType());
+		assertEquals(Arrays.asList("map_publish"), first.getOutputPhases());
+		assertTrue(report.getLatencyMicros().get("p50") <= report.getLatencyMicros().get("max"));
+		assertTrue(0 < report.getEventsPerSecond());
+	}
+
+	@Test
+	public void jsonArrayEvents() throws Exception {
+		DryRunReport report = new DryRun(engine, Arrays.asList(null, "rule1", "rule2"), 10).run(new StringReader(" [{\"severity\":\"MAJOR\"}, 5, {\"other\":1}"));
+		assertEquals(3, report.getEvents());
+		assertEquals(1, report.getFailedEvents());
+		assertEquals("Invalid event: not a json object", report.getResults().get(1).getError());
+		assertNotNull(report.getError());
+	}
+
+	@Test
+	public void latencyPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000);
+		}
+		assertEquals(1000, histogram.getMin());
+		assertEquals(1000000, histogram.getMax());
+		assertEquals(500000, histogram.getPercentile(50), 500000 / 8);
+		assertEquals(990000, histogram.getPercentile(99), 990000 / 8);
+		assertEquals(1000000, histogram.getPercentile(100));
+	}
+}
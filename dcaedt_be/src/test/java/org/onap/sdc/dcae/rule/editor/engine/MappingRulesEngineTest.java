@@ -0,0 +1,142 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.rule.editor.engine;
+
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class MappingRulesEngineTest {
+
+	private static final String ENTRY_PHASE = "{\"phase\":\"syslog_map\",\"processors\":[{\"phase\":\"phase_1\",\"class\":\"RunPhase\"}]}";
+	private static final String PUBLISH = "{\"phase\":\"map_publish\",\"class\":\"RunPhase\"}";
+
+	@Test
+	public void copyAndExtractActions() {
+		MappingRulesEngine engine = compile("{\"phase\":\"phase_1\",\"processors\":[{\"updates\":{\"event.commonEventHeader.version\":\"2.0\",\"event.commonEventHeader.eventId\":\"${event.commonEventHeader.sourceName}_${eventGroup}\",\"copy\":\"${event.commonEventHeader}\"},\"class\":\"Set\"},"
+				+ "{\"regex\":\"([^:]*):.*\",\"field\":\"host\",\"value\":\"${event.syslogFields.syslogMsg}\",\"class\":\"ExtractText\"}," + PUBLISH + "]}");
+		Execution execution = engine.process("{event:{commonEventHeader:{sourceName:host1,version:1.0},syslogFields:{syslogMsg:'vm1:down'}},eventGroup:group1}");
+		JsonObject event = execution.getEvent();
+		assertEquals("2.0", event.getAsJsonObject("event").getAsJsonObject("commonEventHeader").get("version").getAsString());
+		assertEquals("host1_group1", event.getAsJsonObject("event").getAsJsonObject("commonEventHeader").get("eventId").getAsString());
+		// a single reference is copied as is
+		assertEquals("host1", event.getAsJsonObject("copy").get("sourceName").getAsString());
+		assertEquals("vm1", event.get("host").getAsString());
+		assertEquals(Arrays.asList(0, 1), execution.getMatchedRules());
+		assertEquals(Collections.singletonList("map_publish"), execution.getOutputPhases());
+	}
+
+	@Test
+	public void filteredRules() {
+		MappingRulesEngine engine = compile("{\"phase\":\"phase_1\",\"filter\":{\"filters\":[{\"string\":\"${msg}\",\"value\":\"error\",\"class\":\"Contains\"},{\"field\":\"${severity}\",\"values\":[\"MINOR\",\"WARNING\"],\"class\":\"NotOneOf\"}],\"class\":\"And\"},"
+				+ "\"processors\":[{\"updates\":{\"matched\":\"first\"},\"class\":\"Set\"}]},"
+				+ "{\"phase\":\"phase_1\",\"filter\":{\"field\":\"${matched}\",\"emptyIsAssigned\":false,\"class\":\"Unassigned\"},\"processors\":[{\"updates\":{\"matched\":\"second\"},\"class\":\"Set\"}," + PUBLISH + "]}");
+		assertEquals("first", engine.process("{msg:'an error',severity:CRITICAL}").getEvent().get("matched").getAsString());
+		assertEquals("second", engine.process("{msg:'an error',severity:MINOR}").getEvent().get("matched").getAsString());
+		Execution execution = engine.process("{msg:'an error',severity:MAJOR}");
+		assertEquals(Arrays.asList(0, 1), execution.getMatchedRules());
+		// the publish phase is only run by the second rule
+		assertTrue(execution.getOutputPhases().isEmpty());
+	}
+
+	@Test
+	public void transformActions() {
+		MappingRulesEngine engine = compile("{\"phase\":\"phase_1\",\"processors\":["
+				+ "{\"map\":{\"1\":\"CRITICAL\",\"2\":\"MAJOR\"},\"field\":\"${severity}\",\"toField\":\"mappedSeverity\",\"default\":\"NORMAL\",\"class\":\"MapAlarmValues\"},"
+				+ "{\"field\":\"${msg}\",\"find\":\"-\",\"replace\":\"_\",\"class\":\"ReplaceText\"},"
+				+ "{\"targetCase\":\"toUpperCase\",\"trim\":\"true\",\"toField\":\"upper\",\"value\":\"${msg} \",\"class\":\"StringTransform\"},"
+				+ "{\"fromFormat\":\"yyyy-MM-dd HH:mm\",\"fromTz\":\"UTC\",\"toField\":\"time\",\"toFormat\":\"dd/MM/yyyy HH:mm\",\"toTz\":\"GMT+2\",\"value\":\"${date}\",\"class\":\"DateFormatter\"},"
+				+ "{\"fields\":[\"date\"],\"class\":\"Clear\"},"
+				+ "{\"logLevel\":\"INFO\",\"logName\":\"log\",\"logText\":\"severity ${mappedSeverity}\",\"class\":\"LogText\"}]}");
+		Execution execution = engine.process("{severity:2,msg:'link-down',date:'2018-10-01 23:30'}");
+		JsonObject event = execution.getEvent();
+		assertEquals("MAJOR", event.get("mappedSeverity").getAsString());
+		assertEquals("link_down", event.get("msg").getAsString());
+		assertEquals("LINK_DOWN", event.get("upper").getAsString());
+		assertEquals("02/10/2018 01:30", event.get("time").getAsString());
+		assertFalse(event.has("date"));
+		assertEquals(Collections.singletonList("[INFO] log: severity MAJOR"), execution.getLogs());
+		assertEquals("NORMAL", engine.process("{severity:5}").getEvent().get("mappedSeverity").getAsString());
+	}
+
+	@Test
+	public void phasesRunInOrder() {
+		MappingRulesEngine engine = compile("{\"phase\":\"phase_1\",\"processors\":[{\"updates\":{\"trace\":\"${trace}1\"},\"class\":\"Set\"},{\"phase\":\"phase_2\",\"class\":\"RunPhase\"}]},"
+				+ "{\"phase\":\"phase_2\",\"processors\":[{\"updates\":{\"trace\":\"${trace}2\"},\"class\":\"Set\"}," + PUBLISH + "]}");
+		Execution execution = engine.process("{}");
+		assertEquals("12", execution.getEvent().get("trace").getAsString());
+		assertEquals(3, engine.getRuleCount());
+		assertEquals(Arrays.asList(0, 1, 2), execution.getMatchedRules());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void recursivePhaseFails() {
+		compile("{\"phase\":\"phase_1\",\"processors\":[{\"phase\":\"phase_1\",\"class\":\"RunPhase\"}]}").process("{}");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unsupportedProcessorFails() {
+		compile("{\"phase\":\"phase_1\",\"processors\":[{\"class\":\"Unknown\"}]}");
+	}
+
+	@Test
+	public void dateFormatterUsesSimpleDateFormatPatterns() {
+		// week year, day of year and milliseconds as the mapper reads them
+		MappingRulesEngine engine = compile("{\"phase\":\"phase_1\",\"processors\":["
+				+ "{\"fromFormat\":\"yyyy-MM-dd HH:mm:ss.SSS\",\"fromTz\":\"UTC\",\"toField\":\"time\",\"toFormat\":\"YYYY/D S\",\"toTz\":\"UTC\",\"value\":\"${date}\",\"class\":\"DateFormatter\"}]}");
+		assertEquals("2019/365 7", engine.process("{date:'2018-12-31 10:00:00.007'}").getEvent().get("time").getAsString());
+		Execution execution = engine.process("{date:'31/12/2018'}");
+		assertFalse(execution.getEvent().has("time"));
+		assertEquals(1, execution.getLogs().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownTimeZoneFails() {
+		compile("{\"phase\":\"phase_1\",\"processors\":[{\"fromFormat\":\"yyyy\",\"fromTz\":\"UTC\",\"toField\":\"time\",\"toFormat\":\"yyyy\",\"toTz\":\"Mars/Olympus\",\"value\":\"${date}\",\"class\":\"DateFormatter\"}]}");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missingProcessorClassFails() {
+		compile("{\"phase\":\"phase_1\",\"processors\":[{\"updates\":{\"a\":\"b\"}}]}");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missingFilterClassFails() {
+		compile("{\"phase\":\"phase_1\",\"filter\":{\"field\":\"${a}\",\"value\":\"b\"},\"processors\":[]}");
+	}
+
+	@Test
+	public void notEqualDoesNotMatchUnsetField() {
+		MappingRulesEngine engine = compile("{\"phase\":\"phase_1\",\"filter\":{\"field\":\"${severity}\",\"value\":\"MINOR\",\"class\":\"NotEqual\"},"
+				+ "\"processors\":[{\"updates\":{\"matched\":\"true\"},\"class\":\"Set\"}]}");
+		assertTrue(engine.process("{severity:'MAJOR'}").getEvent().has("matched"));
+		assertFalse(engine.process("{severity:'MINOR'}").getEvent().has("matched"));
+		assertFalse(engine.process("{}").getEvent().has("matched"));
+	}
+
+	private MappingRulesEngine compile(String phases) {
+		return MappingRulesEngine.compile("{\"processing\":[" + ENTRY_PHASE + "," + phases + "]}");
+	}
+}
@@ -0,0 +1,116 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.rule.editor.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class DependencyGraphTest {
+
+	private final Map<String, Set<String>> dependencies = new HashMap<>();
+
+	@Test
+	public void independentItemsKeepTheirOrderTest() {
+		DependencyGraph<String> graph = graph("a", "b", "c");
+		assertFalse(graph.hasDependencies());
+		assertEquals(Arrays.asList("a", "b", "c"), graph.orderedItems());
+	}
+
+	@Test
+	public void dependenciesPlacedInOriginalOrderBeforeDependentTest() {
+		dependsOn("a", "d", "c");
+		assertEquals(Arrays.asList("c", "d", "a", "b"), graph("a", "b", "c", "d").orderedItems());
+	}
+
+	@Test
+	public void transitiveDependenciesPlacedFirstTest() {
+		dependsOn("a", "d");
+		dependsOn("d", "b");
+		assertEquals(Arrays.asList("b", "d", "a", "c"), graph("a", "b", "c", "d").orderedItems());
+	}
+
+	@Test
+	public void selfDependentItemDoesNotMoveTest() {
+		dependsOn("b", "b");
+		DependencyGraph<String> graph = graph("a", "b", "c");
+		assertEquals(Collections.singletonList("b"), graph.circularDependentItems());
+		assertEquals(Arrays.asList("a", "b", "c"), graph.orderedItems());
+	}
+
+	@Test
+	public void circularDependentItemsInOriginalOrderTest() {
+		dependsOn("a", "c");
+		dependsOn("c", "a");
+		dependsOn("d", "c");
+		dependsOn("b", "e");
+		assertEquals(Arrays.asList("a", "c", "d"), graph("a", "b", "c", "d", "e").circularDependentItems());
+	}
+
+	@Test
+	public void randomDependenciesOrderedTest() {
+		Random random = new Random(42);
+		for (int round = 0; round < 200; round++) {
+			dependencies.clear();
+			List<String> items = new ArrayList<>();
+			for (int i = 0; i < 30; i++) {
+				items.add("item_" + i);
+			}
+			// edges only go from later to earlier items of a shuffled copy, so there is no cycle
+			List<String> shuffled = new ArrayList<>(items);
+			Collections.shuffle(shuffled, random);
+			for (int i = 0; i < shuffled.size(); i++) {
+				for (int j = 0; j < i; j++) {
+					if (random.nextInt(10) < 2) {
+						dependsOn(shuffled.get(i), shuffled.get(j));
+					}
+				}
+			}
+			DependencyGraph<String> graph = graph(items.toArray(new String[0]));
+			assertTrue(graph.circularDependentItems().isEmpty());
+			List<String> ordered = graph.orderedItems();
+			assertEquals(new HashSet<>(items), new HashSet<>(ordered));
+			for (int i = 0; i < ordered.size(); i++) {
+				for (String dependency : dependencies.getOrDefault(ordered.get(i), Collections.emptySet())) {
+					assertTrue(ordered.indexOf(dependency) < i);
+				}
+			}
+		}
+	}
+
+	private void dependsOn(String item, String... others) {
+		dependencies.computeIfAbsent(item, k -> new HashSet<>()).addAll(Arrays.asList(others));
+	}
+
+	private DependencyGraph<String> graph(String... items) {
+		return new DependencyGraph<>(Arrays.asList(items), (i, o) -> dependencies.getOrDefault(i, Collections.emptySet()).contains(o));
+	}
+}
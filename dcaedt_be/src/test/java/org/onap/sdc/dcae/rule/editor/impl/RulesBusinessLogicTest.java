@@ -22,6 +22,7 @@ package org.onap.sdc.dcae.rule.editor.impl;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -31,10 +32,13 @@ import org.onap.sdc.dcae.composition.restmodels.ruleeditor.*;
 import org.onap.sdc.dcae.errormng.ErrorConfigurationLoader;
 import org.onap.sdc.dcae.errormng.ResponseFormatManager;
 import org.onap.sdc.dcae.errormng.ServiceException;
+import org.onap.sdc.dcae.rule.editor.engine.Execution;
+import org.onap.sdc.dcae.rule.editor.engine.MappingRulesEngine;
 import org.onap.sdc.dcae.rule.editor.validators.MappingRulesValidator;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -299,6 +303,54 @@ public class RulesBusinessLogicTest {
 		assertEquals(expectedError, errors.get(0).getFormattedErrorMessage());
 	}
 
+	@Test
+	public void reorderLongActionChainDuringValidationSuccessTest() {
+		// each action copies the target of the action that follows it
+		int chainLength = 1000;
+		Rule rule = new Rule();
+		rule.setDescription("description");
+		rule.setActions(new ArrayList<>());
+		for (int i = 0; i < chainLength; i++) {
+			rule.getActions().add(buildCopyAction(i == chainLength - 1 ? "chainStart" : "${target_" + (i + 1) + "}", "target_" + i));
+		}
+		List<ServiceException> errors = rulesBusinessLogic.validateRule(rule);
+		assertTrue(errors.isEmpty());
+		for (int i = 0; i < chainLength; i++) {
+			assertEquals("target_" + (chainLength - 1 - i), rule.getActions().get(i).getTarget());
+		}
+		// closing the chain makes every action part of a circular dependency
+		rule.getActions().set(0, buildCopyAction("${target_0}", "target_" + (chainLength - 1)));
+		errors = rulesBusinessLogic.validateRule(rule);
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0).getFormattedErrorMessage().endsWith("target_2, target_1, target_0"));
+	}
+
+
+	// the dependencies between 1k rules used to take minutes to resolve
+	@Test(timeout = 30000)
+	public void reorderLongRuleChainDuringValidationSuccessTest() {
+		when(mappingRulesValidator.validateTranslationPhaseNames(any(), any())).thenReturn(true);
+		when(mappingRulesValidator.validate(any(), any())).thenReturn(true);
+		// each rule copies the target of the rule that follows it
+		int chainLength = 1000;
+		MappingRules mr = new MappingRules();
+		List<String> ruleUids = new ArrayList<>();
+		for (int i = 0; i < chainLength; i++) {
+			Rule rule = new Rule();
+			rule.setDescription("description");
+			rule.setPhase("phase_1");
+			rule.setActions(new ArrayList<>());
+			rule.getActions().add(buildCopyAction(i == chainLength - 1 ? "chainStart" : "${target_" + (i + 1) + "}", "target_" + i));
+			mr.addOrReplaceRule(rule);
+			ruleUids.add(rule.getUid());
+		}
+		mr.setEntryPhase("snmp_map");
+		mr.setPublishPhase("map_publish");
+		List<ServiceException> errors = rulesBusinessLogic.validateRulesBeforeTranslate(mr);
+		assertTrue(errors.isEmpty());
+		Collections.reverse(ruleUids);
+		assertEquals(ruleUids, new ArrayList<>(mr.getRules().keySet()));
+	}
 
 	@Test
 	public void reorderMappingRulesByDependencyOnlyInSamePhaseSuccessTest() {
@@ -392,6 +444,18 @@ public class RulesBusinessLogicTest {
 		assertEquals(expectedTranslation, rulesBusinessLogic.translateRules(new MappingRules(rule)));
 	}
 
+	@Test
+	public void compileRulesAndProcessEvent() {
+		MappingRulesEngine engine = rulesBusinessLogic.compileRules(new MappingRules(buildRuleWithMultipleCopyActions()));
+		Execution execution = engine.process("{event:{commonEventHeader:{sourceName:host1,version:1.0}},eventGroup:group1}");
+		assertEquals("snmp_map", engine.getEntryPhase());
+		assertEquals(Arrays.asList(0, 1), execution.getMatchedRules());
+		assertEquals(Collections.singletonList("map_publish"), execution.getOutputPhases());
+		JsonObject header = execution.getEvent().getAsJsonObject("event").getAsJsonObject("commonEventHeader");
+		assertEquals("2.0", header.get("version").getAsString());
+		assertEquals("host1_group1", header.get("eventId").getAsString());
+	}
+
 	private Rule buildRuleWithMultipleCopyActions() {
 		Rule rule = new Rule();
 		rule.setDescription("description");
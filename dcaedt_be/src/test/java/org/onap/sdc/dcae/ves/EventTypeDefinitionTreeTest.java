@@ -0,0 +1,72 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.ves;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.onap.sdc.dcae.VesStructureLoaderMock;
+import org.onap.sdc.dcae.composition.restmodels.ruleeditor.EventTypeDefinitionUI;
+import org.onap.sdc.dcae.composition.restmodels.ruleeditor.EventTypesByVersionUI;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class EventTypeDefinitionTreeTest {
+
+	private ObjectMapper mapper = new ObjectMapper();
+	private Map<String, VesDataTypeDefinition> eventDefs = new VesStructureLoaderMock().getEventListenerDefinitionByVersion("5.3");
+
+	@Test
+	public void treeContainsDefaultEventsAndEventType() throws Exception {
+		Map<String, EventTypeDefinitionTree> trees = EventTypeDefinitionTree.buildAll(eventDefs, mapper);
+		List<String> expected = eventDefs.keySet().stream().filter(k -> EventTypesByVersionUI.DEFAULT_EVENTS.contains(k) || "syslogFields".equals(k)).collect(Collectors.toList());
+		List<EventTypeDefinitionUI> definitions = trees.get("syslogFields").getDefinitions();
+		assertEquals(expected, definitions.stream().map(EventTypeDefinitionUI::getName).collect(Collectors.toList()));
+		EventTypeDefinitionUI syslogFields = definitions.stream().filter(d -> "syslogFields".equals(d.getName())).findAny().orElse(null);
+		assertEquals("event.syslogFields", syslogFields.getId());
+		assertTrue(syslogFields.getChildren().stream().allMatch(c -> c.getId().startsWith("event.syslogFields.")));
+	}
+
+	@Test
+	public void defaultEventTreesAreShared() throws Exception {
+		Map<String, EventTypeDefinitionTree> trees = EventTypeDefinitionTree.buildAll(eventDefs, mapper);
+		EventTypeDefinitionUI header = trees.get(EventTypesByVersionUI.DEFAULT_EVENTS.get(0)).getDefinitions().get(0);
+		assertSame(header, trees.get("syslogFields").getDefinitions().get(0));
+		assertSame(header, trees.get("stateChangeFields").getDefinitions().get(0));
+	}
+
+	@Test
+	public void eTagIdentifiesContent() throws Exception {
+		EventTypeDefinitionTree tree = EventTypeDefinitionTree.buildAll(eventDefs, mapper).get("syslogFields");
+		EventTypeDefinitionTree rebuilt = EventTypeDefinitionTree.buildAll(eventDefs, mapper).get("syslogFields");
+		EventTypeDefinitionTree other = EventTypeDefinitionTree.buildAll(eventDefs, mapper).get("stateChangeFields");
+		assertEquals(tree.getETag(), rebuilt.getETag());
+		assertNotEquals(tree.getETag(), other.getETag());
+		assertTrue(EventTypeDefinitionTree.matches(tree.getETag(), tree.getETag()));
+		assertTrue(EventTypeDefinitionTree.matches(tree.getETag(), other.getETag() + ", W/" + tree.getETag()));
+		assertTrue(EventTypeDefinitionTree.matches(tree.getETag(), "*"));
+		assertFalse(EventTypeDefinitionTree.matches(tree.getETag(), other.getETag()));
+		assertFalse(EventTypeDefinitionTree.matches(tree.getETag(), null));
+	}
+}
@@ -0,0 +1,97 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.ves;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class VesStructureLoaderWatchTest {
+
+	private static final Path SCHEMA_DIR = Paths.get(System.getProperty("user.dir"), "src", "test", "resources", "ves-schema");
+	private static final long TIMEOUT = 30000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private VesStructureLoader loader = new VesStructureLoader();
+
+	@After
+	public void tearDown() {
+		loader.preDestroy();
+	}
+
+	@Test
+	public void loadReportsValidSchemas() throws Exception {
+		Path dir = folder.getRoot().toPath();
+		Path valid = copySchema("CommonEventFormat_v5.3.json", dir.resolve("CommonEventFormat_vLoadValid.json"));
+		copySchema("CommonEventFormat_vInvalidJson.json", dir.resolve("CommonEventFormat_vLoadInvalid.json"));
+		loader.setWatchEnabled(false);
+		loader.load(dir);
+		assertTrue(VesStructureLoader.getAvailableVersionsList().contains("LoadValid"));
+		assertFalse(VesStructureLoader.getAvailableVersionsList().contains("LoadInvalid"));
+		VesStructureLoader.LoadedSchema stats = VesStructureLoader.getStatistics().stream().filter(s -> "LoadValid".equals(s.getVersion())).findAny().orElse(null);
+		assertEquals(Files.size(valid), stats.getBytes());
+		assertEquals(VesStructureLoader.getEventTypeListByVersion("LoadValid").size(), stats.getEventTypeCount());
+	}
+
+	@Test
+	public void addedSchemaIsLoadedAndInvalidReplacementIsIgnored() throws Exception {
+		Path dir = folder.getRoot().toPath();
+		copySchema("CommonEventFormat_v5.3.json", dir.resolve("CommonEventFormat_vWatchInitial.json"));
+		loader.load(dir);
+		assertTrue(VesStructureLoader.getAvailableVersionsList().contains("WatchInitial"));
+		assertFalse(VesStructureLoader.getAvailableVersionsList().contains("WatchAdded"));
+
+		copySchema("CommonEventFormat_v5.3.json", dir.resolve("CommonEventFormat_vWatchAdded.json"));
+		awaitVersion("WatchAdded");
+		assertEquals(VesStructureLoader.getEventTypeListByVersion("WatchInitial"), VesStructureLoader.getEventTypeListByVersion("WatchAdded"));
+
+		// changes are handled in order - once the second file is loaded the broken replacement was already rejected
+		Files.write(dir.resolve("CommonEventFormat_vWatchInitial.json"), "{\"broken\"".getBytes(StandardCharsets.UTF_8));
+		copySchema("CommonEventFormat_v4.1.json", dir.resolve("CommonEventFormat_vWatchLast.json"));
+		awaitVersion("WatchLast");
+		assertEquals(VesStructureLoader.getEventTypeListByVersion("WatchAdded"), VesStructureLoader.getEventTypeListByVersion("WatchInitial"));
+		assertNotNull(VesStructureLoader.getEventTypeDefinitionTree("WatchInitial", "syslogFields"));
+	}
+
+	private Path copySchema(String source, Path target) throws Exception {
+		return Files.copy(SCHEMA_DIR.resolve(source), target, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private void awaitVersion(String version) throws Exception {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (!VesStructureLoader.getAvailableVersionsList().contains(version)) {
+			assertTrue("version " + version + " was not loaded, available: " + Arrays.toString(VesStructureLoader.getAvailableVersionsList().toArray()), System.currentTimeMillis() < deadline);
+			Thread.sleep(50);
+		}
+	}
+}
@@ -33,12 +33,25 @@ import org.onap.sdc.dcae.catalog.commons.*;
 import org.onap.sdc.dcae.checker.*;
 import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
 import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+
 import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -78,11 +91,36 @@ public class ASDCCatalog implements Catalog {
 
     private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
 
+    /* how the template model is rendered out of the checked template */
+    public enum Renderer {
+        /* single pass over the template and catalog maps */
+        MAP,
+        /* the original rendering through JXPath expressions over the output model, kept for compatibility */
+        JXPATH
+    }
+
     private ProxyBuilder proxies;
-    private Map<Target, JXPathContext> contexts = new HashMap<>();
+
+    private Renderer renderer = Renderer.MAP;
 
     // resource and its catalog
-    private Map<UUID, org.onap.sdc.dcae.checker.Catalog> catalogs = new HashMap<>();
+    private CatalogModelCache models = new CatalogModelCache();
+
+    // artifacts of the successfully checked resources, kept across restarts
+    private CatalogModelStore store = new CatalogModelStore();
+
+    // resources whose model is being checked at the moment
+    private ConcurrentMap<UUID, CompletableFuture<CatalogModelCache.Entry>> loading = new ConcurrentHashMap<>();
+
+    // threads parsing and validating the imports of the checked templates, none to process them in line
+    private int checkThreads = 0;
+    private ThreadPoolExecutor checkExecutor;
+
+    // imports checked for other resources, by content, none to check every resource from scratch
+    private TargetCache targetCache = new TargetCache();
+
+    // where the artifacts of resources failing the check are dumped, none to not dump them
+    private File dumpDir = new File(".");
 
     public ASDCCatalog() {
         this.proxies = new ProxyBuilder().withConverter(v -> v == null ? null : UUID.fromString(v.toString()), UUID.class)
@@ -91,6 +129,91 @@ public class ASDCCatalog implements Catalog {
                         .build()).withContext(new ImmutableMap.Builder<String, Object>().put("catalog", this).build());
     }
 
+    @Value("${catalog.cache.maxEntries:" + CatalogModelCache.DEFAULT_MAX_ENTRIES + "}")
+    public void setCacheMaxEntries(int theMaxEntries) {
+        this.models.setMaxEntries(theMaxEntries);
+    }
+
+    @Value("${catalog.cache.maxBytes:" + CatalogModelCache.DEFAULT_MAX_BYTES + "}")
+    public void setCacheMaxBytes(long theMaxBytes) {
+        this.models.setMaxBytes(theMaxBytes);
+    }
+
+    @Value("${catalog.cache.policy:LRU}")
+    public void setCachePolicy(CatalogModelCache.Policy thePolicy) {
+        this.models.setPolicy(thePolicy);
+    }
+
+    @Value("${catalog.template.renderer:MAP}")
+    public void setTemplateRenderer(Renderer theRenderer) {
+        this.renderer = theRenderer;
+    }
+
+    @Value("${catalog.store.dir:}")
+    public void setStoreDir(String theDir) {
+        this.store.setRoot(StringUtils.isBlank(theDir) ? null : Paths.get(theDir));
+    }
+
+    @Value("${catalog.store.maxBytes:" + CatalogModelStore.DEFAULT_MAX_BYTES + "}")
+    public void setStoreMaxBytes(long theMaxBytes) {
+        this.store.setMaxBytes(theMaxBytes);
+    }
+
+    @Value("${catalog.store.ttl:" + CatalogModelStore.DEFAULT_TTL + "}")
+    public void setStoreTtl(long theTtl) {
+        this.store.setTtl(theTtl);
+    }
+
+    @Value("${catalog.check.threads:0}")
+    public synchronized void setCheckThreads(int theThreads) {
+        this.checkThreads = theThreads;
+        if (null != this.checkExecutor && theThreads > 0) {
+            this.checkExecutor.setCorePoolSize(theThreads);
+            this.checkExecutor.setMaximumPoolSize(theThreads);
+        }
+    }
+
+    @Value("${catalog.check.cache.maxBytes:" + TargetCache.DEFAULT_MAX_BYTES + "}")
+    public void setCheckCacheMaxBytes(long theMaxBytes) {
+        this.targetCache = theMaxBytes > 0 ? new TargetCache(theMaxBytes) : null;
+    }
+
+    @Value("${catalog.dump.dir:.}")
+    public void setDumpDir(String theDir) {
+        this.dumpDir = StringUtils.isBlank(theDir) ? null : new File(theDir);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (null != this.checkExecutor) {
+            this.checkExecutor.shutdownNow();
+        }
+    }
+
+    private synchronized Executor checkExecutor() {
+        if (this.checkThreads <= 0) {
+            return null;
+        }
+        if (null == this.checkExecutor) {
+            AtomicInteger threads = new AtomicInteger();
+            this.checkExecutor = new ThreadPoolExecutor(this.checkThreads, this.checkThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "catalog-check-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.checkExecutor.allowCoreThreadTimeOut(true);
+        }
+        return this.checkExecutor;
+    }
+
+    public CatalogModelStore getModelStore() {
+        return this.store;
+    }
+
+    public CatalogModelCache getModelCache() {
+        return this.models;
+    }
+
     public <T> T proxy(JSONObject theData, Class<T> theType) {
         return proxies.build(theData, theType);
     }
@@ -104,9 +227,9 @@ public class ASDCCatalog implements Catalog {
         return new CatalogTypeAction(UUID.fromString(theItemId), theName);
     }
 
-    private Object resolve(Target theTarget, String thePath) {
+    private Object resolve(JXPathContext theContext, String thePath) {
         try {
-            return contexts.get(theTarget).getValue(thePath);
+            return theContext.getValue(thePath);
         } catch (JXPathNotFoundException pnfx) {
             debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), JXPATH_NOT_FOUND_EXCEPTION, pnfx);
             return null;
@@ -125,6 +248,27 @@ public class ASDCCatalog implements Catalog {
                 .collect(Collectors.toMap(e -> e.getKey(), e -> e.getValue()));
     }
 
+    // walks down nested maps, null if any of the keys is missing along the way
+    private static Object valueAt(Object theRoot, Object... theKeys) {
+        Object value = theRoot;
+        for (Object key : theKeys) {
+            if (!(value instanceof Map)) {
+                return null;
+            }
+            value = ((Map) value).get(key);
+        }
+        return value;
+    }
+
+    // among entries sharing a name the first one wins, as with a JXPath [name='..'] selection
+    private static Map<Object, Map> indexByName(List<Map> theEntries) {
+        Map<Object, Map> index = new LinkedHashMap<>();
+        for (Map entry : theEntries) {
+            index.putIfAbsent(entry.get(NAME), entry);
+        }
+        return index;
+    }
+
     private Map evictEntries(Map theOriginal, String... theKeys) {
         Arrays.sort(theKeys);
         return ((Set<Map.Entry>) theOriginal.entrySet()).stream()
@@ -137,13 +281,16 @@ public class ASDCCatalog implements Catalog {
                 Spliterator.NONNULL | Spliterator.DISTINCT | Spliterator.IMMUTABLE), false);
     }
 
-    private static void dumpTargets(String theDirName, Collection<Target> theTargets) {
-        File targetDir = new File(theDirName);
+    private void dumpTargets(String theDirName, Collection<Target> theTargets) {
+        if (this.dumpDir == null) {
+            return;
+        }
+        File targetDir = new File(this.dumpDir, theDirName);
         if (!targetDir.exists() && !targetDir.mkdirs()) {
-            throw new IllegalStateException("Couldn't create dir: " + theDirName);
+            throw new IllegalStateException("Couldn't create dir: " + targetDir);
         }
         for (Target t : theTargets) {
-            try (FileWriter dump = new FileWriter(new File(theDirName, t.getName()))) {
+            try (FileWriter dump = new FileWriter(new File(targetDir, t.getName()))) {
                 IOUtils.copy(t.open(), dump);
                 dump.close();
             } catch (IOException e) {
@@ -165,19 +312,124 @@ public class ASDCCatalog implements Catalog {
     }
 
     private org.onap.sdc.dcae.checker.Catalog getCachedCatalogItem(UUID theResourceId) {
-        return this.catalogs.get(theResourceId);
+        CatalogModelCache.Entry cached = this.models.get(theResourceId);
+        return cached == null ? null : cached.getCatalog();
     }
 
     public boolean hasCachedItem(String uuid) {
-    	return this.catalogs.containsKey(asUUID(uuid));
+    	return this.models.contains(asUUID(uuid));
 	}
 
+    // a cached item built from artifacts other than the given ones is dropped
+    public boolean hasCachedItem(String uuid, List<Artifact> theArtifacts) {
+        return this.models.get(asUUID(uuid), theArtifacts) != null;
+    }
+
+    /**
+     * @return the resource, with the payloads of its artifacts, the cached model was built from, or null if there is
+     * no cached model or it was built from artifacts other than the given ones
+     */
+    public ResourceDetailed getCachedItem(String uuid, List<Artifact> theArtifacts) {
+        CatalogModelCache.Entry cached = this.models.get(asUUID(uuid), theArtifacts);
+        return cached == null ? null : cached.getResource();
+    }
+
+    public boolean hasStoredItem(String uuid) {
+        return this.store.contains(asUUID(uuid));
+    }
+
+    /**
+     * @return the resource, with the payloads of its artifacts, as stored when its model was last checked, or null if
+     * it is not stored or was stored from artifacts other than the given ones
+     */
+    public ResourceDetailed getStoredItem(String uuid, List<Artifact> theArtifacts) {
+        return this.store.get(asUUID(uuid), theArtifacts);
+    }
+
+    /*
+     * Provides the checked model of the resource, from the cache if its artifacts did not change since it was built.
+     * Otherwise only one request per resource runs the checker; concurrent requests for the same resource wait for
+     * and share its outcome.
+     */
+    private CatalogModelCache.Entry model(ResourceDetailed theResource) throws Exception {
+        UUID resourceId = asUUID(theResource.getUuid());
+        CatalogModelCache.Entry cached = this.models.get(resourceId, theResource.getArtifacts());
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<CatalogModelCache.Entry> load = new CompletableFuture<>();
+        CompletableFuture<CatalogModelCache.Entry> pending = this.loading.putIfAbsent(resourceId, load);
+        if (pending != null) {
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Waiting for the model of resource {} to be checked by another request", resourceId);
+            try {
+                return pending.get();
+            } catch (InterruptedException x) {
+                Thread.currentThread().interrupt();
+                throw x;
+            } catch (ExecutionException x) {
+                throw x.getCause() instanceof Exception ? (Exception) x.getCause() : x;
+            }
+        }
+
+        try {
+            // a load that completed after the cache was looked up above has left its model in the cache
+            CatalogModelCache.Entry model = this.models.get(resourceId, theResource.getArtifacts(), false);
+            if (model == null) {
+                // the parts of a model dropped because of changed artifacts that did not change are reused
+                model = checkModel(resourceId, theResource, this.models.takeStale(resourceId));
+            }
+            load.complete(model);
+            return model;
+        } catch (Exception x) {
+            load.completeExceptionally(x);
+            throw x;
+        } finally {
+            this.loading.remove(resourceId, load);
+            // does nothing unless the check ended in an error, waiters must not be left hanging
+            load.completeExceptionally(new IllegalStateException("Failed to check the model of resource " + resourceId));
+        }
+    }
+
+    private CatalogModelCache.Entry checkModel(UUID theResourceId, ResourceDetailed theResource, org.onap.sdc.dcae.checker.Catalog thePrevious) throws Exception {
+        Checker checker = new Checker();
+        TargetLocator locator = new ASDCLocator(theResource.getArtifacts(), null);
+        checker.setTargetLocator(locator);
+        checker.setExecutor(checkExecutor());
+        checker.setTargetCache(this.targetCache);
+        checker.setPrevious(thePrevious);
+        Target template = locator.resolve("template");
+        if (template == null) {
+            throw new Exception("Failed to locate template in " + theResource);
+        }
+
+        checker.check(template);
+
+        for (Target t : checker.targets()) {
+            if (t.getReport().hasErrors()) {
+                dumpTargets(theResourceId.toString(), checker.targets());
+                throw new Exception("Failed template validation: " + t.getReport());
+            }
+        }
+
+        try {
+            this.store.put(theResourceId, theResource);
+        } catch (IOException x) {
+            // the model is good, only a later rebuild of it will have to go to SDC again
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Failed to store the artifacts of resource {}: {}", theResourceId, x);
+        }
+
+        return this.models.put(theResourceId, checker.catalog(), template, theResource);
+    }
+
     public class CatalogTemplateAction implements Catalog.TemplateAction {
 
         private ResourceDetailed resourceMetadata;
         private Target target;
+        private JXPathContext targetCtx;
         private org.onap.sdc.dcae.checker.Catalog catalog;
         private JXPathContext ctx = JXPathContext.newContext(new HashMap());
+        private Renderer renderer = ASDCCatalog.this.renderer;
 
         private boolean doNodes, doNodeProperties, doNodePropertiesAssignments, doNodeRequirements, doNodeCapabilities,
                 doNodeCapabilityProperties, doNodeCapabilityPropertyAssignments;
@@ -195,6 +447,11 @@ public class ASDCCatalog implements Catalog {
             return this;
         }
 
+        public CatalogTemplateAction withRenderer(Renderer theRenderer) {
+            this.renderer = theRenderer;
+            return this;
+        }
+
         public CatalogTemplateAction withNodes() {
             this.doNodes = true;
             return this;
@@ -205,7 +462,7 @@ public class ASDCCatalog implements Catalog {
                 return this;
             }
 
-            Map nodes = (Map) resolve(this.target, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
+            Map nodes = (Map) resolve(this.targetCtx, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
             if (nodes == null) {
                 return this;
             }
@@ -231,7 +488,7 @@ public class ASDCCatalog implements Catalog {
                 return this;
             }
 
-            Map nodes = (Map) resolve(this.target, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
+            Map nodes = (Map) resolve(this.targetCtx, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
             if (nodes == null) {
                 return this;
             }
@@ -258,7 +515,7 @@ public class ASDCCatalog implements Catalog {
                 return this;
             }
 
-            Map nodes = (Map) resolve(this.target, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
+            Map nodes = (Map) resolve(this.targetCtx, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
             if (nodes == null) {
                 return this;
             }
@@ -276,7 +533,7 @@ public class ASDCCatalog implements Catalog {
                     // pick from
                     String propPath = TOPOLOGY_TEMPLATE_NODE_TEMPLATES1 + ((Map.Entry) node).getKey()
                             + "/properties/" + ((Map) prop).get(NAME);
-                    Object propValue = resolve(this.target, propPath);
+                    Object propValue = resolve(this.targetCtx, propPath);
                     // to conform with the db based api we should analyze the
                     // value for function calls
                     // dump at ..
@@ -331,7 +588,7 @@ public class ASDCCatalog implements Catalog {
             // requirements come first from the type and then can be further
             // refined by their assignment within the
             // node template
-            Map nodes = (Map) resolve(this.target, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
+            Map nodes = (Map) resolve(this.targetCtx, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
             if (nodes == null) {
                 return this;
             }
@@ -357,7 +614,7 @@ public class ASDCCatalog implements Catalog {
 
             // merge assignments on top of definitions
             nodes.entrySet().forEach(node -> {
-                List nodeReqsAssigns = (List) resolve(this.target,
+                List nodeReqsAssigns = (List) resolve(this.targetCtx,
                         TOPOLOGY_TEMPLATE_NODE_TEMPLATES1 + ((Map.Entry) node).getKey() + "/requirements");
                 if (nodeReqsAssigns == null) {
                     return;
@@ -392,7 +649,7 @@ public class ASDCCatalog implements Catalog {
                 return this;
             }
 
-            Map nodes = (Map) resolve(this.target, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
+            Map nodes = (Map) resolve(this.targetCtx, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
             if (nodes == null) {
                 return this;
             }
@@ -425,7 +682,7 @@ public class ASDCCatalog implements Catalog {
                 return this;
             }
 
-            Map nodes = (Map) resolve(this.target, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
+            Map nodes = (Map) resolve(this.targetCtx, TOPOLOGY_TEMPLATE_NODE_TEMPLATES);
             if (nodes == null) {
                 return this;
             }
@@ -531,7 +788,7 @@ public class ASDCCatalog implements Catalog {
 
                         // pick the value from the original
                         try {
-                            Object assignment = resolve(this.target,
+                            Object assignment = resolve(this.targetCtx,
                                     TOPOLOGY_TEMPLATE_NODE_TEMPLATES1 + ((Map) node).get(NAME) + "/capabilities/"
                                             + ((Map) capability).get(NAME) + "/properties/"
                                             + ((Map) property).get(NAME));
@@ -549,6 +806,141 @@ public class ASDCCatalog implements Catalog {
             return this;
         }
 
+        /*
+         * Renders the same model as the do* sequence above in one pass over the node templates: each node is
+         * built from the catalog facets of its type and the assignments are picked up directly from the node
+         * template maps, with the rendered facets indexed by name instead of being looked up through JXPath.
+         */
+        CatalogTemplateAction render() {
+            if (!this.doNodes) {
+                return this;
+            }
+
+            Map nodeTemplates = (Map) valueAt(this.target.getTarget(), "topology_template", "node_templates");
+            if (nodeTemplates == null) {
+                return this;
+            }
+
+            List<Map> nodes = new ArrayList<>(nodeTemplates.size());
+            for (Map.Entry nodeEntry : (Set<Map.Entry>) nodeTemplates.entrySet()) {
+                Map nodeTemplate = (Map) nodeEntry.getValue();
+                Map node = new MapBuilder().put(NAME, nodeEntry.getKey())
+                        .put(DESCRIPTION, resourceMetadata.getToscaModelURL())
+                        .putAll(selectEntries(nodeTemplate, "type")).build();
+                nodes.add(node);
+
+                String nodeType = nodeTemplate.get("type").toString();
+                if (this.doNodeProperties) {
+                    renderNodeProperties(node, nodeTemplate, nodeType);
+                }
+                if (this.doNodeRequirements) {
+                    renderNodeRequirements(node, nodeTemplate, nodeType);
+                }
+                if (this.doNodeCapabilities) {
+                    renderNodeCapabilities(node, nodeTemplate, nodeType);
+                }
+            }
+
+            ((Map) ctx.getContextBean()).put("nodes", nodes);
+            return this;
+        }
+
+        private void renderNodeProperties(Map theNode, Map theNodeTemplate, String theNodeType) {
+            List<Map> properties = stream(catalog.facets(Construct.Node, Facet.properties, theNodeType))
+                    .map(propEntry -> new MapBuilder().put(NAME, propEntry.getKey())
+                            .putAll((Map) propEntry.getValue()).build())
+                    .collect(Collectors.toList());
+            theNode.put("properties", properties);
+
+            if (this.doNodePropertiesAssignments) {
+                renderAssignments(indexByName(properties), valueAt(theNodeTemplate, "properties"));
+            }
+        }
+
+        private void renderNodeRequirements(Map theNode, Map theNodeTemplate, String theNodeType) {
+            // requirements come first from the type and then can be further refined by their assignment within
+            // the node template
+            List<Map> requirements = stream(catalog.requirements(theNodeType))
+                    .map(reqEntry -> renderRequirementDefinition(reqEntry))
+                    .collect(Collectors.toList());
+            theNode.put("requirements", requirements);
+
+            Object assignments = valueAt(theNodeTemplate, "requirements");
+            if (!(assignments instanceof List)) {
+                return;
+            }
+            Map<Object, Map> index = indexByName(requirements);
+            for (Object req : (List) assignments) {
+                Map.Entry reqAssign = toEntry(req);
+                Map requirement = index.get(reqAssign.getKey());
+                if (requirement == null) {
+                    debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "No definition for requirement {} of node {}", reqAssign.getKey(), theNode.get(NAME));
+                    continue;
+                }
+                catalog.mergeDefinitions(requirement, renderRequirementAssignment(reqAssign));
+            }
+        }
+
+        private void renderNodeCapabilities(Map theNode, Map theNodeTemplate, String theNodeType) {
+            List<Map> capabilities = stream(catalog.facets(Construct.Node, Facet.capabilities, theNodeType))
+                    .map(this::renderCapabilityDefinition)
+                    .collect(Collectors.toList());
+            theNode.put("capabilities", capabilities);
+            Map<Object, Map> index = indexByName(capabilities);
+
+            if (this.doNodeCapabilityProperties) {
+                // pick up all the properties from the capability type hierarchy definition
+                for (Map capability : capabilities) {
+                    List<Map> properties = stream(catalog.facets(Construct.Capability, Facet.properties,
+                            ((Map) capability.get("type")).get(NAME).toString()))
+                            .map(capEntry -> new MapBuilder().put(NAME, capEntry.getKey())
+                                    .putAll((Map) capEntry.getValue()).build())
+                            .collect(Collectors.toList());
+                    if (!properties.isEmpty()) {
+                        index.get(capability.get(NAME)).put("properties", properties);
+                    }
+                }
+
+                // and go over the node type (hierarchy) and pick up any re-definitions from there
+                stream(catalog.facets(Construct.Node, Facet.capabilities, theNodeType)).forEach(capEntry -> {
+                    Map redefinitions = (Map) ((Map) capEntry.getValue()).get("properties");
+                    List<Map> properties = (List<Map>) valueAt(index.get(capEntry.getKey()), "properties");
+                    if (redefinitions == null || properties == null) {
+                        return;
+                    }
+                    Map<Object, Map> propertyIndex = indexByName(properties);
+                    for (Map.Entry redefinition : (Set<Map.Entry>) redefinitions.entrySet()) {
+                        Map property = propertyIndex.get(redefinition.getKey());
+                        if (property != null) {
+                            catalog.mergeDefinitions(property, (Map) redefinition.getValue());
+                        }
+                    }
+                });
+            }
+
+            if (this.doNodeCapabilityPropertyAssignments) {
+                for (Map.Entry<Object, Map> capability : index.entrySet()) {
+                    List<Map> properties = (List<Map>) capability.getValue().get("properties");
+                    if (properties != null) {
+                        renderAssignments(indexByName(properties),
+                                valueAt(theNodeTemplate, "capabilities", capability.getKey(), "properties"));
+                    }
+                }
+            }
+        }
+
+        private void renderAssignments(Map<Object, Map> theProperties, Object theAssignments) {
+            if (!(theAssignments instanceof Map)) {
+                return;
+            }
+            for (Map.Entry<Object, Map> property : theProperties.entrySet()) {
+                Object value = ((Map) theAssignments).get(property.getKey());
+                if (value != null) {
+                    property.getValue().put("assignment", new ImmutableMap.Builder().put("value", value).build());
+                }
+            }
+        }
+
         public CatalogTemplateAction withPolicies() {
             return this;
         }
@@ -562,55 +954,51 @@ public class ASDCCatalog implements Catalog {
         }
 
         public Future<Template> execute() {
+            Map<String, Object> model;
+            try {
+                model = renderModel();
+            } catch (Exception x) {
+                return Futures.failedFuture(x);
+            }
 
-            if (this.target == null) {
-
-                UUID resourceId = asUUID(resourceMetadata.getUuid());
-                this.catalog = ASDCCatalog.this.catalogs.get(resourceId);
-
-                // if we find a catalog for this resource we have to figure out
-                // if it contains the required target ..
-
-                try {
-
-                    Checker checker = new Checker();
-					TargetLocator locator = new ASDCLocator(resourceMetadata.getArtifacts(), ASDCCatalog.this.catalogs.get(resourceId));
-                    checker.setTargetLocator(locator);
-                    Target template = locator.resolve("template");
-                    if (template == null) {
-                        return Futures.failedFuture(new Exception("Failed to locate template in " + resourceMetadata));
-                    }
-
-                    checker.check(template);
+            JSONObject pack = new JSONObject(model);
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "{}", pack);
 
-                    for (Target t : checker.targets()) {
-                        if (t.getReport().hasErrors()) {
-                            dumpTargets(resourceId.toString(), checker.targets());
-                            return Futures.failedFuture(new Exception("Failed template validation: " + t.getReport()));
-                        }
-                    }
+            return Futures.succeededFuture(proxies.build(pack, Template.class));
+        }
 
-                    this.target = template;
-                    this.catalog = checker.catalog();
-                    ASDCCatalog.this.catalogs.put(resourceId, this.catalog);
-                    // we should only be doing this if we discovered an update
-                    // (by checking timestamps). Actually, we should
-                    // only do the artifact fetching if we detect an update
-                    ASDCCatalog.this.contexts.put(template, JXPathContext.newContext(template.getTarget()));
-                } catch (Exception x) {
-                    return Futures.failedFuture(x);
-                }
+        /*
+         * Provides the rendered model as plain maps and lists, for callers that serialize it themselves and have
+         * no use for the Template proxy (and the org.json copy of the model it wraps).
+         */
+        public Future<Map<String, Object>> executeModel() {
+            try {
+                return Futures.succeededFuture(renderModel());
+            } catch (Exception x) {
+                return Futures.failedFuture(x);
             }
+        }
 
-            this.doNodes().doNodeProperties().doNodePropertiesAssignments().doNodeRequirements().doNodeCapabilities()
-                    .doNodeCapabilityProperties().doNodeCapabilityPropertyAssignments();
+        private Map<String, Object> renderModel() throws Exception {
+            if (this.target == null) {
+                CatalogModelCache.Entry model = ASDCCatalog.this.model(resourceMetadata);
+                this.target = model.getTemplate();
+                this.targetCtx = model.getContext();
+                this.catalog = model.getCatalog();
+            }
 
-            JSONObject pack = new JSONObject((Map) ctx.getContextBean()).put(NAME, this.target.getName())
-                    .put(ID, resourceMetadata.getUuid())
-                    .put(ITEM_ID, resourceMetadata.getToscaModelURL());
-            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), pack.toString(2));
+            if (this.renderer == Renderer.JXPATH) {
+                this.doNodes().doNodeProperties().doNodePropertiesAssignments().doNodeRequirements().doNodeCapabilities()
+                        .doNodeCapabilityProperties().doNodeCapabilityPropertyAssignments();
+            } else {
+                this.render();
+            }
 
-            return Futures.succeededFuture(proxies.build(pack, Template.class));
+            Map<String, Object> model = (Map<String, Object>) ctx.getContextBean();
+            model.put(NAME, this.target.getName());
+            model.put(ID, resourceMetadata.getUuid());
+            model.put(ITEM_ID, resourceMetadata.getToscaModelURL());
+            return model;
         }
     }
 
@@ -671,7 +1059,7 @@ public class ASDCCatalog implements Catalog {
                                         // the type reference, else it is a name
                                         // (within a node type)
                                         .put(ID,
-                                                getCachedCatalogItem(resourceId).hasType(Construct.Capability, capability)
+                                                theCatalog.hasType(Construct.Capability, capability)
                                                         ? (resourceId + "/" + capability) : capability)
                                         .build())
                         .put("node", new MapBuilder().putOpt(NAME, node).putOpt(ID, node == null ? null
@@ -719,7 +1107,7 @@ public class ASDCCatalog implements Catalog {
         }
 
         public Future<Type> execute() {
-            org.onap.sdc.dcae.checker.Catalog catalog = ASDCCatalog.this.catalogs.get(this.resourceId);
+            org.onap.sdc.dcae.checker.Catalog catalog = getCachedCatalogItem(this.resourceId);
             if (catalog == null) {
                 return Futures.failedFuture(new Exception("No catalog available for resource " + this.resourceId
                         + ". You might want to fetch the model first."));
@@ -736,8 +1124,8 @@ public class ASDCCatalog implements Catalog {
 
             this.doHierarchy(catalog).doRequirements(catalog).doCapabilities(catalog);
 
-            JSONObject pack = new JSONObject((Map) this.ctx.getContextBean());
-            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), pack.toString(2));
+            // only rendered (compact) when debug logging is on
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "{}", this.ctx.getContextBean());
 
             return Futures.succeededFuture(proxies.build((Map) ctx.getContextBean(), Type.class));
         }
@@ -748,7 +1136,7 @@ public class ASDCCatalog implements Catalog {
 		private List<Artifact> artifacts;
         private org.onap.sdc.dcae.checker.Catalog catalog;
 
-        private ASDCLocator(List<Artifact> theArtifacts, org.onap.sdc.dcae.checker.Catalog theCatalog) {
+        ASDCLocator(List<Artifact> theArtifacts, org.onap.sdc.dcae.checker.Catalog theCatalog) {
             this.artifacts = theArtifacts;
             this.catalog = theCatalog;
         }
@@ -799,8 +1187,15 @@ public class ASDCCatalog implements Catalog {
         // artifact if it has not been changed since the
         // last fetch.
 
+        Artifact getArtifact() {
+            return this.artifact;
+        }
+
         @Override
         public Reader open() throws IOException {
+            if (this.artifact.getPayloadData() == null) {
+                throw new IOException("No payload available for artifact " + this.artifact.getArtifactName());
+            }
             return new StringReader(this.artifact.getPayloadData());
         }
 
@@ -0,0 +1,344 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.catalog.asdc;
+
+import org.apache.commons.jxpath.JXPathContext;
+import org.onap.sdc.common.onaplog.OnapLoggerDebug;
+import org.onap.sdc.common.onaplog.enums.LogLevel;
+import org.onap.sdc.dcae.checker.Catalog;
+import org.onap.sdc.dcae.checker.Target;
+import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
+import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the checked models (the checker catalog and the template target) built for a resource.
+ * The cache is bounded both by the number of resources and by the estimated memory retained by their models.
+ * An entry remembers the checksums of the artifacts it was built from and is dropped as soon as the resource
+ * is presented with different ones. The catalog of the dropped entry is kept aside for the re-check of the
+ * resource, which reuses its unchanged parts; it counts against the memory bound until then, and is the first
+ * to go when the bound is exceeded.
+ */
+public class CatalogModelCache {
+
+    public enum Policy {
+        /* evict the least recently used model */
+        LRU,
+        /* evict the least frequently used model, the least recently used one among equals */
+        LFU
+    }
+
+    public static final int DEFAULT_MAX_ENTRIES = 128;
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    // the parsed yaml trees and the catalog indexes retain several times the size of the source text
+    private static final int SOURCE_EXPANSION_FACTOR = 8;
+    // stale models kept for the re-check of their resource
+    private static final int MAX_STALE_ENTRIES = 16;
+
+    private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
+
+    // access ordered, the eldest entry is the least recently used one
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // the models dropped because their artifacts changed, reused when re-checking the resource. insertion ordered
+    private final LinkedHashMap<UUID, Entry> stale = new LinkedHashMap<>();
+
+    private int maxEntries;
+    private long maxBytes;
+    private Policy policy;
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CatalogModelCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES, Policy.LRU);
+    }
+
+    public CatalogModelCache(int theMaxEntries, long theMaxBytes, Policy thePolicy) {
+        this.maxEntries = theMaxEntries;
+        this.maxBytes = theMaxBytes;
+        this.policy = Objects.requireNonNull(thePolicy);
+    }
+
+    public static class Entry {
+
+        private final Catalog catalog;
+        private final Target template;
+        private final ResourceDetailed resource;
+        private final JXPathContext context;
+        private final Map<String, String> checksums;
+        private final long bytes;
+        private long uses;
+
+        Entry(Catalog theCatalog, Target theTemplate, ResourceDetailed theResource) {
+            this.catalog = theCatalog;
+            this.template = theTemplate;
+            this.resource = theResource;
+            this.context = JXPathContext.newContext(theTemplate.getTarget());
+
+            Map<String, String> sums = new HashMap<>();
+            long size = 0;
+            for (Target t : theCatalog.targets()) {
+                if (t instanceof ASDCCatalog.ASDCTarget) {
+                    Artifact artifact = ((ASDCCatalog.ASDCTarget) t).getArtifact();
+                    sums.put(artifact.getArtifactName(), artifact.getArtifactChecksum());
+                    String payload = artifact.getPayloadData();
+                    size += payload == null ? 0 : payload.length() * 2L * SOURCE_EXPANSION_FACTOR;
+                }
+            }
+            this.checksums = Collections.unmodifiableMap(sums);
+            this.bytes = size;
+        }
+
+        public Catalog getCatalog() {
+            return this.catalog;
+        }
+
+        public Target getTemplate() {
+            return this.template;
+        }
+
+        /* the resource, with the payloads of its artifacts, the model was built from */
+        public ResourceDetailed getResource() {
+            return this.resource;
+        }
+
+        public JXPathContext getContext() {
+            return this.context;
+        }
+
+        public long getBytes() {
+            return this.bytes;
+        }
+
+        boolean isStale(List<Artifact> theArtifacts) {
+            return CatalogModelCache.isStale(this.checksums, theArtifacts);
+        }
+    }
+
+    /*
+     * Models built from the artifacts with the given checksums are stale if any of these artifacts is gone or now
+     * carries a different checksum. Artifacts for which no checksum is known on either side cannot be compared and
+     * are considered changed.
+     */
+    static boolean isStale(Map<String, String> theChecksums, List<Artifact> theArtifacts) {
+        if (theArtifacts == null) {
+            return false;
+        }
+        Map<String, Artifact> current = new HashMap<>();
+        theArtifacts.forEach(a -> current.put(a.getArtifactName(), a));
+        for (Map.Entry<String, String> sum : theChecksums.entrySet()) {
+            Artifact artifact = current.get(sum.getKey());
+            if (artifact == null) {
+                return true;
+            }
+            if (sum.getValue() == null || !sum.getValue().equals(artifact.getArtifactChecksum())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the model cached for the resource, or null if none is available or if the cached one was built from
+     * artifacts other than the given ones (in which case it is also dropped from the cache)
+     */
+    public Entry get(UUID theResourceId, List<Artifact> theArtifacts) {
+        return get(theResourceId, theArtifacts, true);
+    }
+
+    /* a second look up on behalf of the same request is not counted as a miss again */
+    synchronized Entry get(UUID theResourceId, List<Artifact> theArtifacts, boolean doCount) {
+        Entry entry = this.entries.get(theResourceId);
+        if (entry != null && entry.isStale(theArtifacts)) {
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Artifacts of resource {} changed, dropping cached model", theResourceId);
+            remove(theResourceId);
+            putStale(theResourceId, entry);
+            this.invalidations.incrementAndGet();
+            entry = null;
+        }
+        if (entry == null) {
+            if (doCount) {
+                this.misses.incrementAndGet();
+            }
+            return null;
+        }
+        entry.uses++;
+        this.hits.incrementAndGet();
+        return entry;
+    }
+
+    public Entry get(UUID theResourceId) {
+        return get(theResourceId, null);
+    }
+
+    /**
+     * @return the catalog of the model last dropped for the resource because its artifacts changed, if it was not
+     * re-built or evicted since. It is handed out once, to the re-check of the resource.
+     */
+    public synchronized Catalog takeStale(UUID theResourceId) {
+        Entry entry = removeStale(theResourceId);
+        return entry == null ? null : entry.getCatalog();
+    }
+
+    public synchronized boolean contains(UUID theResourceId) {
+        return this.entries.containsKey(theResourceId);
+    }
+
+    public synchronized Entry put(UUID theResourceId, Catalog theCatalog, Target theTemplate, ResourceDetailed theResource) {
+        Entry entry = new Entry(theCatalog, theTemplate, theResource);
+        remove(theResourceId);
+        removeStale(theResourceId);
+        this.entries.put(theResourceId, entry);
+        this.bytes += entry.bytes;
+        evict(theResourceId);
+        return entry;
+    }
+
+    public synchronized void invalidate(UUID theResourceId) {
+        if (remove(theResourceId) != null) {
+            this.invalidations.incrementAndGet();
+        }
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+        this.stale.clear();
+        this.bytes = 0;
+    }
+
+    public synchronized void setMaxEntries(int theMaxEntries) {
+        this.maxEntries = theMaxEntries;
+        evict(null);
+    }
+
+    public synchronized void setMaxBytes(long theMaxBytes) {
+        this.maxBytes = theMaxBytes;
+        evict(null);
+    }
+
+    public synchronized void setPolicy(Policy thePolicy) {
+        this.policy = Objects.requireNonNull(thePolicy);
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public synchronized long bytes() {
+        return this.bytes;
+    }
+
+    public long hits() {
+        return this.hits.get();
+    }
+
+    public long misses() {
+        return this.misses.get();
+    }
+
+    public long evictions() {
+        return this.evictions.get();
+    }
+
+    public long invalidations() {
+        return this.invalidations.get();
+    }
+
+    private Entry remove(UUID theResourceId) {
+        Entry entry = this.entries.remove(theResourceId);
+        if (entry != null) {
+            this.bytes -= entry.bytes;
+        }
+        return entry;
+    }
+
+    /* the dropped entry keeps counting against the memory bound while it is kept */
+    private void putStale(UUID theResourceId, Entry theEntry) {
+        removeStale(theResourceId);
+        this.stale.put(theResourceId, theEntry);
+        this.bytes += theEntry.bytes;
+        if (this.stale.size() > MAX_STALE_ENTRIES) {
+            removeStale(this.stale.keySet().iterator().next());
+        }
+        evict(null);
+    }
+
+    private Entry removeStale(UUID theResourceId) {
+        Entry entry = this.stale.remove(theResourceId);
+        if (entry != null) {
+            this.bytes -= entry.bytes;
+        }
+        return entry;
+    }
+
+    /*
+     * Stale entries go first, the oldest one first. The entry that was just added is never evicted, even if on its
+     * own it exceeds the size limit.
+     */
+    private void evict(UUID theKeep) {
+        while (!this.stale.isEmpty() && this.bytes > this.maxBytes) {
+            removeStale(this.stale.keySet().iterator().next());
+        }
+        while (!this.entries.isEmpty() && (this.entries.size() > this.maxEntries || this.bytes > this.maxBytes)) {
+            UUID victim = selectVictim(theKeep);
+            if (victim == null) {
+                return;
+            }
+            remove(victim);
+            this.evictions.incrementAndGet();
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Evicted cached model of resource {}", victim);
+        }
+    }
+
+    private UUID selectVictim(UUID theKeep) {
+        UUID victim = null;
+        long victimUses = Long.MAX_VALUE;
+        Iterator<Map.Entry<UUID, Entry>> i = this.entries.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry<UUID, Entry> e = i.next();
+            if (e.getKey().equals(theKeep)) {
+                continue;
+            }
+            if (this.policy == Policy.LRU) {
+                return e.getKey();
+            }
+            // strictly less, so that among equals the least recently used one wins
+            if (e.getValue().uses < victimUses) {
+                victim = e.getKey();
+                victimUses = e.getValue().uses;
+            }
+        }
+        return victim;
+    }
+}
@@ -0,0 +1,503 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.catalog.asdc;
+
+import org.onap.sdc.common.onaplog.OnapLoggerDebug;
+import org.onap.sdc.common.onaplog.OnapLoggerError;
+import org.onap.sdc.common.onaplog.enums.LogLevel;
+import org.onap.sdc.dcae.catalog.commons.Future;
+import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
+import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Local persistent store of the artifacts (template, schema, ..) that resource models were successfully checked
+ * from, so that a model that is no longer (or not yet) in the memory cache can be rebuilt without downloading the
+ * resource csar from SDC again. Each resource has its own directory, named after the resource id, holding the
+ * artifact payloads and an index recording their names, locations and checksums. A stored resource is only handed
+ * out as long as its artifacts carry the same checksums in SDC.
+ * The store is bounded by the disk space taken by the payloads (least recently used resources go first) and by
+ * the age of its entries. The bounds are enforced by purges that run, outside of the store lock, when the estimated
+ * size of the store goes over its limit and at least every {@link #PURGE_INTERVAL} otherwise.
+ * Without a root directory the store is disabled and keeps nothing.
+ */
+public class CatalogModelStore {
+
+    public static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+    public static final long DEFAULT_TTL = 7L * 24 * 60 * 60 * 1000;
+    // expired resources are dropped at least this often (in milliseconds), by a purge following a put
+    public static final long PURGE_INTERVAL = 60L * 60 * 1000;
+
+    private static final String INDEX = "model.properties";
+    private static final String TOSCA_MODEL_URL = "toscaModelURL";
+    private static final String STORED = "stored";
+    private static final String ARTIFACTS = "artifacts";
+    private static final String ARTIFACT = "artifact.";
+
+    private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
+    private static OnapLoggerError errLogger = OnapLoggerError.getInstance();
+
+    private volatile Path root;
+    private volatile long maxBytes;
+    private volatile long ttl;
+
+    // estimated size of the stored payloads, kept up to date by puts and removals and reset by purges
+    private long bytes;
+    private boolean counted;
+    private long lastPurge;
+    private final AtomicBoolean purging = new AtomicBoolean();
+
+    public CatalogModelStore() {
+        this(null, DEFAULT_MAX_BYTES, DEFAULT_TTL);
+    }
+
+    public CatalogModelStore(Path theRoot, long theMaxBytes, long theTtl) {
+        this.maxBytes = theMaxBytes;
+        this.ttl = theTtl;
+        setRoot(theRoot);
+    }
+
+    public synchronized void setRoot(Path theRoot) {
+        this.root = theRoot;
+        this.bytes = 0;
+        this.counted = false;
+        removeStaging();
+    }
+
+    public synchronized void setMaxBytes(long theMaxBytes) {
+        this.maxBytes = theMaxBytes;
+    }
+
+    /* entries older than this (in milliseconds) are dropped, 0 or less keeps them for good */
+    public synchronized void setTtl(long theTtl) {
+        this.ttl = theTtl;
+    }
+
+    public synchronized boolean isEnabled() {
+        return this.root != null;
+    }
+
+    public synchronized boolean contains(UUID theResourceId) {
+        return isEnabled() && Files.isRegularFile(location(theResourceId).resolve(INDEX));
+    }
+
+    /**
+     * Records the artifacts of the resource, replacing whatever was stored for it before. Only resources whose
+     * model checked successfully are meant to be stored.
+     */
+    public void put(UUID theResourceId, ResourceDetailed theResource) throws IOException {
+        if (write(theResourceId, theResource) && needsPurge()) {
+            purge(theResourceId);
+        }
+    }
+
+    private synchronized boolean write(UUID theResourceId, ResourceDetailed theResource) throws IOException {
+        if (!isEnabled()) {
+            return false;
+        }
+
+        Files.createDirectories(this.root);
+        Path staging = Files.createTempDirectory(this.root, "." + theResourceId);
+        try {
+            Properties index = new Properties();
+            index.setProperty(STORED, Long.toString(System.currentTimeMillis()));
+            if (theResource.getToscaModelURL() != null) {
+                index.setProperty(TOSCA_MODEL_URL, theResource.getToscaModelURL());
+            }
+            List<Artifact> artifacts = theResource.getArtifacts();
+            index.setProperty(ARTIFACTS, Integer.toString(artifacts.size()));
+            for (int i = 0; i < artifacts.size(); i++) {
+                Artifact artifact = artifacts.get(i);
+                if (artifact.getPayloadData() == null) {
+                    throw new IOException("No payload available for artifact " + artifact.getArtifactName());
+                }
+                setOpt(index, ARTIFACT + i + ".name", artifact.getArtifactName());
+                setOpt(index, ARTIFACT + i + ".url", artifact.getArtifactURL());
+                setOpt(index, ARTIFACT + i + ".type", artifact.getArtifactType());
+                setOpt(index, ARTIFACT + i + ".checksum", artifact.getArtifactChecksum());
+                Files.write(staging.resolve(ARTIFACT + i), artifact.getPayloadData().getBytes(StandardCharsets.UTF_8));
+            }
+            // the index goes last, a directory without one is not a stored resource
+            try (OutputStream out = Files.newOutputStream(staging.resolve(INDEX))) {
+                index.store(out, theResourceId.toString());
+            }
+
+            Path target = location(theResourceId);
+            long replaced = size(target);
+            delete(target);
+            try {
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException x) {
+                Files.move(staging, target);
+            }
+            this.bytes += size(target) - replaced;
+        } finally {
+            delete(staging);
+        }
+        return true;
+    }
+
+    /* the store is purged if it may be over its size limit, if it was never purged or if the last purge is old */
+    private synchronized boolean needsPurge() {
+        return !this.counted || this.bytes > this.maxBytes
+                || (this.ttl > 0 && System.currentTimeMillis() - this.lastPurge > PURGE_INTERVAL);
+    }
+
+    /**
+     * @return the stored resource, artifact payloads included, or null if it is not stored, if it expired or if it
+     * was stored from artifacts other than the given ones (in the last two cases it is also dropped from the store)
+     */
+    public synchronized ResourceDetailed get(UUID theResourceId, List<Artifact> theArtifacts) {
+        if (!contains(theResourceId)) {
+            return null;
+        }
+
+        try {
+            Properties index = readIndex(theResourceId);
+            if (isExpired(index)) {
+                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Stored model of resource {} expired", theResourceId);
+                remove(theResourceId);
+                return null;
+            }
+            ResourceDetailed resource = readResource(theResourceId, index);
+            Map<String, String> checksums = new HashMap<>();
+            resource.getArtifacts().forEach(a -> checksums.put(a.getArtifactName(), a.getArtifactChecksum()));
+            if (CatalogModelCache.isStale(checksums, theArtifacts)) {
+                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Artifacts of resource {} changed, dropping stored model", theResourceId);
+                remove(theResourceId);
+                return null;
+            }
+            // keeps track of use for the size based eviction
+            Files.setLastModifiedTime(location(theResourceId).resolve(INDEX), FileTime.fromMillis(System.currentTimeMillis()));
+            return resource;
+        } catch (IOException | RuntimeException x) {
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Failed to read stored model of resource {}: {}", theResourceId, x);
+            remove(theResourceId);
+            return null;
+        }
+    }
+
+    public synchronized void remove(UUID theResourceId) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Path dir = location(theResourceId);
+            long size = size(dir);
+            delete(dir);
+            this.bytes -= size;
+        } catch (IOException x) {
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Failed to remove stored model of resource {}: {}", theResourceId, x);
+        }
+    }
+
+    public synchronized List<UUID> resources() {
+        List<UUID> resources = new ArrayList<>();
+        if (!isEnabled() || !Files.isDirectory(this.root)) {
+            return resources;
+        }
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(this.root)) {
+            for (Path dir : dirs) {
+                UUID resourceId = asResourceId(dir);
+                if (resourceId != null && Files.isRegularFile(dir.resolve(INDEX))) {
+                    resources.add(resourceId);
+                }
+            }
+        } catch (IOException x) {
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Failed to list stored models: {}", x);
+        }
+        return resources;
+    }
+
+    public synchronized long bytes() {
+        long bytes = 0;
+        for (UUID resourceId : resources()) {
+            bytes += size(location(resourceId));
+        }
+        return bytes;
+    }
+
+    /**
+     * Drops the expired resources and then, least recently used first, as many resources as needed to fit within
+     * the size limit. Does nothing if another purge is under way.
+     * @return the number of resources dropped
+     */
+    public int purge() {
+        return purge(null);
+    }
+
+    /*
+     * The stored resources are listed and sized outside of the store lock, which is only taken to drop each of the
+     * resources to evict, provided it was neither stored again nor used since it was looked at.
+     * The resource that was just stored is not evicted, even if on its own it exceeds the size limit.
+     */
+    private int purge(UUID theKeep) {
+        if (!this.purging.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            return purgeStore(theKeep);
+        } finally {
+            this.purging.set(false);
+        }
+    }
+
+    private int purgeStore(UUID theKeep) {
+        long estimated;
+        synchronized (this) {
+            estimated = this.bytes;
+            this.lastPurge = System.currentTimeMillis();
+        }
+
+        int dropped = 0;
+        List<StoredResource> stored = new ArrayList<>();
+        long bytes = 0;
+        for (UUID resourceId : resources()) {
+            try {
+                Path dir = location(resourceId);
+                StoredResource resource = new StoredResource(resourceId, size(dir),
+                        Files.getLastModifiedTime(dir.resolve(INDEX)).toMillis());
+                if (isExpired(readIndex(resourceId))) {
+                    if (removeUnused(resource)) {
+                        dropped++;
+                    }
+                    continue;
+                }
+                stored.add(resource);
+                bytes += resource.bytes;
+            } catch (IOException x) {
+                // being stored again, or unreadable in which case the next attempt to get it drops it
+                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Skipping stored model of resource {}: {}", resourceId, x);
+            }
+        }
+
+        stored.sort(Comparator.comparingLong(r -> r.used));
+        for (StoredResource resource : stored) {
+            if (bytes <= this.maxBytes) {
+                break;
+            }
+            if (resource.id.equals(theKeep)) {
+                continue;
+            }
+            if (removeUnused(resource)) {
+                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Evicted stored model of resource {}", resource.id);
+                bytes -= resource.bytes;
+                dropped++;
+            }
+        }
+
+        synchronized (this) {
+            // the resources stored while the purge was looking at the store are accounted for on top of what it saw
+            this.bytes = this.bytes - estimated + bytes;
+            this.counted = true;
+        }
+        return dropped;
+    }
+
+    /* drops the resource unless it was stored again or used since the purge looked at it */
+    private synchronized boolean removeUnused(StoredResource theResource) {
+        try {
+            Path index = location(theResource.id).resolve(INDEX);
+            if (!Files.isRegularFile(index) || Files.getLastModifiedTime(index).toMillis() != theResource.used) {
+                return false;
+            }
+        } catch (IOException x) {
+            return false;
+        }
+        remove(theResource.id);
+        return true;
+    }
+
+    /* directories a resource was being stored in when the process went down */
+    private void removeStaging() {
+        if (this.root == null || !Files.isDirectory(this.root)) {
+            return;
+        }
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(this.root, "." + "*")) {
+            for (Path dir : dirs) {
+                if (Files.isDirectory(dir) && asStagingResourceId(dir) != null) {
+                    debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Removing staging directory {}", dir);
+                    delete(dir);
+                }
+            }
+        } catch (IOException x) {
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Failed to remove staging directories: {}", x);
+        }
+    }
+
+    private static class StoredResource {
+
+        private final UUID id;
+        private final long bytes;
+        private final long used;
+
+        StoredResource(UUID theId, long theBytes, long theUsed) {
+            this.id = theId;
+            this.bytes = theBytes;
+            this.used = theUsed;
+        }
+    }
+
+    private boolean isExpired(Properties theIndex) {
+        if (this.ttl <= 0) {
+            return false;
+        }
+        long stored = Long.parseLong(theIndex.getProperty(STORED, "0"));
+        return System.currentTimeMillis() - stored > this.ttl;
+    }
+
+    private Path location(UUID theResourceId) {
+        return this.root.resolve(theResourceId.toString());
+    }
+
+    private Properties readIndex(UUID theResourceId) throws IOException {
+        Properties index = new Properties();
+        try (InputStream in = Files.newInputStream(location(theResourceId).resolve(INDEX))) {
+            index.load(in);
+        }
+        return index;
+    }
+
+    private ResourceDetailed readResource(UUID theResourceId, Properties theIndex) throws IOException {
+        Path dir = location(theResourceId);
+        int count = Integer.parseInt(theIndex.getProperty(ARTIFACTS, "0"));
+        List<Artifact> artifacts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Artifact artifact = new Artifact();
+            artifact.setArtifactName(theIndex.getProperty(ARTIFACT + i + ".name"));
+            artifact.setArtifactURL(theIndex.getProperty(ARTIFACT + i + ".url"));
+            artifact.setArtifactType(theIndex.getProperty(ARTIFACT + i + ".type"));
+            artifact.setArtifactChecksum(theIndex.getProperty(ARTIFACT + i + ".checksum"));
+            artifact.setPayloadData(new String(Files.readAllBytes(dir.resolve(ARTIFACT + i)), StandardCharsets.UTF_8));
+            artifacts.add(artifact);
+        }
+
+        ResourceDetailed resource = new ResourceDetailed();
+        resource.setUuid(theResourceId.toString());
+        resource.setToscaModelURL(theIndex.getProperty(TOSCA_MODEL_URL));
+        resource.setArtifacts(artifacts);
+        return resource;
+    }
+
+    private static void setOpt(Properties theIndex, String theKey, String theValue) {
+        if (theValue != null) {
+            theIndex.setProperty(theKey, theValue);
+        }
+    }
+
+    /* staging directories are named after the resource, with a leading dot and a random suffix */
+    private static UUID asStagingResourceId(Path theDir) {
+        String name = theDir.getFileName().toString();
+        int length = UUID.randomUUID().toString().length();
+        if (!name.startsWith(".") || name.length() < length + 1) {
+            return null;
+        }
+        try {
+            return UUID.fromString(name.substring(1, length + 1));
+        } catch (IllegalArgumentException x) {
+            return null;
+        }
+    }
+
+    private static UUID asResourceId(Path theDir) {
+        try {
+            return UUID.fromString(theDir.getFileName().toString());
+        } catch (IllegalArgumentException x) {
+            return null;
+        }
+    }
+
+    private static long size(Path theDir) {
+        try (Stream<Path> files = Files.walk(theDir)) {
+            return files.filter(Files::isRegularFile).mapToLong(f -> f.toFile().length()).sum();
+        } catch (IOException x) {
+            return 0;
+        }
+    }
+
+    private static void delete(Path thePath) throws IOException {
+        if (!Files.exists(thePath)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(thePath)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds a store: every stored resource is checked again with the current checker and is dropped if it
+     * expired or no longer checks. The size limit is enforced last.
+     */
+    public static void main(String[] theArgs) {
+        if (theArgs.length == 0) {
+            errLogger.log(LogLevel.ERROR, CatalogModelStore.class.getName(), "store_directory [max_bytes [ttl_millis]]");
+            return;
+        }
+
+        CatalogModelStore store = new CatalogModelStore(Paths.get(theArgs[0]),
+                theArgs.length > 1 ? Long.parseLong(theArgs[1]) : DEFAULT_MAX_BYTES,
+                theArgs.length > 2 ? Long.parseLong(theArgs[2]) : DEFAULT_TTL);
+        ASDCCatalog catalog = new ASDCCatalog();
+        int checked = 0, dropped = 0;
+        for (UUID resourceId : store.resources()) {
+            // no reference artifacts: only expiration is considered at this point
+            ResourceDetailed resource = store.get(resourceId, null);
+            if (resource == null) {
+                dropped++;
+                continue;
+            }
+            Future<Map<String, Object>> model = catalog.template(resource).executeModel();
+            if (model.failed()) {
+                debugLogger.log(LogLevel.INFO, CatalogModelStore.class.getName(), "Dropping resource {}: {}", resourceId, model.cause());
+                store.remove(resourceId);
+                dropped++;
+            } else {
+                checked++;
+            }
+            catalog.getModelCache().clear();
+        }
+        dropped += store.purge();
+
+        debugLogger.log(LogLevel.INFO, CatalogModelStore.class.getName(), "Checked {} stored resources, dropped {}, {} bytes in store", checked, dropped, store.bytes());
+    }
+}
@@ -0,0 +1,196 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.catalog.asdc;
+
+import org.junit.Test;
+import org.onap.sdc.dcae.checker.Catalog;
+import org.onap.sdc.dcae.checker.Target;
+import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
+import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
+import org.onap.sdc.dcae.utils.SdcRestClientUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class CatalogModelCacheTest {
+
+    private static final String TEMPLATE = "tosca_definitions_version: tosca_simple_yaml_1_0_0\n";
+
+    private ASDCCatalog asdcCatalog = new ASDCCatalog();
+
+    @Test
+    public void lruEvictsLeastRecentlyUsedTest() {
+        CatalogModelCache cache = new CatalogModelCache(2, Long.MAX_VALUE, CatalogModelCache.Policy.LRU);
+        UUID first = put(cache, TEMPLATE), second = put(cache, TEMPLATE);
+        assertNotNull(cache.get(first));
+        UUID third = put(cache, TEMPLATE);
+        assertTrue(cache.contains(first));
+        assertFalse(cache.contains(second));
+        assertTrue(cache.contains(third));
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    public void lfuEvictsLeastFrequentlyUsedTest() {
+        CatalogModelCache cache = new CatalogModelCache(2, Long.MAX_VALUE, CatalogModelCache.Policy.LFU);
+        UUID first = put(cache, TEMPLATE), second = put(cache, TEMPLATE);
+        cache.get(first);
+        cache.get(second);
+        // most recently used but used the least
+        cache.get(first);
+        UUID third = put(cache, TEMPLATE);
+        assertTrue(cache.contains(first));
+        assertFalse(cache.contains(second));
+        assertTrue(cache.contains(third));
+    }
+
+    @Test
+    public void lfuEvictsLeastRecentlyUsedAmongEqualsTest() {
+        CatalogModelCache cache = new CatalogModelCache(2, Long.MAX_VALUE, CatalogModelCache.Policy.LFU);
+        UUID first = put(cache, TEMPLATE), second = put(cache, TEMPLATE);
+        cache.get(second);
+        cache.get(first);
+        put(cache, TEMPLATE);
+        assertTrue(cache.contains(first));
+        assertFalse(cache.contains(second));
+    }
+
+    @Test
+    public void byteBoundEvictsModelsTest() {
+        CatalogModelCache cache = new CatalogModelCache(Integer.MAX_VALUE, Long.MAX_VALUE, CatalogModelCache.Policy.LRU);
+        UUID first = put(cache, TEMPLATE);
+        long bytes = cache.bytes();
+        assertTrue(bytes > 0);
+
+        cache.setMaxBytes(bytes * 2);
+        UUID second = put(cache, TEMPLATE);
+        assertEquals(bytes * 2, cache.bytes());
+        UUID third = put(cache, TEMPLATE);
+        assertFalse(cache.contains(first));
+        assertTrue(cache.contains(second));
+        assertTrue(cache.contains(third));
+        assertEquals(bytes * 2, cache.bytes());
+
+        // a model exceeding the bound on its own is kept, until the next one comes in
+        UUID large = put(cache, TEMPLATE + "# " + String.join("", Collections.nCopies(TEMPLATE.length() * 2, "x")) + "\n");
+        assertTrue(cache.contains(large));
+        assertEquals(1, cache.size());
+
+        // lowering the bound applies it to the models already cached
+        cache.setMaxBytes(0);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.bytes());
+    }
+
+    @Test
+    public void changedArtifactsDropModelTest() {
+        CatalogModelCache cache = new CatalogModelCache();
+        UUID uuid = put(cache, TEMPLATE);
+        List<Artifact> same = artifacts(TEMPLATE);
+        assertNotNull(cache.get(uuid, same));
+
+        List<Artifact> changed = artifacts(TEMPLATE + "description: changed\n");
+        assertNull(cache.get(uuid, changed));
+        assertFalse(cache.contains(uuid));
+        assertEquals(1, cache.invalidations());
+        assertNotNull(cache.takeStale(uuid));
+        assertNull(cache.takeStale(uuid));
+    }
+
+    @Test
+    public void staleModelsCountAgainstByteBoundTest() {
+        CatalogModelCache cache = new CatalogModelCache(Integer.MAX_VALUE, Long.MAX_VALUE, CatalogModelCache.Policy.LRU);
+        UUID first = put(cache, TEMPLATE);
+        long bytes = cache.bytes();
+        assertNull(cache.get(first, artifacts(TEMPLATE + "description: changed\n")));
+        assertEquals(0, cache.size());
+        assertEquals(bytes, cache.bytes());
+
+        // the stale model goes before any cached one
+        cache.setMaxBytes(bytes * 2);
+        UUID second = put(cache, TEMPLATE);
+        assertEquals(bytes * 2, cache.bytes());
+        UUID third = put(cache, TEMPLATE);
+        assertTrue(cache.contains(second));
+        assertTrue(cache.contains(third));
+        assertNull(cache.takeStale(first));
+        assertEquals(bytes * 2, cache.bytes());
+
+        // handing out the stale model releases it
+        assertNull(cache.get(third, artifacts(TEMPLATE + "description: changed\n")));
+        assertNotNull(cache.takeStale(third));
+        assertEquals(bytes, cache.bytes());
+    }
+
+    @Test
+    public void removedArtifactDropsModelTest() {
+        CatalogModelCache cache = new CatalogModelCache();
+        UUID uuid = put(cache, TEMPLATE);
+        assertNull(cache.get(uuid, new ArrayList<>()));
+        assertFalse(cache.contains(uuid));
+    }
+
+    @Test
+    public void unknownChecksumDropsModelTest() {
+        CatalogModelCache cache = new CatalogModelCache();
+        UUID uuid = put(cache, TEMPLATE);
+        List<Artifact> unknown = artifacts(TEMPLATE);
+        unknown.get(0).setArtifactChecksum(null);
+        assertNull(cache.get(uuid, unknown));
+
+        // nor can a model built from artifacts without checksums be told apart from a newer one
+        put(cache, uuid, unknown);
+        assertNull(cache.get(uuid, artifacts(TEMPLATE)));
+    }
+
+    private UUID put(CatalogModelCache theCache, String theTemplate) {
+        UUID uuid = UUID.randomUUID();
+        put(theCache, uuid, artifacts(theTemplate));
+        return uuid;
+    }
+
+    private void put(CatalogModelCache theCache, UUID theResourceId, List<Artifact> theArtifacts) {
+        Catalog catalog = new Catalog();
+        Target template = asdcCatalog.new ASDCLocator(theArtifacts, null).resolve("template");
+        template.setTarget(new HashMap<>());
+        catalog.addTarget(template, null);
+        theCache.put(theResourceId, catalog, template, resource(theResourceId, theArtifacts));
+    }
+
+    private static List<Artifact> artifacts(String theTemplate) {
+        List<Artifact> artifacts = new ArrayList<>();
+        artifacts.add(SdcRestClientUtils.generateCatalogDcaeToscaArtifact("template.yaml", "/template.yaml", theTemplate.getBytes(StandardCharsets.UTF_8)));
+        return artifacts;
+    }
+
+    private static ResourceDetailed resource(UUID theResourceId, List<Artifact> theArtifacts) {
+        ResourceDetailed resource = new ResourceDetailed();
+        resource.setUuid(theResourceId.toString());
+        resource.setArtifacts(theArtifacts);
+        return resource;
+    }
+}
@@ -0,0 +1,107 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.catalog.asdc;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
+import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
+import org.onap.sdc.dcae.utils.SdcRestClientUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class CatalogModelStoreTest {
+
+    private static final String TEMPLATE = "tosca_definitions_version: tosca_simple_yaml_1_0_0\ndescription: caf\u00e9\n";
+
+    @Rule
+    public TemporaryFolder storeDir = new TemporaryFolder();
+
+    @Test
+    public void stagingDirectoriesRemovedOnStartTest() throws Exception {
+        Path root = storeDir.getRoot().toPath();
+        UUID stored = UUID.randomUUID();
+        new CatalogModelStore(root, Long.MAX_VALUE, 0).put(stored, resource(stored));
+        Path staging = Files.createDirectory(root.resolve("." + UUID.randomUUID() + "1234"));
+        Files.write(staging.resolve("artifact0"), TEMPLATE.getBytes(StandardCharsets.UTF_8));
+        Path other = Files.createDirectory(root.resolve(".other"));
+
+        CatalogModelStore store = new CatalogModelStore(root, Long.MAX_VALUE, 0);
+        assertFalse(Files.exists(staging));
+        assertTrue(Files.exists(other));
+        assertNotNull(store.get(stored, artifacts()));
+    }
+
+    @Test
+    public void getRestoresArtifactsTest() throws Exception {
+        CatalogModelStore store = new CatalogModelStore(storeDir.getRoot().toPath(), Long.MAX_VALUE, 0);
+        UUID id = UUID.randomUUID();
+        store.put(id, resource(id));
+        Artifact stored = artifacts().get(0);
+        Artifact restored = store.get(id, artifacts()).getArtifacts().get(0);
+        assertEquals(stored.getArtifactName(), restored.getArtifactName());
+        assertEquals(stored.getArtifactURL(), restored.getArtifactURL());
+        assertEquals(stored.getArtifactType(), restored.getArtifactType());
+        assertEquals(stored.getArtifactChecksum(), restored.getArtifactChecksum());
+        assertEquals(stored.getPayloadData(), restored.getPayloadData());
+    }
+
+    @Test
+    public void putPurgesStoreOverSizeTest() throws Exception {
+        CatalogModelStore store = new CatalogModelStore(storeDir.getRoot().toPath(), Long.MAX_VALUE, 0);
+        UUID first = UUID.randomUUID(), second = UUID.randomUUID();
+        store.put(first, resource(first));
+        long bytes = store.bytes();
+        assertTrue(bytes > 0);
+
+        store.setMaxBytes(bytes);
+        // replacing a resource does not grow the store
+        store.put(first, resource(first));
+        assertTrue(store.contains(first));
+
+        // the resource just stored is kept, the store being purged of the least recently used ones
+        store.put(second, resource(second));
+        assertFalse(store.contains(first));
+        assertTrue(store.contains(second));
+        assertEquals(bytes, store.bytes());
+    }
+
+    private static List<Artifact> artifacts() {
+        List<Artifact> artifacts = new ArrayList<>();
+        artifacts.add(SdcRestClientUtils.generateCatalogDcaeToscaArtifact("template.yaml", "/template.yaml", TEMPLATE.getBytes(StandardCharsets.UTF_8)));
+        return artifacts;
+    }
+
+    private static ResourceDetailed resource(UUID theResourceId) {
+        ResourceDetailed resource = new ResourceDetailed();
+        resource.setUuid(theResourceId.toString());
+        resource.setArtifacts(artifacts());
+        return resource;
+    }
+}
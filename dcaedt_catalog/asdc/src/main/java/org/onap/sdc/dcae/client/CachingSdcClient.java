@@ -0,0 +1,411 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.onap.sdc.common.onaplog.OnapLoggerDebug;
+import org.onap.sdc.common.onaplog.enums.LogLevel;
+import org.onap.sdc.dcae.composition.restmodels.CreateVFCMTRequest;
+import org.onap.sdc.dcae.composition.restmodels.ReferenceUUID;
+import org.onap.sdc.dcae.composition.restmodels.sdc.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache in front of the SDC rest client. Resource metadata is kept per resource uuid and artifact
+ * payloads per resource uuid, artifact uuid and the resource version and artifact checksum listed in the cached
+ * metadata, so a payload is refetched as soon as the metadata shows a new version or checksum. Every write through
+ * this client that may change a resource drops what is cached for it, a lifecycle change for both the version it
+ * was requested on and the version it resulted in; entries also expire after a short ttl as SDC can be changed
+ * behind our back.
+ * A read that was under way when an invalidation happened does not cache what it got, as it may predate the write.
+ * Cached metadata is handed out as copies since callers attach payloads to the artifacts they get.
+ */
+@Primary
+@Component("cachingsdcclient")
+public class CachingSdcClient implements ISdcClient {
+
+    private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
+
+    private static final String KEY_SEPARATOR = "/";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Autowired
+    @Qualifier("sdcrestclient")
+    private ISdcClient delegate;
+
+    private boolean enabled = true;
+    private long ttl = 10000;
+
+    private final Cache<ResourceDetailed> resources = new Cache<>(256);
+    private final Cache<String> artifacts = new Cache<>(1024);
+
+    void setDelegate(ISdcClient theDelegate) {
+        this.delegate = theDelegate;
+    }
+
+    @Value("${sdc.cache.enabled:true}")
+    public void setEnabled(boolean theEnabled) {
+        this.enabled = theEnabled;
+    }
+
+    /* in milliseconds */
+    @Value("${sdc.cache.ttl:10000}")
+    public void setTtl(long theTtl) {
+        this.ttl = theTtl;
+    }
+
+    @Value("${sdc.cache.maxResources:256}")
+    public void setMaxResources(int theMaxResources) {
+        this.resources.setMaxEntries(theMaxResources);
+    }
+
+    @Value("${sdc.cache.maxArtifacts:1024}")
+    public void setMaxArtifacts(int theMaxArtifacts) {
+        this.artifacts.setMaxEntries(theMaxArtifacts);
+    }
+
+    public ResourceDetailed getResource(String uuid, String requestId) {
+        if (!enabled) {
+            return delegate.getResource(uuid, requestId);
+        }
+        ResourceDetailed resource = resources.get(uuid, ttl);
+        if (resource == null) {
+            long generation = resources.generation();
+            resource = delegate.getResource(uuid, requestId);
+            if (resource == null) {
+                return null;
+            }
+            resource = copy(resource);
+            if (resources.put(uuid, resource, generation)) {
+                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Cached SDC resource {} version {}", uuid, resource.getVersion());
+            }
+        }
+        return copy(resource);
+    }
+
+    public String getResourceArtifact(String resourceUuid, String artifactUuid, String requestId) {
+        if (!enabled) {
+            return delegate.getResourceArtifact(resourceUuid, artifactUuid, requestId);
+        }
+        String key = artifactKey(resourceUuid, artifactUuid);
+        String payload = artifacts.get(key, ttl);
+        if (payload == null) {
+            long generation = artifacts.generation();
+            payload = delegate.getResourceArtifact(resourceUuid, artifactUuid, requestId);
+            if (payload != null) {
+                artifacts.put(key, payload, generation);
+            }
+        }
+        return payload;
+    }
+
+    public ResourceDetailed changeResourceLifecycleState(String userId, String uuid, String lifecycleOperation, String userRemarks, String requestId) {
+        ResourceDetailed resource = null;
+        try {
+            resource = delegate.changeResourceLifecycleState(userId, uuid, lifecycleOperation, userRemarks, requestId);
+            return resource;
+        } finally {
+            invalidate(uuid);
+            // a new version may come with a uuid of its own
+            if (resource != null && resource.getUuid() != null && !uuid.equals(resource.getUuid())) {
+                invalidate(resource.getUuid());
+            }
+        }
+    }
+
+    public Artifact createResourceArtifact(String userId, String resourceUuid, Artifact artifact, String requestId) throws JsonProcessingException {
+        try {
+            return delegate.createResourceArtifact(userId, resourceUuid, artifact, requestId);
+        } finally {
+            invalidate(resourceUuid);
+        }
+    }
+
+    public Artifact updateResourceArtifact(String userId, String resourceUuid, Artifact artifact, String requestId) throws JsonProcessingException {
+        try {
+            return delegate.updateResourceArtifact(userId, resourceUuid, artifact, requestId);
+        } finally {
+            invalidate(resourceUuid);
+        }
+    }
+
+    public void deleteResourceArtifact(String userId, String resourceUuid, String artifactId, String requestId) {
+        try {
+            delegate.deleteResourceArtifact(userId, resourceUuid, artifactId, requestId);
+        } finally {
+            invalidate(resourceUuid);
+        }
+    }
+
+    public byte[] getResourceToscaModel(String uuid, String requestId) {
+        return delegate.getResourceToscaModel(uuid, requestId);
+    }
+
+    public ServiceDetailed getService(String uuid, String requestId) {
+        return delegate.getService(uuid, requestId);
+    }
+
+    public ServiceDetailed getAssetMetadata(String contextType, String uuid, String requestId) {
+        return delegate.getAssetMetadata(contextType, uuid, requestId);
+    }
+
+    public List<Resource> getResources(String resourceType, String category, String subcategory, String requestId) {
+        return delegate.getResources(resourceType, category, subcategory, requestId);
+    }
+
+    public List<Service> getServices(String requestId) {
+        return delegate.getServices(requestId);
+    }
+
+    public String addExternalMonitoringReference(String userId, String contextType, String serviceUuid, String vfiName, ReferenceUUID vfcmtUuid, String requestId) {
+        try {
+            return delegate.addExternalMonitoringReference(userId, contextType, serviceUuid, vfiName, vfcmtUuid, requestId);
+        } finally {
+            invalidate(vfcmtUuid);
+        }
+    }
+
+    public String addExternalMonitoringReference(String userId, CreateVFCMTRequest resource, ReferenceUUID vfcmtUuid, String requestId) {
+        try {
+            return delegate.addExternalMonitoringReference(userId, resource, vfcmtUuid, requestId);
+        } finally {
+            invalidate(vfcmtUuid);
+        }
+    }
+
+    public void updateExternalMonitoringReference(String userId, String contextType, String serviceUuid, String vfiName, String vfcmtUuid, ReferenceUUID updatedReference, String requestId) {
+        try {
+            delegate.updateExternalMonitoringReference(userId, contextType, serviceUuid, vfiName, vfcmtUuid, updatedReference, requestId);
+        } finally {
+            invalidate(vfcmtUuid);
+            invalidate(updatedReference);
+        }
+    }
+
+    public void deleteExternalMonitoringReference(String userId, String contextType, String uuid, String vfiName, String vfcmtUuid, String requestId) {
+        try {
+            delegate.deleteExternalMonitoringReference(userId, contextType, uuid, vfiName, vfcmtUuid, requestId);
+        } finally {
+            invalidate(vfcmtUuid);
+        }
+    }
+
+    public ResourceDetailed createResource(String userId, CreateVFCMTRequest resource, String requestId) {
+        ResourceDetailed created = delegate.createResource(userId, resource, requestId);
+        if (created != null && created.getUuid() != null) {
+            invalidate(created.getUuid());
+        }
+        return created;
+    }
+
+    public Artifact createInstanceArtifact(String userId, String contextType, String serviceUuid, String normalizedInstanceName, Artifact artifact, String requestId) throws JsonProcessingException {
+        return delegate.createInstanceArtifact(userId, contextType, serviceUuid, normalizedInstanceName, artifact, requestId);
+    }
+
+    public Artifact updateInstanceArtifact(String userId, String contextType, String serviceUuid, String normalizedInstanceName, Artifact artifact, String requestId) throws JsonProcessingException {
+        return delegate.updateInstanceArtifact(userId, contextType, serviceUuid, normalizedInstanceName, artifact, requestId);
+    }
+
+    public ExternalReferencesMap getMonitoringReferences(String contextType, String uuid, String version, String requestId) {
+        return delegate.getMonitoringReferences(contextType, uuid, version, requestId);
+    }
+
+    public void deleteInstanceArtifact(String userId, String contextType, String serviceUuid, String normalizedVfiName, String artifactUuid, String requestId) {
+        delegate.deleteInstanceArtifact(userId, contextType, serviceUuid, normalizedVfiName, artifactUuid, requestId);
+    }
+
+    /**
+     * Drops the metadata and all artifact payloads cached for the given resource.
+     */
+    public void invalidate(String resourceUuid) {
+        resources.remove(resourceUuid);
+        artifacts.removeByPrefix(resourceUuid + KEY_SEPARATOR);
+        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Invalidated cached SDC resource {}", resourceUuid);
+    }
+
+    private void invalidate(ReferenceUUID theReference) {
+        if (theReference != null && theReference.getReferenceUUID() != null) {
+            invalidate(theReference.getReferenceUUID());
+        }
+    }
+
+    public void clear() {
+        resources.clear();
+        artifacts.clear();
+    }
+
+    public double getResourceHitRate() {
+        return resources.hitRate();
+    }
+
+    public double getArtifactHitRate() {
+        return artifacts.hitRate();
+    }
+
+    /**
+     * Hit/miss counters and current sizes of both caches.
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("resources", resources.statistics());
+        stats.put("artifacts", artifacts.statistics());
+        return stats;
+    }
+
+    /* the version and checksum are the ones listed in the cached metadata, if any */
+    private String artifactKey(String resourceUuid, String artifactUuid) {
+        String version = "";
+        String checksum = "";
+        ResourceDetailed resource = resources.peek(resourceUuid);
+        if (resource != null && resource.getVersion() != null) {
+            version = resource.getVersion();
+        }
+        if (resource != null && resource.getArtifacts() != null) {
+            checksum = resource.getArtifacts().stream()
+                    .filter(a -> artifactUuid.equals(a.getArtifactUUID()) && a.getArtifactChecksum() != null)
+                    .map(Artifact::getArtifactChecksum)
+                    .findAny()
+                    .orElse("");
+        }
+        return resourceUuid + KEY_SEPARATOR + artifactUuid + KEY_SEPARATOR + version + KEY_SEPARATOR + checksum;
+    }
+
+    private ResourceDetailed copy(ResourceDetailed theResource) {
+        try {
+            return mapper.readValue(mapper.writeValueAsBytes(theResource), ResourceDetailed.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to copy resource " + theResource.getUuid(), e);
+        }
+    }
+
+    /**
+     * Size bound, access ordered map with a per entry timestamp and hit/miss counters. The generation counts the
+     * removals, so a value read from SDC is only cached if nothing was invalidated since the read started.
+     */
+    private static class Cache<T> {
+
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private int maxEntries;
+        private long generation;
+        private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<String, Entry<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> theEldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        private Cache(int theMaxEntries) {
+            this.maxEntries = theMaxEntries;
+        }
+
+        private synchronized void setMaxEntries(int theMaxEntries) {
+            this.maxEntries = theMaxEntries;
+        }
+
+        private synchronized T get(String theKey, long theTtl) {
+            Entry<T> entry = entries.get(theKey);
+            if (entry != null && theTtl > 0 && System.currentTimeMillis() - entry.created > theTtl) {
+                entries.remove(theKey);
+                entry = null;
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value;
+        }
+
+        /* not counted as a hit or miss */
+        private synchronized T peek(String theKey) {
+            Entry<T> entry = entries.get(theKey);
+            return entry == null ? null : entry.value;
+        }
+
+        private synchronized long generation() {
+            return generation;
+        }
+
+        /* the value is dropped if the cache was invalidated after the given generation */
+        private synchronized boolean put(String theKey, T theValue, long theGeneration) {
+            if (maxEntries <= 0 || theGeneration != generation) {
+                return false;
+            }
+            entries.put(theKey, new Entry<>(theValue));
+            return true;
+        }
+
+        private synchronized void remove(String theKey) {
+            generation++;
+            entries.remove(theKey);
+        }
+
+        private synchronized void removeByPrefix(String thePrefix) {
+            generation++;
+            entries.keySet().removeIf(key -> key.startsWith(thePrefix));
+        }
+
+        private synchronized void clear() {
+            generation++;
+            entries.clear();
+        }
+
+        private double hitRate() {
+            long h = hits.get();
+            long total = h + misses.get();
+            return total == 0 ? 0 : (double) h / total;
+        }
+
+        private synchronized Map<String, Object> statistics() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("size", entries.size());
+            stats.put("maxEntries", maxEntries);
+            stats.put("hits", hits.get());
+            stats.put("misses", misses.get());
+            stats.put("hitRate", hitRate());
+            return stats;
+        }
+    }
+
+    private static class Entry<T> {
+
+        private final T value;
+        private final long created = System.currentTimeMillis();
+
+        private Entry(T theValue) {
+            this.value = theValue;
+        }
+    }
+}
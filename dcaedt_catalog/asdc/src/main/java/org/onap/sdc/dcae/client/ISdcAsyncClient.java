@@ -0,0 +1,39 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.client;
+
+import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non blocking counterpart of the {@link ISdcClient} reads used by fan-out call sites. No thread is held while a
+ * request is in flight; cancelling a returned future aborts its request.
+ */
+public interface ISdcAsyncClient {
+
+    CompletableFuture<ResourceDetailed> getResource(String uuid, String requestId);
+
+    CompletableFuture<byte[]> getResourceToscaModel(String uuid, String requestId);
+
+    CompletableFuture<String> getResourceArtifact(String resourceUuid, String artifactUuid, String requestId);
+
+}
@@ -0,0 +1,123 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.client;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pooling connection manager that keeps track of how long callers wait to lease a connection and how often the
+ * pool runs dry, so pool sizing can be judged from the numbers rather than guessed.
+ */
+class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong leaseTimeouts = new AtomicLong();
+    private final AtomicLong leaseWaitNanos = new AtomicLong();
+    private final AtomicLong maxLeaseWaitNanos = new AtomicLong();
+    private final AtomicLong saturated = new AtomicLong();
+
+    InstrumentedConnectionManager(Registry<ConnectionSocketFactory> theRegistry) {
+        super(theRegistry);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute theRoute, Object theState) {
+        PoolStats stats = getStats(theRoute);
+        if (stats.getAvailable() == 0 && stats.getLeased() + stats.getPending() >= stats.getMax()) {
+            saturated.incrementAndGet();
+        }
+        ConnectionRequest request = super.requestConnection(theRoute, theState);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long theTimeout, TimeUnit theUnit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    HttpClientConnection connection = request.get(theTimeout, theUnit);
+                    leases.incrementAndGet();
+                    return connection;
+                } catch (ConnectionPoolTimeoutException e) {
+                    leaseTimeouts.incrementAndGet();
+                    throw e;
+                } finally {
+                    long waited = System.nanoTime() - start;
+                    leaseWaitNanos.addAndGet(waited);
+                    maxLeaseWaitNanos.accumulateAndGet(waited, Math::max);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    long getLeaseCount() {
+        return leases.get();
+    }
+
+    long getLeaseTimeoutCount() {
+        return leaseTimeouts.get();
+    }
+
+    /* number of lease requests made while every connection of the route was taken */
+    long getSaturatedCount() {
+        return saturated.get();
+    }
+
+    double getAverageLeaseWaitMillis() {
+        long count = leases.get() + leaseTimeouts.get();
+        return count == 0 ? 0 : leaseWaitNanos.get() / 1e6 / count;
+    }
+
+    double getMaxLeaseWaitMillis() {
+        return maxLeaseWaitNanos.get() / 1e6;
+    }
+
+    Map<String, Object> statistics() {
+        PoolStats total = getTotalStats();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxTotal", total.getMax());
+        stats.put("maxPerRoute", getDefaultMaxPerRoute());
+        stats.put("leased", total.getLeased());
+        stats.put("pending", total.getPending());
+        stats.put("available", total.getAvailable());
+        stats.put("leases", getLeaseCount());
+        stats.put("leaseTimeouts", getLeaseTimeoutCount());
+        stats.put("saturated", getSaturatedCount());
+        stats.put("averageLeaseWaitMillis", getAverageLeaseWaitMillis());
+        stats.put("maxLeaseWaitMillis", getMaxLeaseWaitMillis());
+        return stats;
+    }
+}
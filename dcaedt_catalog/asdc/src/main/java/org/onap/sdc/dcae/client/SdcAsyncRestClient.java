@@ -0,0 +1,298 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.util.EntityUtils;
+import org.onap.sdc.common.onaplog.OnapLoggerDebug;
+import org.onap.sdc.common.onaplog.enums.LogLevel;
+import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
+import org.onap.sdc.dcae.composition.util.DcaeBeConstants;
+import org.onap.sdc.dcae.composition.util.SystemProperties;
+import org.onap.sdc.dcae.enums.AssetType;
+import org.onap.sdc.dcae.enums.SdcConsumerInfo;
+import org.onap.sdc.dcae.utils.SDCResponseErrorHandler;
+import org.onap.sdc.dcae.utils.SdcRestClientUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseErrorHandler;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * SDC reads over a non blocking http client. Requests beyond the per route connection limit wait in the pool for a
+ * connection, not on a thread, so a fan-out of any size costs no more threads than the reactor has.
+ * Responses are mapped and SDC errors reported the same way {@link SdcRestClient} does.
+ * The reads go to SDC directly and not through {@link CachingSdcClient}: they fan out over many distinct resources,
+ * each read once per request, and caching them would only push out the entries the editing flows keep reading.
+ */
+@Component("sdcasyncrestclient")
+public class SdcAsyncRestClient implements ISdcAsyncClient {
+
+    @Autowired
+    private SystemProperties systemProperties;
+
+    private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
+
+    private String uri;
+
+    private CloseableHttpAsyncClient httpClient;
+
+    private final ResponseErrorHandler errorHandler = new SDCResponseErrorHandler();
+
+    // configured as the message converters of a RestTemplate would be
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private int maxTotal = 100;
+    private int maxPerRoute = 50;
+    private int connectTimeout = 10000;
+    private int readTimeout = 120000;
+    private int leaseTimeout = 10000;
+
+    @Value("${sdc.http.maxTotal:100}")
+    public void setMaxTotal(int theMaxTotal) {
+        this.maxTotal = theMaxTotal;
+    }
+
+    @Value("${sdc.http.maxPerRoute:50}")
+    public void setMaxPerRoute(int theMaxPerRoute) {
+        this.maxPerRoute = theMaxPerRoute;
+    }
+
+    /* timeouts are in milliseconds */
+    @Value("${sdc.http.connectTimeout:10000}")
+    public void setConnectTimeout(int theConnectTimeout) {
+        this.connectTimeout = theConnectTimeout;
+    }
+
+    @Value("${sdc.http.readTimeout:120000}")
+    public void setReadTimeout(int theReadTimeout) {
+        this.readTimeout = theReadTimeout;
+    }
+
+    @Value("${sdc.http.leaseTimeout:10000}")
+    public void setLeaseTimeout(int theLeaseTimeout) {
+        this.leaseTimeout = theLeaseTimeout;
+    }
+
+    @PostConstruct
+    private void init() {
+        URI configUri = URI.create(systemProperties.getProperties().getProperty(DcaeBeConstants.Config.URI));
+        EnumMap<SdcConsumerInfo, String> userInfo = SdcRestClientUtils.extractConsumerInfoFromUri(configUri);
+        try {
+            httpClient = buildAsyncClient(userInfo);
+            httpClient.start();
+            uri = userInfo.get(SdcConsumerInfo.CATALOG_URL);
+        } catch (IOReactorException | NoSuchAlgorithmException e) {
+            debugLogger.log(LogLevel.ERROR, this.getClass().getName(), e.getMessage());
+            // no point in starting without a client, every read would fail
+            throw new IllegalStateException("Failed to start SDC async http client", e);
+        }
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Failed to close SDC async http client: {}", e.getMessage());
+            }
+        }
+    }
+
+    public CompletableFuture<ResourceDetailed> getResource(String uuid, String requestId) {
+        String url = buildRequestPath(AssetType.RESOURCE.getSdcContextPath(), uuid, SdcRestClient.METADATA_PATH);
+        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Get resource from SDC (async). URL={}", url);
+        return getObject(url, requestId, ResourceDetailed.class);
+    }
+
+    public CompletableFuture<byte[]> getResourceToscaModel(String uuid, String requestId) {
+        String url = buildRequestPath(AssetType.RESOURCE.getSdcContextPath(), uuid, SdcRestClient.CSAR_PATH);
+        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Get resource csar from SDC (async). URL={}", url);
+        return getObject(url, requestId, byte[].class);
+    }
+
+    public CompletableFuture<String> getResourceArtifact(String resourceUuid, String artifactUuid, String requestId) {
+        String url = buildRequestPath(AssetType.RESOURCE.getSdcContextPath(), resourceUuid, SdcRestClient.ARTIFACTS_PATH, artifactUuid);
+        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Get resource artifact from SDC (async). URL={}", url);
+        return getObject(url, requestId, String.class);
+    }
+
+    private <T> CompletableFuture<T> getObject(String url, String requestId, Class<T> clazz) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        HttpGet request = new HttpGet(url);
+        SdcRestClient.requestHeader(requestId).forEach((name, values) -> values.forEach(value -> request.addHeader(name, value)));
+        Future<HttpResponse> exchange = httpClient.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                try {
+                    result.complete(readBody(response, clazz));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        result.whenComplete((body, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private <T> T readBody(HttpResponse response, Class<T> clazz) throws IOException {
+        byte[] body = null == response.getEntity() ? new byte[0] : EntityUtils.toByteArray(response.getEntity());
+        ClientHttpResponse sdcResponse = new SdcResponse(response, body);
+        if (errorHandler.hasError(sdcResponse)) {
+            errorHandler.handleError(sdcResponse);
+        }
+        if (0 == body.length) {
+            return null;
+        }
+        if (byte[].class == clazz) {
+            return clazz.cast(body);
+        }
+        if (String.class == clazz) {
+            Charset charset = ContentType.getOrDefault(response.getEntity()).getCharset();
+            return clazz.cast(new String(body, null == charset ? StandardCharsets.ISO_8859_1 : charset));
+        }
+        return mapper.readValue(body, clazz);
+    }
+
+    /* a buffered response as seen by the SDC error handler */
+    private static class SdcResponse implements ClientHttpResponse {
+
+        private final HttpResponse response;
+        private final byte[] body;
+
+        private SdcResponse(HttpResponse response, byte[] body) {
+            this.response = response;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.valueOf(getRawStatusCode());
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return response.getStatusLine().getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() {
+            return response.getStatusLine().getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            for (Header header : response.getAllHeaders()) {
+                headers.add(header.getName(), header.getValue());
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+            // the body is already consumed
+        }
+    }
+
+    private String buildRequestPath(String... args) {
+        return uri + String.join(SdcRestClient.SLASH, args);
+    }
+
+    private CloseableHttpAsyncClient buildAsyncClient(EnumMap<SdcConsumerInfo, String> userInfo) throws IOReactorException, NoSuchAlgorithmException {
+        Registry<SchemeIOSessionStrategy> registry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", new SSLIOSessionStrategy(SSLContext.getDefault(), NoopHostnameVerifier.INSTANCE))
+                .build();
+        IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSoTimeout(readTimeout)
+                .build();
+        PoolingNHttpClientConnectionManager cm = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig), registry);
+        cm.setMaxTotal(maxTotal);
+        cm.setDefaultMaxPerRoute(maxPerRoute);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .setConnectionRequestTimeout(leaseTimeout)
+                .build();
+        return HttpAsyncClients.custom().setDefaultHeaders(SdcRestClient.defaultHeaders(userInfo))
+                .setConnectionManager(cm)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+    }
+}
@@ -22,6 +22,7 @@ package org.onap.sdc.dcae.client;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
@@ -30,8 +31,9 @@ import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.onap.sdc.common.onaplog.enums.LogLevel;
@@ -47,43 +49,52 @@ import org.onap.sdc.dcae.utils.Normalizers;
 import org.onap.sdc.dcae.utils.SDCResponseErrorHandler;
 import org.onap.sdc.dcae.utils.SdcRestClientUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Base64Utils;
 import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
+import java.io.IOException;
 import java.net.URI;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component("sdcrestclient")
+@ManagedResource(objectName = "org.onap.sdc.dcae:type=SdcRestClient", description = "SDC rest client connection pool")
 public class SdcRestClient implements ISdcClient {
 
     @Autowired
     private SystemProperties systemProperties;
 
-    private static final String SLASH = "/";
+    static final String SLASH = "/";
     private static final String ECOMP_INSTANCE_ID_HEADER = "X-ECOMP-InstanceID";
     private static final String ECOMP_REQUEST_ID_HEADER = "X-ECOMP-RequestID";
     private static final String USER_ID_HEADER = "USER_ID";
-    private static final String ARTIFACTS_PATH = "artifacts";
+    static final String ARTIFACTS_PATH = "artifacts";
     private static final String CONTENT_MD5_HEADER = "Content-MD5";
     private static final String RESOURCE_INSTANCES_PATH = "resourceInstances";
     private static final String LIFECYCLE_STATE_PATH = "lifecycleState/{lifecycleOperation}";
-    private static final String METADATA_PATH = "metadata";
+    static final String METADATA_PATH = "metadata";
     private static final String VERSION_PATH = "version";
-    private static final String CSAR_PATH = "toscaModel";
+    static final String CSAR_PATH = "toscaModel";
     private static final String MONITORING_REFERENCES_PATH = "externalReferences/monitoring";
 
     private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
@@ -92,13 +103,73 @@ public class SdcRestClient implements ISdcClient {
 
     private RestTemplate client;
 
+    private CloseableHttpClient httpClient;
+
+    private InstrumentedConnectionManager connectionManager;
+
+    private int maxTotal = 100;
+    private int maxPerRoute = 50;
+    private int connectTimeout = 10000;
+    private int readTimeout = 120000;
+    private int leaseTimeout = 10000;
+    private int validateAfterInactivity = 2000;
+    private long idleTimeout = 30000;
+    private long keepAlive = 60000;
+    private boolean compression = true;
+
+    @Value("${sdc.http.maxTotal:100}")
+    public void setMaxTotal(int theMaxTotal) {
+        this.maxTotal = theMaxTotal;
+    }
+
+    @Value("${sdc.http.maxPerRoute:50}")
+    public void setMaxPerRoute(int theMaxPerRoute) {
+        this.maxPerRoute = theMaxPerRoute;
+    }
+
+    /* timeouts are in milliseconds */
+    @Value("${sdc.http.connectTimeout:10000}")
+    public void setConnectTimeout(int theConnectTimeout) {
+        this.connectTimeout = theConnectTimeout;
+    }
+
+    @Value("${sdc.http.readTimeout:120000}")
+    public void setReadTimeout(int theReadTimeout) {
+        this.readTimeout = theReadTimeout;
+    }
+
+    @Value("${sdc.http.leaseTimeout:10000}")
+    public void setLeaseTimeout(int theLeaseTimeout) {
+        this.leaseTimeout = theLeaseTimeout;
+    }
+
+    @Value("${sdc.http.validateAfterInactivity:2000}")
+    public void setValidateAfterInactivity(int theValidateAfterInactivity) {
+        this.validateAfterInactivity = theValidateAfterInactivity;
+    }
+
+    @Value("${sdc.http.idleTimeout:30000}")
+    public void setIdleTimeout(long theIdleTimeout) {
+        this.idleTimeout = theIdleTimeout;
+    }
+
+    @Value("${sdc.http.keepAlive:60000}")
+    public void setKeepAlive(long theKeepAlive) {
+        this.keepAlive = theKeepAlive;
+    }
+
+    @Value("${sdc.http.compression:true}")
+    public void setCompression(boolean theCompression) {
+        this.compression = theCompression;
+    }
+
     @PostConstruct
     private void init() {
         URI configUri = URI.create(systemProperties.getProperties().getProperty(DcaeBeConstants.Config.URI));
         EnumMap<SdcConsumerInfo, String> userInfo = SdcRestClientUtils.extractConsumerInfoFromUri(configUri);
         try {
             List<BasicHeader> headers = defaultHeaders(userInfo);
-            CloseableHttpClient httpClient = buildRestClient(headers);
+            httpClient = buildRestClient(headers);
 
             HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
             requestFactory.setHttpClient(httpClient);
@@ -111,7 +182,57 @@ public class SdcRestClient implements ISdcClient {
         }
     }
 
-    private List<BasicHeader> defaultHeaders(EnumMap<SdcConsumerInfo, String> userInfo) {
+    @PreDestroy
+    private void shutdown() {
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Failed to close SDC http client: {}", e.getMessage());
+            }
+        }
+    }
+
+    @ManagedAttribute(description = "Connections currently leased from the pool")
+    public int getLeasedConnections() {
+        return connectionManager == null ? 0 : connectionManager.getTotalStats().getLeased();
+    }
+
+    @ManagedAttribute(description = "Requests currently waiting for a connection")
+    public int getPendingConnections() {
+        return connectionManager == null ? 0 : connectionManager.getTotalStats().getPending();
+    }
+
+    @ManagedAttribute(description = "Idle connections kept in the pool")
+    public int getAvailableConnections() {
+        return connectionManager == null ? 0 : connectionManager.getTotalStats().getAvailable();
+    }
+
+    @ManagedAttribute(description = "Lease requests made while the route had no free connection")
+    public long getSaturatedCount() {
+        return connectionManager == null ? 0 : connectionManager.getSaturatedCount();
+    }
+
+    @ManagedAttribute(description = "Lease requests that timed out")
+    public long getLeaseTimeoutCount() {
+        return connectionManager == null ? 0 : connectionManager.getLeaseTimeoutCount();
+    }
+
+    @ManagedAttribute(description = "Average time spent waiting for a connection (ms)")
+    public double getAverageLeaseWaitMillis() {
+        return connectionManager == null ? 0 : connectionManager.getAverageLeaseWaitMillis();
+    }
+
+    @ManagedAttribute(description = "Longest time spent waiting for a connection (ms)")
+    public double getMaxLeaseWaitMillis() {
+        return connectionManager == null ? 0 : connectionManager.getMaxLeaseWaitMillis();
+    }
+
+    public Map<String, Object> getPoolStatistics() {
+        return connectionManager == null ? new HashMap<>() : connectionManager.statistics();
+    }
+
+    static List<BasicHeader> defaultHeaders(EnumMap<SdcConsumerInfo, String> userInfo) {
         List<BasicHeader> headers = new ArrayList<>();
         headers.add(new BasicHeader(HttpHeaders.AUTHORIZATION, userInfo.get(SdcConsumerInfo.AUTH)));
         headers.add(new BasicHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE));
@@ -254,7 +375,7 @@ public class SdcRestClient implements ISdcClient {
         return headers;
     }
 
-    private HttpHeaders requestHeader(String requestId){
+    static HttpHeaders requestHeader(String requestId){
         HttpHeaders headers = new HttpHeaders();
         headers.add(ECOMP_REQUEST_ID_HEADER, requestId);
         return headers;
@@ -278,10 +399,29 @@ public class SdcRestClient implements ISdcClient {
                 RegistryBuilder.<ConnectionSocketFactory>create()
                     .register("http", new PlainConnectionSocketFactory()).register("https", sslsf)
                     .build();
-            PoolingHttpClientConnectionManager cm =
-                new PoolingHttpClientConnectionManager(registry);
-            return HttpClients.custom().setDefaultHeaders(headers)
-                    .setSSLSocketFactory(sslsf).setConnectionManager(cm).build();
+            connectionManager = new InstrumentedConnectionManager(registry);
+            connectionManager.setMaxTotal(maxTotal);
+            connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+            connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+            RequestConfig requestConfig = RequestConfig.custom()
+                    .setConnectTimeout(connectTimeout)
+                    .setSocketTimeout(readTimeout)
+                    .setConnectionRequestTimeout(leaseTimeout)
+                    .build();
+            HttpClientBuilder clientBuilder = HttpClients.custom().setDefaultHeaders(headers)
+                    .setSSLSocketFactory(sslsf).setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(requestConfig)
+                    .setKeepAliveStrategy((response, context) -> {
+                        long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                        return serverKeepAlive > 0 ? serverKeepAlive : keepAlive;
+                    })
+                    .evictExpiredConnections()
+                    .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            if (!compression) {
+                clientBuilder.disableContentCompression();
+            }
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "SDC connection pool: maxTotal={} maxPerRoute={} connectTimeout={} readTimeout={} leaseTimeout={}", maxTotal, maxPerRoute, connectTimeout, readTimeout, leaseTimeout);
+            return clientBuilder.build();
         } catch (NoSuchAlgorithmException | KeyStoreException e) {
             throw new SSLException(e);
         }
@@ -23,15 +23,18 @@ package org.onap.sdc.dcae.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.codec.digest.DigestUtils;
 
 import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
 import org.onap.sdc.dcae.enums.ArtifactGroupType;
+import org.onap.sdc.dcae.enums.ArtifactType;
 import org.onap.sdc.dcae.enums.SdcConsumerInfo;
 import org.springframework.util.Base64Utils;
 import org.springframework.util.StringUtils;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
@@ -110,7 +113,14 @@ public class SdcRestClientUtils {
 		Artifact artifact = new Artifact();
 		artifact.setArtifactName(name);
 		artifact.setArtifactURL(path);
-		artifact.setPayloadData(new String(payload));
+		artifact.setArtifactType(ArtifactType.DCAE_TOSCA.name());
+		artifact.setPayloadData(new String(payload, StandardCharsets.UTF_8));
+		artifact.setArtifactChecksum(artifactChecksum(payload));
 		return artifact;
 	}
+
+	// same checksum SDC reports in the artifact metadata
+	public static String artifactChecksum(byte[] payload) {
+		return Base64Utils.encodeToString(DigestUtils.md5Hex(payload).getBytes());
+	}
 }
@@ -0,0 +1,183 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onap.sdc.dcae.composition.restmodels.ReferenceUUID;
+import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
+import org.onap.sdc.dcae.composition.restmodels.sdc.ResourceDetailed;
+
+public class CachingSdcClientTest {
+
+    private static final String RESOURCE_UUID = "resourceUuid";
+    private static final String ARTIFACT_UUID = "artifactUuid";
+    private static final String REQUEST_ID = "requestId";
+    private static final String USER_ID = "userId";
+
+    private ISdcClient sdcClientMock = mock(ISdcClient.class);
+    private CachingSdcClient cachingClient = new CachingSdcClient();
+
+    @Before
+    public void setup() {
+        cachingClient.setDelegate(sdcClientMock);
+        when(sdcClientMock.getResource(RESOURCE_UUID, REQUEST_ID)).thenReturn(buildResource("checksum"));
+        when(sdcClientMock.getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID)).thenReturn("payload");
+    }
+
+    @Test
+    public void repeatedReadsHitTheCache() {
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        cachingClient.getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+        ResourceDetailed resource = cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        String payload = cachingClient.getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+
+        assertEquals("1.0", resource.getVersion());
+        assertEquals("payload", payload);
+        verify(sdcClientMock, times(1)).getResource(RESOURCE_UUID, REQUEST_ID);
+        verify(sdcClientMock, times(1)).getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+        assertEquals(0.5, cachingClient.getResourceHitRate(), 0);
+        assertEquals(0.5, cachingClient.getArtifactHitRate(), 0);
+    }
+
+    @Test
+    public void cachedResourceIsNotSharedWithCallers() {
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID).getArtifacts().get(0).setPayloadData("attached");
+
+        assertNull(cachingClient.getResource(RESOURCE_UUID, REQUEST_ID).getArtifacts().get(0).getPayloadData());
+    }
+
+    @Test
+    public void artifactWriteInvalidatesResource() throws Exception {
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        cachingClient.getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+        cachingClient.updateResourceArtifact(USER_ID, RESOURCE_UUID, new Artifact(), REQUEST_ID);
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        cachingClient.getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+
+        verify(sdcClientMock, times(2)).getResource(RESOURCE_UUID, REQUEST_ID);
+        verify(sdcClientMock, times(2)).getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+    }
+
+    @Test
+    public void lifecycleChangeInvalidatesResource() {
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        cachingClient.changeResourceLifecycleState(USER_ID, RESOURCE_UUID, "checkout", "", REQUEST_ID);
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+
+        verify(sdcClientMock, times(2)).getResource(RESOURCE_UUID, REQUEST_ID);
+    }
+
+    @Test
+    public void lifecycleChangeInvalidatesResultingVersion() {
+        ResourceDetailed newVersion = buildResource("checksum");
+        newVersion.setUuid("newVersionUuid");
+        newVersion.setVersion("1.1");
+        when(sdcClientMock.getResource("newVersionUuid", REQUEST_ID)).thenReturn(newVersion);
+        when(sdcClientMock.changeResourceLifecycleState(USER_ID, RESOURCE_UUID, "checkout", "", REQUEST_ID)).thenReturn(newVersion);
+        cachingClient.getResource("newVersionUuid", REQUEST_ID);
+        cachingClient.changeResourceLifecycleState(USER_ID, RESOURCE_UUID, "checkout", "", REQUEST_ID);
+        cachingClient.getResource("newVersionUuid", REQUEST_ID);
+
+        verify(sdcClientMock, times(2)).getResource("newVersionUuid", REQUEST_ID);
+    }
+
+    @Test
+    public void monitoringReferenceWriteInvalidatesResource() {
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        cachingClient.addExternalMonitoringReference(USER_ID, "services", "serviceUuid", "vfiName", new ReferenceUUID(RESOURCE_UUID), REQUEST_ID);
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        cachingClient.deleteExternalMonitoringReference(USER_ID, "services", "serviceUuid", "vfiName", RESOURCE_UUID, REQUEST_ID);
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+
+        verify(sdcClientMock, times(3)).getResource(RESOURCE_UUID, REQUEST_ID);
+    }
+
+    @Test
+    public void readOverlappingWriteIsNotCached() {
+        // the write lands while the read is waiting on SDC with what it read before the write
+        when(sdcClientMock.getResource(RESOURCE_UUID, REQUEST_ID)).thenAnswer(invocation -> {
+            cachingClient.invalidate(RESOURCE_UUID);
+            return buildResource("checksum");
+        });
+        when(sdcClientMock.getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID)).thenAnswer(invocation -> {
+            cachingClient.invalidate(RESOURCE_UUID);
+            return "payload";
+        });
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        cachingClient.getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+        cachingClient.getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+
+        verify(sdcClientMock, times(2)).getResource(RESOURCE_UUID, REQUEST_ID);
+        verify(sdcClientMock, times(2)).getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+    }
+
+    @Test
+    public void knownChecksumKeysPayload() {
+        cachingClient.getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        cachingClient.getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+        cachingClient.getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+
+        verify(sdcClientMock, times(2)).getResourceArtifact(RESOURCE_UUID, ARTIFACT_UUID, REQUEST_ID);
+    }
+
+    @Test
+    public void sizeLimitEvictsLeastRecentlyUsed() {
+        cachingClient.setMaxResources(1);
+        when(sdcClientMock.getResource("other", REQUEST_ID)).thenReturn(buildResource("checksum"));
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        cachingClient.getResource("other", REQUEST_ID);
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+
+        verify(sdcClientMock, times(2)).getResource(RESOURCE_UUID, REQUEST_ID);
+    }
+
+    @Test
+    public void disabledCacheDelegatesEveryRead() {
+        cachingClient.setEnabled(false);
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+        cachingClient.getResource(RESOURCE_UUID, REQUEST_ID);
+
+        verify(sdcClientMock, times(2)).getResource(RESOURCE_UUID, REQUEST_ID);
+    }
+
+    private ResourceDetailed buildResource(String checksum) {
+        Artifact artifact = new Artifact();
+        artifact.setArtifactUUID(ARTIFACT_UUID);
+        artifact.setArtifactChecksum(checksum);
+        ResourceDetailed resource = new ResourceDetailed();
+        resource.setUuid(RESOURCE_UUID);
+        resource.setVersion("1.0");
+        resource.setArtifacts(Collections.singletonList(artifact));
+        return resource;
+    }
+}
@@ -35,6 +35,7 @@ import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.onap.sdc.dcae.composition.restmodels.sdc.Artifact;
 import org.onap.sdc.dcae.enums.ArtifactGroupType;
+import org.onap.sdc.dcae.enums.ArtifactType;
 import org.onap.sdc.dcae.enums.SdcConsumerInfo;
 import org.onap.sdc.dcae.utils.SdcRestClientUtils;
 import org.springframework.util.Base64Utils;
@@ -58,6 +59,7 @@ public class SdcRestClientUtilsTest {
     private static final String LABEL = "testLabel";
     private static final String PAYLOAD_STRING = "testPayload";
     private static final byte[] PAYLOAD = PAYLOAD_STRING.getBytes();
+    private static final String PAYLOAD_CHECKSUM = "ZDM3ZTQ2YzI0Yzc4YjFhZWQzMzQ5NjEwN2FmZGI0NGI=";
     private static final String FRAGMENT_NOT_FOUND_EXCEPTION_MESSAGE =
         "The URI must contain a fragment specification, to be used as SDC instance id";
 
@@ -131,7 +133,9 @@ public class SdcRestClientUtilsTest {
         // then
         assertEquals(NAME, artifact.getArtifactName());
         assertEquals(PATH, artifact.getArtifactURL());
+        assertEquals(ArtifactType.DCAE_TOSCA.name(), artifact.getArtifactType());
         assertEquals(PAYLOAD_STRING, artifact.getPayloadData());
+        assertEquals(PAYLOAD_CHECKSUM, artifact.getArtifactChecksum());
     }
 
     @Test
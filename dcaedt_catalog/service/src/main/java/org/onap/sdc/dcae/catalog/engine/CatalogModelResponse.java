@@ -0,0 +1,124 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.catalog.engine;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Map;
+
+/**
+ * A {@link CatalogResponse} carrying a rendered template model under data/model. The model is written as it is
+ * serialized, straight through the generator, instead of being first copied into an org.json tree. The org.json
+ * conventions are kept: map entries with a null value are left out and values other than maps, collections, arrays,
+ * strings, numbers and booleans are written as strings. Non-finite numbers, which json cannot represent, are written
+ * as strings as well.
+ */
+public class CatalogModelResponse extends CatalogMessage implements JsonSerializable {
+
+	private final Map<String, Object> model;
+
+	public CatalogModelResponse(CatalogRequest theRequest, Map<String, Object> theModel) {
+		setId(theRequest.getId());
+		setTimestamp(theRequest.getTimestamp());
+		this.model = theModel;
+	}
+
+	public Map<String, Object> getModel() {
+		return this.model;
+	}
+
+	@Override
+	public void serialize(JsonGenerator theGenerator, SerializerProvider theProvider) throws IOException {
+		theGenerator.writeStartObject();
+		if (getId() == null) {
+			theGenerator.writeNullField("id");
+		}
+		else {
+			theGenerator.writeStringField("id", getId().toString());
+		}
+		theGenerator.writeNumberField("timestamp", getTimestamp());
+		theGenerator.writeObjectFieldStart("data");
+		theGenerator.writeFieldName("model");
+		writeValue(theGenerator, this.model);
+		theGenerator.writeEndObject();
+		theGenerator.writeObjectFieldStart("error");
+		theGenerator.writeEndObject();
+		theGenerator.writeEndObject();
+	}
+
+	@Override
+	public void serializeWithType(JsonGenerator theGenerator, SerializerProvider theProvider, TypeSerializer theTypeSerializer) throws IOException {
+		serialize(theGenerator, theProvider);
+	}
+
+	private static void writeValue(JsonGenerator theGenerator, Object theValue) throws IOException {
+		if (theValue == null) {
+			theGenerator.writeNull();
+		}
+		else if (theValue instanceof Map) {
+			theGenerator.writeStartObject();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) theValue).entrySet()) {
+				if (entry.getValue() != null) {
+					theGenerator.writeFieldName(String.valueOf(entry.getKey()));
+					writeValue(theGenerator, entry.getValue());
+				}
+			}
+			theGenerator.writeEndObject();
+		}
+		else if (theValue instanceof Iterable) {
+			theGenerator.writeStartArray();
+			for (Object item : (Iterable<?>) theValue) {
+				writeValue(theGenerator, item);
+			}
+			theGenerator.writeEndArray();
+		}
+		else if (theValue.getClass().isArray()) {
+			theGenerator.writeStartArray();
+			for (int i = 0; i < Array.getLength(theValue); i++) {
+				writeValue(theGenerator, Array.get(theValue, i));
+			}
+			theGenerator.writeEndArray();
+		}
+		else if (theValue instanceof Boolean) {
+			theGenerator.writeBoolean((Boolean) theValue);
+		}
+		else if (isNonFinite(theValue)) {
+			// not valid as json numbers, org.json would not take them either
+			theGenerator.writeString(theValue.toString());
+		}
+		else if (theValue instanceof Number) {
+			theGenerator.writeNumber(theValue.toString());
+		}
+		else {
+			theGenerator.writeString(theValue.toString());
+		}
+	}
+
+	private static boolean isNonFinite(Object theValue) {
+		return (theValue instanceof Double && !Double.isFinite((Double) theValue))
+				|| (theValue instanceof Float && !Float.isFinite((Float) theValue));
+	}
+}
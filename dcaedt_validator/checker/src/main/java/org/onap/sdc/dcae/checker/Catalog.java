@@ -20,26 +20,24 @@
 
 package org.onap.sdc.dcae.checker;
 
+import java.util.AbstractMap;
 import java.util.Iterator;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.Set;
 import java.util.Map;
 import java.util.List;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedHashMap;
 import java.util.ArrayList;
 import java.util.Collections;
 
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import java.net.URI;
 
-import com.google.common.base.Predicate;
-import com.google.common.base.Function;
-import com.google.common.collect.Iterators;
 import com.google.common.collect.Table;
 import com.google.common.collect.HashBasedTable;
 import org.onap.sdc.common.onaplog.OnapLoggerDebug;
@@ -62,6 +60,10 @@ public class Catalog {
     /* tracks dependencies between targets, i.e. the 'adjency' matrix defined by
      * the 'import' relationship */
     private Table<Target,Target,Boolean> imports = HashBasedTable.create();
+    /* the targets in the order they were checked in */
+    private Set<Target> checked = new LinkedHashSet<>();
+    /* the targets reached through the imports of another target */
+    private Set<Target> imported = new HashSet<>();
 
 
     /* Type hierarchies are stored as maps from a type name to its definition
@@ -70,13 +72,25 @@ public class Catalog {
    private EnumMap<Construct, Map<String,Map>> types =
                             new EnumMap<>(Construct.class);
      /* track templates: we track templates (tye instances) first per target then per contruct.
-    * This allows us to share the catalog among multiple templates sharign the same type set
+    * This allows us to share the catalog among multiple templates sharign the same type set.
+    * Different targets can have their templates cataloged concurrently (imports validated ahead of the check).
     */
    private Map<Target, EnumMap<Construct, Map<String,Map>>> templates =
-                            new HashMap<>();
+                            new ConcurrentHashMap<>();
 
     private Catalog parent;
 
+    /* Memoized views of the type hierarchies. They are rebuilt on demand after types were added to this catalog
+     * or to any of its ancestors (tracked through the number of types added). The catalog is not meant to be
+     * modified concurrently but, once populated, it can be queried concurrently.
+     */
+    private int typeCount = 0;
+    private volatile long indexedTypeCount = -1;
+    private Map<Construct, Map<String, List<Map.Entry<String,Map>>>> hierarchies = new ConcurrentHashMap<>();
+    private Map<Construct, Map<String, Set<String>>> ancestors = new ConcurrentHashMap<>();
+    private Map<Construct, Map<Facet, Map<String, List<Map.Entry>>>> facets = new ConcurrentHashMap<>();
+    private Map<String, List<Map.Entry>> requirements = new ConcurrentHashMap<>();
+
     public Catalog(Catalog theParent) {
         this.parent = theParent;
         /* there are no requirement types, they are the same as capability types */
@@ -100,6 +114,7 @@ public class Catalog {
             return false;
         }
         getConstructTypes(theConstruct).put(theName, theDef);
+        this.typeCount++;
         return true;
   }
 
@@ -130,48 +145,75 @@ public class Catalog {
         return constructTypes;
     }
 
-    private Iterator<Map.Entry<String,Map>>
-                                            typesIterator(Construct theConstruct) {
-        List<Map.Entry<String,Map>> constructTypes =
-                                                new ArrayList<>(
-                                                    this.types.get(theConstruct).entrySet());
-        Collections.reverse(constructTypes);
-        return (this.parent == null)
-                            ? constructTypes.iterator()
-                            : Iterators.concat(constructTypes.iterator(),
-                                                                 this.parent.typesIterator(theConstruct));
+    /* types cataloged here, not in the parent catalog */
+    boolean hasOwnTypes() {
+        return this.typeCount > 0;
+    }
+
+    Catalog getParent() {
+        return this.parent;
+    }
+
+    private long typeCount() {
+        return this.parent == null ? this.typeCount : this.typeCount + this.parent.typeCount();
     }
 
+    /* drop the memoized hierarchies if types were added since they were computed */
+    private void checkIndexes() {
+        long count = typeCount();
+        if (count != this.indexedTypeCount) {
+            synchronized (this) {
+                if (count != this.indexedTypeCount) {
+                    this.hierarchies.clear();
+                    this.ancestors.clear();
+                    this.facets.clear();
+                    this.requirements.clear();
+                    this.indexedTypeCount = count;
+                }
+            }
+        }
+    }
+
+    /* the type and its ancestors, following the derived_from chain (a cycle ends it) */
+    private List<Map.Entry<String,Map>> typeHierarchy(Construct theConstruct, String theName) {
+        if (theName == null) {
+            return Collections.emptyList();
+        }
+        checkIndexes();
+        return this.hierarchies.computeIfAbsent(theConstruct, c -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(theName, name -> {
+                        List<Map.Entry<String,Map>> hierarchy = new ArrayList<>();
+                        Set<String> visited = new HashSet<>();
+                        Object next = name;
+                        while (next != null && visited.add(next.toString())) {
+                            Map def = getTypeDefinition(theConstruct, next.toString());
+                            if (def == null) {
+                                break;
+                            }
+                            hierarchy.add(new AbstractMap.SimpleImmutableEntry<>(next.toString(), def));
+                            next = def.get(DERIVED_FROM);
+                        }
+                        return Collections.unmodifiableList(hierarchy);
+                    });
+    }
 
     // this will iterate through the type hierarchy for the given type, included.
     public Iterator<Map.Entry<String,Map>>
                                         hierarchy(Construct theConstruct, final String theName) {
-        return Iterators.filter(typesIterator(theConstruct),
-                             new Predicate<Map.Entry<String,Map>>() {
-                               Object next = theName;
-                               public boolean apply(Map.Entry<String,Map> theEntry) {
-                                 if (next != null && next.equals(theEntry.getKey())) {
-                                   next = theEntry.getValue().get(DERIVED_FROM);
-                                   return true;
-                                 } else {
-                                     return false;
-                                 }
-                               }
-                             });
+        return typeHierarchy(theConstruct, theName).iterator();
    }
    
      public boolean isDerivedFrom(Construct theConstruct, String theType, String theBaseType) {
-
-        Iterator<Map.Entry<String,Map>> hierachyIterator =
-                                                                                    hierarchy(theConstruct, theType);
-        while (hierachyIterator.hasNext())	{
-            Map.Entry<String,Map> typeDef = hierachyIterator.next();
-
-            if (typeDef.getKey().equals(theBaseType)) {
-                return true;
-            }
+        if (theType == null) {
+            return false;
         }
-        return  false;
+        checkIndexes();
+        return this.ancestors.computeIfAbsent(theConstruct, c -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(theType,
+                        type -> typeHierarchy(theConstruct, type).stream()
+                                    .map(Map.Entry::getKey)
+                                    .collect(Collectors.toSet()))
+                    .contains(theBaseType);
      }
 
     /* We go over the type hierarchy and retain only an iterator over the
@@ -179,49 +221,45 @@ public class Catalog {
      * We concatenate these iterators and filter out duplicates.
      * TODO: cannot just filter out duplicates - a redefinition can refine the one in the base construct so we
      * should merge them!
+     * The concatenation is computed once per type.
      */
     public Iterator<Map.Entry> facets(Construct theConstruct, final Facet theFacet, final String theName) {
-        return
-            Iterators.filter(
-                Iterators.concat(
-                    Iterators.transform(
-                        hierarchy(theConstruct, theName),
-                            (Function<Map.Entry<String, Map>, Iterator<Map.Entry>>) theEntry -> {
-                                Map m = (Map)theEntry.getValue().get(theFacet.name());
-                                return m == null
-                                                    ? Collections.emptyIterator()
-                                                    : m.entrySet().iterator();
+        if (theName == null) {
+            return Collections.emptyIterator();
+        }
+        checkIndexes();
+        return this.facets.computeIfAbsent(theConstruct, c -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(theFacet, f -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(theName, name -> {
+                        List<Map.Entry> entries = new ArrayList<>();
+                        for (Map.Entry<String,Map> type: typeHierarchy(theConstruct, name)) {
+                            Map m = (Map)type.getValue().get(theFacet.name());
+                            if (m != null) {
+                                entries.addAll(m.entrySet());
                             }
-                    )
-                ),
-        new Predicate<Map.Entry>() {
-                    Set insts = new HashSet();
-                    public boolean apply(Map.Entry theEntry) {
-                        return !insts.contains(theEntry.getKey());
-                    }
-                }
-            );
+                        }
+                        return Collections.unmodifiableList(entries);
+                    })
+                    .iterator();
     }
 
     //no need to specify a construct, only nodes can have requirements
     public Iterator<Map.Entry> requirements(final String theName) {
-        return
-            Iterators.concat(
-                Iterators.transform(
-                    hierarchy(Construct.Node, theName),
-                        theEntry -> {
-                            List<Map> l = (List<Map>)theEntry.getValue().get("requirements");
-                            return l == null
-                                                ? Collections.emptyIterator()
-                                                : Iterators.concat(
-                                                        Iterators.transform(
-                                                            l.iterator(),
-                                                                (Function<Map, Iterator<Map.Entry>>) theEntry1 -> theEntry1.entrySet().iterator()
-                                                        )
-                                                    );
+        if (theName == null) {
+            return Collections.emptyIterator();
+        }
+        checkIndexes();
+        return this.requirements.computeIfAbsent(theName, name -> {
+                        List<Map.Entry> entries = new ArrayList<>();
+                        for (Map.Entry<String,Map> type: typeHierarchy(Construct.Node, name)) {
+                            List<Map> l = (List<Map>)type.getValue().get("requirements");
+                            if (l != null) {
+                                l.forEach(requirement -> entries.addAll(requirement.entrySet()));
                             }
-                )
-                );
+                        }
+                        return Collections.unmodifiableList(entries);
+                    })
+                    .iterator();
     }
 
     /* Example: find the definition of property 'port' of the node type
@@ -235,10 +273,9 @@ public class Catalog {
                                                                 Facet theFacet,
                                                                 String theName) {
         Map def = null;
-        Iterator<Map.Entry<String,Map>> ti = hierarchy(theConstruct, theConstructTypeName);
-        while (ti.hasNext()) {
+        for (Map.Entry<String,Map> type: typeHierarchy(theConstruct, theConstructTypeName)) {
             //this is where requirements would yield a List ..
-            Map<String,Map> fset = (Map<String,Map>)ti.next().getValue().get(theFacet.name());
+            Map<String,Map> fset = (Map<String,Map>)type.getValue().get(theFacet.name());
             if (fset != null) {
                 def = def == null ? fset.get(theName)
                                                     : mergeDefinitions(def, fset.get(theName));
@@ -250,10 +287,9 @@ public class Catalog {
     public Map getRequirementDefinition(Construct theConstruct,
                                                                             String theConstructTypeName,
                                                                             String theName) {
-        Iterator<Map.Entry<String,Map>> ti = hierarchy(theConstruct, theConstructTypeName);
-        while (ti.hasNext()) {
+        for (Map.Entry<String,Map> type: typeHierarchy(theConstruct, theConstructTypeName)) {
             //this is where requirements yield a List ..
-            List<Map> reqs = (List<Map>)ti.next().getValue().get("requirements");
+            List<Map> reqs = (List<Map>)type.getValue().get("requirements");
 
             if(reqs!=null) {
                 for (Map req: reqs) {
@@ -271,18 +307,15 @@ public class Catalog {
 
   /* */
   private EnumMap<Construct,Map<String,Map>> getTemplates(Target theTarget) {
-    EnumMap<Construct, Map<String,Map>> targetTemplates = templates.get(theTarget);
-        if (targetTemplates == null) {
-            targetTemplates = new EnumMap<>(Construct.class);
+        return templates.computeIfAbsent(theTarget, target -> {
+            EnumMap<Construct, Map<String,Map>> targetTemplates = new EnumMap<>(Construct.class);
             targetTemplates.put(Construct.Data, new LinkedHashMap<>());
             targetTemplates.put(Construct.Relationship, new LinkedHashMap<>());
             targetTemplates.put(Construct.Node, new LinkedHashMap<>());
             targetTemplates.put(Construct.Group, new LinkedHashMap<>());
             targetTemplates.put(Construct.Policy, new LinkedHashMap<>());
-
-            templates.put(theTarget, targetTemplates);
-        }
-        return targetTemplates;
+            return targetTemplates;
+        });
     }
 
     public Map<String,Map> getTargetTemplates(Target theTarget, Construct theConstruct) {
@@ -339,7 +372,8 @@ public class Catalog {
         }
 
         if (theParent != null) {
-            imports.put(theParent, theTarget, Boolean.TRUE);
+            //the dependency is on the target cataloged for the location, it may have been located before
+            imports.put(theParent, targets.get(theTarget.getLocation()), Boolean.TRUE);
         }
 
         return !cataloged;
@@ -353,6 +387,38 @@ public class Catalog {
         return targets.values();
     }
 
+    /* @return false if the target was checked already */
+    boolean setChecked(Target theTarget) {
+        return this.checked.add(theTarget);
+    }
+
+    /* @return false if the target was reached through an import already */
+    boolean setImported(Target theTarget) {
+        return this.imported.add(theTarget);
+    }
+
+    List<Target> checkedTargets() {
+        return new ArrayList<>(this.checked);
+    }
+
+    /* takes over, for the given target, copies of the templates cataloged for a target of another catalog. A template
+     * that was copied along with the parsed form of the target is not copied again.
+     */
+    void copyTemplates(Target theSourceTarget, Catalog theSource, Target theTarget, Map<Object, Object> theCopies) {
+        EnumMap<Construct, Map<String,Map>> sourceTemplates = theSource.templates.get(theSourceTarget);
+        if (sourceTemplates == null) {
+            return;
+        }
+        EnumMap<Construct, Map<String,Map>> targetTemplates = new EnumMap<>(Construct.class);
+        sourceTemplates.forEach((construct, constructTemplates) -> {
+            Map<String,Map> copies = new LinkedHashMap<>();
+            constructTemplates.forEach((name, def) ->
+                    copies.put(name, (Map) (theCopies.containsKey(def) ? theCopies.get(def) : TargetCache.copy(def, theCopies))));
+            targetTemplates.put(construct, copies);
+        });
+        templates.put(theTarget, targetTemplates);
+    }
+
     /* Targets that no other targets depend on */
     public Collection<Target> topTargets() {
         return targets.values()
@@ -382,40 +448,35 @@ public class Catalog {
         return sb.toString();
     }
 
-    /* */
-    private class TargetComparator implements Comparator<Target> {
-
-        /* @return 1 if there is a dependency path from TargetOne to TargetTwo, -1 otherwise  */
-        public int compare(Target theTargetOne, Target theTargetTwo) {
-            if (hasPath(theTargetTwo, theTargetOne)) {
-                return -1;
-            }
+    /* All targets, each one after the targets it imports. Targets that do not depend on each other keep the
+     * order in which they were cataloged.
+     */
+    public Collection<Target> sortedTargets() {
+        Set<Target> sorted = new LinkedHashSet<>();
+        this.targets.values().forEach(t -> sortTargets(t, sorted, new HashSet<>()));
+        return new ArrayList<>(sorted);
+    }
 
-            if (hasPath(theTargetOne, theTargetTwo)) {
-                return 1;
-            }
+    /* The given target and the targets it imports, directly or not, in the same (dependency) order */
+    public Collection<Target> sortedTargets(Target theTarget) {
+        Set<Target> sorted = new LinkedHashSet<>();
+        sortTargets(theTarget, sorted, new HashSet<>());
+        return new ArrayList<>(sorted);
+    }
 
-            return 0;
+    /* depth first, the path guards against import cycles */
+    private void sortTargets(Target theTarget, Set<Target> theSorted, Set<Target> thePath) {
+        if (theSorted.contains(theTarget) || !thePath.add(theTarget)) {
+            return;
         }
-
-        boolean hasPath(Target theStart, Target theEnd) {
-            Map<Target,Boolean> deps = imports.row(theStart);
-            if (deps.containsKey(theEnd)) {
-                return true;
+        Map<Target,Boolean> deps = imports.row(theTarget);
+        for (Target target: this.targets.values()) {
+            if (deps.containsKey(target)) {
+                sortTargets(target, theSorted, thePath);
             }
-            for (Target dep: deps.keySet()) {
-                if (hasPath(dep, theEnd)) {
-                    return true;
-                }
-            }
-            return false;
         }
-    }
-
-    public Collection<Target> sortedTargets() {
-        List keys = new ArrayList(this.targets.values());
-        Collections.sort(keys, new TargetComparator());
-        return keys;
+        thePath.remove(theTarget);
+        theSorted.add(theTarget);
     }
 
     public static void main(String[] theArgs) throws Exception {
@@ -20,30 +20,33 @@
 
 package org.onap.sdc.dcae.checker;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 import java.io.File;
 import java.io.Reader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Set;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.IntStream;
 
-import com.google.common.reflect.Invokable;
 import org.onap.sdc.common.onaplog.OnapLoggerDebug;
 import org.onap.sdc.common.onaplog.OnapLoggerError;
 import org.onap.sdc.common.onaplog.enums.LogLevel;
@@ -52,25 +55,16 @@ import org.onap.sdc.dcae.checker.validation.TOSCAValidator;
 import org.yaml.snakeyaml.Yaml;
 
 
-import com.google.common.collect.Table;
-import com.google.common.collect.HashBasedTable;
 
 import kwalify.Validator;
 import kwalify.Rule;
 import kwalify.ValidationException;
-import kwalify.SchemaException;
 
-import org.apache.commons.jxpath.JXPathContext;
-import org.apache.commons.jxpath.JXPathException;
+import com.google.common.hash.Hashing;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.reflect.ConstructorUtils;
 import org.onap.sdc.dcae.checker.annotations.Catalogs;
 import org.onap.sdc.dcae.checker.annotations.Checks;
-import org.reflections.Reflections;
-import org.reflections.util.FilterBuilder;
-import org.reflections.util.ConfigurationBuilder;
-import org.reflections.scanners.TypeAnnotationsScanner;
-import org.reflections.scanners.SubTypesScanner;
-import org.reflections.scanners.MethodAnnotationsScanner;
 
 import static org.onap.sdc.dcae.checker.common.ConstCommon.*;
 import static org.onap.sdc.dcae.checker.common.ConstCommon.INTERFACE_TYPES;
@@ -100,50 +94,46 @@ public class Checker implements IChecker {
 
     private Target target = null; //what we're validating at the moment
 
-    private Map<String, Target> grammars = new HashMap<>(); //grammars for the different tosca versions
+    private final CheckerRuntime runtime; //grammars and handlers, shared with other checkers
 
     private Catalog catalog;
     private TargetLocator locator = new CommonLocator();
 
-    private Table<String, Method, Object> checks = HashBasedTable.create();
-    private Table<String, Method, Object> catalogs = HashBasedTable.create();
-
-    private static OnapLoggerError errLogger = OnapLoggerError.getInstance();
-    private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
+    private Executor executor = null; //imports are parsed and validated ahead of the check on it, if set
+    private ImportPrefetch prefetch = null;
 
-    private static Catalog commonsCatalogInstance = null;
+    private TargetCache cache = null; //imports processed by other checks, if set
+    private Map<Target, TargetCache.Entry> cachedTargets = new ConcurrentHashMap<>();
 
-    private static Class[] validationHookArgTypes =
-            new Class[]{Object.class, Rule.class, Validator.ValidationContext.class};
+    private Catalog previous = null; //of a previous check of the same template, if set
+    private Map<URI, Optional<Target>> previousTargets = new HashMap<>(); //unchanged since, by location
+    private Set<URI> adoptable = Collections.emptySet(); //locations of the unchanged imports, known ahead of the check
+    private Set<Target> adopted = new HashSet<>(); //targets taken over from the previous check
+    private Iterator<Target> previousChecks = null;
 
+    private Set<Target> checking = new HashSet<>(); //the targets whose check is under way, importing ones first
 
+    private static OnapLoggerError errLogger = OnapLoggerError.getInstance();
+    private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
 
-    /* Need a proper way to indicate where the grammars are and how they should be identified */
-    private static final String[] grammarFiles = new String[]{"tosca/tosca_simple_yaml_1_0.grammar",
-            "tosca/tosca_simple_yaml_1_1.grammar"};
-
-    private Pattern spacePattern = Pattern.compile("\\s");
-
-    private Pattern indexPattern = Pattern.compile("/\\p{Digit}+");
-
-    //this is getting silly ..
-    private static Class[][] checkHookArgTypes =
-            new Class[][]{
-                    new Class[]{Map.class, CheckContext.class},
-                    new Class[]{List.class, CheckContext.class}};
-
+    private static volatile Catalog commonsCatalogInstance = null;
 
 
     public Checker() throws CheckerException {
-        initCommons();
+        this(CheckerRuntime.getDefault());
+    }
 
-        loadGrammars();
-        loadAnnotations();
+    /**
+     * A checker is cheap to build on top of an already initialized runtime; it holds the state of one check
+     * and is not meant to be used concurrently. Different checkers can run concurrently: the common checks
+     * are stateless and reach back to the checker running them through the check context.
+     */
+    public Checker(CheckerRuntime theRuntime) {
+        this.runtime = theRuntime;
+        initCommons();
     }
 
     private void initCommons() {
-        NodeCommon.init(this);
-        InterfaceCommon.init(this);
         checkCommon = CheckCommon.getInstance();
         typeCommon = TypeCommon.getInstance();
         artifactCommon = ArtifactCommon.getInstance();
@@ -234,91 +224,40 @@ public class Checker implements IChecker {
         }
     }
 
-    private void loadGrammars() throws CheckerException {
-
-        for (String grammarFile : grammarFiles) {
-            Target grammarTarget = this.locator.resolve(grammarFile);
-            if (grammarTarget == null) {
-                errLogger.log(LogLevel.WARN, this.getClass().getName(), "Failed to locate grammar {}", grammarFile);
-                continue;
-            }
-
-            parseTarget(grammarTarget);
-            if (grammarTarget.getReport().hasErrors()) {
-                errLogger.log(LogLevel.WARN, this.getClass().getName(), "Invalid grammar {}: {}", grammarFile, grammarTarget.getReport().toString());
-                continue;
-            }
-
-            List versions = null;
-            try {
-                versions = (List)
-                        ((Map)
-                                ((Map)
-                                        ((Map) grammarTarget.getTarget())
-                                                .get("mapping"))
-                                        .get("tosca_definitions_version"))
-                                .get("enum");
-            } catch (Exception x) {
-                errLogger.log(LogLevel.WARN, this.getClass().getName(), "Invalid grammar {}: cannot locate tosca_definitions_versions. Exception{}", grammarFile, x);
-            }
-            if (versions == null || versions.isEmpty()) {
-                errLogger.log(LogLevel.WARN, this.getClass().getName(), "Invalid grammar {}: no tosca_definitions_versions specified", grammarFile);
-                continue;
-            }
-
-            for (Object version : versions) {
-                this.grammars.put(version.toString(), grammarTarget);
-            }
-        }
+    public void setTargetLocator(TargetLocator theLocator) {
+        this.locator = theLocator;
+    }
 
-        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Loaded grammars: {}", this.grammars);
-    }
-
-    private void loadAnnotations() {
-        Reflections reflections = new Reflections(
-                new ConfigurationBuilder()
-                        .forPackages("org.onap.sdc.dcae")
-                        .filterInputsBy(new FilterBuilder()
-                                        .include(".*\\.class")
-                        )
-                        .setScanners(new TypeAnnotationsScanner(),
-                                new SubTypesScanner(),
-                                new MethodAnnotationsScanner())
-                        .setExpandSuperTypes(false)
-        );
-
-        Map<Class, Object> handlers = new HashMap<>();
-
-        Set<Method> checkHandlers = reflections.getMethodsAnnotatedWith(Checks.class);
-        checkHandlers.forEach(checkHandler -> checks.put(checkHandler.getAnnotation(Checks.class).path(),
-                checkHandler,
-                handlers.computeIfAbsent(checkHandler.getDeclaringClass(),
-                        type -> {
-                            try {
-                                return (getClass() == type) ? this
-                                        : type.newInstance();
-                            } catch (Exception x) {
-                                throw new RuntimeException(x);
-                            }
-                        })));
-
-        Set<Method> catalogHandlers = reflections.getMethodsAnnotatedWith(Catalogs.class);
-        catalogHandlers.forEach(catalogHandler -> catalogs.put(catalogHandler.getAnnotation(Catalogs.class).path(),
-                catalogHandler,
-                handlers.computeIfAbsent(catalogHandler.getDeclaringClass(),
-                        type -> {
-                            try {
-                                return (getClass() == type) ? this
-                                        : type.newInstance();
-                            } catch (Exception x) {
-                                throw new RuntimeException(x);
-                            }
-                        })));
+    /**
+     * With an executor the imports of a template are parsed and validated concurrently, while the template
+     * itself is being validated; cataloging and checking remain sequential. The executor is expected to be
+     * bounded, the tasks it gets do not wait on each other.
+     */
+    public void setExecutor(Executor theExecutor) {
+        this.executor = theExecutor;
     }
 
+    /**
+     * With a cache the imports already processed by a check sharing the cache are not parsed and validated
+     * again, and, if they passed checking on their own, only their types are cataloged.
+     */
+    public void setTargetCache(TargetCache theCache) {
+        this.cache = theCache;
+    }
 
-    public void setTargetLocator(TargetLocator theLocator) {
-        this.locator = theLocator;
+    /**
+     * Given the catalog of a previous check of the same template, the imports that did not change since (same
+     * content, resolved to the same locations and importing targets that did not change either) are taken over
+     * along with their templates instead of being parsed and validated again. As long as the targets are checked
+     * in the same order as in the previous check, the ones taken over only get their types cataloged: only the
+     * changed targets and the targets checked after them (the ones depending on them) are checked again.
+     */
+    public void setPrevious(Catalog thePrevious) {
+        this.previous = thePrevious;
+        this.previousTargets.clear();
+        this.adoptable = Collections.emptySet();
+        this.adopted.clear();
+        this.previousChecks = thePrevious == null ? null : thePrevious.checkedTargets().iterator();
     }
 
     public Collection<Target> targets() {
@@ -391,11 +330,17 @@ public class Checker implements IChecker {
             if (theTarget.getReport().hasErrors()) {
                 return;
             }
-            for (Target targetItr : targets) {
-                this.catalog.addTarget(targetItr, null);
-                if (!validateTarget(targetItr).getReport().hasErrors()) {
-                    checkTarget(targetItr);
+            findAdoptable(targets);
+            startPrefetch(targets);
+            try {
+                for (Target targetItr : targets) {
+                    this.catalog.addTarget(targetItr, null);
+                    if (!validateTarget(targetItr).getReport().hasErrors()) {
+                        checkTargets(targetItr);
+                    }
                 }
+            } finally {
+                stopPrefetch();
             }
         }
     }
@@ -410,17 +355,43 @@ public class Checker implements IChecker {
 
         if (this.catalog.addTarget(theTarget, null)) {
             debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "@validateTarget");
-            if (!validateTarget(theTarget).getReport().hasErrors()) {
-                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "@checkTarget");
-                checkTarget(theTarget);
+            findAdoptable(Collections.singletonList(theTarget));
+            startPrefetch(Collections.singletonList(theTarget));
+            try {
+                if (!validateTarget(theTarget).getReport().hasErrors()) {
+                    debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "@checkTarget");
+                    checkTargets(theTarget);
+                }
+            } finally {
+                stopPrefetch();
             }
         }
     }
 
-    private List<Target> parseTarget(final Target theTarget)
+    private void startPrefetch(List<Target> theTargets) {
+        if (this.executor == null) {
+            return;
+        }
+        this.prefetch = new ImportPrefetch(this, this.locator, this.executor, this.adoptable);
+        theTargets.forEach(t -> this.prefetch.prefetchImports(t.getTarget()));
+    }
+
+    private void stopPrefetch() {
+        if (this.prefetch != null) {
+            this.prefetch.cancel();
+            this.prefetch = null;
+        }
+    }
+
+    static List<Target> parseTarget(final Target theTarget)
             throws CheckerException {
-        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "parseTarget {}", theTarget);
+        String source = readTarget(theTarget);
+        return source == null ? Collections.emptyList() : parseTarget(theTarget, source);
+    }
 
+    /* @return the source of the target, null if reading it failed (and it was reported) */
+    private static String readTarget(final Target theTarget)
+            throws CheckerException {
         Reader source;
         try {
             source = theTarget.open();
@@ -428,24 +399,48 @@ public class Checker implements IChecker {
             throw new CheckerException("Failed to open target " + theTarget, iox);
         }
 
+        try {
+            String text = IOUtils.toString(source);
+            theTarget.setDigest(digest(text));
+            return text;
+        } catch (IOException iox) {
+            theTarget.report(iox);
+            return null;
+        } finally {
+            try {
+                source.close();
+            } catch (IOException iox) {
+                debugLogger.log(LogLevel.DEBUG, Checker.class.getName(), "Exception {}", iox);
+            }
+        }
+    }
+
+    /* @return the digest of the source of the target, null if it cannot be read. The target is left as is */
+    private String digest(final Target theTarget) {
+        try (Reader source = theTarget.open()) {
+            return digest(IOUtils.toString(source));
+        } catch (IOException iox) {
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Failed to read {}: {}", theTarget, iox);
+            return null;
+        }
+    }
+
+    private static String digest(String theSource) {
+        return Hashing.sha256().hashString(theSource, StandardCharsets.UTF_8).toString();
+    }
+
+    private static List<Target> parseTarget(final Target theTarget, String theSource) {
+        debugLogger.log(LogLevel.DEBUG, Checker.class.getName(), "parseTarget {}", theTarget);
 
         ArrayList<Object> yamlRoots = new ArrayList<>();
         try {
             Yaml yaml = new Yaml();
-            for (Object yamlRoot : yaml.loadAll(source)) {
+            for (Object yamlRoot : yaml.loadAll(theSource)) {
                 yamlRoots.add(yamlRoot);
             }
-
-
         } catch (Exception x) {
             theTarget.report(x);
             return Collections.emptyList();
-        } finally {
-            try {
-                source.close();
-            } catch (IOException iox) {
-                debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), getClass().getName(), "Exception {}", iox);
-            }
         }
 
         ArrayList targets = new ArrayList(yamlRoots.size());
@@ -466,11 +461,156 @@ public class Checker implements IChecker {
             });
         }
 
-        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), getClass().getName(), " exiting parseTarget {}", theTarget);
+        debugLogger.log(LogLevel.DEBUG, Checker.class.getName(), " exiting parseTarget {}", theTarget);
         return targets;
     }
 
-    private URI fragmentTargetURI(URI theRoot, String theFragment) {
+    /*
+     * Imports that were processed by a check sharing the cache are restored in their validated form, instead
+     * of being parsed (and then validated) again.
+     */
+    List<Target> parseImport(final Target theTarget)
+            throws CheckerException {
+        if (this.cache == null) {
+            return parseTarget(theTarget);
+        }
+
+        String source = readTarget(theTarget);
+        if (source == null) {
+            return Collections.emptyList();
+        }
+
+        TargetCache.Entry entry = this.cache.get(theTarget.getDigest());
+        if (entry == null) {
+            return parseTarget(theTarget, source);
+        }
+
+        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Import {} restored from cache", theTarget);
+        theTarget.setTarget(entry.target());
+        this.cachedTargets.put(theTarget, entry);
+        return Collections.singletonList(theTarget);
+    }
+
+    /* whether the import is cached in its validated form, hence needs no (further) validation */
+    boolean isRestored(Target theTarget) {
+        return this.cachedTargets.containsKey(theTarget);
+    }
+
+    /* makes the validated import available to other checks */
+    private void cacheTarget(Target theTarget) {
+        if (this.cache == null || isRestored(theTarget) || theTarget.getReport().hasErrors()) {
+            return;
+        }
+        TargetCache.Entry entry = this.cache.put(theTarget.getDigest(), theTarget.getTarget());
+        if (entry != null) {
+            this.cachedTargets.put(theTarget, entry);
+        }
+    }
+
+    /*
+     * @return the target of the previous check, at the same location, that can be taken over for the given one:
+     * same content and importing, under the same names, targets that can be taken over too. Targets that are part
+     * of an import cycle are never taken over.
+     */
+    private Target previousTarget(Target theTarget) {
+        return previousTarget(theTarget, new HashSet<>());
+    }
+
+    private Target previousTarget(Target theTarget, Set<URI> thePath) {
+        if (this.previous == null) {
+            return null;
+        }
+
+        URI location = theTarget.getLocation();
+        Optional<Target> known = this.previousTargets.get(location);
+        if (known != null) {
+            return known.orElse(null);
+        }
+        if (!thePath.add(location)) {
+            return null;
+        }
+
+        Target prev = this.previous.getTarget(location);
+        boolean same = prev != null && prev.getDigest() != null && !prev.getReport().hasErrors();
+        if (same) {
+            same = prev.getDigest().equals(theTarget.getDigest() == null ? digest(theTarget) : theTarget.getDigest());
+        }
+        for (Iterator<Map.Entry<String, URI>> imports = prev == null ? Collections.emptyIterator() : prev.getImports().entrySet().iterator();
+             same && imports.hasNext(); ) {
+            Map.Entry<String, URI> imported = imports.next();
+            Target tgti = resolveImport(imported.getKey());
+            same = tgti != null && tgti.getLocation().equals(imported.getValue()) && previousTarget(tgti, thePath) != null;
+        }
+        thePath.remove(location);
+
+        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "{} changed since the previous check: {}", theTarget, !same);
+        this.previousTargets.put(location, Optional.ofNullable(same ? prev : null));
+        return same ? prev : null;
+    }
+
+    /*
+     * Finds, ahead of the check, which of the imports of the previous check did not change since: the ones imported
+     * by the targets of the previous check and by the given templates. The imports are validated against this
+     * set only, so the previous check is only looked at, and the new targets only read, from the checking thread.
+     */
+    private void findAdoptable(List<Target> theTemplates) {
+        if (this.previous == null) {
+            return;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        theTemplates.forEach(t -> names.addAll(ImportPrefetch.importNames(t.getTarget())));
+        this.previous.targets().forEach(t -> names.addAll(t.getImports().keySet()));
+
+        Set<URI> locations = new HashSet<>();
+        for (String name : names) {
+            Target tgti = this.locator.resolve(name);
+            if (tgti != null && previousTarget(tgti) != null) {
+                locations.add(tgti.getLocation());
+            }
+        }
+        this.adoptable = Collections.unmodifiableSet(locations);
+    }
+
+    /*
+     * Takes over an unchanged target of the previous check for the target now resolved at its location, along with
+     * the targets it imports and its templates. Everything is copied: the previous catalog may still be in use.
+     */
+    private void adoptTarget(Target thePrevious, Target theTarget) {
+        Map<Object, Object> copies = new IdentityHashMap<>();
+        theTarget.setTarget(TargetCache.copy(thePrevious.getTarget(), copies));
+        theTarget.setDigest(thePrevious.getDigest());
+        thePrevious.getImports().forEach(theTarget::addImport);
+        this.catalog.copyTemplates(thePrevious, this.previous, theTarget, copies);
+        this.adopted.add(theTarget);
+        for (Map.Entry<String, URI> imported : thePrevious.getImports().entrySet()) {
+            Target tgti = resolveImport(imported.getKey());
+            if (this.catalog.addTarget(tgti, theTarget)) {
+                adoptTarget(this.previous.getTarget(imported.getValue()), tgti);
+            }
+        }
+    }
+
+    /*
+     * A target taken over from the previous check was checked then against the same types, provided that the
+     * targets checked before it were all taken over as well and checked in the same order.
+     */
+    private boolean checkedBefore(Target theTarget) {
+        if (this.previousChecks == null) {
+            return false;
+        }
+        if (this.previousChecks.hasNext() && this.adopted.contains(theTarget)
+                && this.previousChecks.next().getLocation().equals(theTarget.getLocation())) {
+            return true;
+        }
+        this.previousChecks = null;
+        return false;
+    }
+
+    private Target resolveImport(String theName) {
+        return this.prefetch == null ? this.locator.resolve(theName) : this.prefetch.resolve(theName);
+    }
+
+    private static URI fragmentTargetURI(URI theRoot, String theFragment) {
         try {
             return new URI(theRoot.getScheme(),
                     theRoot.getSchemeSpecificPart(),
@@ -484,6 +624,32 @@ public class Checker implements IChecker {
             throws CheckerException {
         debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), getClass().getName(), "entering validateTarget {}", theTarget);
 
+        ImportPrefetch.Import prefetched = this.prefetch == null ? null : this.prefetch.take(theTarget);
+        if (isRestored(theTarget)) {
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), getClass().getName(), " exiting validateTarget {}, restored from cache", theTarget);
+            return theTarget;
+        }
+
+        TOSCAValidator validator;
+        if (prefetched != null) {
+            theTarget.getReport().addAll(prefetched.validate());
+            validator = prefetched.getValidator();
+        } else {
+            validator = validator(theTarget, this);
+            theTarget.getReport().addAll(
+                    validator.validate(theTarget.getTarget()));
+        }
+
+        if (!theTarget.getReport().hasErrors()) {
+            applyCanonicals(theTarget.getTarget(), validator.getCanonicals());
+        }
+
+        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), getClass().getName(), " exiting validateTarget {}", theTarget);
+        return theTarget;
+    }
+
+    /* a validator for the tosca version the target declares, invoking the given hooks */
+    TOSCAValidator validator(Target theTarget, IChecker theHooks) throws CheckerException {
         String version = (String)
                 ((Map) theTarget.getTarget())
                         .get("tosca_definitions_version");
@@ -491,37 +657,51 @@ public class Checker implements IChecker {
             throw new CheckerException("Target " + theTarget + " does not specify a tosca_definitions_version");
         }
 
-        Target grammar = this.grammars.get(version);
+        Rule grammar = this.runtime.rule(version);
         if (grammar == null) {
             throw new CheckerException("Target " + theTarget + " specifies unknown tosca_definitions_version " + version);
         }
 
-        TOSCAValidator validator = null;
-        try {
-            validator = new TOSCAValidator(theTarget, grammar.getTarget(), this);
-        } catch (SchemaException sx) {
-            throw new CheckerException("Grammar error at: " + sx.getPath(), sx);
-        }
-
-        theTarget.getReport().addAll(
-                validator.validate(theTarget.getTarget()));
+        return new TOSCAValidator(theTarget, grammar, theHooks);
+    }
 
-        if (!theTarget.getReport().hasErrors()) {
-            applyCanonicals(theTarget.getTarget(), validator.getCanonicals());
+    /*
+     * Checks the target along with the targets it imports, the imported ones first (dependency order) so that
+     * their types are cataloged by the time the target refers to them. Targets imported from more than one place
+     * are checked again as their further imports are reached (see check_imports).
+     */
+    private void checkTargets(Target theTarget) {
+        for (Target tgt : this.catalog.sortedTargets(theTarget)) {
+            if ((tgt == theTarget || !tgt.getReport().hasErrors()) && this.catalog.setChecked(tgt)) {
+                checkTarget(tgt);
+            }
         }
-
-        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), getClass().getName(), " exiting validateTarget {}", theTarget);
-        return theTarget;
     }
 
     private Target checkTarget(Target theTarget) {
+        return checkTarget(theTarget, false);
+    }
+
+    private Target checkTarget(Target theTarget, boolean isRecheck) {
 
         debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), getClass().getName(), "entering checkTarget {}", theTarget);
 
         CheckContext ctx = new CheckContext(theTarget);
+        //a target checked again is not part of the order the previous check went through
+        boolean checkedBefore = !isRecheck && checkedBefore(theTarget);
+        this.checking.add(theTarget);
+        TargetCache.Entry cached = this.cachedTargets.get(theTarget);
+        //a target checked on its own can be trusted to check the same way next to other types, as long as these
+        //do not collide with its own
+        boolean isolated = cached != null && !this.catalog.hasOwnTypes() && this.catalog.getParent() == commonsCatalogInstance;
         //start at the top
         checkServiceTemplateDefinition(
-                (Map<String, Object>) theTarget.getTarget(), ctx);
+                (Map<String, Object>) theTarget.getTarget(), ctx, checkedBefore || (cached != null && cached.isChecked()));
+
+        if (isolated && !theTarget.getReport().hasErrors()) {
+            cached.setChecked();
+        }
+        this.checking.remove(theTarget);
 
         debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), getClass().getName(), "exiting checkTarget {}", theTarget);
         return theTarget;
@@ -531,7 +711,7 @@ public class Checker implements IChecker {
      * this is where checking starts
      */
     private void checkServiceTemplateDefinition(
-            Map<String, Object> theDef, CheckContext theContext) {
+            Map<String, Object> theDef, CheckContext theContext, boolean isChecked) {
         theContext.enter("");
 
         if (theDef == null) {
@@ -544,6 +724,11 @@ public class Checker implements IChecker {
         //first catalog whatever it is there to be cataloged so that the checks can perform cross-checking
         theDef.forEach((key, value) -> catalogs(key, value, theContext));
 
+        if (isChecked && !theContext.target().getReport().hasErrors()) {
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Target {} was checked before", theContext.target());
+            theContext.exit();
+            return;
+        }
         theDef.forEach((key, value) -> checks(key, value, theContext));
         theContext.exit();
     }
@@ -586,9 +771,17 @@ public class Checker implements IChecker {
                 continue;
             }
 
-            //import should have been fully processed by now ???
+            boolean isFirstImport = this.catalog.setImported(tgt);
+            boolean isRecheck = !this.catalog.setChecked(tgt);
+            if (isRecheck && (isFirstImport || this.checking.contains(tgt))) {
+                //imports are checked ahead of the template importing them
+                continue;
+            }
+
+            //a target imported from more than one place is checked once per import, so that its types are
+            //cataloged again and reported as re-declared, the same as when imports were checked where imported
             debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), getClass().getName(), "Processing import {}.", tgt);
-            checkTarget(tgt);
+            checkTarget(tgt, isRecheck);
 
         }
         theContext.exit();
@@ -609,41 +802,11 @@ public class Checker implements IChecker {
      * Given that we remembered the canonical forms that were needed during
      * validation to replace the short forms we can apply them to the target
      * yaml.
-     * We take advantage here of the fact that the context path maintained
-     * during validation is compatible with (j)xpath, with the exception of
-     * sequence/array indentation ..
+     * Each canonical form knows the map or list holding the short form it
+     * replaces so no path lookup is needed.
      */
-
-    private String patchIndexes(CharSequence thePath) {
-        Matcher m = indexPattern.matcher(thePath);
-        StringBuffer path = new StringBuffer();
-        while (m.find()) {
-            String index = m.group();
-            index = "[" + (Integer.valueOf(index.substring(1)).intValue() + 1) + "]";
-            m.appendReplacement(path, Matcher.quoteReplacement(index));
-        }
-        m.appendTail(path);
-        return path.toString();
-    }
-
-    private String patchWhitespaces(String thePath) {
-        String[] elems = thePath.split("/");
-        StringBuilder path = new StringBuilder();
-        Arrays.stream(elems).forEach(elem -> {
-            if (spacePattern.matcher(elem).find()) {
-                path.append("[@name='")
-                        .append(elem)
-                        .append("']");
-            } else {
-                path.append("/")
-                        .append(elem);
-            }
-        });
-        return path.toString();
-    }
-
     private void applyCanonicals(Object theTarget,
-                                 Map<String, Object> theCanonicals) {
+                                 List<TOSCAValidator.Canonical> theCanonicals) {
         if (theCanonicals.isEmpty()) {
             return;
         }
@@ -655,29 +818,24 @@ public class Checker implements IChecker {
      * applies canonicals selectively
      */
     private void applyCanonicals(Object theTarget,
-                                 Map<String, Object> theCanonicals,
+                                 List<TOSCAValidator.Canonical> theCanonicals,
                                  String thePrefix,
                                  boolean doRemove) {
 
-        JXPathContext jxPath = JXPathContext.newContext(theTarget);
-        for (Iterator<Map.Entry<String, Object>> ces =
-             theCanonicals.entrySet().iterator();
+        for (Iterator<TOSCAValidator.Canonical> ces =
+             theCanonicals.iterator();
              ces.hasNext(); ) {
-            Map.Entry<String, Object> ce = ces.next();
-            //should we check prefix before or after normalization ??
-            String path = ce.getKey();
+            TOSCAValidator.Canonical ce = ces.next();
+            String path = ce.getPath();
             if (path.startsWith(thePrefix)) {
-                path = patchWhitespaces(
-                        patchIndexes(path));
-                try {
-                    jxPath.setValue(path, ce.getValue());
+                if (ce.apply()) {
                     debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Applied canonical form (prefix '{}') at: {}", thePrefix, path);
 
                     if (doRemove) {
                         ces.remove();
                     }
-                } catch (JXPathException jxpx) {
-                    errLogger.log(LogLevel.WARN, this.getClass().getName(), "Failed to apply canonical to {} {}", theTarget, jxpx);
+                } else {
+                    errLogger.log(LogLevel.WARN, this.getClass().getName(), "Failed to apply canonical to {} at {}", theTarget, path);
                 }
             }
         }
@@ -689,6 +847,12 @@ public class Checker implements IChecker {
      */
     private static Catalog commonsCatalog() {
 
+        //built once and only read afterwards, by any number of checkers
+        Catalog instance = commonsCatalogInstance;
+        if (instance != null) {
+            return instance;
+        }
+
         synchronized (Catalog.class) {
 
             if (commonsCatalogInstance != null) {
@@ -738,25 +902,23 @@ public class Checker implements IChecker {
     private void checks(String theName,
                         Object theTarget,
                         CheckContext theContext) {
-        Map<Method, Object> handlers = checks.row(/*theName*/theContext.getPath(theName));
+        List<Method> handlers = this.runtime.checks(/*theName*/theContext.getPath(theName));
         if (handlers != null) {
-            handlers.entrySet().forEach(handler -> {
+            handlers.forEach(handler -> {
                 try {
-                    handler.getKey().invoke(handler.getValue(), new Object[]{theTarget, theContext});
+                    handler.invoke(this.runtime.handler(handler, this), new Object[]{theTarget, theContext});
                 } catch (Exception x) {
-                    errLogger.log(LogLevel.WARN, this.getClass().getName(), "Check {} with {} failed {}", theName, handler.getKey(), x);
+                    errLogger.log(LogLevel.WARN, this.getClass().getName(), "Check {} with {} failed {}", theName, handler, x);
                 }
             });
         } else {
-            boolean hasHook = false;
-            for (Class[] argTypes : checkHookArgTypes) {
-                hasHook |= invokeHook("check_" + theName,
-                        argTypes,
-                        theTarget, theContext);
-                //shouldn't we stop as soon as hasHook is true??
+            List<CheckerRuntime.Hook> hooks = this.runtime.checkHooks(theName);
+            for (CheckerRuntime.Hook hook : hooks) {
+                invokeHook(hook, theTarget, theContext);
+                //shouldn't we stop after the first one??
             }
 
-            if (!hasHook) {
+            if (hooks.isEmpty()) {
                 debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "no check handler for {}", theName);
             }
         }
@@ -766,13 +928,13 @@ public class Checker implements IChecker {
                           Object theTarget,
                           CheckContext theContext) {
 
-        Map<Method, Object> handlers = catalogs.row(/*theName*/theContext.getPath(theName));
+        List<Method> handlers = this.runtime.catalogs(/*theName*/theContext.getPath(theName));
         if (handlers != null) {
-            handlers.forEach((key, value) -> {
+            handlers.forEach(handler -> {
                 try {
-                    key.invoke(value, theTarget, theContext);
+                    handler.invoke(this.runtime.handler(handler, this), theTarget, theContext);
                 } catch (Exception x) {
-                    errLogger.log(LogLevel.WARN, this.getClass().getName(), "Cataloging {} with {} failed {}", theName, key, x);
+                    errLogger.log(LogLevel.WARN, this.getClass().getName(), "Cataloging {} with {} failed {}", theName, handler, x);
                 }
             });
         }
@@ -945,7 +1107,7 @@ public class Checker implements IChecker {
             debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Processing import {}", def);
 
             String tfile = (String) def.get("file");
-            Target tgti = this.locator.resolve(tfile);
+            Target tgti = resolveImport(tfile);
             if (tgti == null) {
                 theContext.addError("Failure to resolve import '" + def + "', " + IMPORTED_FROM + " " + tgt, theRule, null,
                         null);
@@ -953,12 +1115,20 @@ public class Checker implements IChecker {
             }
             debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Import {} located at {}", def,
                     tgti.getLocation());
+            tgt.addImport(tfile, tgti.getLocation());
 
-            if (this.catalog.addTarget(tgti, tgt)) {
+            Target prev = this.adoptable.contains(tgti.getLocation()) ? previousTarget(tgti) : null;
+            if (prev != null) {
+                // unchanged since the previous check
+                if (this.catalog.addTarget(tgti, tgt)) {
+                    adoptTarget(prev, tgti);
+                }
+            } else if (this.catalog.addTarget(tgti, tgt)) {
                 // we've never seen this import (location) before
                 try {
 
-					List<Target> tgtis = parseTarget(tgti);
+					ImportPrefetch.Import prefetched = this.prefetch == null ? null : this.prefetch.take(tgti);
+					List<Target> tgtis = prefetched == null ? parseImport(tgti) : prefetched.getDocuments();
 					if (tgtis.isEmpty()) {
                         continue;
                     }
@@ -984,6 +1154,7 @@ public class Checker implements IChecker {
 								null, null);
 						continue;
 					}
+					cacheTarget(tgti);
 				} catch (CheckerException cx) {
 					theContext.addError("Failure validating import '" + tgti + IMPORTED_FROM + tgt, theRule, cx,
 							null);
@@ -1336,38 +1507,28 @@ public class Checker implements IChecker {
                                Validator.ValidationContext theContext) {
 
         debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "looking up validation handler for {}, {} {}", theRule.getName(), theTiming, theContext.getPath());
-        if (!invokeHook(theRule.getName() + "_" + theTiming + "_validation_handler",
-                validationHookArgTypes,
-                theTarget, theRule, theContext)) {
-            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "no validation handler for {}", theRule.getName() + "_" + theTiming);
+        CheckerRuntime.Hook hook = this.runtime.validationHook(theTiming, theRule.getName());
+        if (hook == null) {
+            //that's ok, not every rule has to have a handler
+            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "no validation handler for {}_{}", theRule.getName(), theTiming);
+            return;
         }
-    }
-    private boolean invokeHook(String theHookName,
-                               Class[] theArgTypes,
-                               Object... theArgs) {
 
-        Invokable hookHandler = null;
+        hook.invoked();
         try {
-            Method m = Checker.class.getDeclaredMethod(
-                    theHookName, theArgTypes);
-            m.setAccessible(true);
-            hookHandler = Invokable.from(m);
-        } catch (NoSuchMethodException nsmx) {
-            //that's ok, not every rule has to have a handler
-            debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), getClass().getName(), "That's ok, not every rule has to have a handler. Method name =", theHookName);
+            hook.getHandle().invokeExact(this, theTarget, theRule, theContext);
+        } catch (Throwable x) {
+            errLogger.log(LogLevel.WARN, this.getClass().getName(), "Hook handler failed {} {}", hook.getName(), x);
         }
+    }
 
-        if (hookHandler != null) {
-            try {
-                hookHandler.invoke(this, theArgs);
-            } catch (InvocationTargetException | IllegalAccessException itx) {
-                errLogger.log(LogLevel.WARN, this.getClass().getName(), "Invocation failed for hook handler {} {}", theHookName, itx);
-            } catch (Exception x) {
-                errLogger.log(LogLevel.WARN, this.getClass().getName(), "Hook handler failed {} {}", theHookName, x);
-            }
+    private void invokeHook(CheckerRuntime.Hook theHook, Object theTarget, CheckContext theContext) {
+        theHook.invoked();
+        try {
+            theHook.getHandle().invokeExact(this, theTarget, theContext);
+        } catch (Throwable x) {
+            errLogger.log(LogLevel.WARN, this.getClass().getName(), "Hook handler failed {} {}", theHook.getName(), x);
         }
-
-        return hookHandler != null;
     }
 
     public void inputs_post_validation_handler(Object theValue, Rule theRule,
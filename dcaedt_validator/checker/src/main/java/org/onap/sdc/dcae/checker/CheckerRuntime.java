@@ -0,0 +1,358 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.checker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import kwalify.Rule;
+import kwalify.SchemaException;
+import kwalify.Validator;
+import org.onap.sdc.common.onaplog.OnapLoggerDebug;
+import org.onap.sdc.common.onaplog.OnapLoggerError;
+import org.onap.sdc.common.onaplog.enums.LogLevel;
+import org.onap.sdc.dcae.checker.annotations.Catalogs;
+import org.onap.sdc.dcae.checker.annotations.Checks;
+import org.reflections.Reflections;
+import org.reflections.scanners.MethodAnnotationsScanner;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+
+/**
+ * The part of the checker set-up that does not depend on what is being checked: the grammars of the supported
+ * tosca versions and the check/catalog handlers discovered on the classpath.
+ * Building it is expensive (grammar parsing, classpath scan) so it is done once and shared, read-only, by all the
+ * {@link Checker} instances, each of which only carries the state of one check.
+ */
+public class CheckerRuntime {
+
+    private static OnapLoggerError errLogger = OnapLoggerError.getInstance();
+    private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
+
+    /* Need a proper way to indicate where the grammars are and how they should be identified */
+    private static final String[] grammarFiles = new String[]{"tosca/tosca_simple_yaml_1_0.grammar",
+            "tosca/tosca_simple_yaml_1_1.grammar"};
+
+    private final Map<String, Target> grammars; //grammars for the different tosca versions
+    private final Map<String, Rule> rules; //the compiled form of the grammars
+
+    private final ImmutableListMultimap<String, Method> checks;
+    private final ImmutableListMultimap<String, Method> catalogs;
+
+    //instances of the handler classes other than the checker itself; handlers are expected to be stateless
+    private final Map<Class, Object> handlers;
+
+    private static final String PRE_VALIDATION_HANDLER = "_pre_validation_handler";
+    private static final String POST_VALIDATION_HANDLER = "_post_validation_handler";
+    private static final String CHECK_HANDLER = "check_";
+
+    private static final Class[] validationHookArgTypes =
+            new Class[]{Object.class, Rule.class, Validator.ValidationContext.class};
+
+    //this is getting silly ..
+    private static final Class[][] checkHookArgTypes =
+            new Class[][]{
+                    new Class[]{Map.class, Checker.CheckContext.class},
+                    new Class[]{List.class, Checker.CheckContext.class}};
+
+    private static final MethodType validationHookType =
+            MethodType.methodType(void.class, Checker.class, Object.class, Rule.class, Validator.ValidationContext.class);
+    private static final MethodType checkHookType =
+            MethodType.methodType(void.class, Checker.class, Object.class, Checker.CheckContext.class);
+
+    /*
+     * The checker hooks, by rule name for the validation hooks and by construct name for the check hooks.
+     * These tables are complete: a name that is not in them has no hook.
+     */
+    private final Map<String, Hook> preValidationHooks;
+    private final Map<String, Hook> postValidationHooks;
+    private final Map<String, List<Hook>> checkHooks;
+
+    /**
+     * A checker method invoked by naming convention, adapted to a uniform signature.
+     */
+    static class Hook {
+
+        private final String name;
+        private final MethodHandle handle;
+        private final LongAdder invocations = new LongAdder();
+
+        private Hook(Method theMethod, MethodType theType) {
+            this.name = theMethod.getName();
+            try {
+                theMethod.setAccessible(true);
+                this.handle = MethodHandles.lookup().unreflect(theMethod).asType(theType);
+            } catch (IllegalAccessException iax) {
+                throw new IllegalStateException("Cannot access hook " + theMethod, iax);
+            }
+        }
+
+        String getName() {
+            return this.name;
+        }
+
+        MethodHandle getHandle() {
+            return this.handle;
+        }
+
+        void invoked() {
+            this.invocations.increment();
+        }
+    }
+
+    private static class DefaultHolder {
+        private static final CheckerRuntime instance = build();
+
+        private static CheckerRuntime build() {
+            try {
+                return new CheckerRuntime();
+            } catch (CheckerException cx) {
+                throw new IllegalStateException("Failed to initialize the checker runtime", cx);
+            }
+        }
+    }
+
+    /**
+     * @return the runtime shared by all the checkers built without an explicit one
+     */
+    public static CheckerRuntime getDefault() throws CheckerException {
+        try {
+            return DefaultHolder.instance;
+        } catch (ExceptionInInitializerError x) {
+            throw new CheckerException("Failed to initialize the checker runtime", x.getCause());
+        }
+    }
+
+    public CheckerRuntime() throws CheckerException {
+        this.grammars = ImmutableMap.copyOf(loadGrammars());
+        this.rules = ImmutableMap.copyOf(compileGrammars(this.grammars));
+
+        Reflections reflections = new Reflections(
+                new ConfigurationBuilder()
+                        .forPackages("org.onap.sdc.dcae")
+                        .filterInputsBy(new FilterBuilder()
+                                        .include(".*\\.class")
+                        )
+                        .setScanners(new TypeAnnotationsScanner(),
+                                new SubTypesScanner(),
+                                new MethodAnnotationsScanner())
+                        .setExpandSuperTypes(false)
+        );
+
+        Map<Class, Object> instances = new HashMap<>();
+
+        ImmutableListMultimap.Builder<String, Method> checksBuilder = ImmutableListMultimap.builder();
+        Set<Method> checkHandlers = reflections.getMethodsAnnotatedWith(Checks.class);
+        checkHandlers.forEach(checkHandler -> {
+            checksBuilder.put(checkHandler.getAnnotation(Checks.class).path(), checkHandler);
+            instantiate(checkHandler.getDeclaringClass(), instances);
+        });
+        this.checks = checksBuilder.build();
+
+        ImmutableListMultimap.Builder<String, Method> catalogsBuilder = ImmutableListMultimap.builder();
+        Set<Method> catalogHandlers = reflections.getMethodsAnnotatedWith(Catalogs.class);
+        catalogHandlers.forEach(catalogHandler -> {
+            catalogsBuilder.put(catalogHandler.getAnnotation(Catalogs.class).path(), catalogHandler);
+            instantiate(catalogHandler.getDeclaringClass(), instances);
+        });
+        this.catalogs = catalogsBuilder.build();
+
+        this.handlers = ImmutableMap.copyOf(instances);
+
+        Map<String, Hook> preHooks = new HashMap<>();
+        Map<String, Hook> postHooks = new HashMap<>();
+        Map<String, List<Hook>> checkHookLists = new HashMap<>();
+        for (Method method : Checker.class.getDeclaredMethods()) {
+            String name = method.getName();
+            Class[] argTypes = method.getParameterTypes();
+            if (Arrays.equals(argTypes, validationHookArgTypes)) {
+                if (name.endsWith(PRE_VALIDATION_HANDLER)) {
+                    preHooks.put(name.substring(0, name.length() - PRE_VALIDATION_HANDLER.length()),
+                            new Hook(method, validationHookType));
+                } else if (name.endsWith(POST_VALIDATION_HANDLER)) {
+                    postHooks.put(name.substring(0, name.length() - POST_VALIDATION_HANDLER.length()),
+                            new Hook(method, validationHookType));
+                }
+            }
+        }
+        //keep the order in which the signatures are to be tried
+        for (Class[] checkArgTypes : checkHookArgTypes) {
+            for (Method method : Checker.class.getDeclaredMethods()) {
+                if (method.getName().startsWith(CHECK_HANDLER) && Arrays.equals(method.getParameterTypes(), checkArgTypes)) {
+                    checkHookLists.computeIfAbsent(method.getName().substring(CHECK_HANDLER.length()), name -> new ArrayList<>())
+                            .add(new Hook(method, checkHookType));
+                }
+            }
+        }
+        this.preValidationHooks = ImmutableMap.copyOf(preHooks);
+        this.postValidationHooks = ImmutableMap.copyOf(postHooks);
+        this.checkHooks = ImmutableMap.copyOf(checkHookLists);
+    }
+
+    private static void instantiate(Class theType, Map<Class, Object> theInstances) {
+        //checker handlers are invoked on the checker performing the check
+        if (Checker.class.isAssignableFrom(theType)) {
+            return;
+        }
+        theInstances.computeIfAbsent(theType,
+                type -> {
+                    try {
+                        return type.newInstance();
+                    } catch (Exception x) {
+                        throw new RuntimeException(x);
+                    }
+                });
+    }
+
+    private Map<String, Target> loadGrammars() throws CheckerException {
+
+        Map<String, Target> loaded = new HashMap<>();
+        TargetLocator locator = new CommonLocator();
+        for (String grammarFile : grammarFiles) {
+            Target grammarTarget = locator.resolve(grammarFile);
+            if (grammarTarget == null) {
+                errLogger.log(LogLevel.WARN, this.getClass().getName(), "Failed to locate grammar {}", grammarFile);
+                continue;
+            }
+
+            Checker.parseTarget(grammarTarget);
+            if (grammarTarget.getReport().hasErrors()) {
+                errLogger.log(LogLevel.WARN, this.getClass().getName(), "Invalid grammar {}: {}", grammarFile, grammarTarget.getReport().toString());
+                continue;
+            }
+
+            List versions = null;
+            try {
+                versions = (List)
+                        ((Map)
+                                ((Map)
+                                        ((Map) grammarTarget.getTarget())
+                                                .get("mapping"))
+                                        .get("tosca_definitions_version"))
+                                .get("enum");
+            } catch (Exception x) {
+                errLogger.log(LogLevel.WARN, this.getClass().getName(), "Invalid grammar {}: cannot locate tosca_definitions_versions. Exception{}", grammarFile, x);
+            }
+            if (versions == null || versions.isEmpty()) {
+                errLogger.log(LogLevel.WARN, this.getClass().getName(), "Invalid grammar {}: no tosca_definitions_versions specified", grammarFile);
+                continue;
+            }
+
+            for (Object version : versions) {
+                loaded.put(version.toString(), grammarTarget);
+            }
+        }
+
+        debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Loaded grammars: {}", loaded);
+        return loaded;
+    }
+
+    /*
+     * Several versions share a grammar: compile each grammar once. The validation state is kept in the
+     * validation context so the rules can be shared by all validations.
+     */
+    private static Map<String, Rule> compileGrammars(Map<String, Target> theGrammars) throws CheckerException {
+        Map<Target, Rule> compiled = new IdentityHashMap<>();
+        Map<String, Rule> rules = new HashMap<>();
+        for (Map.Entry<String, Target> grammar : theGrammars.entrySet()) {
+            Rule rule = compiled.get(grammar.getValue());
+            if (rule == null) {
+                try {
+                    rule = new Rule(grammar.getValue().getTarget());
+                } catch (SchemaException sx) {
+                    throw new CheckerException("Grammar error at: " + sx.getPath(), sx);
+                }
+                compiled.put(grammar.getValue(), rule);
+            }
+            rules.put(grammar.getKey(), rule);
+        }
+        return rules;
+    }
+
+    public Target grammar(String theVersion) {
+        return this.grammars.get(theVersion);
+    }
+
+    /**
+     * @return the compiled grammar for the given tosca version
+     */
+    public Rule rule(String theVersion) {
+        return this.rules.get(theVersion);
+    }
+
+    public List<Method> checks(String thePath) {
+        return this.checks.get(thePath);
+    }
+
+    public List<Method> catalogs(String thePath) {
+        return this.catalogs.get(thePath);
+    }
+
+    /**
+     * @return the hook for the given rule and timing ("pre" or "post") or null if there is none
+     */
+    Hook validationHook(String theTiming, String theRuleName) {
+        if (theRuleName == null) {
+            return null;
+        }
+        return ("pre".equals(theTiming) ? this.preValidationHooks : this.postValidationHooks).get(theRuleName);
+    }
+
+    List<Hook> checkHooks(String theName) {
+        return this.checkHooks.getOrDefault(theName, Collections.emptyList());
+    }
+
+    /**
+     * @return how many times each hook was invoked, across all the checkers using this runtime
+     */
+    public Map<String, Long> hookInvocations() {
+        Map<String, Long> invocations = new TreeMap<>();
+        this.preValidationHooks.values().forEach(hook -> invocations.merge(hook.name, hook.invocations.sum(), Long::sum));
+        this.postValidationHooks.values().forEach(hook -> invocations.merge(hook.name, hook.invocations.sum(), Long::sum));
+        this.checkHooks.values().forEach(hooks -> hooks.forEach(hook -> invocations.merge(hook.name, hook.invocations.sum(), Long::sum)));
+        return invocations;
+    }
+
+    /**
+     * @return the object the given handler is to be invoked on, the checker itself for its own handlers
+     */
+    Object handler(Method theHandler, Checker theChecker) {
+        Class type = theHandler.getDeclaringClass();
+        return type.isInstance(theChecker) ? theChecker : this.handlers.get(type);
+    }
+}
@@ -0,0 +1,315 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.checker;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.onap.sdc.common.onaplog.OnapLoggerDebug;
+import org.onap.sdc.common.onaplog.enums.LogLevel;
+import org.onap.sdc.dcae.checker.validation.TOSCAValidator;
+
+import kwalify.Rule;
+import kwalify.Validator;
+
+/**
+ * Parses and validates, on the given executor, the targets a template imports (directly or not) while the
+ * checker works on the template itself.
+ * Only the stages that do not depend on the order in which imports are processed run ahead: the imports
+ * of an import are cataloged by the checker itself, when it gets to them, from a replay of the imports
+ * validation hook. This way the catalog and the reports end up the same as those of a sequential check.
+ */
+class ImportPrefetch {
+
+    private static OnapLoggerDebug debugLogger = OnapLoggerDebug.getInstance();
+
+    private static final String POST = "post";
+    private static final String IMPORTS = "imports";
+
+    private final Checker checker;
+    private final TargetLocator locator;
+    private final Executor executor;
+    private final Set<URI> adoptable;
+
+    private final Map<String, Optional<Target>> resolved = new ConcurrentHashMap<>();
+    private final Map<URI, Import> imports = new ConcurrentHashMap<>();
+    private volatile boolean cancelled = false;
+
+    /* the imports at the adoptable locations are taken over by the checker from a previous check, not prepared */
+    ImportPrefetch(Checker theChecker, TargetLocator theLocator, Executor theExecutor, Set<URI> theAdoptable) {
+        this.checker = theChecker;
+        this.locator = theLocator;
+        this.executor = theExecutor;
+        this.adoptable = theAdoptable;
+    }
+
+    /* schedules the preparation of the imports of the given (parsed) template that were not seen before */
+    void prefetchImports(Object theTemplate) {
+        for (String name : importNames(theTemplate)) {
+            if (this.cancelled) {
+                return;
+            }
+            Target target = resolve(name);
+            if (target == null) {
+                //the checker will report it
+                continue;
+            }
+            if (this.adoptable.contains(target.getLocation())) {
+                //the checker takes it over from a previous check
+                continue;
+            }
+            Import tgtImport = new Import(target);
+            if (this.imports.putIfAbsent(target.getLocation(), tgtImport) == null) {
+                try {
+                    this.executor.execute(() -> tgtImport.prepare());
+                } catch (RejectedExecutionException rx) {
+                    //the checker will process it in line
+                    this.imports.remove(target.getLocation(), tgtImport);
+                    debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Import {} not prefetched: {}", name, rx);
+                }
+            }
+        }
+    }
+
+    /* the short forms of the import definitions are only resolved during validation */
+    static List<String> importNames(Object theTemplate) {
+        if (!(theTemplate instanceof Map)) {
+            return Collections.emptyList();
+        }
+        Object definitions = ((Map) theTemplate).get(IMPORTS);
+        if (!(definitions instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>();
+        for (Object definition : (List) definitions) {
+            Object file = definition;
+            if (file instanceof Map && ((Map) file).size() == 1) {
+                file = ((Map) file).values().iterator().next();
+            }
+            if (file instanceof Map) {
+                file = ((Map) file).get("file");
+            }
+            if (file instanceof String) {
+                names.add((String) file);
+            }
+        }
+        return names;
+    }
+
+    /* stops scheduling imports, the ones already prepared or in preparation are left to complete */
+    void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Import names are resolved once per check, the search paths do not change in the meantime.
+     * @return the target the import is being prepared with, if it was prefetched
+     */
+    Target resolve(String theName) {
+        Target target = this.resolved.computeIfAbsent(theName, name -> Optional.ofNullable(this.locator.resolve(name)))
+                .orElse(null);
+        if (target == null) {
+            return null;
+        }
+        Import tgtImport = this.imports.get(target.getLocation());
+        return tgtImport == null ? target : tgtImport.target;
+    }
+
+    /**
+     * @return the import prepared for the given target, waiting for its preparation to complete, or null if
+     * the target was not prefetched
+     */
+    Import take(Target theTarget) {
+        Import tgtImport = this.imports.get(theTarget.getLocation());
+        if (tgtImport == null || tgtImport.target != theTarget) {
+            return null;
+        }
+        try {
+            return tgtImport.prepared.join();
+        } catch (CompletionException cx) {
+            throw new IllegalStateException("Failed to prepare import " + theTarget, cx.getCause());
+        }
+    }
+
+    /**
+     * An imported target, parsed and validated, with its imports validation hook held back.
+     */
+    class Import implements IChecker {
+
+        private final Target target;
+        private final CompletableFuture<Import> prepared = new CompletableFuture<>();
+
+        private List<Target> documents;
+        private CheckerException parseFailure;
+        private TOSCAValidator validator;
+        private List errors;
+        private Exception validationFailure;
+        private List<DeferredHook> deferred = new ArrayList<>();
+
+        private Import(Target theTarget) {
+            this.target = theTarget;
+        }
+
+        private void prepare() {
+            try {
+                if (!cancelled) {
+                    prepareTarget();
+                }
+                this.prepared.complete(this);
+            } catch (Throwable x) {
+                this.prepared.completeExceptionally(x);
+            }
+        }
+
+        private void prepareTarget() {
+            debugLogger.log(LogLevel.DEBUG, ImportPrefetch.class.getName(), "Preparing import {}", this.target);
+            try {
+                this.documents = checker.parseImport(this.target);
+            } catch (CheckerException cx) {
+                this.parseFailure = cx;
+                return;
+            }
+
+            //the checker won't go further with a multi document import, nor validate a cached one again
+            if (this.documents.size() != 1 || checker.isRestored(this.target)) {
+                return;
+            }
+
+            Object template = this.target.getTarget();
+            prefetchImports(template);
+            try {
+                this.validator = checker.validator(this.target, this);
+                this.errors = this.validator.validate(template);
+            } catch (CheckerException | RuntimeException x) {
+                this.validationFailure = x;
+            }
+        }
+
+        Target getTarget() {
+            return this.target;
+        }
+
+        List<Target> getDocuments() throws CheckerException {
+            if (this.parseFailure != null) {
+                throw this.parseFailure;
+            }
+            return this.documents;
+        }
+
+        TOSCAValidator getValidator() {
+            return this.validator;
+        }
+
+        /**
+         * Runs the held back hooks through the checker.
+         * @return the validation errors, including those reported by the hooks, in the order a sequential
+         * validation would have reported them
+         */
+        List validate() throws CheckerException {
+            if (this.validationFailure instanceof CheckerException) {
+                throw (CheckerException) this.validationFailure;
+            }
+            if (this.validationFailure != null) {
+                throw (RuntimeException) this.validationFailure;
+            }
+
+            List result = new ArrayList(this.errors);
+            int shift = 0;
+            for (DeferredHook hook : this.deferred) {
+                List hookErrors = hook.replay();
+                result.addAll(hook.errorIndex + shift, hookErrors);
+                shift += hookErrors.size();
+            }
+            return result;
+        }
+
+        @Override
+        public void validationHook(String theTiming, Object theTarget, Rule theRule,
+                                   Validator.ValidationContext theContext) {
+            if (POST.equals(theTiming) && IMPORTS.equals(theRule.getName())) {
+                this.deferred.add(new DeferredHook(theTarget, theRule, theContext));
+            } else {
+                checker.validationHook(theTiming, theTarget, theRule, theContext);
+            }
+        }
+
+        @Override
+        public void check_template_artifacts_definition(Map<String, Object> theDefinition,
+                                                        Checker.CheckContext theContext) {
+            checker.check_template_artifacts_definition(theDefinition, theContext);
+        }
+
+        @Override
+        public void check_inputs(Map<String, Map> theInputs, Checker.CheckContext theContext) {
+            checker.check_inputs(theInputs, theContext);
+        }
+    }
+
+    /**
+     * A post validation hook invocation, replayed once validation has completed.
+     */
+    private class DeferredHook {
+
+        private final Object value;
+        private final Rule rule;
+        private final Validator.ValidationContext context;
+        private final List parents;
+        private final List keys;
+        private final int errorIndex;
+
+        private DeferredHook(Object theValue, Rule theRule, Validator.ValidationContext theContext) {
+            this.value = theValue;
+            this.rule = theRule;
+            this.context = theContext;
+            this.parents = theContext.getParents();
+            this.keys = theContext.getKeys();
+            this.errorIndex = theContext.errorCount();
+        }
+
+        /* @return the errors the hook reported */
+        private List replay() {
+            //the hook sees the same path, parent and key it would have been invoked with
+            for (int i = 0; i < this.keys.size(); i++) {
+                this.context.enterElement(String.valueOf(this.keys.get(i)), this.parents.get(i), this.keys.get(i));
+            }
+            int errorCount = this.context.errorCount();
+            try {
+                checker.validationHook(POST, this.value, this.rule, this.context);
+            } finally {
+                for (int i = 0; i < this.keys.size(); i++) {
+                    this.context.exitElement();
+                }
+            }
+            return new ArrayList(this.context.getErrors().subList(errorCount, this.context.errorCount()));
+        }
+    }
+}
@@ -25,6 +25,9 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Represents a yaml document to be parsed/validated/checked
@@ -34,6 +37,8 @@ public class Target {
 	private String 				name;			//maintained mainly for logging
 	private URI					 	location;
 	private Object 				target;		//this is the parsed form of the target
+	private String				digest;		//of the source the target was parsed from
+	private Map<String, URI>	imports = new LinkedHashMap<>();	//import names and the locations they were resolved to
 
 	private	Report	report = new Report(); //collects the errors related to this target
 
@@ -70,6 +75,28 @@ public class Target {
 		return this.target;
 	}
 
+	/*
+	 * @return the digest of the source, once it was read
+	 */
+	public String getDigest() {
+		return this.digest;
+	}
+
+	void setDigest(String theDigest) {
+		this.digest = theDigest;
+	}
+
+	void addImport(String theName, URI theLocation) {
+		this.imports.put(theName, theLocation);
+	}
+
+	/*
+	 * @return the names this target imports, in order, along with the locations they were resolved to
+	 */
+	Map<String, URI> getImports() {
+		return Collections.unmodifiableMap(this.imports);
+	}
+
 	/*
 	 * @return a reader for the source or null if failed
 	 */
@@ -0,0 +1,176 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.checker;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Imported targets shared between checks, identified by the digest of their source: the same type definitions
+ * imported by many templates are parsed and validated once and, as long as they can be checked on their own,
+ * checked once.
+ * Only self contained type definitions are kept, i.e. targets that import nothing and declare no topology:
+ * their validated form does not depend on the template importing them.
+ * A cache can be shared by any number of checkers, see {@link Checker#setTargetCache}.
+ * The cache is bounded by the estimated memory retained by the targets it keeps.
+ */
+public class TargetCache {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final String IMPORTS = "imports";
+    private static final String TOPOLOGY_TEMPLATE = "topology_template";
+
+    // rough retained sizes of the parsed yaml nodes: map entries, list slots, strings (header and array) and boxed scalars
+    private static final int MAP_ENTRY_BYTES = 64;
+    private static final int LIST_ELEMENT_BYTES = 8;
+    private static final int STRING_BYTES = 40;
+    private static final int SCALAR_BYTES = 16;
+
+    private final Cache<String, Entry> entries;
+
+    public TargetCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public TargetCache(long theMaxBytes) {
+        this.entries = CacheBuilder.newBuilder()
+                .maximumWeight(theMaxBytes)
+                .weigher((String digest, Entry entry) -> (int) Math.min(Integer.MAX_VALUE, entry.bytes))
+                .build();
+    }
+
+    /* the target validated out of the source with the given digest, if any */
+    Entry get(String theDigest) {
+        return theDigest == null ? null : this.entries.getIfPresent(theDigest);
+    }
+
+    /**
+     * Keeps a copy of the validated (canonical) form of a target, if it is self contained.
+     * @return the entry kept for the digest, or null if the target is not to be cached
+     */
+    Entry put(String theDigest, Object theTarget) {
+        if (theDigest == null || !isSelfContained(theTarget)) {
+            return null;
+        }
+        Entry entry = new Entry(copy(theTarget));
+        Entry cached = this.entries.asMap().putIfAbsent(theDigest, entry);
+        return cached == null ? entry : cached;
+    }
+
+    public long size() {
+        return this.entries.size();
+    }
+
+    public void clear() {
+        this.entries.invalidateAll();
+    }
+
+    /* estimated memory retained by a parsed yaml tree */
+    static long estimateBytes(Object theValue) {
+        if (theValue instanceof Map) {
+            long bytes = 0;
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) theValue).entrySet()) {
+                bytes += MAP_ENTRY_BYTES + estimateBytes(e.getKey()) + estimateBytes(e.getValue());
+            }
+            return bytes;
+        }
+        if (theValue instanceof List) {
+            long bytes = 0;
+            for (Object v : (List<?>) theValue) {
+                bytes += LIST_ELEMENT_BYTES + estimateBytes(v);
+            }
+            return bytes;
+        }
+        if (theValue instanceof String) {
+            return STRING_BYTES + 2L * ((String) theValue).length();
+        }
+        return theValue == null ? 0 : SCALAR_BYTES;
+    }
+
+    private static boolean isSelfContained(Object theTarget) {
+        return theTarget instanceof Map && !((Map) theTarget).containsKey(IMPORTS) && !((Map) theTarget).containsKey(TOPOLOGY_TEMPLATE);
+    }
+
+    /* documents end up in catalogs that extend the definitions they hold, every checker gets its own copy */
+    private static Object copy(Object theValue) {
+        return copy(theValue, null);
+    }
+
+    /* a deep copy of a parsed yaml tree. the copies of the maps and lists are recorded by the originals, if asked to */
+    static Object copy(Object theValue, Map<Object, Object> theCopies) {
+        if (theValue instanceof Map) {
+            Map copy = new LinkedHashMap();
+            ((Map<?, ?>) theValue).forEach((k, v) -> copy.put(k, copy(v, theCopies)));
+            if (theCopies != null) {
+                theCopies.put(theValue, copy);
+            }
+            return copy;
+        }
+        if (theValue instanceof List) {
+            List copy = new ArrayList(((List) theValue).size());
+            ((List<?>) theValue).forEach(v -> copy.add(copy(v, theCopies)));
+            if (theCopies != null) {
+                theCopies.put(theValue, copy);
+            }
+            return copy;
+        }
+        if (theValue instanceof Date) {
+            return ((Date) theValue).clone();
+        }
+        return theValue;
+    }
+
+    /**
+     * A validated target.
+     */
+    static class Entry {
+
+        private final Object target;
+        private final long bytes;
+        private volatile boolean checked = false;
+
+        private Entry(Object theTarget) {
+            this.target = theTarget;
+            this.bytes = estimateBytes(theTarget);
+        }
+
+        /* a copy of the validated form of the target */
+        Object target() {
+            return copy(this.target);
+        }
+
+        /* the target passed checking against the common types alone */
+        boolean isChecked() {
+            return this.checked;
+        }
+
+        void setChecked() {
+            this.checked = true;
+        }
+    }
+}
@@ -27,13 +27,9 @@ import java.util.Map;
 
 public class ArtifactCommon extends BaseCommon {
 
-    private static ArtifactCommon instance;
+    private static final ArtifactCommon instance = new ArtifactCommon();
 
-    public synchronized static ArtifactCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new ArtifactCommon();
-        }
+    public static ArtifactCommon getInstance() {
         return instance;
     }
 
@@ -29,13 +29,9 @@ import java.util.Map;
 import static org.onap.sdc.dcae.checker.common.ConstCommon.ATTRIBUTES;
 
 public class AttributesCommon extends BaseCommon {
-    private static AttributesCommon instance;
+    private static final AttributesCommon instance = new AttributesCommon();
 
-    public synchronized static AttributesCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new AttributesCommon();
-        }
+    public static AttributesCommon getInstance() {
         return instance;
     }
 
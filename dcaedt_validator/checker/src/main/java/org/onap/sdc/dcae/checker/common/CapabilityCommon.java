@@ -33,13 +33,9 @@ import static org.onap.sdc.dcae.checker.common.ConstCommon.*;
 
 public class CapabilityCommon extends BaseCommon {
 
-    private static CapabilityCommon instance;
+    private static final CapabilityCommon instance = new CapabilityCommon();
 
-    public synchronized static CapabilityCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new CapabilityCommon();
-        }
+    public static CapabilityCommon getInstance() {
         return instance;
     }
 
@@ -28,13 +28,9 @@ import java.util.Map;
 import static org.onap.sdc.dcae.checker.common.ConstCommon.PROPERTIES;
 
 public class CheckCommon extends BaseCommon {
-    private static CheckCommon instance = null;
+    private static final CheckCommon instance = new CheckCommon();
 
-    public synchronized static CheckCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new CheckCommon();
-        }
+    public static CheckCommon getInstance() {
         return instance;
     }
 
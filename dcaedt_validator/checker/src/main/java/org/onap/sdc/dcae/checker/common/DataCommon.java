@@ -27,13 +27,9 @@ import java.util.Map;
 
 public class DataCommon extends BaseCommon {
 
-    private static DataCommon instance;
+    private static final DataCommon instance = new DataCommon();
 
-    public synchronized static DataCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new DataCommon();
-        }
+    public static DataCommon getInstance() {
         return instance;
     }
 
@@ -37,13 +37,9 @@ import static org.onap.sdc.dcae.checker.common.ConstCommon.UNKNOWN;
 
 public class FacetCommon extends BaseCommon {
 
-    private static FacetCommon instance;
+    private static final FacetCommon instance = new FacetCommon();
 
-    public synchronized static FacetCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new FacetCommon();
-        }
+    public static FacetCommon getInstance() {
         return instance;
     }
 
@@ -29,13 +29,9 @@ import java.util.Map;
 import static org.onap.sdc.dcae.checker.common.ConstCommon.*;
 
 public class GroupCommon extends BaseCommon{
-    private static GroupCommon instance;
+    private static final GroupCommon instance = new GroupCommon();
 
-    public synchronized static GroupCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new GroupCommon();
-        }
+    public static GroupCommon getInstance() {
         return instance;
     }
 
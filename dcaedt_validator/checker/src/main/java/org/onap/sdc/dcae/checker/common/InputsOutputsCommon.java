@@ -28,13 +28,9 @@ import static org.onap.sdc.dcae.checker.common.ConstCommon.DEFAULT;
 
 public class InputsOutputsCommon extends BaseCommon {
 
-    private static InputsOutputsCommon instance;
+    private static final InputsOutputsCommon instance = new InputsOutputsCommon();
 
-    public synchronized static InputsOutputsCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new InputsOutputsCommon();
-        }
+    public static InputsOutputsCommon getInstance() {
         return instance;
     }
 
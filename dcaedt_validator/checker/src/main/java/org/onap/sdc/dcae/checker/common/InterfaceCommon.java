@@ -31,28 +31,14 @@ import static org.onap.sdc.dcae.checker.common.ConstCommon.INTERFACES;
 import static org.onap.sdc.dcae.checker.common.ConstCommon.WAS_DEFINED_FOR_THE_NODE_TYPE;
 
 public class InterfaceCommon extends BaseCommon {
-    private static InterfaceCommon instance;
+    private static final InterfaceCommon instance = new InterfaceCommon();
 
-    public synchronized static void init(IChecker checker) {
-        if (instance == null)
-        {
-            instance = new InterfaceCommon();
-            instance.setChecker(checker);
-        }
-    }
-
-    public synchronized static InterfaceCommon getInstance() {
-        if (instance == null)
-        {
-            errLogger.log(LogLevel.ERROR, InterfaceCommon.class.getSimpleName(),"Need to call init before");
-        }
+    public static InterfaceCommon getInstance() {
         return instance;
     }
 
     private InterfaceCommon() {}
 
-    private IChecker checker;
-
     //checking of actual constructs (capability, ..)
 
     /* First, interface types do not have a hierarchical organization (no
@@ -81,7 +67,7 @@ public class InterfaceCommon extends BaseCommon {
             }
 
             if (theDef.containsKey(INPUTS)) {
-                checker.check_inputs((Map<String, Map>) theDef.get(INPUTS), theContext);
+                theContext.checker().check_inputs((Map<String, Map>) theDef.get(INPUTS), theContext);
             }
         } finally {
             theContext.exit();
@@ -177,8 +163,4 @@ public class InterfaceCommon extends BaseCommon {
             theContext.exit();
         }
     }
-
-    void setChecker(IChecker checker) {
-        this.checker = checker;
-    }
 }
@@ -31,27 +31,14 @@ import static org.onap.sdc.dcae.checker.common.ConstCommon.*;
 
 public class NodeCommon extends BaseCommon {
 
-    private static NodeCommon instance;
+    private static final NodeCommon instance = new NodeCommon();
 
-    public synchronized static void init(IChecker checker) {
-        if (instance == null) {
-            instance = new NodeCommon();
-            instance.setChecker(checker);
-        }
-    }
-
-    public synchronized static NodeCommon getInstance() {
-        if (instance == null)
-        {
-            errLogger.log(LogLevel.ERROR, InterfaceCommon.class.getSimpleName(),"Need to call init before");
-        }
+    public static NodeCommon getInstance() {
         return instance;
     }
 
     private NodeCommon() {}
 
-    private IChecker checker;
-
     public void checkNodeTypeDefinition(String theName,
                                         Map theDefinition,
                                         Checker.CheckContext theContext,
@@ -169,7 +156,7 @@ public class NodeCommon extends BaseCommon {
             //depending on the context (type or template) but they are still subject
             //to 'augmentation'
             if (theNode.containsKey(ARTIFACTS)) {
-                checker.check_template_artifacts_definition(
+                theContext.checker().check_template_artifacts_definition(
                         (Map<String, Object>) theNode.get(ARTIFACTS), theContext);
             }
 
@@ -210,8 +197,4 @@ public class NodeCommon extends BaseCommon {
         }
         return null;
     }
-
-    public void setChecker(IChecker checker) {
-        this.checker = checker;
-    }
 }
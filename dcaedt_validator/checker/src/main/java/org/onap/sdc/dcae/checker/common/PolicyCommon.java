@@ -31,13 +31,9 @@ import static org.onap.sdc.dcae.checker.common.ConstCommon.TARGETS_CONSTANT;
 
 public class PolicyCommon extends BaseCommon {
 
-    private static PolicyCommon instance;
+    private static final PolicyCommon instance = new PolicyCommon();
 
-    public synchronized static PolicyCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new PolicyCommon();
-        }
+    public static PolicyCommon getInstance() {
         return instance;
     }
 
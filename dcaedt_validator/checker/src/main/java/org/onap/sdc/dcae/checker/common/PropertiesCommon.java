@@ -32,13 +32,9 @@ import static org.onap.sdc.dcae.checker.common.ConstCommon.PROPERTIES;
 
 public class PropertiesCommon extends BaseCommon {
 
-    private static PropertiesCommon instance;
+    private static final PropertiesCommon instance = new PropertiesCommon();
 
-    public synchronized static PropertiesCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new PropertiesCommon();
-        }
+    public static PropertiesCommon getInstance() {
         return instance;
     }
 
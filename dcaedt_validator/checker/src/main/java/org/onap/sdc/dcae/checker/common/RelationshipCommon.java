@@ -31,13 +31,9 @@ import static org.onap.sdc.dcae.checker.common.ConstCommon.EMPTY_STRING_ARRAY;
 import static org.onap.sdc.dcae.checker.common.ConstCommon.VALID_TARGET_TYPES;
 
 public class RelationshipCommon extends BaseCommon {
-    private static RelationshipCommon instance;
+    private static final RelationshipCommon instance = new RelationshipCommon();
 
-    public synchronized static RelationshipCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new RelationshipCommon();
-        }
+    public static RelationshipCommon getInstance() {
         return instance;
     }
 
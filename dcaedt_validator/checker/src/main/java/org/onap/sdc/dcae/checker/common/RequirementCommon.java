@@ -30,13 +30,9 @@ import static org.onap.sdc.dcae.checker.common.ConstCommon.*;
 
 public class RequirementCommon extends BaseCommon {
 
-    private static RequirementCommon instance;
+    private static final RequirementCommon instance = new RequirementCommon();
 
-    public synchronized static RequirementCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new RequirementCommon();
-        }
+    public static RequirementCommon getInstance() {
         return instance;
     }
 
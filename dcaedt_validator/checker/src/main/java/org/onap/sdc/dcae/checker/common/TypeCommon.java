@@ -29,13 +29,9 @@ import static org.onap.sdc.dcae.checker.common.ConstCommon.*;
 
 public class TypeCommon extends BaseCommon {
 
-    private static TypeCommon instance;
+    private static final TypeCommon instance = new TypeCommon();
 
-    public synchronized static TypeCommon getInstance() {
-        if (instance == null)
-        {
-            instance = new TypeCommon();
-        }
+    public static TypeCommon getInstance() {
         return instance;
     }
 
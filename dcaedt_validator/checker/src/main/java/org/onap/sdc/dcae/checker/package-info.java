@@ -116,6 +116,14 @@
  *   'detected' during tosca yaml grammar validation phase. At that stage all
  *   imports are (recursively) parsed and validated (first 2 phases). Checking
  *   off all imports (recursively) is done during stage 3.
+ *   Given an executor (Checker#setExecutor) the imports are parsed and
+ *   validated concurrently, ahead of the validation of the importing target;
+ *   the outcome (catalog, reports) is the same as that of a sequential run.
+ *   During stage 3 the imported targets are checked before the targets
+ *   importing them (see Catalog#sortedTargets).
+ *   Given a cache (Checker#setTargetCache) imported type definitions seen
+ *   before, by content, skip the first 2 phases and, if they checked on
+ *   their own, stage 3 is reduced to cataloging their types.
  *    
  */
 package org.onap.sdc.dcae.checker;
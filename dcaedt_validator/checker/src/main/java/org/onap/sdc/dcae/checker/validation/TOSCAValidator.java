@@ -44,11 +44,11 @@ and compute the canonical form and validate it. In the post-validation phase we
 substitute the canonical form for the short form so that checking does not have to deal with it.
      */
 
-    public Map<String, Object> getCanonicals() {
+    public List<Canonical> getCanonicals() {
         return canonicals;
     }
 
-    private Map<String, Object> canonicals = new TreeMap<>();
+    private List<Canonical> canonicals = new LinkedList<>();
 
     public TOSCAValidator(Target theTarget, Object theSchema, IChecker checker) {
         super(theSchema);
@@ -56,6 +56,12 @@ substitute the canonical form for the short form so that checking does not have
         this.target = theTarget;
     }
 
+    public TOSCAValidator(Target theTarget, Rule theRule, IChecker checker) {
+        super(theRule);
+        this.checker = checker;
+        this.target = theTarget;
+    }
+
     public Target getTarget() {
         return this.target;
     }
@@ -110,7 +116,7 @@ substitute the canonical form for the short form so that checking does not have
                     debugLogger.log(LogLevel.DEBUG, this.getClass().getName(), "Short notation for {} through {} at {} passed validation. Canonical form is {}", rule.getName(), hint, context.getPath(), canonical);
                     //replace the short notation with the canonicall one so we don't
                     //have to deal it again during checking
-                    this.canonicals.put(context.getPath(), canonical);
+                    this.canonicals.add(new Canonical(context.getPath(), context.getParent(), context.getKey(), canonical));
                     return true;
                 }
             } else {
@@ -132,4 +138,50 @@ substitute the canonical form for the short form so that checking does not have
         checker.validationHook("post", value, rule, context);
     }
 
+    /*
+     * The canonical form of a short notation, along with the map or list holding the short notation
+     * so it can be substituted in place. A short notation found within another one's canonical form
+     * is held by that canonical form.
+     */
+    public static class Canonical {
+
+        private final String path;
+        private final Object parent;
+        private final Object key;
+        private final Object value;
+
+        private Canonical(String thePath, Object theParent, Object theKey, Object theValue) {
+            this.path = thePath;
+            this.parent = theParent;
+            this.key = theKey;
+            this.value = theValue;
+        }
+
+        public String getPath() {
+            return this.path;
+        }
+
+        public Object getValue() {
+            return this.value;
+        }
+
+        /* @return false if there is no container to substitute the canonical form in */
+        public boolean apply() {
+            if (this.parent instanceof Map) {
+                ((Map) this.parent).put(this.key, this.value);
+                return true;
+            }
+            if (this.parent instanceof List) {
+                ((List) this.parent).set((Integer) this.key, this.value);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return this.path + "=" + this.value;
+        }
+    }
+
 }
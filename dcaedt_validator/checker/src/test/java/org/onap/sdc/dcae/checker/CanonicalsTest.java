@@ -0,0 +1,132 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+
+package org.onap.sdc.dcae.checker;
+
+import org.apache.commons.jxpath.JXPathContext;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.onap.sdc.dcae.checker.validation.TOSCAValidator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class CanonicalsTest {
+
+    private static final Pattern INDEX = Pattern.compile("/\\p{Digit}+");
+
+    private static final Pattern SPACE = Pattern.compile("\\s");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void inPlaceCanonicalsMatchPathCanonicalsTest() throws Exception {
+        File template = folder.newFile("template.yaml");
+        Files.write(template.toPath(), ("tosca_definitions_version: tosca_simple_yaml_1_0_0\n"
+                + "node_types:\n"
+                + "  test.Server:\n"
+                + "    derived_from: tosca.nodes.Root\n"
+                + "    capabilities:\n"
+                + "      feature: tosca.capabilities.Node\n"
+                + "    requirements:\n"
+                + "      - host: tosca.capabilities.Container\n"
+                + "    interfaces:\n"
+                + "      Standard:\n"
+                + "        type: tosca.interfaces.node.lifecycle.Standard\n"
+                + "        create: scripts/create.sh\n"
+                + "        start: scripts/start.sh\n"
+                + "topology_template:\n"
+                + "  node_templates:\n"
+                + "    host:\n"
+                + "      type: tosca.nodes.Compute\n"
+                + "    my server:\n"
+                + "      type: test.Server\n"
+                + "      requirements:\n"
+                + "        - host: host\n"
+                + "        - dependency: host\n"
+                + "      interfaces:\n"
+                + "        Standard:\n"
+                + "          configure: scripts/configure.sh\n").getBytes(StandardCharsets.UTF_8));
+
+        Checker checker = new Checker();
+        Target inPlace = Checker.parseTarget(new Target("template", template.toURI())).get(0);
+        Target byPath = Checker.parseTarget(new Target("template", template.toURI())).get(0);
+
+        TOSCAValidator validator = checker.validator(inPlace, checker);
+        assertTrue(validator.validate(inPlace.getTarget()).isEmpty());
+        assertFalse(validator.getCanonicals().isEmpty());
+        for (TOSCAValidator.Canonical canonical : validator.getCanonicals()) {
+            assertTrue(canonical.getPath(), canonical.apply());
+        }
+
+        validator = checker.validator(byPath, checker);
+        assertTrue(validator.validate(byPath.getTarget()).isEmpty());
+        applyByPath(byPath.getTarget(), validator.getCanonicals());
+
+        assertEquals(byPath.getTarget(), inPlace.getTarget());
+    }
+
+    /* the way canonicals were applied before: in path order, through jxpath */
+    private static void applyByPath(Object theTarget, List<TOSCAValidator.Canonical> theCanonicals) {
+        Map<String, Object> canonicals = new TreeMap<>();
+        for (TOSCAValidator.Canonical canonical : theCanonicals) {
+            canonicals.put(canonical.getPath(), canonical.getValue());
+        }
+        JXPathContext jxPath = JXPathContext.newContext(theTarget);
+        for (Map.Entry<String, Object> canonical : canonicals.entrySet()) {
+            jxPath.setValue(patchWhitespaces(patchIndexes(canonical.getKey())), canonical.getValue());
+        }
+    }
+
+    private static String patchIndexes(String thePath) {
+        Matcher m = INDEX.matcher(thePath);
+        StringBuffer path = new StringBuffer();
+        while (m.find()) {
+            m.appendReplacement(path, "[" + (Integer.parseInt(m.group().substring(1)) + 1) + "]");
+        }
+        m.appendTail(path);
+        return path.toString();
+    }
+
+    private static String patchWhitespaces(String thePath) {
+        StringBuilder path = new StringBuilder();
+        for (String elem : thePath.split("/")) {
+            if (SPACE.matcher(elem).find()) {
+                path.append("[@name='").append(elem).append("']");
+            } else {
+                path.append("/").append(elem);
+            }
+        }
+        return path.toString();
+    }
+}
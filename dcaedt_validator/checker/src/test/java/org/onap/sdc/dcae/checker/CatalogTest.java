@@ -0,0 +1,133 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.sdc.dcae.checker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CatalogTest {
+
+    @Test
+    public void hierarchyIsMemoizedTest() {
+        Catalog catalog = new Catalog();
+        catalog.addType(Construct.Node, "base", type(null));
+        Map derived = type("base");
+        catalog.addType(Construct.Node, "derived", derived);
+        assertEquals(list("derived", "base"), names(catalog.hierarchy(Construct.Node, "derived")));
+        assertTrue(catalog.isDerivedFrom(Construct.Node, "derived", "base"));
+
+        // a definition changed behind the catalog's back is not seen until the memo is dropped
+        derived.remove("derived_from");
+        assertEquals(list("derived", "base"), names(catalog.hierarchy(Construct.Node, "derived")));
+        assertTrue(catalog.isDerivedFrom(Construct.Node, "derived", "base"));
+
+        catalog.addType(Construct.Node, "other", type(null));
+        assertEquals(list("derived"), names(catalog.hierarchy(Construct.Node, "derived")));
+        assertFalse(catalog.isDerivedFrom(Construct.Node, "derived", "base"));
+    }
+
+    @Test
+    public void addedTypesInvalidateHierarchiesTest() {
+        Catalog catalog = new Catalog();
+        catalog.addType(Construct.Node, "derived", type("base"));
+        assertEquals(list("derived"), names(catalog.hierarchy(Construct.Node, "derived")));
+        assertFalse(catalog.isDerivedFrom(Construct.Node, "derived", "base"));
+
+        catalog.addType(Construct.Node, "base", type(null));
+        assertEquals(list("derived", "base"), names(catalog.hierarchy(Construct.Node, "derived")));
+        assertTrue(catalog.isDerivedFrom(Construct.Node, "derived", "base"));
+    }
+
+    @Test
+    public void typesAddedToParentInvalidateHierarchiesTest() {
+        Catalog parent = new Catalog();
+        Catalog catalog = new Catalog(parent);
+        catalog.addType(Construct.Node, "derived", type("base"));
+        assertFalse(catalog.isDerivedFrom(Construct.Node, "derived", "base"));
+
+        parent.addType(Construct.Node, "base", type(null));
+        assertTrue(catalog.isDerivedFrom(Construct.Node, "derived", "base"));
+        assertEquals(list("derived", "base"), names(catalog.hierarchy(Construct.Node, "derived")));
+    }
+
+    @Test
+    public void facetsAndRequirementsFollowHierarchyTest() {
+        Catalog catalog = new Catalog();
+        Map derived = type("base");
+        derived.put("properties", Collections.singletonMap("port", type(null)));
+        derived.put("requirements", list(Collections.singletonMap("host", type(null))));
+        catalog.addType(Construct.Node, "derived", derived);
+        assertEquals(list("port"), keys(catalog.facets(Construct.Node, Facet.properties, "derived")));
+        assertEquals(list("host"), keys(catalog.requirements("derived")));
+        // memoized, the same entries are served again
+        assertEquals(list("port"), keys(catalog.facets(Construct.Node, Facet.properties, "derived")));
+
+        Map base = type(null);
+        base.put("properties", Collections.singletonMap("name", type(null)));
+        base.put("requirements", list(Collections.singletonMap("dependency", type(null))));
+        catalog.addType(Construct.Node, "base", base);
+        assertEquals(list("port", "name"), keys(catalog.facets(Construct.Node, Facet.properties, "derived")));
+        assertEquals(list("host", "dependency"), keys(catalog.requirements("derived")));
+    }
+
+    @Test
+    public void cyclicHierarchyEndsTest() {
+        Catalog catalog = new Catalog();
+        catalog.addType(Construct.Node, "a", type("b"));
+        catalog.addType(Construct.Node, "b", type("a"));
+        assertEquals(list("a", "b"), names(catalog.hierarchy(Construct.Node, "a")));
+        assertFalse(catalog.isDerivedFrom(Construct.Node, "a", "c"));
+    }
+
+    private static Map type(String theBase) {
+        Map def = new LinkedHashMap();
+        if (theBase != null) {
+            def.put("derived_from", theBase);
+        }
+        return def;
+    }
+
+    private static <T> List<T> list(T... theItems) {
+        List<T> list = new ArrayList<>();
+        Collections.addAll(list, theItems);
+        return list;
+    }
+
+    private static List<String> names(Iterator<Map.Entry<String, Map>> theHierarchy) {
+        List<String> names = new ArrayList<>();
+        theHierarchy.forEachRemaining(e -> names.add(e.getKey()));
+        return names;
+    }
+
+    private static List<Object> keys(Iterator<Map.Entry> theEntries) {
+        List<Object> keys = new ArrayList<>();
+        theEntries.forEachRemaining(e -> keys.add(e.getKey()));
+        return keys;
+    }
+}
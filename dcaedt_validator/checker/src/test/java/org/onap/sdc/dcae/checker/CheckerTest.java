@@ -0,0 +1,190 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.sdc.dcae.checker;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class CheckerTest {
+
+    private static final String VERSION = "tosca_definitions_version: tosca_simple_yaml_1_0_0\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() throws IOException {
+        pool = Executors.newFixedThreadPool(2);
+        write("common.yaml", VERSION
+                + "node_types:\n"
+                + "  test.Common:\n"
+                + "    derived_from: tosca.nodes.Root\n");
+        write("left.yaml", VERSION
+                + "imports:\n"
+                + "  - common: common.yaml\n"
+                + "node_types:\n"
+                + "  test.Left:\n"
+                + "    derived_from: test.Common\n");
+        write("right.yaml", VERSION
+                + "imports:\n"
+                + "  - common: common.yaml\n"
+                + "node_types:\n"
+                + "  test.Right:\n"
+                + "    derived_from: test.Common\n");
+        write("bad_version.yaml", "tosca_definitions_version: tosca_simple_yaml_0_0\n");
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void sequentialCheckTest() throws Exception {
+        Checker checker = check(template("  - left: left.yaml\n"), null);
+        assertEquals(Arrays.asList("common.yaml", "left.yaml", "template.yaml"), names(checker.catalog().sortedTargets()));
+        checker.targets().forEach(t -> assertFalse(t.toString(), t.getReport().hasErrors()));
+        assertTrue(checker.catalog().hasType(Construct.Node, "test.Left"));
+    }
+
+    @Test
+    public void pooledCheckTest() throws Exception {
+        Checker checker = check(template("  - left: left.yaml\n"), pool);
+        assertEquals(Arrays.asList("common.yaml", "left.yaml", "template.yaml"), names(checker.catalog().sortedTargets()));
+        checker.targets().forEach(t -> assertFalse(t.toString(), t.getReport().hasErrors()));
+        assertTrue(checker.catalog().hasType(Construct.Node, "test.Left"));
+    }
+
+    @Test
+    public void diamondImportReportsRedeclarationTest() throws Exception {
+        File template = template("  - left: left.yaml\n  - right: right.yaml\n");
+        for (ExecutorService executor : Arrays.asList(null, pool)) {
+            Checker checker = check(template, executor);
+            for (Target target : checker.targets()) {
+                if ("common.yaml".equals(name(target))) {
+                    assertEquals(1, target.getReport().size());
+                    assertTrue(target.getReport().toString(), target.getReport().toString().contains("test.Common re-declaration"));
+                } else {
+                    assertFalse(target.toString(), target.getReport().hasErrors());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void pooledCheckReportsAsSequentialTest() throws Exception {
+        File template = template("  - missing: missing.yaml\n  - bad: bad_version.yaml\n  - left: left.yaml\n  - right: right.yaml\n");
+        Checker sequential = check(template, null);
+        Checker pooled = check(template, pool);
+        assertEquals(names(sequential.catalog().sortedTargets()), names(pooled.catalog().sortedTargets()));
+        assertEquals(reports(sequential), reports(pooled));
+        assertTrue(reports(sequential).contains("missing.yaml"));
+    }
+
+    @Test
+    public void recheckAdoptsCopiesOfUnchangedImportsTest() throws Exception {
+        for (ExecutorService executor : Arrays.asList(null, pool)) {
+            Catalog previous = check(template("  - left: left.yaml\n"), executor).catalog();
+            Target previousLeft = target(previous, "left.yaml");
+            // only a target taken over from the previous check carries this
+            ((Map) previousLeft.getTarget()).put("description", "previous");
+
+            Checker checker = new Checker();
+            checker.setExecutor(executor);
+            checker.setPrevious(previous);
+            checker.check(write("template.yaml", VERSION + "description: changed\n" + "imports:\n  - left: left.yaml\n").getPath());
+
+            Target left = target(checker.catalog(), "left.yaml");
+            assertNotSame(previousLeft, left);
+            assertNotSame(previousLeft.getTarget(), left.getTarget());
+            assertEquals("previous", ((Map) left.getTarget()).get("description"));
+            assertNotNull(target(checker.catalog(), "common.yaml"));
+            checker.targets().forEach(t -> assertFalse(t.toString(), t.getReport().hasErrors()));
+            assertTrue(checker.catalog().hasType(Construct.Node, "test.Left"));
+
+            // the previous catalog is left as it was
+            ((Map) left.getTarget()).put("description", "changed");
+            assertEquals("previous", ((Map) previousLeft.getTarget()).get("description"));
+            assertSame(previousLeft, target(previous, "left.yaml"));
+        }
+    }
+
+    private Checker check(File theTemplate, ExecutorService theExecutor) throws CheckerException {
+        Checker checker = new Checker();
+        checker.setExecutor(theExecutor);
+        checker.check(theTemplate.getPath());
+        return checker;
+    }
+
+    private static Target target(Catalog theCatalog, String theName) {
+        return theCatalog.targets().stream().filter(t -> theName.equals(name(t))).findAny().orElse(null);
+    }
+
+    private File template(String theImports) throws IOException {
+        return write("template.yaml", VERSION
+                + "imports:\n"
+                + theImports
+                + "topology_template:\n"
+                + "  node_templates:\n"
+                + "    n1:\n"
+                + "      type: test.Left\n");
+    }
+
+    private File write(String theName, String theContent) throws IOException {
+        File file = new File(folder.getRoot(), theName);
+        Files.write(file.toPath(), theContent.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String name(Target theTarget) {
+        return new File(theTarget.getLocation().getPath()).getName();
+    }
+
+    private static List<String> names(Iterable<Target> theTargets) {
+        List<String> names = new ArrayList<>();
+        theTargets.forEach(t -> names.add(name(t)));
+        return names;
+    }
+
+    private static String reports(Checker theChecker) {
+        return theChecker.targets().stream().map(t -> name(t) + " " + t.getReport()).collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,77 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * SDC
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+
+package org.onap.sdc.dcae.checker;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TargetCacheTest {
+
+    @Test
+    public void estimateBytesTest() {
+        assertEquals(0, TargetCache.estimateBytes(null));
+        assertEquals(40 + 2 * 3, TargetCache.estimateBytes("abc"));
+        assertEquals(2 * 8 + 2 * 16, TargetCache.estimateBytes(Arrays.asList(1, true)));
+        assertEquals(64 + 40 + 2 * 4 + 40 + 2 * 5, TargetCache.estimateBytes(types("type", 0).get("node_types")));
+    }
+
+    @Test
+    public void boundedByEstimatedBytesTest() {
+        long entryBytes = TargetCache.estimateBytes(types("a", 0));
+        TargetCache cache = new TargetCache(entryBytes * 4);
+        for (int i = 0; i < 64; i++) {
+            assertNotNull(cache.put("digest" + i, types("a", i % 10)));
+        }
+        assertTrue(cache.size() > 0);
+        assertTrue(cache.size() <= 4);
+    }
+
+    @Test
+    public void targetLargerThanTheBoundIsNotKeptTest() {
+        TargetCache cache = new TargetCache(TargetCache.estimateBytes(types("a", 0)) - 1);
+        cache.put("digest", types("a", 0));
+        assertNull(cache.get("digest"));
+    }
+
+    @Test
+    public void onlySelfContainedTargetsAreKeptTest() {
+        Map<String, Object> target = types("a", 0);
+        target.put("imports", Arrays.asList("other.yaml"));
+        TargetCache cache = new TargetCache();
+        assertNull(cache.put("digest", target));
+        assertEquals(0, cache.size());
+    }
+
+    private static Map<String, Object> types(String theName, int theIndex) {
+        Map<String, Object> types = new LinkedHashMap<>();
+        types.put("tosca", theName + theIndex);
+        Map<String, Object> nodeTypes = new LinkedHashMap<>();
+        nodeTypes.put("type", "value");
+        types.put("node_types", nodeTypes);
+        return types;
+    }
+}
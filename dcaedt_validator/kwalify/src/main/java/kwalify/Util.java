@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 import java.util.Date;
@@ -43,7 +44,8 @@ public class Util {
     private static final int VALUE_BOOLEAN =  8;
     private static final int VALUE_DATE    = 16;
     private static final int VALUE_OBJECT  = 32;
-    private static HashMap<String,Pattern> __patterns = new HashMap<>();
+    // shared by the validators running concurrently
+    private static final Map<String,Pattern> __patterns = new ConcurrentHashMap<>();
 
     private Util(){
         // You shouldn't instantiate this class
@@ -161,7 +163,7 @@ public class Util {
         Pattern pat = __patterns.get(regexp);
         if (pat == null) {
             pat = Pattern.compile(regexp);
-            __patterns.put(regexp, pat);
+            __patterns.putIfAbsent(regexp, pat);
         }
         return pat.matcher(target);
     }
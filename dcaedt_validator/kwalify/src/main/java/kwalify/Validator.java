@@ -77,6 +77,11 @@ public class Validator {
         _rule = new Rule(schema);
     }
 
+    /* rules are not modified by validation so a compiled schema can be shared by validators */
+    public Validator(Rule rule) {
+        _rule = rule;
+    }
+
     public Rule getRule() { return _rule; }
     //public void setRule(Rule rule) { _rule = rule; }
 
@@ -218,9 +223,9 @@ public class Validator {
         int i = 0;
         for (Iterator it = sequence.iterator(); it.hasNext(); i++) {
             Object val = it.next();
-            context.addPathElement(String.valueOf(i));
+            context.enterElement(String.valueOf(i), sequence, Integer.valueOf(i));
             _validateRule(val, rule, context);  // validate recursively
-            context.removePathElement();
+            context.exitElement();
         }
         if (rule.getType().equals("map")) {
             Map mapping = rule.getMapping();
@@ -297,13 +302,13 @@ public class Validator {
             Object key = it.next();
             Object val = mapping.get(key);
             Rule rule = (Rule)m.get(key);
-            context.addPathElement(key.toString());
+            context.enterElement(key.toString(), mapping, key);
             if (rule == null) {
                 context.addError("key.undefined", rule, mapping, new Object[] { key.toString() + ":", map_rule.getName() + m.keySet().toString() });
             } else {
                 _validateRule(val, rule, context);  // validate recursively
             }
-            context.removePathElement();
+            context.exitElement();
         }
     }
 
@@ -313,6 +318,8 @@ public class Validator {
        private StringBuilder  path = new StringBuilder("");
        private List           errors = new LinkedList();
        private Map	      done = new IdentityHashMap(); //completion tracker
+       private List           parents = new ArrayList(); //containers of the values along the path
+       private List           keys = new ArrayList(); //keys (or indexes) of the values within their containers
 
        private ValidationContext() {
        }
@@ -343,6 +350,38 @@ public class Validator {
          return this;
        }
 
+       /* the map or list holding the value being validated, null for the document root */
+       public Object getParent() {
+         return this.parents.isEmpty() ? null : this.parents.get(this.parents.size() - 1);
+       }
+
+       /* the key (for a map) or index (for a list) of the value being validated within its parent */
+       public Object getKey() {
+         return this.keys.isEmpty() ? null : this.keys.get(this.keys.size() - 1);
+       }
+
+       /* the parents of the values along the path, outermost first */
+       public List getParents() {
+         return new ArrayList(this.parents);
+       }
+
+       /* the keys of the values along the path, outermost first */
+       public List getKeys() {
+         return new ArrayList(this.keys);
+       }
+
+       public ValidationContext enterElement(String theElement, Object theParent, Object theKey) {
+         this.parents.add(theParent);
+         this.keys.add(theKey);
+         return addPathElement(theElement);
+       }
+
+       public ValidationContext exitElement() {
+         this.parents.remove(this.parents.size() - 1);
+         this.keys.remove(this.keys.size() - 1);
+         return removePathElement();
+       }
+
        protected ValidationContext addError(String error_symbol, Rule rule, Object value, Object[] args) {
          addError(
 	   new ValidationException(